@@ -5,6 +5,8 @@ import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.common.Constants;
 import curly.octo.common.network.KryoNetwork;
+import curly.octo.common.network.NetworkManager;
+import curly.octo.common.network.telemetry.TelemetrySerialization;
 import curly.octo.server.NetworkListener;
 
 import java.io.IOException;
@@ -20,20 +22,24 @@ public class BulkTransferClient {
     private final NetworkListener networkListener;
     private boolean connected = false;
 
-    public BulkTransferClient(String host) {
+    /**
+     * @param networkManager The gameplay client's handlers, which also handle chunks arriving on this connection
+     */
+    public BulkTransferClient(String host, NetworkManager networkManager) {
         this.host = host;
 
         // Create client with large buffers for bulk transfers
         this.client = new Client(
             Constants.BULK_TRANSFER_BUFFER_SIZE,
-            Constants.BULK_TRANSFER_BUFFER_SIZE
+            Constants.BULK_TRANSFER_BUFFER_SIZE,
+            new TelemetrySerialization(networkManager.getTelemetry())
         );
 
         // Register network classes
         KryoNetwork.register(client);
 
-        // Create listener (no server callbacks needed for client)
-        this.networkListener = new NetworkListener(null);
+        // Create listener routing to the gameplay client's handlers
+        this.networkListener = new NetworkListener(networkManager);
         client.addListener(networkListener);
 
         Log.info("BulkTransferClient", "Initialized with " +
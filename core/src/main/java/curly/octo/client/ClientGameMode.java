@@ -6,16 +6,23 @@ import com.badlogic.gdx.graphics.PerspectiveCamera;
 import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.math.Vector3;
+import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.common.GameMode;
 import curly.octo.client.clientStates.StateManager;
 import curly.octo.common.network.NetworkManager;
+import curly.octo.common.network.telemetry.NetworkTelemetry;
 import curly.octo.common.map.hints.SpawnPointHint;
 import curly.octo.common.network.messages.PlayerUpdate;
 import curly.octo.common.network.messages.PlayerAssignmentUpdate;
 import curly.octo.common.network.messages.PlayerObjectRosterUpdate;
 import curly.octo.common.network.messages.PlayerDisconnectUpdate;
 import curly.octo.common.network.messages.PlayerImpulseMessage;
+import curly.octo.common.network.messages.WorldSnapshotMessage;
+import curly.octo.common.network.state.EntityStateSnapshot;
+import curly.octo.common.network.state.SnapshotHistory;
+import curly.octo.common.network.state.StateDeltaCodec;
+import curly.octo.common.network.state.StateQuantizer;
 import curly.octo.common.PlayerObject;
 import curly.octo.common.InputController;
 import curly.octo.common.MinimalPlayerController;
@@ -24,6 +31,7 @@ import curly.octo.common.map.hints.MapHint;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -63,6 +71,12 @@ public class ClientGameMode implements GameMode {
     // Debug: Position update frequency tracking
     private long lastPositionUpdateCount = 0;
     private long lastPositionUpdateTime = System.currentTimeMillis();
+    private int positionUpdateSequence = 0;
+    private Integer lastSnapshotSequence; // Only touched while draining network messages
+    private final SnapshotHistory snapshotHistory = new SnapshotHistory(Constants.NETWORK_SNAPSHOT_HISTORY); // Drain only
+    private final HashMap<String, PlayerObject> playersById = new HashMap<>(); // Rebuilt for each applied snapshot
+    private volatile EntityStateSnapshot latestSnapshot; // Quantizer and acknowledgement for outgoing updates
+    private volatile int localPlayerHandle = -1;
 
     // Debug: Network loop frequency tracking
     private long networkLoopCount = 0;
@@ -73,7 +87,7 @@ public class ClientGameMode implements GameMode {
     private final long TARGET_POSITION_INTERVAL_NS = Constants.NETWORK_POSITION_UPDATE_INTERVAL_NS; // 50 FPS (20ms between updates) - high but sustainable
 
     // Buffer monitoring
-    private long lastBufferCheckTime = System.currentTimeMillis();
+    private long lastBufferCheckTime = System.nanoTime();
 
     public ClientGameMode(String host, java.util.Random random) {
         this.host = host;
@@ -290,11 +304,11 @@ public class ClientGameMode implements GameMode {
                             }
                         }
 
-                        // Monitor network buffer status every few seconds
-                        long currentTimeMs = System.currentTimeMillis();
-                        if (gameClient != null && currentTimeMs - lastBufferCheckTime >= 2000) {
+                        // Sample network buffer status and RTT for telemetry
+                        long sampleTime = System.nanoTime();
+                        if (gameClient != null && sampleTime - lastBufferCheckTime >= Constants.NETWORK_TELEMETRY_SAMPLE_INTERVAL_NS) {
                             checkNetworkBufferStatus();
-                            lastBufferCheckTime = currentTimeMs;
+                            lastBufferCheckTime = sampleTime;
                         }
                     }
 
@@ -320,134 +334,122 @@ public class ClientGameMode implements GameMode {
     }
 
     private void setupNetworkListeners() {
-        // Migrate to NetworkManager pattern - handle messages directly
-        NetworkManager.onReceive(PlayerAssignmentUpdate.class, receivedPlayerId -> {
-            Gdx.app.postRunnable(() -> {
-                Log.info("ClientGameMode", "=== RECEIVED PlayerAssignmentUpdate ===");
-                Log.info("ClientGameMode", "Assigned player ID: " + receivedPlayerId.playerId);
-                Log.info("ClientGameMode", "Calling setLocalPlayer()...");
-                setLocalPlayer(receivedPlayerId.playerId);
-                playerAssigned = true;
-                Log.info("ClientGameMode", "=== PlayerAssignmentUpdate COMPLETE ===");
-            });
+        // These handlers run on the main thread when update() drains the NetworkManager
+        gameClient.getNetworkManager().onReceive(PlayerAssignmentUpdate.class, receivedPlayerId -> {
+            localPlayerHandle = receivedPlayerId.playerHandle;
+            Log.info("ClientGameMode", "=== RECEIVED PlayerAssignmentUpdate ===");
+            Log.info("ClientGameMode", "Assigned player ID: " + receivedPlayerId.playerId);
+            Log.info("ClientGameMode", "Calling setLocalPlayer()...");
+            setLocalPlayer(receivedPlayerId.playerId);
+            playerAssigned = true;
+            Log.info("ClientGameMode", "=== PlayerAssignmentUpdate COMPLETE ===");
         });
 
         // DEPRECATED: PlayerObjectRosterUpdate is no longer sent by server
         // Players are now transferred via MapTransferPayload during map transfer
         // This handler remains for backward compatibility but will not receive messages
-        NetworkManager.onReceive(PlayerObjectRosterUpdate.class, roster -> {
-            Gdx.app.postRunnable(() -> {
-                Log.warn("ClientGameMode", "Received deprecated PlayerObjectRosterUpdate - " +
-                        "players should come from map transfer");
-                HashSet<String> currentPlayers = new HashSet<>();
-                for (PlayerObject player : gameWorld.getGameObjectManager().activePlayers) {
-                    currentPlayers.add(player.entityId);
-                }
+        gameClient.getNetworkManager().onReceive(PlayerObjectRosterUpdate.class, roster -> {
+            Log.warn("ClientGameMode", "Received deprecated PlayerObjectRosterUpdate - " +
+                    "players should come from map transfer");
+            HashSet<String> currentPlayers = new HashSet<>();
+            for (PlayerObject player : gameWorld.getGameObjectManager().activePlayers) {
+                currentPlayers.add(player.entityId);
+            }
 
-                for (PlayerObject player : roster.players) {
-                    if (!currentPlayers.contains(player.entityId)) {
-                        gameWorld.getGameObjectManager().activePlayers.add(player);
-                        gameWorld.getGameObjectManager().add(player);
-                    } else {
-                        Log.info("ClientGameMode", "Skipping player " + player.entityId + " - already in current players");
-                    }
+            for (PlayerObject player : roster.players) {
+                if (!currentPlayers.contains(player.entityId)) {
+                    gameWorld.getGameObjectManager().activePlayers.add(player);
+                    gameWorld.getGameObjectManager().add(player);
+                } else {
+                    Log.info("ClientGameMode", "Skipping player " + player.entityId + " - already in current players");
                 }
-            });
+            }
         });
 
-        NetworkManager.onReceive(PlayerDisconnectUpdate.class, disconnectUpdate -> {
-            Gdx.app.postRunnable(() -> {
-                Log.info("ClientGameMode", "Processing disconnect for player " + disconnectUpdate.playerId);
+        gameClient.getNetworkManager().onReceive(PlayerDisconnectUpdate.class, disconnectUpdate -> {
+            Log.info("ClientGameMode", "Processing disconnect for player " + disconnectUpdate.playerId);
 
-                // Find and remove the disconnected player
-                PlayerObject playerToRemove = null;
-                for (PlayerObject player : gameWorld.getGameObjectManager().activePlayers) {
-                    if (player.entityId.equals(disconnectUpdate.playerId)) {
-                        playerToRemove = player;
-                        break;
-                    }
+            // Find and remove the disconnected player
+            PlayerObject playerToRemove = null;
+            for (PlayerObject player : gameWorld.getGameObjectManager().activePlayers) {
+                if (player.entityId.equals(disconnectUpdate.playerId)) {
+                    playerToRemove = player;
+                    break;
                 }
+            }
 
-                if (playerToRemove != null) {
-                    gameWorld.getGameObjectManager().activePlayers.remove(playerToRemove);
-                    gameWorld.getGameObjectManager().remove(playerToRemove);
+            if (playerToRemove != null) {
+                gameWorld.getGameObjectManager().activePlayers.remove(playerToRemove);
+                gameWorld.getGameObjectManager().remove(playerToRemove);
 
-                    Log.info("ClientGameMode", "Removed disconnected player " + disconnectUpdate.playerId + " from client");
-                } else {
-                    Log.warn("ClientGameMode", "Could not find player " + disconnectUpdate.playerId + " to remove");
-                }
-            });
+                Log.info("ClientGameMode", "Removed disconnected player " + disconnectUpdate.playerId + " from client");
+            } else {
+                Log.warn("ClientGameMode", "Could not find player " + disconnectUpdate.playerId + " to remove");
+            }
         });
 
-        NetworkManager.onReceive(PlayerUpdate.class, playerUpdate -> {
-            Gdx.app.postRunnable(() -> {
-                // Skip updates for the local player (if local player is set up)
-                String localId = getLocalPlayerId();
-                if (localId != null && playerUpdate.playerId.equals(localId)) {
+        // Only the newest snapshot queued since the last frame is decoded and applied; it carries the
+        // latest state of every player it includes
+        gameClient.getNetworkManager().coalesce(WorldSnapshotMessage.class,
+            (newer, older) -> WorldSnapshotMessage.isNewer(newer.sequence, older.sequence));
+        gameClient.getNetworkManager().onReceive(WorldSnapshotMessage.class, message -> {
+            // Snapshots arrive over UDP; drop any that are not newer than the last one applied
+            if (lastSnapshotSequence != null && !WorldSnapshotMessage.isNewer(message.sequence, lastSnapshotSequence)) {
+                return;
+            }
+
+            EntityStateSnapshot baseline = null;
+            if (message.hasBaseline()) {
+                baseline = snapshotHistory.get(message.baselineSequence);
+                if (baseline == null) {
+                    Log.debug("ClientGameMode", "Dropping " + message + " - baseline no longer held");
                     return;
                 }
+            }
+
+            EntityStateSnapshot snapshot;
+            try {
+                snapshot = StateDeltaCodec.decode(message.sequence, message.data, baseline);
+            } catch (KryoException e) {
+                Log.warn("ClientGameMode", "Dropping undecodable " + message + ": " + e.getMessage());
+                return;
+            }
+            snapshotHistory.put(snapshot);
+            latestSnapshot = snapshot;
+            lastSnapshotSequence = message.sequence;
+            applySnapshot(snapshot);
+        });
+
+        gameClient.getNetworkManager().onReceive(PlayerImpulseMessage.class, impulseMessage -> {
+            // Find the target player (could be local or remote)
+            PlayerObject targetPlayer = null;
+            String playerType = "UNKNOWN";
 
-                // Find the player in our list
-                PlayerObject targetPlayer = null;
+            // First check if this is the local player
+            PlayerObject localPlayer = gameWorld.getGameObjectManager().localPlayer;
+            if (localPlayer != null && impulseMessage.playerHandle == localPlayerHandle) {
+                targetPlayer = localPlayer;
+                playerType = "LOCAL";
+            } else {
+                // Remote players are only known by handle through world snapshots
+                String playerId = findEntityId(impulseMessage.playerHandle);
                 for (PlayerObject player : gameWorld.getGameObjectManager().activePlayers) {
-                    if (player.entityId.equals(playerUpdate.playerId)) {
+                    if (player.entityId.equals(playerId)) {
                         targetPlayer = player;
+                        playerType = "REMOTE";
                         break;
                     }
                 }
+            }
 
-                // If player not found, create a new one
-                if (targetPlayer == null) {
-                    Log.info("ClientGameMode", "Creating new remote player for player " + playerUpdate.playerId);
-                    targetPlayer = new PlayerObject(playerUpdate.playerId); // client mode - need graphics
-                    gameWorld.getGameObjectManager().activePlayers.add(targetPlayer);
-                    gameWorld.getGameObjectManager().add(targetPlayer);
-
-                    // Initialize physics collision body for remote player
-                    // This allows the local player to collide with remote players
-                    targetPlayer.initializeRemotePhysics(gameWorld.getMapManager(), 1.0f, 5.0f);
-                }
-
-                targetPlayer.setPosition(new Vector3(playerUpdate.x, playerUpdate.y, playerUpdate.z));
-                targetPlayer.setYaw(playerUpdate.yaw);
-                targetPlayer.setPitch(playerUpdate.pitch);
-
-                // Update physics body position to match network position
-                targetPlayer.updateRemotePhysicsPosition();
-            });
-        });
-
-        NetworkManager.onReceive(PlayerImpulseMessage.class, impulseMessage -> {
-            Gdx.app.postRunnable(() -> {
-                // Find the target player (could be local or remote)
-                PlayerObject targetPlayer = null;
-                String playerType = "UNKNOWN";
-
-                // First check if this is the local player
-                PlayerObject localPlayer = gameWorld.getGameObjectManager().localPlayer;
-                if (localPlayer != null && localPlayer.entityId.equals(impulseMessage.playerId)) {
-                    targetPlayer = localPlayer;
-                    playerType = "LOCAL";
-                } else {
-                    // Search remote players in activePlayers list
-                    for (PlayerObject player : gameWorld.getGameObjectManager().activePlayers) {
-                        if (player.entityId.equals(impulseMessage.playerId)) {
-                            targetPlayer = player;
-                            playerType = "REMOTE";
-                            break;
-                        }
-                    }
-                }
-
-                if (targetPlayer != null) {
-                    Vector3 impulse = new Vector3(impulseMessage.impulseX, impulseMessage.impulseY, impulseMessage.impulseZ);
-                    Log.info("ClientGameMode", "Received impulse for " + playerType + " player " +
-                             impulseMessage.playerId + ": " + impulse);
-                    targetPlayer.applyImpulse(impulse);
-                } else {
-                    Log.warn("ClientGameMode", "Received impulse for unknown player: " + impulseMessage.playerId);
-                }
-            });
+            if (targetPlayer != null) {
+                Vector3 impulse = new Vector3(impulseMessage.impulseX, impulseMessage.impulseY, impulseMessage.impulseZ);
+                Log.info("ClientGameMode", "Received impulse for " + playerType + " player " +
+                         targetPlayer.entityId + ": " + impulse);
+                targetPlayer.applyImpulse(impulse);
+            } else {
+                Log.warn("ClientGameMode", "Received impulse for unknown player handle: " + impulseMessage.playerHandle);
+            }
         });
     }
 
@@ -602,11 +604,10 @@ public class ClientGameMode implements GameMode {
 
     @Override
     public void update(float deltaTime) throws IOException {
-        // Update state management system first
-
-
-        // Network updates are now handled in separate thread
-        // This method only handles game world updates on main thread
+        // Messages are received on the network thread and handled here, once per frame on the main thread
+        if (gameClient != null) {
+            gameClient.getNetworkManager().drain();
+        }
 
         if (!active) {
             return;
@@ -738,6 +739,65 @@ public class ClientGameMode implements GameMode {
                (com.badlogic.gdx.InputProcessor) inputController : null;
     }
 
+    /**
+     * @return Entity ID the latest world snapshot gives for this handle, or null if it has none
+     */
+    private String findEntityId(int handle) {
+        EntityStateSnapshot snapshot = latestSnapshot;
+        if (snapshot == null) {
+            return null;
+        }
+        int index = snapshot.indexOf(handle);
+        return index >= 0 ? snapshot.getEntityId(index) : null;
+    }
+
+    /**
+     * Applies every remote player's state from a snapshot, indexing the active players once rather than
+     * searching them for each entity.
+     */
+    private void applySnapshot(EntityStateSnapshot snapshot) {
+        playersById.clear();
+        for (PlayerObject player : gameWorld.getGameObjectManager().activePlayers) {
+            playersById.put(player.entityId, player);
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            applyRemotePlayerState(snapshot.getEntityId(i),
+                snapshot.getState(i, StateQuantizer.X), snapshot.getState(i, StateQuantizer.Y),
+                snapshot.getState(i, StateQuantizer.Z), snapshot.getState(i, StateQuantizer.YAW),
+                snapshot.getState(i, StateQuantizer.PITCH));
+        }
+    }
+
+    private void applyRemotePlayerState(String playerId, float x, float y, float z, float yaw, float pitch) {
+        // Skip updates for the local player (if local player is set up)
+        String localId = getLocalPlayerId();
+        if (localId != null && playerId.equals(localId)) {
+            return;
+        }
+
+        PlayerObject targetPlayer = playersById.get(playerId);
+
+        // If player not found, create a new one
+        if (targetPlayer == null) {
+            Log.info("ClientGameMode", "Creating new remote player for player " + playerId);
+            targetPlayer = new PlayerObject(playerId); // client mode - need graphics
+            gameWorld.getGameObjectManager().activePlayers.add(targetPlayer);
+            playersById.put(playerId, targetPlayer);
+            gameWorld.getGameObjectManager().add(targetPlayer);
+
+            // Initialize physics collision body for remote player
+            // This allows the local player to collide with remote players
+            targetPlayer.initializeRemotePhysics(gameWorld.getMapManager(), 1.0f, 5.0f);
+        }
+
+        targetPlayer.setPosition(new Vector3(x, y, z));
+        targetPlayer.setYaw(yaw);
+        targetPlayer.setPitch(pitch);
+
+        // Update physics body position to match network position
+        targetPlayer.updateRemotePhysicsPosition();
+    }
+
     private void sendPositionUpdate() {
         // Check if network updates are paused (during map regeneration)
         if (networkUpdatesPaused) {
@@ -749,10 +809,14 @@ public class ClientGameMode implements GameMode {
             Vector3 position = getLocalPlayerPosition();
             GameObjectManager gom = gameWorld.getGameObjectManager();
 
-            if (playerId != null && position != null && gom.localPlayer != null) {
+            // Updates are quantized with the bounds from the server's snapshots, so wait for the first one
+            EntityStateSnapshot snapshot = latestSnapshot;
+
+            if (playerId != null && position != null && gom.localPlayer != null && snapshot != null) {
                 float yaw = gom.localPlayer.getYaw();
                 float pitch = gom.localPlayer.getPitch();
-                PlayerUpdate update = new PlayerUpdate(playerId, position, yaw, pitch);
+                PlayerUpdate update = new PlayerUpdate(positionUpdateSequence++, snapshot.sequence,
+                    snapshot.quantizer, position, yaw, pitch);
                 gameClient.sendUDP(update);
 
                 // Debug: Track actual position update frequency (only incremented when actually sent)
@@ -769,41 +833,19 @@ public class ClientGameMode implements GameMode {
 
     private void checkNetworkBufferStatus() {
         if (gameClient != null && gameClient.getClient() != null) {
-            try {
-                // Get the underlying KryoNet client
-                com.esotericsoftware.kryonet.Client client = gameClient.getClient();
-
-                // Check if client is connected first
-                if (client.isConnected()) {
-                    // KryoNet may not expose direct buffer size methods, but we can check connection state
-                    // and use reflection or indirect methods to monitor network health
-
-                    // Check return trip time which can indicate network congestion
-                    int returnTripTime = client.getReturnTripTime();
-
-                    // Log network health indicators
-                    if (returnTripTime > 100) {
-                        Log.warn("ClientGameMode", "High network latency detected: " + returnTripTime + "ms RTT - possible congestion");
-                    } else if (returnTripTime > 0) {
-                        Log.info("ClientGameMode", "Network RTT: " + returnTripTime + "ms (healthy)");
-                    }
-
-                    // Additional connection info
-                    String remoteAddress = "unknown";
-                    try {
-                        if (client.getRemoteAddressTCP() != null) {
-                            remoteAddress = client.getRemoteAddressTCP().toString();
-                        }
-                    } catch (Exception e) {
-                        // Ignore address lookup errors
-                    }
+            com.esotericsoftware.kryonet.Client client = gameClient.getClient();
+            if (!client.isConnected()) {
+                return;
+            }
 
-                    Log.info("ClientGameMode", "Connection status - Address: " + remoteAddress +
-                            ", Connected: " + client.isConnected());
-                }
-            } catch (Exception e) {
-                Log.warn("ClientGameMode", "Could not check network status: " + e.getMessage());
+            // Write buffer and RTT go to the telemetry histograms; only congestion is worth a log line
+            NetworkTelemetry telemetry = gameClient.getNetworkManager().getTelemetry();
+            telemetry.sampleConnection(client);
+            int returnTripTime = client.getReturnTripTime();
+            if (returnTripTime > 100) {
+                Log.warn("ClientGameMode", "High network latency detected: " + returnTripTime + "ms RTT - possible congestion");
             }
+            telemetry.reportIfDue();
         }
     }
 
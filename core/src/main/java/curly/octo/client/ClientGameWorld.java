@@ -57,6 +57,14 @@ public class ClientGameWorld {
     }
 
     public void setMap(GameMap map) {
+        setMap(map, false);
+    }
+
+    /**
+     * @param deferChunkUpload true to only start building the map's chunk meshes. The caller must then call
+     *                         {@link #uploadMapChunks(long)} every frame on the render thread until it returns true.
+     */
+    public void setMap(GameMap map, boolean deferChunkUpload) {
         Log.info("ClientGameWorld", "Setting new map - current mapRenderer: " +
                 (mapRenderer != null ? "exists" : "null") +
                 ", current mapManager: " + (mapManager != null ? "exists" : "null"));
@@ -78,7 +86,13 @@ public class ClientGameWorld {
             if (mapRenderer == null) {
                 mapRenderer = new GameMapRenderer(gameObjectManager);
             }
-            mapRenderer.updateMap(mapManager, environment);
+            if (deferChunkUpload) {
+                mapRenderer.beginMapUpdate(mapManager, environment);
+            } else {
+                mapRenderer.updateMap(mapManager, environment);
+            }
+            // Everything was just built from scratch, only later edits need incremental rebuilds
+            mapManager.setDirtyChunkTracking(true);
             Log.info("ClientGameWorld", "Set map from network");
 
             Log.info("ClientGameWorld", "Map initialization completed successfully");
@@ -231,6 +245,8 @@ public class ClientGameWorld {
             return; // Skip everything until map regeneration is complete
         }
 
+        refreshDirtyMapChunks();
+
         // Update physics
         if (getMapManager() != null && getGameObjectManager().localPlayer != null) {
             getMapManager().stepPhysics(deltaTime);
@@ -613,6 +629,34 @@ public class ClientGameWorld {
 
     // Inlined methods from GameWorld
 
+    /**
+     * Uploads chunk meshes for a map set with {@code setMap(map, true)}. Render thread only.
+     * @param budgetNanos Time allowed for this frame
+     * @return true once the map's geometry is complete
+     */
+    public boolean uploadMapChunks(long budgetNanos) {
+        return mapRenderer == null || mapRenderer.continueMapUpdate(budgetNanos);
+    }
+
+    /**
+     * Rebuilds collision and chunk meshes for the chunks changed by tile edits since the last call.
+     * Waits while a full map build is still uploading, since that build already reads the map.
+     */
+    public void refreshDirtyMapChunks() {
+        if (mapManager == null || !mapManager.hasDirtyChunks()) {
+            return;
+        }
+        if (mapRenderer != null && mapRenderer.isMapUpdatePending()) {
+            return;
+        }
+
+        long[] dirtyChunks = mapManager.takeDirtyChunks();
+        mapManager.rebuildPhysicsChunks(dirtyChunks);
+        if (mapRenderer != null) {
+            mapRenderer.rebuildChunks(dirtyChunks);
+        }
+    }
+
     protected void incrementPositionUpdateTimer(float deltaTime) {
         positionUpdateTimer += deltaTime;
     }
@@ -15,6 +15,8 @@ import curly.octo.client.clientStates.playingStates.ClientPlayingState;
 import curly.octo.common.network.KryoNetwork;
 import curly.octo.server.NetworkListener;
 import curly.octo.common.network.NetworkManager;
+import curly.octo.common.network.telemetry.NetworkTelemetry;
+import curly.octo.common.network.telemetry.TelemetrySerialization;
 import curly.octo.common.network.messages.ClientIdentificationMessage;
 import curly.octo.common.network.messages.legacyMessages.MapChunkMessage;
 import curly.octo.common.network.messages.mapTransferMessages.MapTransferAllClientProgressMessage;
@@ -31,6 +33,7 @@ public class GameClient {
     private final Client client;  // Gameplay connection (small buffers)
     private BulkTransferClient bulkClient;  // Map transfer connection (large buffers, on-demand)
     private final NetworkListener networkListener;
+    private final NetworkManager networkManager;
     private final String host;
 
     /**
@@ -41,24 +44,27 @@ public class GameClient {
     public GameClient(String host) {
         this.host = host;
         // Small buffers for gameplay connection (low latency for position updates)
-        this.client = new Client(Constants.GAMEPLAY_BUFFER_SIZE, Constants.GAMEPLAY_BUFFER_SIZE); // 8KB read/write buffers
+        NetworkTelemetry telemetry = new NetworkTelemetry("Client", Constants.NETWORK_TELEMETRY_REPORT_INTERVAL_NS);
+        this.client = new Client(Constants.GAMEPLAY_BUFFER_SIZE, Constants.GAMEPLAY_BUFFER_SIZE,
+            new TelemetrySerialization(telemetry)); // 8KB read/write buffers
 
         // Register all network classes
         KryoNetwork.register(client);
 
         // Initialize the new NetworkManager with gameplay connection
-        NetworkManager.initialize(client);
+        networkManager = new NetworkManager(client, telemetry);
 
-        // Create network listener with client reference
-        networkListener = new NetworkListener(null); // Client doesn't need server callbacks
+        // Create network listener routing to this client's handlers
+        networkListener = new NetworkListener(networkManager);
 
         // Gameplay messages handled on gameplay connection (handled by ClientGameMode via NetworkManager)
 
         // Map transfer messages on GAMEPLAY connection (state management + fallback chunk delivery):
-        NetworkManager.onReceive(MapTransferBeginMessage.class, this::handleMapTransferBegin);  // Triggers bulk connection
-        NetworkManager.onReceive(MapChunkMessage.class, this::handleMapChunk);  // Chunks (bulk preferred, gameplay fallback)
-        NetworkManager.onReceive(MapTransferCompleteMessage.class, this::handleMapTransferComplete);  // Releases client to play
-        NetworkManager.onReceive(MapTransferAllClientProgressMessage.class, this::handleMapTransferAllClientProgressMessage);  // Progress updates
+        // Handled on the network thread so chunks reach the streaming decoder without waiting for a frame
+        networkManager.onReceiveImmediate(MapTransferBeginMessage.class, this::handleMapTransferBegin);  // Triggers bulk connection
+        networkManager.onReceiveImmediate(MapChunkMessage.class, this::handleMapChunk);  // Chunks (bulk preferred, gameplay fallback)
+        networkManager.onReceiveImmediate(MapTransferCompleteMessage.class, this::handleMapTransferComplete);  // Releases client to play
+        networkManager.onReceiveImmediate(MapTransferAllClientProgressMessage.class, this::handleMapTransferAllClientProgressMessage);  // Progress updates
 
         // NOTE: Bulk connection is used for SENDING chunks (server->client) for performance
         // but all MESSAGE HANDLING stays on gameplay connection for simplicity and reliability
@@ -70,6 +76,13 @@ public class GameClient {
         Log.info("GameClient", "Initialized with dual-connection architecture (gameplay: 8KB, bulk: on-demand 64KB)");
     }
 
+    /**
+     * @return Handlers and sends for this client's gameplay connection
+     */
+    public NetworkManager getNetworkManager() {
+        return networkManager;
+    }
+
     private boolean connecting = false;
     private long connectionStartTime = 0;
     private int connectionTimeout = 5000;
@@ -213,7 +226,7 @@ public class GameClient {
         }
 
         Log.info("GameClient", "Connecting bulk transfer channel...");
-        bulkClient = new BulkTransferClient(host);
+        bulkClient = new BulkTransferClient(host, networkManager);
         bulkClient.connect();
 
         Log.info("GameClient", "Bulk client connected: " + bulkClient.isConnected());
@@ -261,7 +274,7 @@ public class GameClient {
      */
     public void sendTCP(Object message) {
         if (client != null && client.isConnected()) {
-            client.sendTCP(message);
+            networkManager.getTelemetry().sendTCP(client, message);
         }
     }
 
@@ -270,7 +283,7 @@ public class GameClient {
      * @param message the message to send
      */
     public void sendUDP(Object message) {
-        client.sendUDP(message);
+        networkManager.getTelemetry().sendUDP(client, message);
     }
 
 
@@ -11,7 +11,7 @@ import curly.octo.client.clientStates.mapTransferStates.MapTransferInitiatedStat
 import curly.octo.client.clientStates.mapTransferStates.ui.MapTransferScreen;
 import curly.octo.client.clientStates.playingStates.ClientPlayingState;
 import curly.octo.client.GameClient;
-import curly.octo.common.network.NetworkManager;
+import curly.octo.common.network.NetworkMessage;
 import curly.octo.common.network.messages.ClientStateChangeMessage;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
@@ -92,7 +92,7 @@ public class StateManager{
         mainGame.setScreen(currentState.getStateScreen(), currentState.getGamePlaying());
 
         if (oldState != null) {
-            NetworkManager.sendToServer(new ClientStateChangeMessage(currentState.getClass(), oldState.getClass()));
+            sendToServer(new ClientStateChangeMessage(currentState.getClass(), oldState.getClass()));
         }
     }
 
@@ -104,7 +104,7 @@ public class StateManager{
         if (currentState != null) {
             Log.info("StateManager", "Re-sending current state to server: " + currentState.getClass().getSimpleName());
             // Send current state as both old and new to indicate we're still in this state
-            NetworkManager.sendToServer(new ClientStateChangeMessage(currentState.getClass(), currentState.getClass()));
+            sendToServer(new ClientStateChangeMessage(currentState.getClass(), currentState.getClass()));
         } else {
             Log.warn("StateManager", "Cannot resend state - current state is null");
         }
@@ -141,6 +141,14 @@ public class StateManager{
         return currentState;
     }
 
+    private static void sendToServer(NetworkMessage message) {
+        if (gameClient == null) {
+            Log.error("StateManager", "Cannot send to server: client not initialized");
+            return;
+        }
+        gameClient.getNetworkManager().sendToServer(message);
+    }
+
     /**
      * Gets the GameClient reference.
      * @return the GameClient instance, or null if not set
@@ -0,0 +1,241 @@
+package curly.octo.client.clientStates.mapTransferStates;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+import curly.octo.common.map.GameMap;
+import curly.octo.common.map.storage.MapWireFormat;
+import curly.octo.common.network.MapTransferCompression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Receives one bulk map transfer.
+ *
+ * Chunks are written at their offset in a single buffer sized from MapTransferBeginMessage. Whenever
+ * the contiguous prefix grows it is decoded (a no-op for uncompressed transfers, where the receive
+ * buffer is the decoded data) and handed to a reader blocked in {@link #openStream()}, so the map can
+ * be parsed on a background thread while the rest of the transfer is still arriving.
+ */
+public class MapTransferBuffer {
+
+    private final byte[] received;
+    private final boolean[] present;
+    private final MapTransferCompression.Decoder decoder; // null when uncompressed
+    private final byte[] decoded;
+
+    private int contiguousChunks;
+    private int contiguousBytes;
+    private int available; // decoded bytes readers may consume
+    private boolean complete;
+    private boolean closed;
+    private IOException failure;
+
+    private volatile int mapLength = -1;
+
+    public MapTransferBuffer(int totalChunks, long totalSize, int compression, long uncompressedSize) {
+        this.received = new byte[(int) totalSize];
+        this.present = new boolean[totalChunks];
+        if (compression == MapTransferCompression.NONE) {
+            this.decoder = null;
+            this.decoded = received;
+        } else {
+            this.decoder = new MapTransferCompression.Decoder(compression, (int) uncompressedSize);
+            this.decoded = decoder.getBuffer();
+        }
+    }
+
+    /**
+     * Stores a chunk and decodes any prefix it completes.
+     *
+     * @return false if the chunk was a duplicate
+     * @throws IOException If the chunk does not fit the announced layout or cannot be decoded
+     */
+    public synchronized boolean put(int chunkIndex, byte[] data) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (chunkIndex < 0 || chunkIndex >= present.length) {
+            throw fail(new IOException("Chunk " + chunkIndex + " is outside the announced " + present.length + " chunks"));
+        }
+        if (present[chunkIndex]) {
+            return false;
+        }
+
+        int offset = chunkIndex * Constants.NETWORK_CHUNK_SIZE;
+        int expected = Math.min(Constants.NETWORK_CHUNK_SIZE, received.length - offset);
+        if (data.length != expected) {
+            throw fail(new IOException("Chunk " + chunkIndex + " has " + data.length + " bytes, expected " + expected));
+        }
+        System.arraycopy(data, 0, received, offset, data.length);
+        present[chunkIndex] = true;
+
+        int start = contiguousBytes;
+        while (contiguousChunks < present.length && present[contiguousChunks]) {
+            contiguousChunks++;
+        }
+        contiguousBytes = Math.min(received.length, contiguousChunks * Constants.NETWORK_CHUNK_SIZE);
+        if (contiguousBytes == start) {
+            return true;
+        }
+
+        try {
+            if (decoder != null) {
+                decoder.feed(received, start, contiguousBytes - start);
+                available = decoder.getBytesDecoded();
+            } else {
+                available = contiguousBytes;
+            }
+            if (contiguousChunks == present.length) {
+                if (decoder != null) {
+                    decoder.finish();
+                }
+                complete = true;
+            }
+        } catch (IOException e) {
+            throw fail(e);
+        }
+        notifyAll();
+        return true;
+    }
+
+    private IOException fail(IOException e) {
+        failure = e;
+        if (decoder != null) {
+            decoder.end();
+        }
+        notifyAll();
+        return e;
+    }
+
+    /**
+     * @return Indices of the chunks not received yet, in order
+     */
+    public synchronized int[] getMissingChunks() {
+        int[] missing = new int[present.length - countPresent()];
+        int count = 0;
+        for (int i = 0; i < present.length; i++) {
+            if (!present[i]) {
+                missing[count++] = i;
+            }
+        }
+        return missing;
+    }
+
+    private int countPresent() {
+        int count = 0;
+        for (boolean chunk : present) {
+            if (chunk) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Abandons the transfer, waking any reader with an error.
+     */
+    public synchronized void close() {
+        if (!closed && !complete && failure == null && decoder != null) {
+            decoder.end();
+        }
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * @return A stream over the decoded payload that blocks until more of it has arrived
+     */
+    public InputStream openStream() {
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                synchronized (MapTransferBuffer.this) {
+                    while (position >= available) {
+                        if (failure != null) {
+                            throw new IOException("Map transfer failed: " + failure.getMessage(), failure);
+                        }
+                        if (complete) {
+                            return -1;
+                        }
+                        if (closed) {
+                            throw new IOException("Map transfer was abandoned");
+                        }
+                        try {
+                            MapTransferBuffer.this.wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("Interrupted waiting for map data");
+                        }
+                    }
+                    int count = Math.min(len, available - position);
+                    System.arraycopy(decoded, position, b, off, count);
+                    position += count;
+                    return count;
+                }
+            }
+        };
+    }
+
+    /**
+     * Parses the map at the start of the payload on a background thread as the transfer arrives.
+     * Once it completes, {@link #getMapLength()} gives the offset of the rest of the payload.
+     */
+    public CompletableFuture<GameMap> decodeMapAsync() {
+        CompletableFuture<GameMap> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            try (Input input = new Input(openStream(), Constants.NETWORK_CHUNK_SIZE)) {
+                GameMap map = MapWireFormat.read(input);
+                mapLength = (int) input.total();
+                Log.info("MapTransferBuffer", "Decoded map " + map.getMapId() + " from the transfer stream (" +
+                    mapLength + " bytes, " + (System.nanoTime() - start) / 1_000_000 + "ms after first chunk)");
+                result.complete(map);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, "MapTransferDecode");
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+    /**
+     * @return Length of the map at the start of the decoded payload, or -1 until it has been parsed
+     */
+    public int getMapLength() {
+        return mapLength;
+    }
+
+    /**
+     * @return The transferred bytes as sent (still encoded); only complete once {@link #isComplete()}
+     */
+    public byte[] getReceivedData() {
+        return received;
+    }
+
+    /**
+     * @return The decoded payload; only complete once {@link #isComplete()}
+     */
+    public byte[] getDecodedData() {
+        return decoded;
+    }
+}
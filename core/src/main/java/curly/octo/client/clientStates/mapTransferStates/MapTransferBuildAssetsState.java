@@ -7,6 +7,7 @@ import curly.octo.client.clientStates.BaseGameStateClient;
 import curly.octo.client.clientStates.BaseScreen;
 import curly.octo.client.clientStates.StateManager;
 import curly.octo.client.clientStates.mapTransferStates.ui.MapTransferScreen;
+import curly.octo.common.Constants;
 import curly.octo.common.GameObject;
 import curly.octo.common.map.GameMap;
 
@@ -15,6 +16,8 @@ import java.util.List;
 public class MapTransferBuildAssetsState extends BaseGameStateClient {
     private boolean buildStarted = false;
     private boolean buildComplete = false;
+    // Set once the map is in place and its chunk meshes are being built in the background
+    private boolean uploadingChunks = false;
 
     public MapTransferBuildAssetsState(BaseScreen screen) {
         super(screen);
@@ -27,6 +30,7 @@ public class MapTransferBuildAssetsState extends BaseGameStateClient {
         // Reset flags for new build
         buildStarted = false;
         buildComplete = false;
+        uploadingChunks = false;
 
         // Start building assets on the OpenGL thread
         scheduleAssetBuilding();
@@ -56,7 +60,8 @@ public class MapTransferBuildAssetsState extends BaseGameStateClient {
                 }
 
                 Log.info("MapTransferBuildAssetsState", "Building map renderer and physics...");
-                clientWorld.setMap(receivedMap);
+                // Chunk meshes are built on worker threads and uploaded a few per frame in updateState
+                clientWorld.setMap(receivedMap, true);
 
                 // Check if local player needs physics setup now that map is loaded
                 // This handles the race condition where PlayerAssignmentUpdate arrives before map is ready
@@ -98,8 +103,8 @@ public class MapTransferBuildAssetsState extends BaseGameStateClient {
                 Log.info("MapTransferBuildAssetsState", "Received " + receivedGameObjects.size() +
                         " game objects from transfer (players will be assigned by server)");
 
-                Log.info("MapTransferBuildAssetsState", "Asset building complete!");
-                buildComplete = true;
+                Log.info("MapTransferBuildAssetsState", "Game objects ready, uploading chunk meshes...");
+                uploadingChunks = true;
 
             } catch (Exception e) {
                 Log.error("MapTransferBuildAssetsState", "Error building assets: " + e.getMessage());
@@ -112,6 +117,16 @@ public class MapTransferBuildAssetsState extends BaseGameStateClient {
 
     @Override
     public void updateState(float delta) {
+        // Upload finished chunk meshes on the render thread, a bounded amount per frame
+        if (uploadingChunks) {
+            ClientGameWorld clientWorld = StateManager.getClientGameWorld();
+            if (clientWorld == null || clientWorld.uploadMapChunks(Constants.RENDERING_CHUNK_UPLOAD_BUDGET_NS)) {
+                uploadingChunks = false;
+                Log.info("MapTransferBuildAssetsState", "Asset building complete!");
+                buildComplete = true;
+            }
+        }
+
         // Poll for build completion and transition when done
         if (buildStarted && buildComplete) {
             Log.info("MapTransferBuildAssetsState", "Assets ready, transitioning to MapTransferCompleteState");
@@ -0,0 +1,212 @@
+package curly.octo.client.clientStates.mapTransferStates;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+import curly.octo.common.network.MapContentHash;
+import curly.octo.common.network.messages.mapTransferMessages.MapTransferBeginMessage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-disk LRU cache of completed map transfers, keyed by the content hash the server announces.
+ *
+ * Each entry keeps the transfer exactly as it was sent (still encoded) together with its chunk hashes.
+ * Before a new transfer the chunks whose hashes match a cached chunk are copied into the receive
+ * buffer, so only the rest has to be requested. An unchanged map differs only in the trailing game
+ * objects; an edited map usually still shares the chunks before the first change.
+ *
+ * Writes and evictions run one at a time on the cache's own thread, in the order they were queued.
+ */
+public class MapTransferCache {
+
+    private static final int MAGIC = 0x4D504331; // "MPC1"
+    private static final String SUFFIX = ".mapcache";
+
+    private final FileHandle directory;
+    private final int maxEntries;
+    private final ExecutorService writer;
+
+    public MapTransferCache(FileHandle directory, int maxEntries) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MapTransferCacheWrite");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static MapTransferCache createDefault() {
+        return new MapTransferCache(Gdx.files.external(Constants.MAP_CACHE_DIRECTORY), Constants.MAP_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * Copies every announced chunk found in the cache into the buffer, most recently used entries first.
+     *
+     * @return Number of chunks filled from disk
+     */
+    public int fill(MapTransferBeginMessage begin, MapTransferBuffer buffer) {
+        if (begin.chunkHashes == null || begin.chunkHashes.length != begin.totalChunks) {
+            return 0;
+        }
+
+        int filled = 0;
+        for (FileHandle file : entriesByRecency(begin.contentHash)) {
+            int[] missing = buffer.getMissingChunks();
+            if (missing.length == 0) {
+                break;
+            }
+            try {
+                Entry entry = read(file);
+                int fromEntry = 0;
+                for (int chunkIndex : missing) {
+                    byte[] chunk = entry.find(begin.chunkHashes[chunkIndex], chunkLength(begin, chunkIndex));
+                    if (chunk != null && buffer.put(chunkIndex, chunk)) {
+                        fromEntry++;
+                    }
+                }
+                if (fromEntry > 0) {
+                    file.file().setLastModified(System.currentTimeMillis());
+                    filled += fromEntry;
+                }
+            } catch (IOException e) {
+                Log.warn("MapTransferCache", "Discarding unreadable cache entry " + file.name() + ": " + e.getMessage());
+                file.delete();
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * Queues a completed transfer to be written to the cache, keeping disk writes off the render thread.
+     */
+    public void storeInBackground(MapTransferBeginMessage begin, byte[] received) {
+        writer.execute(() -> store(begin, received));
+    }
+
+    /**
+     * Queues removal of the entry for a map, e.g. after its transfer failed to decode. Runs after any
+     * write queued before it, so a transfer cached just before failing is removed too.
+     */
+    public void evictInBackground(String contentHash) {
+        if (contentHash == null) {
+            return;
+        }
+        writer.execute(() -> {
+            FileHandle file = directory.child(contentHash + SUFFIX);
+            if (file.exists()) {
+                Log.info("MapTransferCache", "Evicting map " + file.name());
+                file.delete();
+            }
+        });
+    }
+
+    /**
+     * Writes a completed transfer to the cache and evicts the least recently used entries beyond the limit.
+     */
+    public void store(MapTransferBeginMessage begin, byte[] received) {
+        if (begin.contentHash == null || begin.chunkHashes == null) {
+            return;
+        }
+        FileHandle file = directory.child(begin.contentHash + SUFFIX);
+        try {
+            directory.mkdirs();
+            try (DataOutputStream out = new DataOutputStream(file.write(false, Constants.NETWORK_CHUNK_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(begin.chunkHashes.length);
+                for (long hash : begin.chunkHashes) {
+                    out.writeLong(hash);
+                }
+                out.writeInt(received.length);
+                out.write(received);
+            }
+        } catch (Exception e) {
+            Log.warn("MapTransferCache", "Failed to cache map " + begin.mapId + ": " + e.getMessage());
+            file.delete();
+            return;
+        }
+
+        List<FileHandle> entries = entriesByRecency(null);
+        for (int i = maxEntries; i < entries.size(); i++) {
+            Log.info("MapTransferCache", "Evicting least recently used map " + entries.get(i).name());
+            entries.get(i).delete();
+        }
+        Log.info("MapTransferCache", "Cached map " + begin.mapId + " (" + received.length + " bytes) as " + file.name());
+    }
+
+    /**
+     * @return Cache entries, the one named by {@code preferredHash} first and the rest newest first
+     */
+    private List<FileHandle> entriesByRecency(String preferredHash) {
+        List<FileHandle> entries = new ArrayList<>();
+        if (!directory.isDirectory()) {
+            return entries;
+        }
+        for (FileHandle file : directory.list(SUFFIX)) {
+            entries.add(file);
+        }
+        String preferredName = preferredHash != null ? preferredHash + SUFFIX : null;
+        entries.sort(Comparator.<FileHandle, Boolean>comparing(file -> !file.name().equals(preferredName))
+            .thenComparing(Comparator.comparingLong(FileHandle::lastModified).reversed()));
+        return entries;
+    }
+
+    private static int chunkLength(MapTransferBeginMessage begin, int chunkIndex) {
+        int offset = chunkIndex * Constants.NETWORK_CHUNK_SIZE;
+        return (int) Math.min(Constants.NETWORK_CHUNK_SIZE, begin.totalSize - offset);
+    }
+
+    private static Entry read(FileHandle file) throws IOException {
+        try (DataInputStream in = new DataInputStream(file.read(Constants.NETWORK_CHUNK_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a map cache entry");
+            }
+            long[] hashes = new long[in.readInt()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = in.readLong();
+            }
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            return new Entry(hashes, data);
+        }
+    }
+
+    private static class Entry {
+        final long[] chunkHashes;
+        final byte[] data;
+
+        Entry(long[] chunkHashes, byte[] data) {
+            this.chunkHashes = chunkHashes;
+            this.data = data;
+        }
+
+        /**
+         * @return A copy of the cached chunk with this hash and length, verified against the data, or null
+         */
+        byte[] find(long hash, int length) {
+            for (int i = 0; i < chunkHashes.length; i++) {
+                if (chunkHashes[i] != hash) {
+                    continue;
+                }
+                int offset = i * Constants.NETWORK_CHUNK_SIZE;
+                if (offset + length > data.length || Math.min(Constants.NETWORK_CHUNK_SIZE, data.length - offset) != length) {
+                    continue;
+                }
+                if (MapContentHash.chunkHash(data, offset, length) == hash) {
+                    return Arrays.copyOfRange(data, offset, offset + length);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -2,10 +2,13 @@ package curly.octo.client.clientStates.mapTransferStates;
 
 import com.esotericsoftware.minlog.Log;
 import curly.octo.client.ClientGameWorld;
+import curly.octo.client.GameClient;
 import curly.octo.client.clientStates.BaseGameStateClient;
 import curly.octo.client.clientStates.BaseScreen;
 import curly.octo.client.clientStates.StateManager;
 import curly.octo.client.clientStates.mapTransferStates.ui.MapTransferScreen;
+import curly.octo.common.network.MapTransferCompression;
+import curly.octo.common.network.messages.mapTransferMessages.MapChunkRequestMessage;
 import curly.octo.common.network.messages.mapTransferMessages.MapTransferBeginMessage;
 
 public class MapTransferInitiatedState extends BaseGameStateClient {
@@ -39,16 +42,48 @@ public class MapTransferInitiatedState extends BaseGameStateClient {
         if (message != null) {
             MapTransferSharedStatics.resetProgressVariables();
             Log.info("MapTransferInitiatedState", "Map transfer initiated: " + message.mapId +
-                " (" + message.totalChunks + " chunks, " + message.totalSize + " bytes)");
+                " (" + message.totalChunks + " chunks, " + message.totalSize + " bytes " +
+                MapTransferCompression.name(message.compression) + ", " + message.uncompressedSize + " bytes decoded)");
             MapTransferSharedStatics.setMapId(message.mapId);
             MapTransferSharedStatics.setTotalChunks(message.totalChunks);
             MapTransferSharedStatics.setTotalSize(message.totalSize);
+            MapTransferSharedStatics.setCompression(message.compression);
+            MapTransferSharedStatics.setUncompressedSize(message.uncompressedSize);
+            prepareTransferBuffer();
 
             // Transition to disposal state first to clean up old map on OpenGL thread
             StateManager.setCurrentState(MapTransferDisposeState.class);
         }
     }
 
+    /**
+     * Creates the receive buffer, fills it with whatever the map cache holds, and asks the server for
+     * the rest before the bulk transfer starts.
+     */
+    private void prepareTransferBuffer() {
+        MapTransferSharedStatics.beginMessage = message;
+        MapTransferBuffer buffer = new MapTransferBuffer(message.totalChunks, message.totalSize,
+            message.compression, message.uncompressedSize);
+        MapTransferSharedStatics.transferBuffer = buffer;
+        MapTransferSharedStatics.mapDecode = buffer.decodeMapAsync();
+
+        long cacheStart = System.nanoTime();
+        int cachedChunks = MapTransferSharedStatics.getCache().fill(message, buffer);
+        if (cachedChunks == 0) {
+            return;
+        }
+
+        int[] missing = buffer.getMissingChunks();
+        MapTransferSharedStatics.setChunksReceived(cachedChunks);
+        Log.info("MapTransferInitiatedState", "Loaded " + cachedChunks + " of " + message.totalChunks +
+            " chunks from the map cache in " + (System.nanoTime() - cacheStart) / 1_000_000 + "ms, requesting " +
+            missing.length + " from the server");
+        GameClient gameClient = StateManager.getGameClient();
+        if (gameClient != null) {
+            gameClient.sendTCP(new MapChunkRequestMessage(message.mapId, missing));
+        }
+    }
+
     @Override
     public void updateState(float delta) {
 
@@ -3,23 +3,28 @@ package curly.octo.client.clientStates.mapTransferStates;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.minlog.Log;
+import curly.octo.client.GameClient;
 import curly.octo.client.clientStates.BaseGameStateClient;
 import curly.octo.client.clientStates.BaseScreen;
 import curly.octo.client.clientStates.StateManager;
 import curly.octo.client.clientStates.mapTransferStates.ui.MapTransferScreen;
+import curly.octo.common.Constants;
 import curly.octo.common.GameObject;
 import curly.octo.common.map.GameMap;
+import curly.octo.common.map.storage.MapWireFormat;
+import curly.octo.common.network.MapContentHash;
 import curly.octo.common.network.messages.MapTransferPayload;
+import curly.octo.common.network.messages.mapTransferMessages.MapChunkRequestMessage;
+import curly.octo.common.network.messages.mapTransferMessages.MapTransferBeginMessage;
 
 import java.util.List;
-
-import java.io.ByteArrayInputStream;
-
-import static curly.octo.client.clientStates.mapTransferStates.MapTransferSharedStatics.chunks;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class MapTransferReassemblyState extends BaseGameStateClient {
     private GameMap receivedMap;
     private List<GameObject> receivedGameObjects;
+    private volatile boolean waitingForMap;
 
     public MapTransferReassemblyState(BaseScreen screen) {
         super(screen);
@@ -29,69 +34,102 @@ public class MapTransferReassemblyState extends BaseGameStateClient {
     public void start() {
         MapTransferScreen.setPhaseMessage(MapTransferReassemblyState.class.getSimpleName());
 
-        if (chunks != null) {
-            reassembleAndDeserialize();
-        } else {
-            Log.error("MapTransferReassemblyState", "No chunks to reassemble!");
+        receivedMap = null;
+        receivedGameObjects = null;
+        waitingForMap = MapTransferSharedStatics.transferBuffer != null && MapTransferSharedStatics.mapDecode != null;
+        if (!waitingForMap) {
+            Log.error("MapTransferReassemblyState", "No map transfer to deserialize!");
         }
     }
 
-    private void reassembleAndDeserialize() {
+    private void deserialize(MapTransferBuffer buffer, GameMap map) {
         try {
-            Log.info("MapTransferReassemblyState", "Reassembling map from chunks...");
-
-            // Verify all chunks are present
-            for (int i = 0; i < chunks.length; i++) {
-                if (chunks[i] == null) {
-                    Log.error("MapTransferReassemblyState", "Missing chunk " + i + " of " + chunks.length +
-                        " - cannot reassemble map!");
-                    return;
+            // The map was parsed in the background while chunks arrived; only the game objects after it remain
+            byte[] completeData = buffer.getDecodedData();
+            int mapLength = buffer.getMapLength();
+            Log.info("MapTransferReassemblyState", "Received " + completeData.length + " decoded bytes (" +
+                mapLength + " map), deserializing game objects...");
+
+            MapTransferBeginMessage begin = MapTransferSharedStatics.beginMessage;
+            if (begin != null && begin.contentHash != null) {
+                String contentHash = MapContentHash.of(completeData, 0,
+                    MapWireFormat.contentLength(completeData, 0, mapLength));
+                if (contentHash.equals(begin.contentHash)) {
+                    MapTransferSharedStatics.getCache().storeInBackground(begin, buffer.getReceivedData());
+                } else {
+                    Log.warn("MapTransferReassemblyState", "Map content hash " + contentHash +
+                        " does not match the announced " + begin.contentHash + " - not caching it");
                 }
             }
 
-            // Calculate total size
-            int totalLength = 0;
-            for (byte[] chunk : chunks) {
-                totalLength += chunk.length;
-            }
-
-            // Reassemble chunks
-            byte[] completeData = new byte[totalLength];
-            int offset = 0;
-            for (byte[] chunk : chunks) {
-                System.arraycopy(chunk, 0, completeData, offset, chunk.length);
-                offset += chunk.length;
-            }
-
-            Log.info("MapTransferReassemblyState", "Reassembled " + totalLength + " bytes, deserializing...");
-
-            // Deserialize using Kryo
-            try (ByteArrayInputStream bais = new ByteArrayInputStream(completeData);
-                 Input input = new Input(bais)) {
+            long decodeStart = System.nanoTime();
+            try (Input input = new Input(completeData, mapLength, completeData.length - mapLength)) {
 
                 // Get the client's Kryo instance
                 Kryo kryo = getKryoInstance();
                 MapTransferPayload payload = kryo.readObject(input, MapTransferPayload.class);
 
                 // Extract map and game objects from payload
-                receivedMap = payload.map;
+                receivedMap = map;
                 receivedGameObjects = payload.gameObjects;
 
                 Log.info("MapTransferReassemblyState", "Transfer payload successfully deserialized:");
                 Log.info("MapTransferReassemblyState", "  Map: " + receivedMap.hashCode() +
-                        " (" + receivedMap.getAllTiles().size() + " tiles)");
+                        " (" + receivedMap.getTileCount() + " tiles)");
                 Log.info("MapTransferReassemblyState", "  Game Objects: " + receivedGameObjects.size() +
-                        " objects received");
+                        " objects received in " + (System.nanoTime() - decodeStart) / 1_000_000 + "ms");
                 StateManager.setCurrentState(MapTransferBuildAssetsState.class);
             }
 
-            // Clear chunks to free memory
-            MapTransferSharedStatics.chunks = null;
+            // Clear the transfer buffer to free memory
+            MapTransferSharedStatics.transferBuffer = null;
+            MapTransferSharedStatics.mapDecode = null;
+            MapTransferSharedStatics.beginMessage = null;
 
         } catch (Exception e) {
-            Log.error("MapTransferReassemblyState", "Error reassembling map: " + e.getMessage());
-            e.printStackTrace();
+            Log.error("MapTransferReassemblyState", "Error deserializing map: " + e.getMessage(), e);
+            retryTransfer();
+        }
+    }
+
+    /**
+     * Drops the cached copy of a transfer that failed to decode and downloads the whole map again,
+     * bypassing the cache, until {@link Constants#MAP_TRANSFER_MAX_RETRIES} is used up.
+     */
+    private void retryTransfer() {
+        MapTransferBeginMessage begin = MapTransferSharedStatics.beginMessage;
+        GameClient gameClient = StateManager.getGameClient();
+        if (begin == null || gameClient == null) {
+            Log.error("MapTransferReassemblyState", "Cannot retry the map transfer - no transfer in progress");
+            return;
+        }
+        MapTransferSharedStatics.getCache().evictInBackground(begin.contentHash);
+
+        int retries = MapTransferSharedStatics.getRetries();
+        if (retries >= Constants.MAP_TRANSFER_MAX_RETRIES) {
+            Log.error("MapTransferReassemblyState", "Map " + begin.mapId + " still failed to decode after " +
+                retries + " retries - giving up");
+            return;
+        }
+        MapTransferSharedStatics.setRetries(retries + 1);
+        Log.warn("MapTransferReassemblyState", "Downloading map " + begin.mapId + " again (retry " +
+            (retries + 1) + " of " + Constants.MAP_TRANSFER_MAX_RETRIES + ")");
+
+        if (MapTransferSharedStatics.transferBuffer != null) {
+            MapTransferSharedStatics.transferBuffer.close();
         }
+        MapTransferBuffer buffer = new MapTransferBuffer(begin.totalChunks, begin.totalSize,
+            begin.compression, begin.uncompressedSize);
+        MapTransferSharedStatics.transferBuffer = buffer;
+        MapTransferSharedStatics.mapDecode = buffer.decodeMapAsync();
+        MapTransferSharedStatics.setChunksReceived(0);
+
+        int[] allChunks = new int[begin.totalChunks];
+        for (int i = 0; i < allChunks.length; i++) {
+            allChunks[i] = i;
+        }
+        gameClient.sendTCP(new MapChunkRequestMessage(begin.mapId, allChunks));
+        StateManager.setCurrentState(MapTransferTransferState.class);
     }
 
     private Kryo getKryoInstance() {
@@ -112,7 +150,22 @@ public class MapTransferReassemblyState extends BaseGameStateClient {
 
     @Override
     public void updateState(float delta) {
+        CompletableFuture<GameMap> mapDecode = MapTransferSharedStatics.mapDecode;
+        if (!waitingForMap || mapDecode == null || !mapDecode.isDone()) {
+            return;
+        }
+        waitingForMap = false;
 
+        GameMap map;
+        try {
+            map = mapDecode.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            Log.error("MapTransferReassemblyState", "Error decoding map: " + cause.getMessage(), cause);
+            retryTransfer();
+            return;
+        }
+        deserialize(MapTransferSharedStatics.transferBuffer, map);
     }
 
     @Override
@@ -4,9 +4,13 @@ import curly.octo.Main;
 import curly.octo.client.clientStates.StateManager;
 import curly.octo.client.clientStates.mapTransferStates.ui.MapTransferScreen;
 import curly.octo.client.GameClient;
+import curly.octo.common.map.GameMap;
+import curly.octo.common.network.MapTransferCompression;
+import curly.octo.common.network.messages.mapTransferMessages.MapTransferBeginMessage;
 import curly.octo.server.playerManagement.ClientUniqueId;
 
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 public class MapTransferSharedStatics {
 
@@ -14,7 +18,15 @@ public class MapTransferSharedStatics {
         totalSize = 0;
         totalChunks = 0;
         chunksReceived = 0;
-        chunks = null;
+        compression = MapTransferCompression.NONE;
+        uncompressedSize = 0;
+        if (transferBuffer != null) {
+            transferBuffer.close();
+            transferBuffer = null;
+        }
+        mapDecode = null;
+        beginMessage = null;
+        retries = 0;
     }
 
     private static String mapId;
@@ -50,7 +62,42 @@ public class MapTransferSharedStatics {
         MapTransferSharedStatics.chunksReceived = chunksReceived;
     }
 
-    public static byte[][] chunks;
+    private static int retries;
+    public static int getRetries() {
+        return retries;
+    }
+    public static void setRetries(int retries) {
+        MapTransferSharedStatics.retries = retries;
+    }
+
+    private static int compression;
+    public static int getCompression() {
+        return compression;
+    }
+    public static void setCompression(int compression) {
+        MapTransferSharedStatics.compression = compression;
+    }
+
+    private static long uncompressedSize;
+    public static long getUncompressedSize() {
+        return uncompressedSize;
+    }
+    public static void setUncompressedSize(long uncompressedSize) {
+        MapTransferSharedStatics.uncompressedSize = uncompressedSize;
+    }
+
+    // Created when the transfer begins; the map is parsed from it in the background while chunks arrive
+    public static MapTransferBuffer transferBuffer;
+    public static CompletableFuture<GameMap> mapDecode;
+    public static MapTransferBeginMessage beginMessage;
+
+    private static MapTransferCache cache;
+    public static MapTransferCache getCache() {
+        if (cache == null) {
+            cache = MapTransferCache.createDefault();
+        }
+        return cache;
+    }
 
     private static HashMap<ClientUniqueId, Integer> clientUniqueIdToClientChunkProgressMap;
     public static void updateAllClientProgress(HashMap<ClientUniqueId, Integer> newClientProgress) {
@@ -1,46 +1,91 @@
 package curly.octo.client.clientStates.mapTransferStates;
 
+import com.esotericsoftware.minlog.Log;
+import curly.octo.client.GameClient;
 import curly.octo.client.clientStates.BaseGameStateClient;
 import curly.octo.client.clientStates.BaseScreen;
 import curly.octo.client.clientStates.StateManager;
 import curly.octo.client.clientStates.mapTransferStates.ui.MapTransferScreen;
 import curly.octo.common.network.messages.legacyMessages.MapChunkMessage;
+import curly.octo.common.network.messages.mapTransferMessages.MapChunkRequestMessage;
 
-import static curly.octo.client.clientStates.mapTransferStates.MapTransferSharedStatics.chunks;
+import java.io.IOException;
 
 public class MapTransferTransferState extends BaseGameStateClient {
+    private static final float RECONNECT_INTERVAL = 1f; // Seconds between bulk reconnect attempts
+
+    private float timeSinceReconnect = 0f;
 
     public MapTransferTransferState(BaseScreen screen) {
         super(screen);
     }
     public void handleMapChunk(MapChunkMessage message) {
 
-        // Initialize on first chunk
-        if (chunks == null) {
-            MapTransferSharedStatics.setTotalChunks(message.totalChunks);
-            chunks = new byte[MapTransferSharedStatics.getTotalChunks()][];
+        // Created (and pre-filled from the map cache) by MapTransferInitiatedState
+        MapTransferBuffer buffer = MapTransferSharedStatics.transferBuffer;
+        if (buffer == null) {
+            Log.error("MapTransferTransferState", "Received map chunk " + message.chunkIndex + " without a transfer in progress");
+            return;
         }
 
-        // Only process if this chunk hasn't been received yet (avoid counting duplicates)
-        if (chunks[message.chunkIndex] == null) {
-            // Store the chunk
-            chunks[message.chunkIndex] = message.chunkData;
-            MapTransferSharedStatics.setChunksReceived(MapTransferSharedStatics.getChunksReceived() + 1);
-
-            if (MapTransferSharedStatics.getChunksReceived() == MapTransferSharedStatics.getTotalChunks()) {
-                StateManager.setCurrentState(MapTransferReassemblyState.class);
+        try {
+            // Only count chunks that haven't been received yet (avoid counting duplicates)
+            if (!buffer.put(message.chunkIndex, message.chunkData)) {
+                return;
             }
+        } catch (IOException e) {
+            Log.error("MapTransferTransferState", "Failed to receive map chunk " + message.chunkIndex + ": " + e.getMessage());
+            return;
+        }
+
+        MapTransferSharedStatics.setChunksReceived(MapTransferSharedStatics.getChunksReceived() + 1);
+        if (buffer.isComplete()) {
+            StateManager.setCurrentState(MapTransferReassemblyState.class);
         }
     }
 
     @Override
     public void start() {
         MapTransferScreen.setPhaseMessage(MapTransferTransferState.class.getSimpleName());
+        timeSinceReconnect = RECONNECT_INTERVAL;
+
+        // Everything came from the map cache; the server has nothing to send
+        MapTransferBuffer buffer = MapTransferSharedStatics.transferBuffer;
+        if (buffer != null && buffer.isComplete()) {
+            Log.info("MapTransferTransferState", "Map fully restored from cache - skipping download");
+            StateManager.setCurrentState(MapTransferReassemblyState.class);
+        }
     }
 
     @Override
     public void updateState(float delta) {
+        MapTransferBuffer buffer = MapTransferSharedStatics.transferBuffer;
+        GameClient gameClient = StateManager.getGameClient();
+        if (buffer == null || buffer.isComplete() || gameClient == null) {
+            return;
+        }
+        if (gameClient.getBulkClient() != null && gameClient.getBulkClient().isConnected()) {
+            return;
+        }
 
+        timeSinceReconnect += delta;
+        if (timeSinceReconnect < RECONNECT_INTERVAL) {
+            return;
+        }
+        timeSinceReconnect = 0f;
+
+        // Chunks in flight when the bulk connection dropped are gone; ask for everything still missing
+        // before reconnecting so the server resends from there instead of where it left off
+        int[] missing = buffer.getMissingChunks();
+        Log.warn("MapTransferTransferState", "Bulk connection lost with " + missing.length +
+            " chunks missing - reconnecting");
+        gameClient.sendTCP(new MapChunkRequestMessage(MapTransferSharedStatics.getMapId(), missing));
+        gameClient.disconnectBulkTransfer();
+        try {
+            gameClient.connectBulkTransfer();
+        } catch (IOException e) {
+            Log.error("MapTransferTransferState", "Failed to reconnect bulk transfer, retrying", e);
+        }
     }
 
     @Override
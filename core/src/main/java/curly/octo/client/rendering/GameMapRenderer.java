@@ -70,6 +70,10 @@ public class GameMapRenderer implements Disposable {
     // Chunk-based rendering
     private ChunkedMapModelBuilder chunkModelBuilder = null;
 
+    // Builder whose chunk meshes are still being built/uploaded (see beginMapUpdate)
+    private ChunkedMapModelBuilder pendingChunkBuilder = null;
+    private long mapUpdateStartTime;
+
     public GameMapRenderer(GameObjectManager objectManager) {
         this.objectManager = objectManager;
 
@@ -309,11 +313,24 @@ public class GameMapRenderer implements Disposable {
     // Surface rendering is now handled within individual chunk models
 
 
+    /**
+     * Rebuilds all map geometry and blocks until it is ready.
+     */
     public void updateMap(GameMap map, Environment environment) {
-        long startTime = System.currentTimeMillis();
+        beginMapUpdate(map, environment);
+        pendingChunkBuilder.awaitChunkMeshes();
+        continueMapUpdate(Long.MAX_VALUE);
+    }
+
+    /**
+     * Starts rebuilding the map geometry. Chunk meshes are computed in the background; call
+     * {@link #continueMapUpdate(long)} once per frame on the render thread until it returns true.
+     */
+    public void beginMapUpdate(GameMap map, Environment environment) {
+        mapUpdateStartTime = System.currentTimeMillis();
 
         Log.info("GameMapRenderer", "=== UPDATING MAP ===");
-        Log.info("GameMapRenderer", "Map has " + map.getAllTiles().size() + " tiles");
+        Log.info("GameMapRenderer", "Map has " + map.getTileCount() + " tiles");
         Log.info("GameMapRenderer", "Map hash code: " + map.hashCode());
 
         // Log some tile positions to verify map is actually different
@@ -328,6 +345,10 @@ public class GameMapRenderer implements Disposable {
 
         // Clear previous model and lights
         dispose();
+        if (pendingChunkBuilder != null) {
+            pendingChunkBuilder.dispose();
+            pendingChunkBuilder = null;
+        }
 
         // Extract lights from map tiles with LightHints
         extractLightsFromMap(map, environment);
@@ -340,20 +361,34 @@ public class GameMapRenderer implements Disposable {
         Material pinkWall = createMaterial(Color.PINK, 0.1f, 4f);
         Material spawnMaterial = createMaterial(Color.LIME, 0.1f, 4f);
 
-        // Create surface materials for water, lava, and fog
-        Material waterMaterial = createWaterMaterial();
-        Material lavaMaterial = createLavaMaterial();
-
         // Create chunk-based model builder
         ChunkDebugger.quickDebug(map, "Before ChunkedMapModelBuilder");
-        ChunkedMapModelBuilder chunkedBuilder = new ChunkedMapModelBuilder(map);
+        pendingChunkBuilder = new ChunkedMapModelBuilder(map);
+
+        // Queue individual chunk meshes with SOLID geometry only (no water to avoid transparency contamination)
+        pendingChunkBuilder.startChunkMeshGeneration(stoneMaterial, dirtMaterial, grassMaterial, spawnMaterial, pinkWall);
+    }
+
+    /**
+     * Uploads finished chunk meshes within the given time budget and, once every chunk is in,
+     * builds the water model and swaps the new chunks into the render queue.
+     *
+     * @return true when the map update started by {@link #beginMapUpdate} is complete
+     */
+    public boolean continueMapUpdate(long budgetNanos) {
+        if (pendingChunkBuilder == null) {
+            return true;
+        }
+        if (!pendingChunkBuilder.uploadFinishedChunks(budgetNanos)) {
+            return false;
+        }
 
-        // Build individual chunk models with SOLID geometry only (no water to avoid transparency contamination)
-        chunkedBuilder.buildGeometry(null, stoneMaterial, dirtMaterial, grassMaterial, spawnMaterial, pinkWall, null);
+        ChunkedMapModelBuilder chunkedBuilder = pendingChunkBuilder;
+        pendingChunkBuilder = null;
 
-        // Build water surfaces as a SEPARATE model to avoid transparency issues
+        // Build water surfaces as SEPARATE per-chunk models to avoid transparency issues
         ModelBuilder waterModelBuilder = new ModelBuilder();
-        chunkedBuilder.buildWaterGeometry(waterModelBuilder, waterMaterial);
+        chunkedBuilder.buildWaterGeometry(waterModelBuilder, createWaterMaterial());
 
         // Store the chunk builder for rendering
         this.chunkModelBuilder = chunkedBuilder;
@@ -362,8 +397,6 @@ public class GameMapRenderer implements Disposable {
         model = null;
         Log.info("GameMapRenderer", "Built " + chunkedBuilder.getAllChunkInstances().size + " individual chunk models (including water)");
 
-        // Surface materials are now built separately
-
         // Update stats for debug UI
         lastFacesBuilt = chunkedBuilder.getTotalFacesBuilt();
         lastTilesProcessed = chunkedBuilder.getTotalTilesProcessed();
@@ -376,10 +409,34 @@ public class GameMapRenderer implements Disposable {
             Log.info("GameMapRenderer", "Added " + instances.size + " chunk instances to render queue");
         }
 
-        // Surface instances are now handled within individual chunks
-
         long endTime = System.currentTimeMillis();
-        Log.info("GameMapRenderer", "Completed map update in " + (endTime - startTime) + "ms using " + chunkedBuilder.getStrategyDescription());
+        Log.info("GameMapRenderer", "Completed map update in " + (endTime - mapUpdateStartTime) + "ms using " + chunkedBuilder.getStrategyDescription());
+        return true;
+    }
+
+    /**
+     * Rebuilds only the given chunks of the current map after tile edits, instead of a full
+     * {@link #updateMap}. Render thread only.
+     *
+     * @param chunkKeys Dirty chunk keys, e.g. from {@link GameMap#takeDirtyChunks()}
+     */
+    public void rebuildChunks(long[] chunkKeys) {
+        if (chunkModelBuilder == null || chunkKeys.length == 0) {
+            return;
+        }
+        chunkModelBuilder.rebuildChunks(chunkKeys);
+
+        lastFacesBuilt = chunkModelBuilder.getTotalFacesBuilt();
+        lastTilesProcessed = chunkModelBuilder.getTotalTilesProcessed();
+        instances.clear();
+        instances.addAll(chunkModelBuilder.getAllChunkInstances());
+    }
+
+    /**
+     * @return true while a map update started by {@link #beginMapUpdate} is still uploading chunks
+     */
+    public boolean isMapUpdatePending() {
+        return pendingChunkBuilder != null;
     }
 
     private Material createMaterial(Color diffuse, float specular, float shininess) {
@@ -557,6 +614,12 @@ public class GameMapRenderer implements Disposable {
     public void disposeAll() {
         dispose();
 
+        // Drop a map update that never finished uploading
+        if (pendingChunkBuilder != null) {
+            pendingChunkBuilder.dispose();
+            pendingChunkBuilder = null;
+        }
+
         // Dispose rendering components
         if (shadowMapGenerator != null && !disposed) {
             try {
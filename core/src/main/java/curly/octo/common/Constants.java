@@ -20,6 +20,15 @@ public class Constants {
     /** UDP port for bulk transfer channel (map transfers) */
     public static final int BULK_TRANSFER_UDP_PORT = 54778;
 
+    /** Maps kept in the client's on-disk transfer cache before the least recently used is evicted */
+    public static final int MAP_CACHE_MAX_ENTRIES = 8;
+
+    /** Client map cache directory, relative to the user's home directory */
+    public static final String MAP_CACHE_DIRECTORY = ".curly-octo/map-cache";
+
+    /** Times a client downloads a map again after it failed to decode before giving up */
+    public static final int MAP_TRANSFER_MAX_RETRIES = 2;
+
     /** Chunk size for map transfer (8KB) */
     public static final int NETWORK_CHUNK_SIZE = 8192;
 
@@ -31,9 +40,51 @@ public class Constants {
      * KryoNet uses this for TCP read and write buffers on the bulk transfer channel. */
     public static final int BULK_TRANSFER_BUFFER_SIZE = 65536;
 
+    /** Write buffer occupancy at which bulk transfer stops adding chunks to a connection (~56KB, 88% of the bulk buffer) */
+    public static final int BULK_TRANSFER_MAX_PENDING_BYTES = 57344;
+
+    /** Fraction of the bulk write buffer below which KryoNet reports a connection idle and the transfer refills it */
+    public static final float BULK_TRANSFER_IDLE_THRESHOLD = 0.5f;
+
+    /** Chunks a bulk connection is sent per scheduling round when it starts, and at least after backing off */
+    public static final int BULK_TRANSFER_MIN_BURST_CHUNKS = 1;
+
+    /** Most chunks a bulk connection is sent per scheduling round before the next connection's turn */
+    public static final int BULK_TRANSFER_MAX_BURST_CHUNKS = 8;
+
     /** Position update interval in nanoseconds (50 FPS = 20ms) */
     public static final long NETWORK_POSITION_UPDATE_INTERVAL_NS = 20_000_000L;
 
+    /** Interval between world snapshots sent by the server in nanoseconds (50 per second = 20ms) */
+    public static final long NETWORK_SNAPSHOT_INTERVAL_NS = 20_000_000L;
+
+    /** Snapshots each side keeps as delta baselines (0.64 seconds at 50 snapshots per second) */
+    public static final int NETWORK_SNAPSHOT_HISTORY = 32;
+
+    /** Resolution of networked player positions in world units */
+    public static final float NETWORK_POSITION_QUANTUM = 1f / 64f;
+
+    /** Tiles beyond the map bounds that networked positions can still represent before clamping */
+    public static final int NETWORK_POSITION_BOUNDS_MARGIN_TILES = 8;
+
+    /** Received messages each NetworkManager queues lock-free for the next tick; beyond this, coalesced types are dropped and the rest overflow */
+    public static final int NETWORK_INBOUND_QUEUE_CAPACITY = 4096;
+
+    /** Interval between samples of each connection's write buffer and round trip time (1 second) */
+    public static final long NETWORK_TELEMETRY_SAMPLE_INTERVAL_NS = 1_000_000_000L;
+
+    /** Interval between network telemetry dumps to the log (60 seconds) */
+    public static final long NETWORK_TELEMETRY_REPORT_INTERVAL_NS = 60_000_000_000L;
+
+    /** Chunks joined through open space (doorways, corridors) that still count as nearby for replication */
+    public static final int INTEREST_CONNECTED_CHUNK_HOPS = 2;
+
+    /** Chunk radius within which entities outside the nearby set are replicated at a reduced rate */
+    public static final int INTEREST_REDUCED_CHUNK_RADIUS = 4;
+
+    /** Reduced-rate entities are sent in one of this many snapshots (10 per second at 50 snapshots per second) */
+    public static final int INTEREST_REDUCED_RATE_DIVISOR = 5;
+
 
     // =========================
     // MAP GENERATION
@@ -45,9 +96,21 @@ public class Constants {
     /** Number of tiles per chunk side (16x16 chunks) */
     public static final int MAP_CHUNK_SIZE = 16;
 
+    /** Compiled template pack directory, relative to the user's home directory */
+    public static final String TEMPLATE_CACHE_DIRECTORY = ".curly-octo/template-cache";
+
+    /** Templates KissGenerator places before it stops expanding the map */
+    public static final int MAP_KISS_MAX_ROOMS = 100;
+
     /** Default seed for procedural map generation */
     public static final long MAP_GENERATION_SEED = 1756347946230L;
 
+    /** Maps the server generates and encodes ahead of time for upcoming map rotations */
+    public static final int MAP_PREPARATION_QUEUE_SIZE = 2;
+
+    /** Prepared maps in a row a regeneration rejects for failing validation before it keeps the current map */
+    public static final int MAP_REGENERATION_MAX_REJECTED = 5;
+
 
     // =========================
     // PHYSICS SYSTEM
@@ -188,12 +251,33 @@ public class Constants {
     /** Target frame time in nanoseconds */
     public static final long GAME_FRAME_TIME_NS = 1_000_000_000L / GAME_TARGET_FPS;
 
+    /** Extra server ticks run back to back after a stall before the remaining lost time is dropped */
+    public static final int SERVER_TICK_MAX_CATCH_UP = 4;
+
+    /** How long before a tick deadline the server's park ends; about the OS timer slack, so parks rarely overshoot */
+    public static final long SERVER_TICK_WAKE_MARGIN_NS = 100_000L; // 0.1ms
+
+    /** Interval between server tick timing reports */
+    public static final long SERVER_TICK_REPORT_INTERVAL_NS = 30_000_000_000L; // 30s
+
+    /** Matches a dedicated server runs at once; clients are refused once all of them are full */
+    public static final int SERVER_MAX_MATCHES = 32;
+
+    /** Players routed to one match on a dedicated server before a new match is started */
+    public static final int SERVER_MATCH_MAX_PLAYERS = 4;
+
     /** Number of frames between performance reports (5 seconds at 60fps) */
     public static final int RENDERING_PERFORMANCE_REPORT_FRAMES = 300;
 
     /** Maximum allowed frame time before performance warnings */
     public static final long PERFORMANCE_WARNING_THRESHOLD_NS = 20_000_000L; // 20ms
 
+    /** Time per frame spent uploading finished chunk meshes to the GPU while a map loads */
+    public static final long RENDERING_CHUNK_UPLOAD_BUDGET_NS = 4_000_000L; // 4ms
+
+    /** Side of a server spatial grid cell in tiles (4 world units, about one player collision distance) */
+    public static final int SPATIAL_GRID_CELL_TILES = 2;
+
 
     // =========================
     // GEOMETRIC CONSTANTS
@@ -25,8 +25,14 @@ public abstract class GameObject {
 
     public abstract void update(float delta);
 
+    /**
+     * Copies the position in; the caller keeps ownership of {@code newPosition}.
+     */
     public void setPosition(Vector3 newPosition) {
-        this.position = newPosition.cpy();
+        if (position == null) {
+            position = new Vector3();
+        }
+        position.set(newPosition);
     }
 
     public Vector3 getPosition() {
@@ -36,6 +42,15 @@ public abstract class GameObject {
         return position.cpy();
     }
 
+    /**
+     * Copies the position into {@code out} without allocating.
+     * @return out
+     */
+    public Vector3 getPosition(Vector3 out) {
+        Vector3 current = position;
+        return current != null ? out.set(current) : out.setZero();
+    }
+
     public Quaternion getRotation() {
         if (rotation == null) {
             rotation = new Quaternion();
@@ -3,7 +3,7 @@ package curly.octo.common.map;
 import com.badlogic.gdx.math.Vector3;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.common.Constants;
-import curly.octo.common.map.exploration.TileExplorationManager;
+import curly.octo.common.map.exploration.MapConnectivity;
 
 import java.util.*;
 
@@ -12,7 +12,7 @@ import java.util.*;
  *
  * This class provides methods to:
  * - Convert a HashMap<Long, MapTile> into a 3D array of LevelChunks
- * - Perform BFS to find reachable areas and organize tiles into chunks
+ * - Organize tiles into chunks using the map's cached connectivity analysis
  * - Calculate chunk boundaries and manage chunk allocation
  * - Provide utilities for converting between world coordinates and chunk coordinates
  */
@@ -31,41 +31,34 @@ public class ChunkManager {
     }
 
     /**
-     * Organizes all tiles from the GameMap into chunks using multi-pass BFS.
-     * This method processes tiles discovered through multiple BFS passes,
-     * ensuring that both reachable and isolated areas are handled.
+     * Organizes all tiles from the GameMap into chunks using the map's cached connectivity analysis.
+     * Every tile that belongs to a region is placed, so both reachable and isolated areas are handled.
      *
      * @return A set of LevelChunks that contain tiles, organized by reachability
      */
     public Set<LevelChunk> organizeIntoChunks() {
-        Log.info("ChunkManager", "Starting chunk organization with multi-pass BFS");
+        Log.info("ChunkManager", "Starting chunk organization from map connectivity");
 
         Set<LevelChunk> populatedChunks = new HashSet<>();
+        MapConnectivity connectivity = gameMap.getConnectivity();
 
-        // Use TileExplorationManager for multi-pass BFS
-        TileExplorationManager explorationManager = new TileExplorationManager(gameMap);
-        List<Set<MapTile>> allRegions = explorationManager.exploreAllRegions();
-
-        // Process tiles from all discovered regions
-        int regionNumber = 1;
-        for (Set<MapTile> region : allRegions) {
-            Log.info("ChunkManager", String.format("Processing region %d with %d tiles", regionNumber, region.size()));
+        for (int regionId = 1; regionId <= connectivity.getRegionCount(); regionId++) {
+            Log.info("ChunkManager", String.format("Processing region %d with %d tiles", regionId, connectivity.getRegionSize(regionId)));
+        }
 
-            for (MapTile tile : region) {
-                if (placeTileInChunk(tile)) {
-                    LevelChunk chunk = getChunkForTile(tile);
-                    if (chunk != null && chunk.hasContent()) {
-                        populatedChunks.add(chunk);
-                    }
-                }
+        gameMap.forEachPackedTile((x, y, z, packed) -> {
+            if (connectivity.getRegionId(x, y, z) == MapConnectivity.NO_REGION) {
+                return;
             }
-            regionNumber++;
-        }
+            LevelChunk chunk = placeTileInChunk(x, y, z, new MapTile(gameMap, x, y, z, packed));
+            if (chunk != null && chunk.hasContent()) {
+                populatedChunks.add(chunk);
+            }
+        });
 
-        TileExplorationManager.ExplorationStats stats = explorationManager.getStats();
         Log.info("ChunkManager", String.format(
             "Chunk organization complete: %d populated chunks, %s",
-            populatedChunks.size(), stats.toString()));
+            populatedChunks.size(), connectivity.toString()));
 
         // Log detailed placement statistics
         Log.info("ChunkManager", String.format(
@@ -77,24 +70,25 @@ public class ChunkManager {
     }
 
 
-    /**
-     * Places a tile in the appropriate chunk based on its world coordinates.
-     *
-     * @param tile The MapTile to place
-     * @return true if the tile was successfully placed, false otherwise
-     */
     // Counters for debugging
     private int placeTileSuccessCount = 0;
     private int setTileFailureCount = 0;
 
-    private boolean placeTileInChunk(MapTile tile) {
-        Vector3 tileCoords = getTileCoordinates(tile);
-        Vector3 chunkCoords = worldToChunkCoordinates((int)tileCoords.x, (int)tileCoords.y, (int)tileCoords.z);
+    /**
+     * Places a tile in the appropriate chunk based on its tile coordinates.
+     *
+     * @param tile The MapTile to place
+     * @return The chunk the tile was placed in, or null if placement failed
+     */
+    private LevelChunk placeTileInChunk(int tileX, int tileY, int tileZ, MapTile tile) {
+        int chunkX = Math.floorDiv(tileX, LevelChunk.CHUNK_SIZE);
+        int chunkY = Math.floorDiv(tileY, LevelChunk.CHUNK_SIZE);
+        int chunkZ = Math.floorDiv(tileZ, LevelChunk.CHUNK_SIZE);
 
-        // With HashMap approach, we can always create a chunk, so chunkCoords is never null
-        LevelChunk chunk = getOrCreateChunk((int)chunkCoords.x, (int)chunkCoords.y, (int)chunkCoords.z);
+        // With HashMap approach, we can always create a chunk
+        LevelChunk chunk = getOrCreateChunk(chunkX, chunkY, chunkZ);
 
-        boolean success = chunk.setTileByWorldCoordinates((int)tileCoords.x, (int)tileCoords.y, (int)tileCoords.z, tile);
+        boolean success = chunk.setTileByWorldCoordinates(tileX, tileY, tileZ, tile);
         if (success) {
             placeTileSuccessCount++;
             // Log first few successful placements for debugging
@@ -102,8 +96,8 @@ public class ChunkManager {
                 Log.info("ChunkManager", String.format(
                     "SUCCESS: Placed tile %s at tile coords (%d,%d,%d) in chunk (%d,%d,%d)",
                     tile.geometryType.name(),
-                    (int)tileCoords.x, (int)tileCoords.y, (int)tileCoords.z,
-                    (int)chunkCoords.x, (int)chunkCoords.y, (int)chunkCoords.z
+                    tileX, tileY, tileZ,
+                    chunkX, chunkY, chunkZ
                 ));
             }
         } else {
@@ -111,13 +105,48 @@ public class ChunkManager {
             if (setTileFailureCount <= 3) {
                 Log.warn("ChunkManager", String.format(
                     "Failed to set tile at tile coords (%d,%d,%d) in chunk (%d,%d,%d)",
-                    (int)tileCoords.x, (int)tileCoords.y, (int)tileCoords.z,
-                    (int)chunkCoords.x, (int)chunkCoords.y, (int)chunkCoords.z
+                    tileX, tileY, tileZ,
+                    chunkX, chunkY, chunkZ
                 ));
             }
         }
 
-        return success;
+        return success ? chunk : null;
+    }
+
+    /**
+     * Re-reads one chunk's tiles from the map, replacing the previous LevelChunk for those coordinates.
+     * Used after tile edits; the same region filter as {@link #organizeIntoChunks()} applies.
+     *
+     * @return The new chunk, or null if the chunk no longer holds any tiles
+     */
+    public LevelChunk rebuildChunk(int chunkX, int chunkY, int chunkZ) {
+        long key = encodeChunkCoordinates(chunkX, chunkY, chunkZ);
+        chunks.remove(key);
+
+        MapConnectivity connectivity = gameMap.getConnectivity();
+        LevelChunk chunk = new LevelChunk(chunkX, chunkY, chunkZ);
+        boolean hasTiles = false;
+        for (int y = chunk.getOriginTileY(); y < chunk.getOriginTileY() + LevelChunk.CHUNK_SIZE; y++) {
+            for (int z = chunk.getOriginTileZ(); z < chunk.getOriginTileZ() + LevelChunk.CHUNK_SIZE; z++) {
+                for (int x = chunk.getOriginTileX(); x < chunk.getOriginTileX() + LevelChunk.CHUNK_SIZE; x++) {
+                    if (connectivity.getRegionId(x, y, z) == MapConnectivity.NO_REGION) {
+                        continue;
+                    }
+                    MapTile tile = gameMap.getTile(x, y, z);
+                    if (tile != null) {
+                        chunk.setTileByWorldCoordinates(x, y, z, tile);
+                        hasTiles = true;
+                    }
+                }
+            }
+        }
+
+        if (!hasTiles) {
+            return null;
+        }
+        chunks.put(key, chunk);
+        return chunk;
     }
 
     /**
@@ -164,10 +193,10 @@ public class ChunkManager {
      * @param chunkZ Chunk Z coordinate
      * @return Encoded long key
      */
-    private long encodeChunkCoordinates(int chunkX, int chunkY, int chunkZ) {
+    public static long encodeChunkCoordinates(int chunkX, int chunkY, int chunkZ) {
         // Use the same encoding as GameMap for consistency
         // This supports coordinates from -1048576 to 1048575 in each dimension
-        return (((long)chunkX & 0x1FFFFF) << 42) | (((long)chunkY & 0x1FFFFF) << 21) | ((long)chunkZ & 0x1FFFFF);
+        return GameMap.packTileKey(chunkX, chunkY, chunkZ);
     }
 
     /**
@@ -240,28 +269,18 @@ public class ChunkManager {
      * Calculates the bounds needed for the chunk system based on the tiles in the GameMap.
      */
     private void calculateBounds() {
-        if (gameMap.getAllTiles().isEmpty()) {
+        MapConnectivity connectivity = gameMap.getConnectivity();
+        if (connectivity.isEmpty()) {
             minWorldCoords = new Vector3(0, 0, 0);
             maxWorldCoords = new Vector3(0, 0, 0);
             worldBounds = new Vector3(1, 1, 1);
             return;
         }
 
-        float minX = Float.MAX_VALUE, maxX = Float.MIN_VALUE;
-        float minY = Float.MAX_VALUE, maxY = Float.MIN_VALUE;
-        float minZ = Float.MAX_VALUE, maxZ = Float.MIN_VALUE;
-
-        // Find the actual bounds of all tiles
-        for (MapTile tile : gameMap.getAllTiles()) {
-            Vector3 tileCoords = getTileCoordinates(tile);
-
-            minX = Math.min(minX, tileCoords.x);
-            maxX = Math.max(maxX, tileCoords.x);
-            minY = Math.min(minY, tileCoords.y);
-            maxY = Math.max(maxY, tileCoords.y);
-            minZ = Math.min(minZ, tileCoords.z);
-            maxZ = Math.max(maxZ, tileCoords.z);
-        }
+        // The connectivity analysis already tracked the bounds of all tiles
+        int minX = connectivity.getMinX(), maxX = connectivity.getMaxX();
+        int minY = connectivity.getMinY(), maxY = connectivity.getMaxY();
+        int minZ = connectivity.getMinZ(), maxZ = connectivity.getMaxZ();
 
         minWorldCoords = new Vector3(minX, minY, minZ);
         maxWorldCoords = new Vector3(maxX, maxY, maxZ);
@@ -269,7 +288,7 @@ public class ChunkManager {
 
         Log.info("ChunkManager",
             String.format("World bounds: min(%d, %d, %d) to max(%d, %d, %d), size(%d, %d, %d)",
-                (int)minX, (int)minY, (int)minZ, (int)maxX, (int)maxY, (int)maxZ,
+                minX, minY, minZ, maxX, maxY, maxZ,
                 (int)worldBounds.x, (int)worldBounds.y, (int)worldBounds.z));
     }
 
@@ -14,16 +14,23 @@ import com.badlogic.gdx.physics.bullet.linearmath.btDefaultMotionState;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.common.map.enums.MapTileFillType;
 import curly.octo.common.map.enums.MapTileGeometryType;
+import curly.octo.common.map.exploration.MapConnectivity;
+import curly.octo.common.map.exploration.TileKeySet;
 import curly.octo.common.map.generators.KissGenerator;
+import curly.octo.common.map.hints.LightHint;
 import curly.octo.common.map.hints.MapHint;
 import curly.octo.common.map.physics.AllTilesPhysicsBodyBuilder;
 import curly.octo.common.map.physics.BFSPhysicsBodyBuilder;
 import curly.octo.common.map.physics.PhysicsBodyBuilder;
+import curly.octo.common.map.storage.ChunkedTileStorage;
+import curly.octo.common.map.storage.PackedTile;
+import curly.octo.common.map.storage.TileStorage;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * Handles the generation and management of a voxel-based dungeon map.
@@ -31,9 +38,16 @@ import java.util.Random;
 public class GameMap {
 
     private String mapId;
-    private HashMap<Long, MapTile> map;
+    private TileStorage tiles;
     private HashMap<Class, HashMap<Long, ArrayList<MapHint>>> hints;
 
+    // String table for template names referenced by packed tiles (id = index)
+    private ArrayList<String> templateNames;
+    private transient HashMap<String, Integer> templateIds;
+
+    // Connectivity analysis shared by chunking, meshing and physics; dropped whenever a tile changes
+    private transient volatile MapConnectivity connectivity;
+
     // Collision groups
     public static final int GROUND_GROUP = 1 << 0;
     public static final int PLAYER_GROUP = 1 << 1;
@@ -56,10 +70,13 @@ public class GameMap {
     private transient boolean debugRenderingEnabled = true;
     private transient boolean playerOnlyDebugEnabled = false; // Toggle for player-only debug rendering
 
-    // Triangle mesh physics optimization
-    private transient btTriangleMesh triangleMesh;
-    private transient btBvhTriangleMeshShape terrainShape;
-    private transient btRigidBody terrainBody;
+    // Triangle mesh physics, one static body per chunk so tile edits only rebuild the chunks they touch
+    private transient final HashMap<Long, ChunkCollision> chunkCollision = new HashMap<>();
+
+    // Chunks (keyed like packTileKey on chunk coordinates) whose tiles changed since the last takeDirtyChunks().
+    // Only tracked once a renderer drains them, so server maps don't collect keys nobody reads.
+    private transient final TileKeySet dirtyChunks = new TileKeySet();
+    private transient boolean dirtyChunkTracking;
 
     // Performance metrics
     public transient long totalTriangleCount = 0;
@@ -70,18 +87,26 @@ public class GameMap {
         BFS_BOUNDARY    // Build physics only for boundary tiles reachable from spawn points
     }
     private transient PhysicsStrategy physicsStrategy = PhysicsStrategy.BFS_BOUNDARY;
+    private transient boolean greedyPhysicsMeshing = true;
 
 
     // Default constructor required for Kryo
     public GameMap() {
         // Initialize HashMaps for Kryo deserialization
-        map = new HashMap<>();
+        this(new ChunkedTileStorage());
+    }
+
+    /**
+     * Creates an empty map backed by the given tile storage.
+     */
+    public GameMap(TileStorage tileStorage) {
+        tiles = tileStorage;
         hints = new HashMap<>();
+        templateNames = new ArrayList<>();
     }
 
     public GameMap(long seed) {
-        map = new HashMap<>();
-        hints = new HashMap<>();
+        this(new ChunkedTileStorage());
         this.random = new Random(seed);
         generateDungeon();
         initializePhysics();
@@ -92,9 +117,10 @@ public class GameMap {
      * Used for hosted servers that only need the map for network distribution.
      */
     public GameMap(long seed, boolean serverOnly) {
-        map = new HashMap<>();
-        hints = new HashMap<>();
+        this(new ChunkedTileStorage());
         this.random = new Random(seed);
+        // Derived from the seed, like everything else on the map, so clients can recognise a map they have seen
+        this.mapId = "seed-" + Long.toHexString(seed);
         if (serverOnly) {
             // Generate map tiles only, skip physics completely
             generateDungeonServerOnly();
@@ -129,8 +155,19 @@ public class GameMap {
         Log.info("GameMap.generateDungeonServerOnly", "Generating tiles (server-only)");
 //        TemplateGenerator generator = new TemplateGenerator(random, this);
         KissGenerator generator = new KissGenerator(random, this);
-        this.mapId = String.valueOf(System.currentTimeMillis());
         generator.generate();
+        assignLightIds();
+    }
+
+    /**
+     * Replaces the lights' random entity ids with ones derived from the map id and hint order, which a seed
+     * always reproduces.
+     */
+    private void assignLightIds() {
+        int index = 0;
+        for (MapHint hint : getAllHintsOfType(LightHint.class)) {
+            ((LightHint) hint).entityId = mapId + "-light-" + index++;
+        }
     }
 
     public MapTile touchTile(Vector3 coordinate, String templateName) {
@@ -138,19 +175,15 @@ public class GameMap {
     }
 
     public MapTile touchTile(int x, int y, int z, String templateName) {
-        if (getTile(x, y, z) == null) {
-            MapTile newBasicTile = new MapTile();
-            newBasicTile.geometryType = MapTileGeometryType.EMPTY;
-            newBasicTile.fillType = MapTileFillType.AIR;
-            // Set world coordinates based on tile index and tile size
-            newBasicTile.x = x * Constants.MAP_TILE_SIZE;
-            newBasicTile.y = y * Constants.MAP_TILE_SIZE;
-            newBasicTile.z = z * Constants.MAP_TILE_SIZE;
-            newBasicTile.templateName = templateName;
-            map.put(constructKeyFromIndexCoordinates(x, y, z), newBasicTile);
-            return newBasicTile;
+        int packed = tiles.get(x, y, z);
+        if (packed == PackedTile.NONE) {
+            // New tiles start as EMPTY/AIR
+            packed = PackedTile.defaultTile(internTemplateName(templateName));
+            tiles.set(x, y, z, packed);
+            connectivity = null;
+            markTileDirty(x, y, z);
         }
-        return getTile(x, y, z);
+        return new MapTile(this, x, y, z, packed);
     }
 
     public MapTile getTileFromWorldCoordinates(float worldX, float worldY, float worldZ) {
@@ -161,19 +194,267 @@ public class GameMap {
     }
 
     public MapTile getTile(int x, int y, int z) {
-        return getTile(constructKeyFromIndexCoordinates(x,y,z));
+        int packed = tiles.get(x, y, z);
+        if (packed == PackedTile.NONE) {
+            return null;
+        }
+        return new MapTile(this, x, y, z, packed);
     }
 
     public MapTile getTile(Vector3 coordinates) {
-        return getTile(constructKeyFromIndexCoordinates((int)coordinates.x,(int)coordinates.y,(int)coordinates.z));
+        return getTile((int)coordinates.x, (int)coordinates.y, (int)coordinates.z);
     }
 
     public MapTile getTile(Long tileKey) {
-        return map.getOrDefault(tileKey, null);
+        if (tileKey == null) {
+            return null;
+        }
+        return getTile(keyToIndexX(tileKey), keyToIndexY(tileKey), keyToIndexZ(tileKey));
     }
 
+    /**
+     * Builds a view for every tile in the map. Prefer {@link #forEachPackedTile} or
+     * {@link #getTileCount()} on hot paths, this allocates one MapTile per voxel.
+     */
     public ArrayList<MapTile> getAllTiles () {
-        return new ArrayList<>(map.values());
+        ArrayList<MapTile> allTiles = new ArrayList<>(tiles.size());
+        tiles.forEach((x, y, z, packed) -> allTiles.add(new MapTile(this, x, y, z, packed)));
+        return allTiles;
+    }
+
+    /**
+     * @return Number of tiles in the map, without materializing them
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * @return Number of tiles with the given geometry, without visiting them
+     */
+    public int getTileCount(MapTileGeometryType geometryType) {
+        return tiles.count(geometryType);
+    }
+
+    /**
+     * @return Number of tiles with the given fill, without visiting them
+     */
+    public int getTileCount(MapTileFillType fillType) {
+        return tiles.count(fillType);
+    }
+
+    /**
+     * Visits every tile as a packed int (see {@link PackedTile}) without allocating views.
+     */
+    public void forEachPackedTile(TileStorage.Visitor visitor) {
+        tiles.forEach(visitor);
+    }
+
+    /**
+     * @return The packed tile at the given tile index, or {@link PackedTile#NONE} if there is none
+     */
+    public int getPackedTile(int x, int y, int z) {
+        return tiles.get(x, y, z);
+    }
+
+    /**
+     * Overwrites the packed tile at the given tile index. Passing {@link PackedTile#NONE} removes the tile.
+     */
+    public void setPackedTile(int x, int y, int z, int packed) {
+        tiles.set(x, y, z, packed);
+        connectivity = null;
+        markTileDirty(x, y, z);
+    }
+
+    /**
+     * Marks the chunk holding the given tile as dirty, plus the neighboring chunk across every chunk
+     * face the tile touches, since face culling there depends on this tile. Does nothing unless
+     * {@link #setDirtyChunkTracking} turned tracking on.
+     */
+    public void markTileDirty(int x, int y, int z) {
+        if (!dirtyChunkTracking) {
+            return;
+        }
+        int size = LevelChunk.CHUNK_SIZE;
+        int chunkX = Math.floorDiv(x, size);
+        int chunkY = Math.floorDiv(y, size);
+        int chunkZ = Math.floorDiv(z, size);
+        dirtyChunks.add(packTileKey(chunkX, chunkY, chunkZ));
+
+        int localX = x - chunkX * size;
+        int localY = y - chunkY * size;
+        int localZ = z - chunkZ * size;
+        if (localX == 0) dirtyChunks.add(packTileKey(chunkX - 1, chunkY, chunkZ));
+        if (localX == size - 1) dirtyChunks.add(packTileKey(chunkX + 1, chunkY, chunkZ));
+        if (localY == 0) dirtyChunks.add(packTileKey(chunkX, chunkY - 1, chunkZ));
+        if (localY == size - 1) dirtyChunks.add(packTileKey(chunkX, chunkY + 1, chunkZ));
+        if (localZ == 0) dirtyChunks.add(packTileKey(chunkX, chunkY, chunkZ - 1));
+        if (localZ == size - 1) dirtyChunks.add(packTileKey(chunkX, chunkY, chunkZ + 1));
+    }
+
+    /**
+     * Turns dirty chunk tracking on or off and forgets any chunks marked so far. Off by default; whoever
+     * rebuilds chunks from {@link #takeDirtyChunks()} turns it on once its first full build has read the map.
+     */
+    public void setDirtyChunkTracking(boolean enabled) {
+        dirtyChunkTracking = enabled;
+        dirtyChunks.clear();
+    }
+
+    /**
+     * @return true if tiles changed since the last {@link #takeDirtyChunks()}
+     */
+    public boolean hasDirtyChunks() {
+        return !dirtyChunks.isEmpty();
+    }
+
+    /**
+     * Returns and clears the set of chunks changed by tile edits. Keys are chunk coordinates packed
+     * with {@link #packTileKey}. Not thread-safe; edit and drain from the same thread.
+     */
+    public long[] takeDirtyChunks() {
+        long[] keys = dirtyChunks.toArray();
+        dirtyChunks.clear();
+        return keys;
+    }
+
+    /**
+     * Direct access to the tile storage. Writes made here bypass connectivity invalidation and dirty
+     * chunk tracking, call {@link #invalidateConnectivity()} and {@link #markTileDirty} afterwards.
+     */
+    public TileStorage getTileStorage() {
+        return tiles;
+    }
+
+    /**
+     * @return Region, reachability and boundary face analysis of the current tiles. Computed on first use
+     *         and cached until a tile or spawn hint changes.
+     */
+    public MapConnectivity getConnectivity() {
+        MapConnectivity result = connectivity;
+        if (result == null) {
+            synchronized (this) {
+                result = connectivity;
+                if (result == null) {
+                    result = MapConnectivity.compute(this);
+                    connectivity = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public void invalidateConnectivity() {
+        connectivity = null;
+    }
+
+    // Neighbor queries on tile index coordinates. None of these allocate.
+
+    public boolean hasTile(int x, int y, int z) {
+        return tiles.get(x, y, z) != PackedTile.NONE;
+    }
+
+    /**
+     * @return true if a tile exists here and its geometry is not EMPTY
+     */
+    public boolean isSolidTile(int x, int y, int z) {
+        return PackedTile.isSolid(tiles.get(x, y, z));
+    }
+
+    /**
+     * @return true if a tile exists here and its geometry is EMPTY
+     */
+    public boolean isEmptyTile(int x, int y, int z) {
+        return PackedTile.isEmpty(tiles.get(x, y, z));
+    }
+
+    /**
+     * @return The packed neighbor of (x, y, z) across the given {@link TileFaces} face
+     */
+    public int getNeighborPackedTile(int x, int y, int z, int face) {
+        return tiles.get(x + TileFaces.dx(face), y + TileFaces.dy(face), z + TileFaces.dz(face));
+    }
+
+    /**
+     * @return Face mask of neighbors that are missing or EMPTY, i.e. the faces of a solid tile
+     *         that plain neighbor culling would keep
+     */
+    public int getOpenFaceMask(int x, int y, int z) {
+        int mask = TileFaces.NONE;
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            int neighbor = getNeighborPackedTile(x, y, z, face);
+            if (neighbor == PackedTile.NONE || PackedTile.isEmpty(neighbor)) {
+                mask |= TileFaces.bit(face);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return Face mask of neighbors that exist and are EMPTY
+     */
+    public int getEmptyNeighborMask(int x, int y, int z) {
+        int mask = TileFaces.NONE;
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            if (PackedTile.isEmpty(getNeighborPackedTile(x, y, z, face))) {
+                mask |= TileFaces.bit(face);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return Face mask of neighbors that exist and are solid
+     */
+    public int getSolidNeighborMask(int x, int y, int z) {
+        int mask = TileFaces.NONE;
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            if (PackedTile.isSolid(getNeighborPackedTile(x, y, z, face))) {
+                mask |= TileFaces.bit(face);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return The id of the given template name in this map's string table, adding it if needed
+     */
+    public int internTemplateName(String templateName) {
+        if (templateIds == null) {
+            rebuildTemplateIds();
+        }
+        Integer id = templateIds.get(templateName);
+        if (id == null) {
+            if (templateNames.size() > PackedTile.MAX_TEMPLATE_ID) {
+                Log.warn("GameMap", "Template name table full, dropping name " + templateName);
+                return 0;
+            }
+            id = templateNames.size();
+            templateNames.add(templateName);
+            templateIds.put(templateName, id);
+        }
+        return id;
+    }
+
+    public String getTemplateName(int templateId) {
+        if (templateId < 0 || templateId >= templateNames.size()) {
+            return "<unknown>";
+        }
+        return templateNames.get(templateId);
+    }
+
+    /**
+     * @return Number of entries in the template name string table; ids run from 0 to this minus one
+     */
+    public int getTemplateNameCount() {
+        return templateNames.size();
+    }
+
+    private void rebuildTemplateIds() {
+        templateIds = new HashMap<>();
+        for (int i = 0; i < templateNames.size(); i++) {
+            templateIds.put(templateNames.get(i), i);
+        }
     }
 
     public long constructKeyFromWorldCoordinates(float worldX, float worldY, float worldZ) {
@@ -184,9 +465,50 @@ public class GameMap {
     }
 
     public Long constructKeyFromIndexCoordinates(int x, int y, int z) {
+        return packTileKey(x, y, z);
+    }
+
+    /**
+     * Primitive form of {@link #constructKeyFromIndexCoordinates}, for callers that must not box.
+     */
+    public static long packTileKey(int x, int y, int z) {
         return (((long)x & 0x1FFFFF) << 42) | (((long)y & 0x1FFFFF) << 21) | ((long)z & 0x1FFFFF);
     }
 
+    // Inverse of constructKeyFromIndexCoordinates, sign-extending each 21-bit field
+    public static int keyToIndexX(long key) {
+        return ((int)(key >>> 42) << 11) >> 11;
+    }
+
+    public static int keyToIndexY(long key) {
+        return ((int)(key >>> 21) << 11) >> 11;
+    }
+
+    public static int keyToIndexZ(long key) {
+        return ((int)key << 11) >> 11;
+    }
+
+    /**
+     * @return All hints of any type registered for the given tile key
+     */
+    public ArrayList<MapHint> getHintsForTile(Long tileKey) {
+        ArrayList<MapHint> tileHints = new ArrayList<>();
+        for (HashMap<Long, ArrayList<MapHint>> hintsByTile : hints.values()) {
+            ArrayList<MapHint> hintsOnTile = hintsByTile.get(tileKey);
+            if (hintsOnTile != null) {
+                tileHints.addAll(hintsOnTile);
+            }
+        }
+        return tileHints;
+    }
+
+    /**
+     * @return Every hint class that has at least one hint registered on this map
+     */
+    public Set<Class> getHintTypes() {
+        return hints.keySet();
+    }
+
     public ArrayList<MapHint> getAllHintsOfType(Class hintType) {
         ArrayList<MapHint> allHints = new ArrayList<>();
         if (hints.containsKey(hintType)) {
@@ -232,22 +554,55 @@ public class GameMap {
     private void generateTriangleMeshPhysics() {
         if (!physicsInitialized) initializePhysics();
 
-        // Clean up existing triangle mesh
-        if (terrainBody != null) {
-            dynamicsWorld.removeRigidBody(terrainBody);
-            terrainBody.dispose();
-            terrainBody = null;
+        // Clean up existing terrain physics if any
+        disposeChunkCollision();
+        totalTriangleCount = 0;
+
+        // Create the appropriate physics builder based on strategy
+        PhysicsBodyBuilder builder = createPhysicsBodyBuilder();
+
+        // Build one collision body per chunk-aligned block of the map
+        MapConnectivity connectivity = getConnectivity();
+        if (!connectivity.isEmpty()) {
+            int size = LevelChunk.CHUNK_SIZE;
+            for (int chunkY = Math.floorDiv(connectivity.getMinY(), size); chunkY <= Math.floorDiv(connectivity.getMaxY(), size); chunkY++) {
+                for (int chunkZ = Math.floorDiv(connectivity.getMinZ(), size); chunkZ <= Math.floorDiv(connectivity.getMaxZ(), size); chunkZ++) {
+                    for (int chunkX = Math.floorDiv(connectivity.getMinX(), size); chunkX <= Math.floorDiv(connectivity.getMaxX(), size); chunkX++) {
+                        buildChunkCollision(builder, chunkX, chunkY, chunkZ);
+                    }
+                }
+            }
         }
-        if (terrainShape != null) {
-            terrainShape.dispose();
-            terrainShape = null;
+
+        if (totalTriangleCount > 0) {
+            Log.info("GameMap", "Generated triangle mesh with " + totalTriangleCount + " triangles in " + chunkCollision.size() + " chunk bodies using " + builder.getStrategyDescription());
+        } else {
+            Log.warn("GameMap", "No triangles generated - skipping physics body creation. " + builder.getStrategyDescription());
         }
-        if (triangleMesh != null) {
-            triangleMesh.dispose();
-            triangleMesh = null;
+    }
+
+    /**
+     * Rebuilds the collision bodies of the given chunks only, e.g. the keys from {@link #takeDirtyChunks()}.
+     * Other chunk bodies are left untouched.
+     */
+    public void rebuildPhysicsChunks(long[] chunkKeys) {
+        if (!physicsInitialized) return;
+
+        long startTime = System.nanoTime();
+        PhysicsBodyBuilder builder = createPhysicsBodyBuilder();
+        for (long chunkKey : chunkKeys) {
+            ChunkCollision old = chunkCollision.remove(chunkKey);
+            if (old != null) {
+                totalTriangleCount -= old.triangleCount;
+                old.dispose(dynamicsWorld);
+            }
+            buildChunkCollision(builder, keyToIndexX(chunkKey), keyToIndexY(chunkKey), keyToIndexZ(chunkKey));
         }
+        Log.info("GameMap", String.format("Rebuilt physics for %d chunks in %.2fms (%d triangles total)",
+            chunkKeys.length, (System.nanoTime() - startTime) / 1_000_000f, totalTriangleCount));
+    }
 
-        // Create the appropriate physics builder based on strategy
+    private PhysicsBodyBuilder createPhysicsBodyBuilder() {
         PhysicsBodyBuilder builder;
         switch (physicsStrategy) {
             case BFS_BOUNDARY:
@@ -258,30 +613,72 @@ public class GameMap {
                 builder = new AllTilesPhysicsBodyBuilder(this);
                 break;
         }
+        builder.setGreedyMerging(greedyPhysicsMeshing);
+        return builder;
+    }
 
-        // Build the triangle mesh using the selected strategy
-        triangleMesh = builder.buildTriangleMesh();
-        totalTriangleCount = builder.getTotalTriangleCount();
+    private void buildChunkCollision(PhysicsBodyBuilder builder, int chunkX, int chunkY, int chunkZ) {
+        int size = LevelChunk.CHUNK_SIZE;
+        int minX = chunkX * size, minY = chunkY * size, minZ = chunkZ * size;
+        btTriangleMesh mesh = builder.buildTriangleMesh(minX, minY, minZ, minX + size - 1, minY + size - 1, minZ + size - 1);
+        long triangles = builder.getTotalTriangleCount();
 
         // Only create physics bodies if we have triangles
-        if (totalTriangleCount > 0) {
-            // Create the collision shape from the triangle mesh
-            terrainShape = new btBvhTriangleMeshShape(triangleMesh, true);
+        if (triangles == 0) {
+            mesh.dispose();
+            return;
+        }
 
-            // Create the rigid body
-            Matrix4 transform = new Matrix4().idt();
-            btDefaultMotionState motionState = new btDefaultMotionState(transform);
-            btRigidBody.btRigidBodyConstructionInfo info =
-                new btRigidBody.btRigidBodyConstructionInfo(0, motionState, terrainShape, Vector3.Zero);
-            terrainBody = new btRigidBody(info);
-            terrainBody.setCollisionFlags(terrainBody.getCollisionFlags() | btCollisionObject.CollisionFlags.CF_STATIC_OBJECT);
+        // Create the collision shape from the triangle mesh
+        btBvhTriangleMeshShape shape = new btBvhTriangleMeshShape(mesh, true);
 
-            dynamicsWorld.addRigidBody(terrainBody, GROUND_GROUP, PLAYER_GROUP);
-            info.dispose();
+        // Create the rigid body
+        btDefaultMotionState motionState = new btDefaultMotionState(new Matrix4().idt());
+        btRigidBody.btRigidBodyConstructionInfo info =
+            new btRigidBody.btRigidBodyConstructionInfo(0, motionState, shape, Vector3.Zero);
+        btRigidBody body = new btRigidBody(info);
+        body.setCollisionFlags(body.getCollisionFlags() | btCollisionObject.CollisionFlags.CF_STATIC_OBJECT);
+        info.dispose();
 
-            Log.info("GameMap", "Generated triangle mesh with " + totalTriangleCount + " triangles using " + builder.getStrategyDescription());
-        } else {
-            Log.warn("GameMap", "No triangles generated - skipping physics body creation. " + builder.getStrategyDescription());
+        dynamicsWorld.addRigidBody(body, GROUND_GROUP, PLAYER_GROUP);
+        chunkCollision.put(packTileKey(chunkX, chunkY, chunkZ), new ChunkCollision(mesh, shape, motionState, body, triangles));
+        totalTriangleCount += triangles;
+    }
+
+    private void disposeChunkCollision() {
+        for (ChunkCollision collision : chunkCollision.values()) {
+            collision.dispose(dynamicsWorld);
+        }
+        chunkCollision.clear();
+    }
+
+    /**
+     * Bullet objects making up the static collision of one chunk.
+     */
+    private static class ChunkCollision {
+        final btTriangleMesh mesh;
+        final btBvhTriangleMeshShape shape;
+        final btDefaultMotionState motionState;
+        final btRigidBody body;
+        final long triangleCount;
+
+        ChunkCollision(btTriangleMesh mesh, btBvhTriangleMeshShape shape, btDefaultMotionState motionState,
+                       btRigidBody body, long triangleCount) {
+            this.mesh = mesh;
+            this.shape = shape;
+            this.motionState = motionState;
+            this.body = body;
+            this.triangleCount = triangleCount;
+        }
+
+        void dispose(btDiscreteDynamicsWorld world) {
+            if (world != null) {
+                world.removeRigidBody(body);
+            }
+            body.dispose();
+            motionState.dispose();
+            shape.dispose();
+            mesh.dispose();
         }
     }
 
@@ -293,6 +690,8 @@ public class GameMap {
             hints.get(hint.getClass()).put(hint.tileLookupKey, new ArrayList<>());
         }
         hints.get(hint.getClass()).get(hint.tileLookupKey).add(hint);
+        // Spawn hints seed the reachable region
+        connectivity = null;
     }
 
     /**
@@ -311,6 +710,19 @@ public class GameMap {
         return physicsStrategy;
     }
 
+    /**
+     * Enable or disable greedy merging of FULL tile faces in the physics triangle mesh.
+     * Takes effect the next time physics is generated.
+     * @param greedy true to merge coplanar faces into larger rectangles
+     */
+    public void setGreedyPhysicsMeshing(boolean greedy) {
+        this.greedyPhysicsMeshing = greedy;
+    }
+
+    public boolean isGreedyPhysicsMeshing() {
+        return greedyPhysicsMeshing;
+    }
+
     /**
      * Regenerate physics with current strategy. Useful for testing different approaches.
      */
@@ -473,6 +885,10 @@ public class GameMap {
         return new Vector3();
     }
 
+    public void setMapId(String mapId) {
+        this.mapId = mapId;
+    }
+
     public String getMapId() {
         return mapId;
     }
@@ -507,19 +923,7 @@ public class GameMap {
             playerRigidBody = null;
         }
         // Dispose triangle mesh physics
-        if (terrainBody != null) {
-            dynamicsWorld.removeRigidBody(terrainBody);
-            terrainBody.dispose();
-            terrainBody = null;
-        }
-        if (terrainShape != null) {
-            terrainShape.dispose();
-            terrainShape = null;
-        }
-        if (triangleMesh != null) {
-            triangleMesh.dispose();
-            triangleMesh = null;
-        }
+        disposeChunkCollision();
 
         for (btRigidBody body : staticBodies) {
             dynamicsWorld.removeRigidBody(body);
@@ -0,0 +1,114 @@
+package curly.octo.common.map;
+
+import java.util.Arrays;
+
+/**
+ * Greedy face merging over one cubic block of tiles (normally a {@link LevelChunk}).
+ *
+ * For every face direction and every slice of the block, faces with the same non-zero key are
+ * coalesced into the largest rectangles found scanning row by row. Callers decide what a key means
+ * (e.g. material for rendering, "solid" for physics) and which faces exist; this class only merges.
+ *
+ * Instances keep a scratch mask and are not thread-safe; use one per thread.
+ */
+public class GreedyMesher {
+
+    /**
+     * Supplies the merge key of one tile face. 0 means there is no face to emit.
+     */
+    public interface FaceSource {
+        int faceKey(int tileX, int tileY, int tileZ, int face);
+    }
+
+    /**
+     * Receives merged faces. The rectangle is described as the tile-space box it covers: it starts at
+     * (tileX, tileY, tileZ) and spans (sizeX, sizeY, sizeZ) tiles, with size 1 along the face's axis.
+     * The face itself is the side of that box given by {@code face}.
+     */
+    public interface QuadVisitor {
+        void quad(int face, int key, int tileX, int tileY, int tileZ, int sizeX, int sizeY, int sizeZ);
+    }
+
+    private final int size;
+    private final int[] mask;
+
+    public GreedyMesher(int size) {
+        this.size = size;
+        this.mask = new int[size * size];
+    }
+
+    /**
+     * Merges every face of the block starting at the given tile origin.
+     *
+     * @return Number of merged quads emitted
+     */
+    public int mesh(int originX, int originY, int originZ, FaceSource source, QuadVisitor visitor) {
+        int quads = 0;
+        int[] position = new int[3];
+        int[] extent = new int[3];
+
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            int axis = face >> 1;
+            int uAxis = (axis + 1) % 3;
+            int vAxis = (axis + 2) % 3;
+
+            for (int d = 0; d < size; d++) {
+                // Collect this slice's face keys
+                position[axis] = d;
+                for (int v = 0; v < size; v++) {
+                    position[vAxis] = v;
+                    for (int u = 0; u < size; u++) {
+                        position[uAxis] = u;
+                        mask[u + v * size] = source.faceKey(
+                            originX + position[0], originY + position[1], originZ + position[2], face);
+                    }
+                }
+
+                // Cover the slice with rectangles of equal keys
+                for (int v = 0; v < size; v++) {
+                    for (int u = 0; u < size; ) {
+                        int key = mask[u + v * size];
+                        if (key == 0) {
+                            u++;
+                            continue;
+                        }
+
+                        int width = 1;
+                        while (u + width < size && mask[u + width + v * size] == key) {
+                            width++;
+                        }
+
+                        int height = 1;
+                        grow:
+                        while (v + height < size) {
+                            int row = (v + height) * size;
+                            for (int k = 0; k < width; k++) {
+                                if (mask[u + k + row] != key) {
+                                    break grow;
+                                }
+                            }
+                            height++;
+                        }
+
+                        for (int h = 0; h < height; h++) {
+                            Arrays.fill(mask, u + (v + h) * size, u + width + (v + h) * size, 0);
+                        }
+
+                        position[uAxis] = u;
+                        position[vAxis] = v;
+                        extent[axis] = 1;
+                        extent[uAxis] = width;
+                        extent[vAxis] = height;
+                        visitor.quad(face, key,
+                            originX + position[0], originY + position[1], originZ + position[2],
+                            extent[0], extent[1], extent[2]);
+                        quads++;
+
+                        u += width;
+                    }
+                }
+            }
+        }
+        return quads;
+    }
+}
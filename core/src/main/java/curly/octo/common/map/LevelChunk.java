@@ -23,6 +23,7 @@ public class LevelChunk {
     private final MapTile[][][] tiles;
     private final Vector3 chunkCoordinates;
     private final Vector3 worldOffset;
+    private final int originTileX, originTileY, originTileZ;
     private boolean hasContent;
     private int solidTileCount;
 
@@ -41,6 +42,9 @@ public class LevelChunk {
             chunkY * CHUNK_SIZE * Constants.MAP_TILE_SIZE,
             chunkZ * CHUNK_SIZE * Constants.MAP_TILE_SIZE
         );
+        this.originTileX = chunkX * CHUNK_SIZE;
+        this.originTileY = chunkY * CHUNK_SIZE;
+        this.originTileZ = chunkZ * CHUNK_SIZE;
         this.hasContent = false;
         this.solidTileCount = 0;
     }
@@ -148,6 +152,39 @@ public class LevelChunk {
         return tileMap;
     }
 
+    /**
+     * Visits every non-null tile in this chunk without building the string-keyed map
+     * that {@link #getAllTiles()} returns.
+     *
+     * @param visitor Callback receiving the tile's global tile index and the tile
+     */
+    public void forEachTile(TileVisitor visitor) {
+        for (int x = 0; x < CHUNK_SIZE; x++) {
+            for (int y = 0; y < CHUNK_SIZE; y++) {
+                for (int z = 0; z < CHUNK_SIZE; z++) {
+                    MapTile tile = tiles[x][y][z];
+                    if (tile != null) {
+                        visitor.visit(originTileX + x, originTileY + y, originTileZ + z, tile);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a global tile index falls inside this chunk.
+     */
+    public boolean containsTileIndex(int tileX, int tileY, int tileZ) {
+        return isValidLocalCoordinate(tileX - originTileX, tileY - originTileY, tileZ - originTileZ);
+    }
+
+    /**
+     * Callback for {@link #forEachTile(TileVisitor)}.
+     */
+    public interface TileVisitor {
+        void visit(int tileX, int tileY, int tileZ, MapTile tile);
+    }
+
     /**
      * Checks if local coordinates are valid for this chunk.
      */
@@ -190,6 +227,34 @@ public class LevelChunk {
         return new Vector3(worldOffset);
     }
 
+    /**
+     * @return Chunk coordinates packed like {@link ChunkManager#encodeChunkCoordinates}
+     */
+    public long getChunkKey() {
+        return ChunkManager.encodeChunkCoordinates(originTileX / CHUNK_SIZE, originTileY / CHUNK_SIZE, originTileZ / CHUNK_SIZE);
+    }
+
+    /**
+     * @return Tile index of this chunk's minimum corner on the X axis
+     */
+    public int getOriginTileX() {
+        return originTileX;
+    }
+
+    /**
+     * @return Tile index of this chunk's minimum corner on the Y axis
+     */
+    public int getOriginTileY() {
+        return originTileY;
+    }
+
+    /**
+     * @return Tile index of this chunk's minimum corner on the Z axis
+     */
+    public int getOriginTileZ() {
+        return originTileZ;
+    }
+
     /**
      * @return True if this chunk contains any solid (non-empty) tiles
      */
@@ -1,28 +1,36 @@
 package curly.octo.common.map;
 
+import curly.octo.common.Constants;
 import curly.octo.common.map.enums.Direction;
 import curly.octo.common.map.enums.MapTileFillType;
 import curly.octo.common.map.enums.MapTileGeometryType;
 import curly.octo.common.map.enums.MapTileMaterial;
 import curly.octo.common.map.hints.MapHint;
 import curly.octo.common.map.hints.SpawnPointHint;
+import curly.octo.common.map.storage.PackedTile;
 
 import java.util.ArrayList;
 
+/**
+ * Lightweight view of a single voxel stored in a GameMap's packed tile storage.
+ *
+ * The public fields are a snapshot taken when the view was created by GameMap.getTile/touchTile.
+ * They are kept for read access; to change a tile use the setters, which write through to the map
+ * and update the snapshot. Two views of the same tile are equal.
+ */
 public class MapTile {
     public float x,y,z;
     public MapTileFillType fillType;
     public MapTileGeometryType geometryType;
     public Direction direction;
     public MapTileMaterial material;
-    public String templateName = "<unknown>";;
+    public String templateName = "<unknown>";
 
-
-    private final ArrayList<MapHint> hints;
+    private transient GameMap owner;
+    private transient int tileX, tileY, tileZ;
     private boolean isSpawn;
 
     public MapTile() {
-        hints = new ArrayList<>();
         fillType = MapTileFillType.AIR;
         geometryType = MapTileGeometryType.EMPTY;
         direction = Direction.NORTH;
@@ -30,18 +38,101 @@ public class MapTile {
         isSpawn = false;
     }
 
+    MapTile(GameMap owner, int tileX, int tileY, int tileZ, int packed) {
+        this.owner = owner;
+        this.tileX = tileX;
+        this.tileY = tileY;
+        this.tileZ = tileZ;
+        this.x = tileX * Constants.MAP_TILE_SIZE;
+        this.y = tileY * Constants.MAP_TILE_SIZE;
+        this.z = tileZ * Constants.MAP_TILE_SIZE;
+        this.fillType = PackedTile.fillType(packed);
+        this.geometryType = PackedTile.geometryType(packed);
+        this.direction = PackedTile.direction(packed);
+        this.material = PackedTile.material(packed);
+        this.templateName = owner.getTemplateName(PackedTile.templateId(packed));
+        this.isSpawn = PackedTile.isSpawn(packed);
+    }
+
+    public void setFillType(MapTileFillType fillType) {
+        this.fillType = fillType;
+        if (owner != null) {
+            owner.setPackedTile(tileX, tileY, tileZ, PackedTile.withFillType(owner.getPackedTile(tileX, tileY, tileZ), fillType));
+        }
+    }
+
+    public void setGeometryType(MapTileGeometryType geometryType) {
+        this.geometryType = geometryType;
+        if (owner != null) {
+            owner.setPackedTile(tileX, tileY, tileZ, PackedTile.withGeometryType(owner.getPackedTile(tileX, tileY, tileZ), geometryType));
+        }
+    }
+
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+        if (owner != null) {
+            owner.setPackedTile(tileX, tileY, tileZ, PackedTile.withDirection(owner.getPackedTile(tileX, tileY, tileZ), direction));
+        }
+    }
+
+    public void setMaterial(MapTileMaterial material) {
+        this.material = material;
+        if (owner != null) {
+            owner.setPackedTile(tileX, tileY, tileZ, PackedTile.withMaterial(owner.getPackedTile(tileX, tileY, tileZ), material));
+        }
+    }
+
     public void AddHint(MapHint hint) {
-        hints.add(hint);
+        if (owner != null) {
+            owner.registerHint(hint);
+        }
         if (hint instanceof SpawnPointHint) {
             isSpawn = true;
+            if (owner != null) {
+                owner.setPackedTile(tileX, tileY, tileZ, PackedTile.withSpawn(owner.getPackedTile(tileX, tileY, tileZ), true));
+            }
         }
     }
 
+    /**
+     * @return All hints registered on the owning map for this tile
+     */
     public ArrayList<MapHint> getHints() {
-        return hints;
+        if (owner == null) {
+            return new ArrayList<>();
+        }
+        return owner.getHintsForTile(owner.constructKeyFromIndexCoordinates(tileX, tileY, tileZ));
     }
 
     public boolean isSpawnTile() {
         return isSpawn;
     }
+
+    public int getTileX() {
+        return tileX;
+    }
+
+    public int getTileY() {
+        return tileY;
+    }
+
+    public int getTileZ() {
+        return tileZ;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MapTile)) return false;
+        MapTile other = (MapTile) o;
+        return owner != null && owner == other.owner && tileX == other.tileX && tileY == other.tileY && tileZ == other.tileZ;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = tileX;
+        result = 31 * result + tileY;
+        result = 31 * result + tileZ;
+        return result;
+    }
 }
@@ -0,0 +1,69 @@
+package curly.octo.common.map;
+
+/**
+ * Face indices and bitmask helpers for the six axis-aligned neighbors of a tile.
+ *
+ * Face order matches the existing visibility arrays: -X, +X, -Y, +Y, -Z, +Z.
+ * A face mask is an int where bit {@code face} is set when that face qualifies.
+ * Callers iterate neighbors with a plain loop, which keeps the hot path allocation-free:
+ * <pre>
+ * for (int face = 0; face &lt; TileFaces.COUNT; face++) {
+ *     int nx = x + TileFaces.dx(face);
+ *     ...
+ * }
+ * </pre>
+ */
+public final class TileFaces {
+
+    public static final int NEG_X = 0;
+    public static final int POS_X = 1;
+    public static final int NEG_Y = 2;
+    public static final int POS_Y = 3;
+    public static final int NEG_Z = 4;
+    public static final int POS_Z = 5;
+
+    public static final int COUNT = 6;
+    public static final int NONE = 0;
+    public static final int ALL = (1 << COUNT) - 1;
+
+    private static final int[] DX = {-1, 1, 0, 0, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1, 0, 0};
+    private static final int[] DZ = {0, 0, 0, 0, -1, 1};
+
+    private TileFaces() {
+    }
+
+    public static int dx(int face) {
+        return DX[face];
+    }
+
+    public static int dy(int face) {
+        return DY[face];
+    }
+
+    public static int dz(int face) {
+        return DZ[face];
+    }
+
+    public static int bit(int face) {
+        return 1 << face;
+    }
+
+    public static boolean has(int mask, int face) {
+        return (mask & (1 << face)) != 0;
+    }
+
+    /**
+     * @return The face pointing the other way (-X for +X and so on)
+     */
+    public static int opposite(int face) {
+        return face ^ 1;
+    }
+
+    /**
+     * @return Number of faces set in the mask
+     */
+    public static int count(int mask) {
+        return Integer.bitCount(mask & ALL);
+    }
+}
@@ -0,0 +1,157 @@
+package curly.octo.common.map.exploration;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+import curly.octo.common.map.GameMap;
+import curly.octo.common.map.enums.MapTileFillType;
+import curly.octo.common.map.enums.MapTileGeometryType;
+import curly.octo.common.map.storage.ChunkedTileStorage;
+import curly.octo.common.map.storage.PackedTile;
+
+import java.util.Arrays;
+
+/**
+ * Scanline flood fill over a map's packed tiles.
+ *
+ * Every seed added before {@link #fill} spreads in the same pass, so seeds inside a region another seed
+ * already filled cost nothing. Each step fills a whole run of tiles along X, then queues one seed per run
+ * of fillable tiles in the rows beside it (Z ± 1) and below it. Visited tiles are tracked in one bitset per
+ * chunk, and seeds are packed keys in a ring buffer, so a fill allocates nothing per tile.
+ *
+ * Fillable tiles exist and are not FULL geometry. Every fill type (WATER, LAVA, FOG) spreads sideways and
+ * down, never up, so a seed fills the basin it sits in.
+ */
+public class FloodFill {
+
+    private static final int SHIFT = ChunkedTileStorage.CHUNK_SHIFT;
+    private static final int MASK = ChunkedTileStorage.CHUNK_MASK;
+    private static final int WORDS_PER_CHUNK = ChunkedTileStorage.CHUNK_VOLUME / Long.SIZE;
+
+    private final GameMap map;
+    private final TileQueue seeds = new TileQueue();
+    private final LongMap<long[]> visited = new LongMap<>();
+    private final Array<long[]> freeBitsets = new Array<>(false, 16);
+
+    // Last chunk looked up, since scanlines mostly stay inside one
+    private long cachedChunkKey;
+    private long[] cachedBits;
+
+    public FloodFill(GameMap map) {
+        this.map = map;
+    }
+
+    public void addSeed(int x, int y, int z) {
+        seeds.add(GameMap.packTileKey(x, y, z));
+    }
+
+    /**
+     * Fills everything reachable from the seeds added since the last fill, then forgets the seeds and
+     * visited tiles so the engine can be reused.
+     *
+     * @return Number of tiles filled
+     */
+    public int fill(MapTileFillType fillType) {
+        int filled = 0;
+        try {
+            while (!seeds.isEmpty()) {
+                long key = seeds.poll();
+                int x = GameMap.keyToIndexX(key);
+                int y = GameMap.keyToIndexY(key);
+                int z = GameMap.keyToIndexZ(key);
+                if (!isOpen(x, y, z)) {
+                    continue;
+                }
+
+                int minX = x;
+                while (isOpen(minX - 1, y, z)) {
+                    minX--;
+                }
+                int maxX = x;
+                while (isOpen(maxX + 1, y, z)) {
+                    maxX++;
+                }
+
+                for (int spanX = minX; spanX <= maxX; spanX++) {
+                    markVisited(spanX, y, z);
+                    int packed = map.getPackedTile(spanX, y, z);
+                    if (PackedTile.fillType(packed) != fillType) {
+                        map.setPackedTile(spanX, y, z, PackedTile.withFillType(packed, fillType));
+                    }
+                }
+                filled += maxX - minX + 1;
+
+                queueRuns(minX, maxX, y, z - 1);
+                queueRuns(minX, maxX, y, z + 1);
+                queueRuns(minX, maxX, y - 1, z);
+            }
+        } finally {
+            reset();
+        }
+        return filled;
+    }
+
+    /**
+     * Queues the first tile of every run of open tiles in the row between minX and maxX.
+     */
+    private void queueRuns(int minX, int maxX, int y, int z) {
+        boolean inRun = false;
+        for (int x = minX; x <= maxX; x++) {
+            boolean open = isOpen(x, y, z);
+            if (open && !inRun) {
+                seeds.add(GameMap.packTileKey(x, y, z));
+            }
+            inRun = open;
+        }
+    }
+
+    private boolean isOpen(int x, int y, int z) {
+        int packed = map.getPackedTile(x, y, z);
+        if (packed == PackedTile.NONE || PackedTile.geometryType(packed) == MapTileGeometryType.FULL) {
+            return false;
+        }
+        long[] bits = bitsFor(x, y, z, false);
+        if (bits == null) {
+            return true;
+        }
+        int bit = bitIndex(x, y, z);
+        return (bits[bit >>> 6] & (1L << bit)) == 0;
+    }
+
+    private void markVisited(int x, int y, int z) {
+        int bit = bitIndex(x, y, z);
+        bitsFor(x, y, z, true)[bit >>> 6] |= 1L << bit;
+    }
+
+    private long[] bitsFor(int x, int y, int z, boolean create) {
+        long chunkKey = GameMap.packTileKey(x >> SHIFT, y >> SHIFT, z >> SHIFT);
+        if (cachedBits != null && chunkKey == cachedChunkKey) {
+            return cachedBits;
+        }
+        long[] bits = visited.get(chunkKey);
+        if (bits == null) {
+            if (!create) {
+                return null;
+            }
+            bits = freeBitsets.size > 0 ? freeBitsets.pop() : new long[WORDS_PER_CHUNK];
+            visited.put(chunkKey, bits);
+        }
+        cachedChunkKey = chunkKey;
+        cachedBits = bits;
+        return bits;
+    }
+
+    // X varies fastest so a scanline walks consecutive bits
+    private static int bitIndex(int x, int y, int z) {
+        return (((y & MASK) << SHIFT | (z & MASK)) << SHIFT) | (x & MASK);
+    }
+
+    private void reset() {
+        seeds.clear();
+        for (long[] bits : visited.values()) {
+            Arrays.fill(bits, 0L);
+            freeBitsets.add(bits);
+        }
+        visited.clear();
+        cachedBits = null;
+    }
+}
@@ -0,0 +1,495 @@
+package curly.octo.common.map.exploration;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.map.GameMap;
+import curly.octo.common.map.TileFaces;
+import curly.octo.common.map.hints.MapHint;
+import curly.octo.common.map.hints.SpawnPointHint;
+import curly.octo.common.map.storage.ChunkedTileStorage;
+import curly.octo.common.map.storage.PackedTile;
+
+import java.util.ArrayList;
+
+/**
+ * Single-pass connectivity analysis of a GameMap, shared by chunking, meshing and physics.
+ *
+ * Regions are discovered the same way TileExplorationManager does it: the first region is everything
+ * 6-connected to a spawn point (or to the first empty tile when there are no spawns), then one region
+ * per remaining connected group of tiles. Results are stored in primitive arrays per
+ * {@link ChunkedTileStorage#CHUNK_SIZE} chunk, allocated only for chunks that hold tiles:
+ * - a region id per tile ({@link #NO_REGION} where there is no tile)
+ * - a bitset of reachable EMPTY tiles
+ * - a boundary face mask per solid tile, with a {@link TileFaces} bit set for every face that touches
+ *   reachable empty space
+ *
+ * Instances are immutable once built. Get one through {@link GameMap#getConnectivity()}, which caches it
+ * until the map is modified.
+ */
+public final class MapConnectivity {
+
+    public static final int NO_REGION = 0;
+
+    // Marks a tile that exists but has not been assigned a region yet (only during compute)
+    private static final int UNASSIGNED = -1;
+
+    private static final int CHUNK_SHIFT = ChunkedTileStorage.CHUNK_SHIFT;
+    private static final int CHUNK_MASK = ChunkedTileStorage.CHUNK_MASK;
+    private static final int CHUNK_VOLUME = ChunkedTileStorage.CHUNK_VOLUME;
+
+    // BFS queue entries are (block slot << LOCAL_BITS) | local index
+    private static final int LOCAL_BITS = CHUNK_SHIFT * 3;
+    private static final int MAX_BLOCKS = 1 << (31 - LOCAL_BITS);
+
+    private final LongMap<Block> blocks = new LongMap<>();
+    private final Array<Block> blockSlots = new Array<>(true, 64, Block.class);
+
+    // Last block touched; a single reference so racing readers always see a consistent key/array pair
+    private transient Block lastBlock;
+
+    private int minX, minY, minZ;
+    private int maxX = -1, maxY = -1, maxZ = -1;
+
+    private final int tileCount;
+    private int spawnRegionId = NO_REGION;
+    private final IntArray regionSizes = new IntArray();
+    private int reachableEmptyCount;
+    private int boundaryTileCount;
+
+    private MapConnectivity(int tileCount) {
+        this.tileCount = tileCount;
+    }
+
+    /**
+     * Analyzes the whole map. Prefer {@link GameMap#getConnectivity()}, which caches the result.
+     */
+    public static MapConnectivity compute(GameMap gameMap) {
+        long startTime = System.currentTimeMillis();
+
+        MapConnectivity result = new MapConnectivity(gameMap.getTileCount());
+        if (result.tileCount == 0) {
+            return result;
+        }
+
+        // Pass 1: bounds and occupancy, remembering which tiles are empty
+        final int[] bounds = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+            Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        gameMap.forEachPackedTile((x, y, z, packed) -> {
+            if (x < bounds[0]) bounds[0] = x;
+            if (y < bounds[1]) bounds[1] = y;
+            if (z < bounds[2]) bounds[2] = z;
+            if (x > bounds[3]) bounds[3] = x;
+            if (y > bounds[4]) bounds[4] = y;
+            if (z > bounds[5]) bounds[5] = z;
+
+            Block block = result.allocateBlock(x, y, z);
+            int local = localIndex(x, y, z);
+            block.regionIds[local] = UNASSIGNED;
+            if (PackedTile.isEmpty(packed)) {
+                setBit(block.emptyTiles, local);
+            }
+        });
+        result.minX = bounds[0];
+        result.minY = bounds[1];
+        result.minZ = bounds[2];
+        result.maxX = bounds[3];
+        result.maxY = bounds[4];
+        result.maxZ = bounds[5];
+
+        // Pass 2: label regions, spawn-connected region first
+        int[] queue = new int[result.tileCount];
+        result.labelSpawnRegion(gameMap, queue);
+        for (int slot = 0; slot < result.blockSlots.size; slot++) {
+            Block block = result.blockSlots.items[slot];
+            int[] regionIds = block.regionIds;
+            for (int local = 0; local < CHUNK_VOLUME; local++) {
+                if (regionIds[local] == UNASSIGNED) {
+                    int regionId = result.regionSizes.size + 1;
+                    regionIds[local] = regionId;
+                    queue[0] = ref(block, local);
+                    result.regionSizes.add(result.flood(queue, 1, regionId));
+                }
+            }
+        }
+
+        // Pass 3: reachable empty tiles and the solid faces that border them
+        for (int slot = 0; slot < result.blockSlots.size; slot++) {
+            Block block = result.blockSlots.items[slot];
+            for (int local = 0; local < CHUNK_VOLUME; local++) {
+                if (!getBit(block.emptyTiles, local) || block.regionIds[local] == NO_REGION) {
+                    continue;
+                }
+                setBit(block.reachableEmpty, local);
+                result.reachableEmptyCount++;
+                result.markBoundaryFaces(block, local);
+            }
+        }
+
+        Log.info("MapConnectivity", result + " computed in " + (System.currentTimeMillis() - startTime) + "ms");
+        return result;
+    }
+
+    private void labelSpawnRegion(GameMap gameMap, int[] queue) {
+        int queued = 0;
+        ArrayList<MapHint> spawnHints = gameMap.getAllHintsOfType(SpawnPointHint.class);
+
+        if (!spawnHints.isEmpty()) {
+            for (MapHint hint : spawnHints) {
+                if (hint.tileLookupKey == null) {
+                    continue;
+                }
+                long key = hint.tileLookupKey;
+                int x = GameMap.keyToIndexX(key);
+                int y = GameMap.keyToIndexY(key);
+                int z = GameMap.keyToIndexZ(key);
+                Block block = findBlock(x, y, z);
+                int local = localIndex(x, y, z);
+                if (block != null && block.regionIds[local] == UNASSIGNED) {
+                    block.regionIds[local] = 1;
+                    queue[queued++] = ref(block, local);
+                }
+            }
+        } else {
+            // Fallback: start from first empty tile found
+            Log.warn("MapConnectivity", "No spawn points found, starting from first empty tile");
+            for (int slot = 0; slot < blockSlots.size; slot++) {
+                Block block = blockSlots.items[slot];
+                int local = nextSetBit(block.emptyTiles, 0);
+                if (local >= 0) {
+                    block.regionIds[local] = 1;
+                    queue[queued++] = ref(block, local);
+                    break;
+                }
+            }
+        }
+
+        if (queued > 0) {
+            spawnRegionId = 1;
+            regionSizes.add(flood(queue, queued, 1));
+        }
+    }
+
+    /**
+     * BFS over occupied tiles starting from the first {@code queued} entries of the queue,
+     * which must already carry the region id.
+     *
+     * @return Number of tiles in the region
+     */
+    private int flood(int[] queue, int queued, int regionId) {
+        Block[] slots = blockSlots.items;
+        int head = 0;
+        int tail = queued;
+        while (head < tail) {
+            int entry = queue[head++];
+            Block block = slots[entry >>> LOCAL_BITS];
+            int local = entry & (CHUNK_VOLUME - 1);
+            int x = block.tileX(local);
+            int y = block.tileY(local);
+            int z = block.tileZ(local);
+            for (int face = 0; face < TileFaces.COUNT; face++) {
+                int nx = x + TileFaces.dx(face);
+                int ny = y + TileFaces.dy(face);
+                int nz = z + TileFaces.dz(face);
+                Block neighborBlock = findBlock(nx, ny, nz);
+                if (neighborBlock == null) {
+                    continue;
+                }
+                int neighbor = localIndex(nx, ny, nz);
+                if (neighborBlock.regionIds[neighbor] == UNASSIGNED) {
+                    neighborBlock.regionIds[neighbor] = regionId;
+                    queue[tail++] = ref(neighborBlock, neighbor);
+                }
+            }
+        }
+        return tail;
+    }
+
+    private void markBoundaryFaces(Block block, int emptyLocal) {
+        int x = block.tileX(emptyLocal);
+        int y = block.tileY(emptyLocal);
+        int z = block.tileZ(emptyLocal);
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            int nx = x + TileFaces.dx(face);
+            int ny = y + TileFaces.dy(face);
+            int nz = z + TileFaces.dz(face);
+            Block neighborBlock = findBlock(nx, ny, nz);
+            if (neighborBlock == null) {
+                continue;
+            }
+            int neighbor = localIndex(nx, ny, nz);
+            if (neighborBlock.regionIds[neighbor] != NO_REGION && !getBit(neighborBlock.emptyTiles, neighbor)) {
+                // The solid neighbor's face pointing back at this empty tile is exposed
+                if (neighborBlock.boundaryFaces[neighbor] == 0) {
+                    boundaryTileCount++;
+                }
+                neighborBlock.boundaryFaces[neighbor] |= TileFaces.bit(TileFaces.opposite(face));
+            }
+        }
+    }
+
+    // Queries, all in tile index coordinates. Positions outside the map are never reachable.
+
+    /**
+     * @return Region id (1-based) of the tile, or {@link #NO_REGION} if there is no tile there
+     */
+    public int getRegionId(int x, int y, int z) {
+        Block block = findBlock(x, y, z);
+        return block != null ? block.regionIds[localIndex(x, y, z)] : NO_REGION;
+    }
+
+    /**
+     * @return true if the tile is EMPTY and belongs to an explored region
+     */
+    public boolean isReachableEmpty(int x, int y, int z) {
+        Block block = findBlock(x, y, z);
+        return block != null && getBit(block.reachableEmpty, localIndex(x, y, z));
+    }
+
+    /**
+     * @return true if the tile belongs to the spawn-connected region
+     */
+    public boolean isReachableFromSpawn(int x, int y, int z) {
+        return spawnRegionId != NO_REGION && getRegionId(x, y, z) == spawnRegionId;
+    }
+
+    /**
+     * @return {@link TileFaces} mask of the faces of a solid tile that touch reachable empty space,
+     *         0 for empty, missing or fully buried tiles
+     */
+    public int getBoundaryFaceMask(int x, int y, int z) {
+        Block block = findBlock(x, y, z);
+        return block != null ? block.boundaryFaces[localIndex(x, y, z)] : 0;
+    }
+
+    /**
+     * @return true if any of the six neighbors of the position is reachable empty space
+     */
+    public boolean isAdjacentToReachableEmpty(int x, int y, int z) {
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            if (isReachableEmpty(x + TileFaces.dx(face), y + TileFaces.dy(face), z + TileFaces.dz(face))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visits every solid tile that has at least one boundary face.
+     */
+    public void forEachBoundaryTile(FaceMaskVisitor visitor) {
+        // Indexed rather than iterated: Array's cached iterators are not safe across threads
+        for (int slot = 0; slot < blockSlots.size; slot++) {
+            Block block = blockSlots.items[slot];
+            byte[] boundaryFaces = block.boundaryFaces;
+            for (int local = 0; local < CHUNK_VOLUME; local++) {
+                if (boundaryFaces[local] != 0) {
+                    visitor.visit(block.tileX(local), block.tileY(local), block.tileZ(local), boundaryFaces[local]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Like {@link #forEachBoundaryTile(FaceMaskVisitor)}, restricted to the given tile bounds (inclusive).
+     * Only chunks overlapping the bounds are visited.
+     */
+    public void forEachBoundaryTile(int fromX, int fromY, int fromZ, int toX, int toY, int toZ, FaceMaskVisitor visitor) {
+        int x0 = Math.max(fromX, minX), x1 = Math.min(toX, maxX);
+        int y0 = Math.max(fromY, minY), y1 = Math.min(toY, maxY);
+        int z0 = Math.max(fromZ, minZ), z1 = Math.min(toZ, maxZ);
+        if (x0 > x1 || y0 > y1 || z0 > z1) {
+            return;
+        }
+        for (int cy = y0 >> CHUNK_SHIFT; cy <= y1 >> CHUNK_SHIFT; cy++) {
+            for (int cz = z0 >> CHUNK_SHIFT; cz <= z1 >> CHUNK_SHIFT; cz++) {
+                for (int cx = x0 >> CHUNK_SHIFT; cx <= x1 >> CHUNK_SHIFT; cx++) {
+                    Block block = blocks.get(GameMap.packTileKey(cx, cy, cz));
+                    if (block == null) {
+                        continue;
+                    }
+                    int bx = cx << CHUNK_SHIFT, by = cy << CHUNK_SHIFT, bz = cz << CHUNK_SHIFT;
+                    int lx0 = Math.max(x0, bx), lx1 = Math.min(x1, bx + CHUNK_MASK);
+                    int ly0 = Math.max(y0, by), ly1 = Math.min(y1, by + CHUNK_MASK);
+                    int lz0 = Math.max(z0, bz), lz1 = Math.min(z1, bz + CHUNK_MASK);
+                    for (int y = ly0; y <= ly1; y++) {
+                        for (int z = lz0; z <= lz1; z++) {
+                            int local = localIndex(lx0, y, z);
+                            for (int x = lx0; x <= lx1; x++, local++) {
+                                int faces = block.boundaryFaces[local];
+                                if (faces != 0) {
+                                    visitor.visit(x, y, z, faces);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Callback for {@link #forEachBoundaryTile(FaceMaskVisitor)}.
+     */
+    public interface FaceMaskVisitor {
+        void visit(int x, int y, int z, int faceMask);
+    }
+
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    public int getRegionCount() {
+        return regionSizes.size;
+    }
+
+    /**
+     * @param regionId 1-based region id
+     * @return Number of tiles in the region
+     */
+    public int getRegionSize(int regionId) {
+        return regionSizes.get(regionId - 1);
+    }
+
+    /**
+     * @return Region id of the spawn-connected region, or {@link #NO_REGION} if there was no seed tile
+     */
+    public int getSpawnRegionId() {
+        return spawnRegionId;
+    }
+
+    public int getReachableEmptyCount() {
+        return reachableEmptyCount;
+    }
+
+    public int getBoundaryTileCount() {
+        return boundaryTileCount;
+    }
+
+    public boolean isEmpty() {
+        return tileCount == 0;
+    }
+
+    // Bounds of the analyzed area in tile indices (inclusive)
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    private Block allocateBlock(int x, int y, int z) {
+        Block block = findBlock(x, y, z);
+        if (block == null) {
+            if (blockSlots.size == MAX_BLOCKS) {
+                throw new IllegalStateException("Map too large for connectivity analysis: " + MAX_BLOCKS + " chunks");
+            }
+            block = new Block(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT, z >> CHUNK_SHIFT, blockSlots.size);
+            blocks.put(block.key, block);
+            blockSlots.add(block);
+            lastBlock = block;
+        }
+        return block;
+    }
+
+    private Block findBlock(int x, int y, int z) {
+        long key = GameMap.packTileKey(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT, z >> CHUNK_SHIFT);
+        Block cached = lastBlock;
+        if (cached != null && cached.key == key) {
+            return cached;
+        }
+        Block block = blocks.get(key);
+        if (block != null) {
+            lastBlock = block;
+        }
+        return block;
+    }
+
+    // Same layout as ChunkedTileStorage: x fastest, then z, then y
+    private static int localIndex(int x, int y, int z) {
+        return (x & CHUNK_MASK) | ((z & CHUNK_MASK) << CHUNK_SHIFT) | ((y & CHUNK_MASK) << (CHUNK_SHIFT * 2));
+    }
+
+    private static int ref(Block block, int local) {
+        return (block.slot << LOCAL_BITS) | local;
+    }
+
+    private static boolean getBit(long[] bits, int index) {
+        return (bits[index >> 6] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] bits, int index) {
+        bits[index >> 6] |= 1L << index;
+    }
+
+    private static int nextSetBit(long[] bits, int from) {
+        for (int word = from >> 6; word < bits.length; word++) {
+            long masked = bits[word] & (-1L << from);
+            if (masked != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(masked);
+            }
+            from = 0;
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        int fromSpawn = spawnRegionId != NO_REGION ? regionSizes.get(spawnRegionId - 1) : 0;
+        return String.format(
+            "MapConnectivity{tiles=%d, regions=%d, fromSpawn=%d, isolated=%d, reachableEmpty=%d, boundary=%d}",
+            tileCount, regionSizes.size, fromSpawn, tileCount - fromSpawn, reachableEmptyCount, boundaryTileCount);
+    }
+
+    /**
+     * Connectivity data of one chunk that holds tiles.
+     */
+    private static final class Block {
+        final long key;
+        final int cx, cy, cz;
+        final int slot;
+        final int[] regionIds = new int[CHUNK_VOLUME];
+        final byte[] boundaryFaces = new byte[CHUNK_VOLUME];
+        final long[] emptyTiles = new long[CHUNK_VOLUME / 64];
+        final long[] reachableEmpty = new long[CHUNK_VOLUME / 64];
+
+        Block(int cx, int cy, int cz, int slot) {
+            this.cx = cx;
+            this.cy = cy;
+            this.cz = cz;
+            this.slot = slot;
+            this.key = GameMap.packTileKey(cx, cy, cz);
+        }
+
+        int tileX(int local) {
+            return (cx << CHUNK_SHIFT) + (local & CHUNK_MASK);
+        }
+
+        int tileY(int local) {
+            return (cy << CHUNK_SHIFT) + ((local >> (CHUNK_SHIFT * 2)) & CHUNK_MASK);
+        }
+
+        int tileZ(int local) {
+            return (cz << CHUNK_SHIFT) + ((local >> CHUNK_SHIFT) & CHUNK_MASK);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package curly.octo.common.map.exploration;
 
-import com.badlogic.gdx.math.Vector3;
 import com.esotericsoftware.minlog.Log;
-import curly.octo.common.Constants;
 import curly.octo.common.map.GameMap;
 import curly.octo.common.map.MapTile;
+import curly.octo.common.map.TileFaces;
 import curly.octo.common.map.enums.MapTileGeometryType;
 import curly.octo.common.map.hints.MapHint;
 import curly.octo.common.map.hints.SpawnPointHint;
@@ -25,12 +24,14 @@ public class TileExplorationManager {
 
     private final GameMap gameMap;
     private final Set<MapTile> visitedTiles;
+    private final TileKeySet visitedKeys;
     private final Set<MapTile> allTiles;
     private final List<Set<MapTile>> explorationPasses;
 
     public TileExplorationManager(GameMap gameMap) {
         this.gameMap = gameMap;
         this.visitedTiles = new HashSet<>();
+        this.visitedKeys = new TileKeySet(gameMap.getTileCount());
         this.allTiles = new HashSet<>(gameMap.getAllTiles());
         this.explorationPasses = new ArrayList<>();
     }
@@ -47,6 +48,7 @@ public class TileExplorationManager {
 
         explorationPasses.clear();
         visitedTiles.clear();
+        visitedKeys.clear();
 
         int passNumber = 1;
 
@@ -100,7 +102,7 @@ public class TileExplorationManager {
                 MapTile spawnTile = gameMap.getTile(hint.tileLookupKey);
                 if (spawnTile != null && !visitedTiles.contains(spawnTile)) {
                     bfsQueue.offer(spawnTile);
-                    visitedTiles.add(spawnTile);
+                    markVisited(spawnTile);
                     reachableTiles.add(spawnTile);
                 }
             }
@@ -110,7 +112,7 @@ public class TileExplorationManager {
             for (MapTile tile : allTiles) {
                 if (tile.geometryType == MapTileGeometryType.EMPTY) {
                     bfsQueue.offer(tile);
-                    visitedTiles.add(tile);
+                    markVisited(tile);
                     reachableTiles.add(tile);
                     break;
                 }
@@ -138,7 +140,7 @@ public class TileExplorationManager {
         }
 
         bfsQueue.offer(startTile);
-        visitedTiles.add(startTile);
+        markVisited(startTile);
         isolatedRegion.add(startTile);
 
         // Perform BFS from this unvisited tile
@@ -157,8 +159,7 @@ public class TileExplorationManager {
             MapTile currentTile = bfsQueue.poll();
 
             // Explore all 6 neighbors
-            Vector3 tileCoords = getTileCoordinates(currentTile);
-            exploreNeighbors(tileCoords, bfsQueue, resultSet);
+            exploreNeighbors(currentTile.getTileX(), currentTile.getTileY(), currentTile.getTileZ(), bfsQueue, resultSet);
         }
 
         return resultSet;
@@ -168,27 +169,30 @@ public class TileExplorationManager {
      * Explores the 6 neighboring positions around a tile coordinate.
      * Adds unvisited neighbors to the BFS queue and result set.
      */
-    private void exploreNeighbors(Vector3 tileCoords, Queue<MapTile> bfsQueue, Set<MapTile> resultSet) {
+    private void exploreNeighbors(int tileX, int tileY, int tileZ, Queue<MapTile> bfsQueue, Set<MapTile> resultSet) {
         // Check all 6 directions (3D neighbors)
-        int[] dx = {-1, 1, 0, 0, 0, 0};
-        int[] dy = {0, 0, -1, 1, 0, 0};
-        int[] dz = {0, 0, 0, 0, -1, 1};
-
-        for (int i = 0; i < 6; i++) {
-            int neighborX = (int)tileCoords.x + dx[i];
-            int neighborY = (int)tileCoords.y + dy[i];
-            int neighborZ = (int)tileCoords.z + dz[i];
-
-            MapTile neighbor = gameMap.getTile(neighborX, neighborY, neighborZ);
-
-            if (neighbor != null && !visitedTiles.contains(neighbor)) {
-                bfsQueue.offer(neighbor);
-                visitedTiles.add(neighbor);
-                resultSet.add(neighbor);
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            int neighborX = tileX + TileFaces.dx(face);
+            int neighborY = tileY + TileFaces.dy(face);
+            int neighborZ = tileZ + TileFaces.dz(face);
+
+            // Packed existence and visit checks first, only new tiles get a MapTile view
+            if (!gameMap.hasTile(neighborX, neighborY, neighborZ)
+                || visitedKeys.contains(GameMap.packTileKey(neighborX, neighborY, neighborZ))) {
+                continue;
             }
+            MapTile neighbor = gameMap.getTile(neighborX, neighborY, neighborZ);
+            bfsQueue.offer(neighbor);
+            markVisited(neighbor);
+            resultSet.add(neighbor);
         }
     }
 
+    private void markVisited(MapTile tile) {
+        visitedTiles.add(tile);
+        visitedKeys.add(GameMap.packTileKey(tile.getTileX(), tile.getTileY(), tile.getTileZ()));
+    }
+
     /**
      * Finds the first unvisited tile in the map.
      *
@@ -278,24 +282,12 @@ public class TileExplorationManager {
         return -1;
     }
 
-    /**
-     * Converts a MapTile's world coordinates to tile coordinates.
-     *
-     * @param tile The tile to get coordinates for
-     * @return Vector3 with tile coordinates
-     */
-    private Vector3 getTileCoordinates(MapTile tile) {
-        int tileX = (int)(tile.x / Constants.MAP_TILE_SIZE);
-        int tileY = (int)(tile.y / Constants.MAP_TILE_SIZE);
-        int tileZ = (int)(tile.z / Constants.MAP_TILE_SIZE);
-        return new Vector3(tileX, tileY, tileZ);
-    }
-
     /**
      * Resets the exploration state, allowing for fresh exploration.
      */
     public void reset() {
         visitedTiles.clear();
+        visitedKeys.clear();
         explorationPasses.clear();
     }
 
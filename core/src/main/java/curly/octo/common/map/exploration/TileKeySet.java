@@ -0,0 +1,117 @@
+package curly.octo.common.map.exploration;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of packed tile keys (see GameMap.packTileKey).
+ * Replaces HashSet&lt;MapTile&gt;/HashSet&lt;Long&gt; visit tracking in the map traversal loops.
+ */
+public class TileKeySet {
+
+    // packTileKey only uses the low 63 bits, so the all-ones value can never be a real key
+    private static final long EMPTY_SLOT = -1L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] slots;
+    private int size;
+    private int threshold;
+
+    public TileKeySet() {
+        this(256);
+    }
+
+    public TileKeySet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int)(expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * @return true if the key was not already present
+     */
+    public boolean add(long key) {
+        int mask = slots.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            long existing = slots[index];
+            if (existing == EMPTY_SLOT) {
+                slots[index] = key;
+                if (++size > threshold) {
+                    rehash(slots.length << 1);
+                }
+                return true;
+            }
+            if (existing == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public boolean contains(long key) {
+        int mask = slots.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            long existing = slots[index];
+            if (existing == EMPTY_SLOT) {
+                return false;
+            }
+            if (existing == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The keys in this set, in no particular order
+     */
+    public long[] toArray() {
+        long[] keys = new long[size];
+        int count = 0;
+        for (long key : slots) {
+            if (key != EMPTY_SLOT) {
+                keys[count++] = key;
+            }
+        }
+        return keys;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY_SLOT);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        Arrays.fill(slots, EMPTY_SLOT);
+        threshold = (int)(capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (long key : old) {
+            if (key != EMPTY_SLOT) {
+                int index = mix(key) & mask;
+                while (slots[index] != EMPTY_SLOT) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = key;
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
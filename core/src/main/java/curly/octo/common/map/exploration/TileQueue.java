@@ -0,0 +1,63 @@
+package curly.octo.common.map.exploration;
+
+/**
+ * FIFO queue of packed tile keys (see GameMap.packTileKey) backed by a growable ring buffer.
+ * Used by the BFS and flood loops so they don't box a Long or allocate a Vector3 per tile.
+ */
+public class TileQueue {
+
+    private long[] items;
+    private int head;
+    private int size;
+
+    public TileQueue() {
+        this(256);
+    }
+
+    public TileQueue(int initialCapacity) {
+        items = new long[Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1)];
+    }
+
+    public void add(long key) {
+        if (size == items.length) {
+            grow();
+        }
+        items[(head + size) & (items.length - 1)] = key;
+        size++;
+    }
+
+    /**
+     * Removes and returns the oldest key. The queue must not be empty.
+     */
+    public long poll() {
+        if (size == 0) {
+            throw new IllegalStateException("TileQueue is empty");
+        }
+        long key = items[head];
+        head = (head + 1) & (items.length - 1);
+        size--;
+        return key;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] grown = new long[items.length << 1];
+        for (int i = 0; i < size; i++) {
+            grown[i] = items[(head + i) & (items.length - 1)];
+        }
+        items = grown;
+        head = 0;
+    }
+}
@@ -30,7 +30,7 @@ public class BasicMap extends MapGenerator{
         for(int x = 0; x < roomSize; x++) {
             for(int z = 0; z < roomSize; z++) {
                 MapTile floorTile = map.touchTile(x, 0, z, "basicMap");
-                floorTile.geometryType = MapTileGeometryType.FULL;
+                floorTile.setGeometryType(MapTileGeometryType.FULL);
             }
         }
 
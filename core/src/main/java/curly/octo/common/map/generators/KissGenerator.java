@@ -1,44 +1,35 @@
 package curly.octo.common.map.generators;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.math.Vector3;
 import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
 import curly.octo.common.map.generators.kiss.KissCatalog;
 import curly.octo.common.map.generators.kiss.KissEntrance;
+import curly.octo.common.map.generators.kiss.KissPlacementGrid;
 import curly.octo.common.map.generators.kiss.KissTags;
-import curly.octo.common.map.generators.kiss.KissTemplateReader;
+import curly.octo.common.map.generators.kiss.KissTemplatePack;
 import curly.octo.common.map.GameMap;
 import curly.octo.common.map.MapTile;
+import curly.octo.common.map.TileFaces;
 import curly.octo.common.map.enums.Direction;
 import curly.octo.common.map.enums.MapTileFillType;
 import curly.octo.common.map.enums.MapTileGeometryType;
 import curly.octo.common.map.generators.kiss.KissTemplate;
 
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Random;
 
 public class KissGenerator extends MapGenerator{
 
-    private class EntranceOffset {
-        public KissEntrance entrance;
-        public Vector3 worldOffset;
+    private static class EntranceOffset {
+        public final KissEntrance entrance;
+        public final int worldX, worldY, worldZ;
 
-        public EntranceOffset(KissEntrance entrance, Vector3 worldOffset) {
+        public EntranceOffset(KissEntrance entrance, int worldX, int worldY, int worldZ) {
             this.entrance = entrance;
-            this.worldOffset = worldOffset;
-        }
-    }
-
-    private class PlacedTemplate {
-        public KissTemplate template;
-        public Vector3 worldOffset;
-
-        public PlacedTemplate(KissTemplate template, Vector3 worldOffset) {
-            this.template = template;
-            this.worldOffset = worldOffset;
+            this.worldX = worldX;
+            this.worldY = worldY;
+            this.worldZ = worldZ;
         }
     }
 
@@ -47,16 +38,14 @@ public class KissGenerator extends MapGenerator{
 
     public KissGenerator(Random random, GameMap map) {
         super(random, map);
-        ArrayList<KissTemplate> templates = KissTemplateReader.createTemplates("template_kiss/direction_room");
-//        templates.addAll(KissTemplateReader.createTemplates("template_kiss/shaft"));
-//        templates.addAll(KissTemplateReader.createTemplates("template_kiss/big_cave"));
-//        templates.addAll(KissTemplateReader.createTemplates("template_kiss/corridor"));
-        templates.addAll(KissTemplateReader.createTemplates("template_kiss/corridor_expandable"));
-        templates.addAll(KissTemplateReader.createTemplates("template_kiss/spawn_dome"));
-
-        for(String templatePath : loadTemplatesFromAssetsFile("template_kiss/open_room_9x9")) {
-            templates.addAll(KissTemplateReader.createTemplates(templatePath));
-        }
+        ArrayList<KissTemplate> templates = KissTemplatePack.load(new String[]{
+            "template_kiss/direction_room",
+//            "template_kiss/shaft",
+//            "template_kiss/big_cave",
+//            "template_kiss/corridor",
+            "template_kiss/corridor_expandable",
+            "template_kiss/spawn_dome"
+        }, new String[]{"template_kiss/open_room_9x9"});
 
         Log.info("KissGenerator", "Loaded " + templates.size() + " templates");
         catalog = new KissCatalog();
@@ -69,47 +58,22 @@ public class KissGenerator extends MapGenerator{
         Log.info("KissGenerator", "Spawn room: " + spawnRoom.name + " with " + spawnRoom.templatesEntrances.size() + " entrances");
     }
 
-    private ArrayList<String> loadTemplatesFromAssetsFile(String directory) {
-        ArrayList<String> filesInDirectory = new ArrayList<>();
-        FileHandle assetsFile = Gdx.files.internal("assets.txt");
-        try (BufferedReader reader = new BufferedReader(assetsFile.reader())) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String trimmedLine = line.trim();
-                if (trimmedLine.startsWith(directory) && trimmedLine.endsWith(".gox")) {
-                    filesInDirectory.add(trimmedLine.replace(".gox", ""));
-                }
-            }
-        } catch (IOException e) {
-            Log.error("TemplateManager", "Error reading assets.txt", e);
-        }
-        return filesInDirectory;
-    }
-
     @Override
     public void generate() {
-        ArrayList<Vector3> possibleLightLocations = new ArrayList<>();
-        ArrayList<PlacedTemplate> placedTemplates = new ArrayList<>();
+        KissPlacementGrid placedTemplates = new KissPlacementGrid();
         ArrayList<EntranceOffset> availableEntrances = new ArrayList<>();
         ArrayList<Vector3> floodTiles = new ArrayList<>();
 
         // Step 1: Place spawn room at origin
-        Vector3 spawnOffset = new Vector3(0, 0, 0);
-        placedTemplates.add(new PlacedTemplate(spawnRoom, spawnOffset));
+        placedTemplates.add(spawnRoom, 0, 0, 0);
         addSpawn(spawnRoom.spawnTiles.get(random.nextInt(spawnRoom.spawnTiles.size())));
 
         // Step 2: Extract spawn room entrances and add to queue with world offsets
-        for (KissEntrance entrance : spawnRoom.templatesEntrances) {
-            Vector3 entranceWorldPos = new Vector3(
-                entrance.offsetX + spawnOffset.x,
-                entrance.offsetY + spawnOffset.y,
-                entrance.offsetZ + spawnOffset.z
-            );
-            availableEntrances.add(new EntranceOffset(entrance, entranceWorldPos));
-        }
+        addEntrances(spawnRoom, null, 0, 0, 0, availableEntrances);
 
         // Step 3: Iteratively place templates
-        int maxRooms = 100; // Limit number of rooms
+        int maxRooms = Constants.MAP_KISS_MAX_ROOMS;
+        int rejectedPlacements = 0;
         Log.info("KissGenerator", "Starting placement with " + availableEntrances.size() + " available entrances");
 
         while (!availableEntrances.isEmpty() && placedTemplates.size() < maxRooms) {
@@ -117,88 +81,56 @@ public class KissGenerator extends MapGenerator{
             int entranceIndex = random.nextInt(availableEntrances.size());
             EntranceOffset currentEntrance = availableEntrances.remove(entranceIndex);
 
-            Log.info("KissGenerator", "Attempting placement #" + placedTemplates.size() + ", entrances remaining: " + availableEntrances.size());
-            Log.info("KissGenerator", "Current entrance key: " + currentEntrance.entrance.getKey() + " matching key: " + currentEntrance.entrance.getMatchingKey());
-
             // Get compatible entrances from catalog
             ArrayList<KissEntrance> compatibleEntrances = catalog.getCompatibleEntrances(currentEntrance.entrance);
-
-            Log.info("KissGenerator", "Found " + compatibleEntrances.size() + " compatible entrances");
-
             if (compatibleEntrances.isEmpty()) {
                 continue; // No compatible templates, skip this entrance
             }
 
             // Pick random compatible entrance
             KissEntrance matchingEntrance = compatibleEntrances.get(random.nextInt(compatibleEntrances.size()));
-            Log.info("KissGenerator", "Selected matching entrance from template: " + matchingEntrance.associatedTemplate.name);
+            KissTemplate matchingTemplate = matchingEntrance.associatedTemplate;
 
             // Calculate world offset for new template
-            // The matching entrance should be adjacent to (not overlapping with) the current entrance
-            // First, calculate the position where entrances would overlap:
-            // newTemplateOffset + matchingEntrance.offset = currentEntrance.worldOffset
-            // Then, push the new template away by 1 block in the direction the current entrance faces
-            Vector3 overlapOffset = new Vector3(
-                currentEntrance.worldOffset.x - matchingEntrance.offsetX,
-                currentEntrance.worldOffset.y - matchingEntrance.offsetY,
-                currentEntrance.worldOffset.z - matchingEntrance.offsetZ
-            );
-
-            // Push templates apart by adding directional offset
-            Vector3 separationOffset = directionToOffset(currentEntrance.entrance.outwardFacingDirection);
-            Vector3 newTemplateOffset = new Vector3(
-                overlapOffset.x + separationOffset.x,
-                overlapOffset.y + separationOffset.y,
-                overlapOffset.z + separationOffset.z
-            );
+            // The matching entrance should be adjacent to (not overlapping with) the current entrance:
+            // place it where the entrances would overlap (newTemplateOffset + matchingEntrance.offset = currentEntrance.world),
+            // then push the new template away by 1 block in the direction the current entrance faces
+            int face = directionToFace(currentEntrance.entrance.outwardFacingDirection);
+            int offsetX = currentEntrance.worldX - matchingEntrance.offsetX + (face < 0 ? 0 : TileFaces.dx(face));
+            int offsetY = currentEntrance.worldY - matchingEntrance.offsetY + (face < 0 ? 0 : TileFaces.dy(face));
+            int offsetZ = currentEntrance.worldZ - matchingEntrance.offsetZ + (face < 0 ? 0 : TileFaces.dz(face));
 
             // Check for overlap before placing
-            if (wouldOverlap(matchingEntrance.associatedTemplate, newTemplateOffset, placedTemplates)) {
-                Log.info("KissGenerator", "Template would overlap, skipping placement");
+            if (placedTemplates.wouldOverlap(matchingTemplate, offsetX, offsetY, offsetZ)) {
+                rejectedPlacements++;
                 continue; // Skip this entrance and try another
             }
 
-            // Add new template to placed templates
-            placedTemplates.add(new PlacedTemplate(matchingEntrance.associatedTemplate, newTemplateOffset));
-            Log.info("KissGenerator", "Placed template at offset: " + newTemplateOffset);
+            placedTemplates.add(matchingTemplate, offsetX, offsetY, offsetZ);
+            if (Log.DEBUG) {
+                Log.debug("KissGenerator", "Placed " + matchingTemplate.name + " at (" + offsetX + "," + offsetY + "," + offsetZ +
+                    "), entrances remaining: " + availableEntrances.size());
+            }
 
             // Extract new template's entrances and add to queue (except the one we just used)
-            for (KissEntrance entrance : matchingEntrance.associatedTemplate.templatesEntrances) {
-                if (entrance == matchingEntrance) {
-                    continue; // Skip the entrance we just connected
-                }
-
-                Vector3 entranceWorldPos = new Vector3(
-                    entrance.offsetX + newTemplateOffset.x,
-                    entrance.offsetY + newTemplateOffset.y,
-                    entrance.offsetZ + newTemplateOffset.z
-                );
-                availableEntrances.add(new EntranceOffset(entrance, entranceWorldPos));
-            }
+            addEntrances(matchingTemplate, matchingEntrance, offsetX, offsetY, offsetZ, availableEntrances);
         }
 
-        Log.info("KissGenerator", "Placement complete. Placed " + placedTemplates.size() + " templates total");
+        Log.info("KissGenerator", "Placement complete. Placed " + placedTemplates.size() + " templates total (" +
+            rejectedPlacements + " placements rejected for overlap)");
 
         // Step 4: Stamp all placed templates onto the map
-        for (PlacedTemplate placed : placedTemplates) {
-            stampTemplate(placed.template, placed.worldOffset);
-
-            for(Vector3 templateLightPosition : placed.template.lightTiles) {
-                Vector3 lightPos = new Vector3(
-                    templateLightPosition.x + placed.worldOffset.x,
-                    templateLightPosition.y + placed.worldOffset.y,
-                    templateLightPosition.z + placed.worldOffset.z
-                );
-                addLight(lightPos);
+        for (int i = 0; i < placedTemplates.size(); i++) {
+            KissTemplate template = placedTemplates.getTemplate(i);
+            Vector3 worldOffset = new Vector3(placedTemplates.getOffsetX(i), placedTemplates.getOffsetY(i), placedTemplates.getOffsetZ(i));
+            stampTemplate(template, worldOffset);
+
+            for(Vector3 templateLightPosition : template.lightTiles) {
+                addLight(new Vector3(templateLightPosition).add(worldOffset));
             }
 
-            for(Vector3 floodTile : placed.template.floodTiles) {
-                Vector3 floodPosition = new Vector3(
-                    floodTile.x + placed.worldOffset.x,
-                    floodTile.y + placed.worldOffset.y,
-                    floodTile.z + placed.worldOffset.z
-                );
-                floodTiles.add(floodPosition);
+            for(Vector3 floodTile : template.floodTiles) {
+                floodTiles.add(new Vector3(floodTile).add(worldOffset));
             }
         }
 
@@ -206,145 +138,40 @@ public class KissGenerator extends MapGenerator{
         floodMap(floodTiles);
     }
 
-    private void floodMap(ArrayList<Vector3> floodTiles) {
-        for(Vector3 floodTile : floodTiles) {
-            initiateFlood(floodTile, MapTileFillType.WATER);
-        }
-    }
-
-    private Vector3 directionToOffset(Direction direction) {
-        switch(direction) {
-            case NORTH: return new Vector3(0, 0, 1);
-            case SOUTH: return new Vector3(0, 0, -1);
-            case EAST: return new Vector3(1, 0, 0);
-            case WEST: return new Vector3(-1, 0, 0);
-            case UP: return new Vector3(0, 1, 0);
-            case DOWN: return new Vector3(0, -1, 0);
-            default: return new Vector3(0, 0, 0);
-        }
-    }
-
-    /**
-     * Checks if a template at the given offset would overlap with any already-placed templates.
-     * Uses axis-aligned bounding box (AABB) collision detection with tolerance for doorway connections.
-     * Allows small overlaps (up to 1 block in any dimension) to accommodate entrance connections.
-     */
-    private boolean wouldOverlap(KissTemplate template, Vector3 newOffset, ArrayList<PlacedTemplate> placedTemplates) {
-        // Tolerance for doorway overlaps (in voxels)
-        final int DOORWAY_TOLERANCE = 1;
-
-        // Calculate bounds of the new template
-        int newMinX = (int)newOffset.x;
-        int newMinY = (int)newOffset.y;
-        int newMinZ = (int)newOffset.z;
-        int newMaxX = newMinX + template.templatePixels[0].length;
-        int newMaxY = newMinY + template.templatePixels.length;
-        int newMaxZ = newMinZ + template.templatePixels[0][0].length;
-
-        // Check against all placed templates
-        for (PlacedTemplate placed : placedTemplates) {
-            int placedMinX = (int)placed.worldOffset.x;
-            int placedMinY = (int)placed.worldOffset.y;
-            int placedMinZ = (int)placed.worldOffset.z;
-            int placedMaxX = placedMinX + placed.template.templatePixels[0].length;
-            int placedMaxY = placedMinY + placed.template.templatePixels.length;
-            int placedMaxZ = placedMinZ + placed.template.templatePixels[0][0].length;
-
-            // AABB overlap test: boxes overlap if they overlap in all 3 axes
-            boolean overlapX = newMinX < placedMaxX && newMaxX > placedMinX;
-            boolean overlapY = newMinY < placedMaxY && newMaxY > placedMinY;
-            boolean overlapZ = newMinZ < placedMaxZ && newMaxZ > placedMinZ;
-
-            if (overlapX && overlapY && overlapZ) {
-                // Calculate overlap dimensions and bounds
-                int overlapMinX = Math.max(newMinX, placedMinX);
-                int overlapMaxX = Math.min(newMaxX, placedMaxX);
-                int overlapMinY = Math.max(newMinY, placedMinY);
-                int overlapMaxY = Math.min(newMaxY, placedMaxY);
-                int overlapMinZ = Math.max(newMinZ, placedMinZ);
-                int overlapMaxZ = Math.min(newMaxZ, placedMaxZ);
-
-                int overlapSizeX = overlapMaxX - overlapMinX;
-                int overlapSizeY = overlapMaxY - overlapMinY;
-                int overlapSizeZ = overlapMaxZ - overlapMinZ;
-
-                // Allow small overlaps for doorways (must be small in at least one dimension)
-                boolean isSmallOverlap = overlapSizeX <= DOORWAY_TOLERANCE ||
-                                        overlapSizeY <= DOORWAY_TOLERANCE ||
-                                        overlapSizeZ <= DOORWAY_TOLERANCE;
-
-                if (!isSmallOverlap) {
-                    return true; // Large overlap detected
-                }
-
-                // Perform tile-level validation in the overlap region
-                // Check if new template would place walls where existing geometry exists
-                for (int x = overlapMinX; x < overlapMaxX; x++) {
-                    for (int y = overlapMinY; y < overlapMaxY; y++) {
-                        for (int z = overlapMinZ; z < overlapMaxZ; z++) {
-                            // Check if new template has a wall at this position
-                            int templateX = x - (int)newOffset.x;
-                            int templateY = y - (int)newOffset.y;
-                            int templateZ = z - (int)newOffset.z;
-
-                            // Check bounds within template
-                            if (templateX >= 0 && templateX < template.templatePixels[0].length &&
-                                templateY >= 0 && templateY < template.templatePixels.length &&
-                                templateZ >= 0 && templateZ < template.templatePixels[0][0].length) {
-
-                                // Check if new template has a wall tile at this position
-                                boolean newTemplateHasWall = false;
-                                for (Vector3 wallTile : template.wallTiles) {
-                                    if ((int)wallTile.x == templateX && (int)wallTile.y == templateY && (int)wallTile.z == templateZ) {
-                                        newTemplateHasWall = true;
-                                        break;
-                                    }
-                                }
-
-                                // If new template wants to place a wall, check if placed template has a wall there
-                                if (newTemplateHasWall && placedTemplateHasWallAt(x, y, z, placed)) {
-                                    Log.info("KissGenerator", "Tile-level conflict detected at (" + x + "," + y + "," + z +
-                                            ") - new template would place wall on existing wall from " + placed.template.name);
-                                    return true; // Conflict: new wall would overwrite existing geometry
-                                }
-                            }
-                        }
-                    }
-                }
-
-                // Overlap is allowed - it's either all open space or doorway connection
-                Log.info("KissGenerator", "Small overlap allowed - validated as doorway connection");
+    private static void addEntrances(KissTemplate template, KissEntrance skip, int offsetX, int offsetY, int offsetZ,
+                                     ArrayList<EntranceOffset> availableEntrances) {
+        for (KissEntrance entrance : template.templatesEntrances) {
+            if (entrance != skip) {
+                availableEntrances.add(new EntranceOffset(entrance,
+                    entrance.offsetX + offsetX, entrance.offsetY + offsetY, entrance.offsetZ + offsetZ));
             }
         }
+    }
 
-        return false; // No significant overlap
+    private void floodMap(ArrayList<Vector3> floodTiles) {
+        // Every template's flood tiles seed one pass, so overlapping pools are only filled once
+        flood(floodTiles, MapTileFillType.WATER);
     }
 
     /**
-     * Checks if a placed template has a wall tile at the given world coordinates.
-     * Converts world coordinates to template-local coordinates and checks the template's wallTiles.
+     * @return The TileFaces face pointing in the direction, or -1 if it has none
      */
-    private boolean placedTemplateHasWallAt(int worldX, int worldY, int worldZ, PlacedTemplate placedTemplate) {
-        // Convert world coordinates to template-local coordinates
-        int templateX = worldX - (int)placedTemplate.worldOffset.x;
-        int templateY = worldY - (int)placedTemplate.worldOffset.y;
-        int templateZ = worldZ - (int)placedTemplate.worldOffset.z;
-
-        // Check if any wall tile in this placed template is at this position
-        for (Vector3 wallTile : placedTemplate.template.wallTiles) {
-            if ((int)wallTile.x == templateX &&
-                (int)wallTile.y == templateY &&
-                (int)wallTile.z == templateZ) {
-                return true;
-            }
+    private static int directionToFace(Direction direction) {
+        switch(direction) {
+            case NORTH: return TileFaces.POS_Z;
+            case SOUTH: return TileFaces.NEG_Z;
+            case EAST: return TileFaces.POS_X;
+            case WEST: return TileFaces.NEG_X;
+            case UP: return TileFaces.POS_Y;
+            case DOWN: return TileFaces.NEG_Y;
+            default: return -1;
         }
-        return false;
     }
 
     /**
      * Stamps a template onto the game map at the specified world offset.
      * Converts template voxels to map tiles and places them in the world.
-     * All conflicts are prevented by wouldOverlap() during placement, so stamping is straightforward.
+     * All conflicts are prevented by KissPlacementGrid.wouldOverlap() during placement, so stamping is straightforward.
      */
     private void stampTemplate(KissTemplate template, Vector3 worldOffset) {
         // Stamp wall tiles (solid blocks)
@@ -354,7 +181,7 @@ public class KissGenerator extends MapGenerator{
             int worldZ = (int)(tilePos.z + worldOffset.z);
 
             MapTile tile = map.touchTile(worldX, worldY, worldZ, template.name);
-            tile.geometryType = MapTileGeometryType.FULL;
+            tile.setGeometryType(MapTileGeometryType.FULL);
         }
 
         // Stamp open tiles (air spaces within the template)
@@ -364,7 +191,7 @@ public class KissGenerator extends MapGenerator{
             int worldZ = (int)(tilePos.z + worldOffset.z);
 
             MapTile tile = map.touchTile(worldX, worldY, worldZ, template.name);
-            tile.geometryType = MapTileGeometryType.EMPTY;
+            tile.setGeometryType(MapTileGeometryType.EMPTY);
         }
     }
 }
@@ -1,19 +1,20 @@
 package curly.octo.common.map.generators;
 
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.LongArray;
 import com.esotericsoftware.minlog.Log;
-import curly.octo.common.Constants;
 import curly.octo.common.map.GameMap;
 import curly.octo.common.map.MapTile;
-import curly.octo.common.map.enums.Direction;
 import curly.octo.common.map.enums.MapTileFillType;
 import curly.octo.common.map.enums.MapTileGeometryType;
+import curly.octo.common.map.exploration.FloodFill;
 import curly.octo.common.map.hints.LightHint;
 import curly.octo.common.map.hints.SpawnPointHint;
+import curly.octo.common.map.storage.PackedTile;
 import curly.octo.common.lights.LightPresets;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 
 public abstract class MapGenerator {
@@ -27,31 +28,35 @@ public abstract class MapGenerator {
     public abstract void generate();
 
     protected void closeMap() {
-        ArrayList<MapTile> currentTiles = new ArrayList<>(map.getAllTiles());
-        for(MapTile tile : currentTiles) {
-            if (tile.geometryType != MapTileGeometryType.FULL) {
-                // Convert world coordinates back to tile indices
-                int tileX = (int)(tile.x / Constants.MAP_TILE_SIZE);
-                int tileY = (int)(tile.y / Constants.MAP_TILE_SIZE);
-                int tileZ = (int)(tile.z / Constants.MAP_TILE_SIZE);
-
-                // Close neighboring tiles
-                closeTile(tileX, tileY+1, tileZ);
-                closeTile(tileX, tileY-1, tileZ);
-
-                closeTile(tileX+1, tileY, tileZ);
-                closeTile(tileX-1, tileY, tileZ);
-
-                closeTile(tileX, tileY, tileZ+1);
-                closeTile(tileX, tileY, tileZ-1);
+        // Snapshot the open tiles first, closing adds tiles to the storage being walked
+        LongArray openTiles = new LongArray(map.getTileCount() - map.getTileCount(MapTileGeometryType.FULL));
+        map.forEachPackedTile((x, y, z, packed) -> {
+            if (PackedTile.geometryType(packed) != MapTileGeometryType.FULL) {
+                openTiles.add(GameMap.packTileKey(x, y, z));
             }
+        });
+        for (int i = 0; i < openTiles.size; i++) {
+            long key = openTiles.get(i);
+            int tileX = GameMap.keyToIndexX(key);
+            int tileY = GameMap.keyToIndexY(key);
+            int tileZ = GameMap.keyToIndexZ(key);
+
+            // Close neighboring tiles
+            closeTile(tileX, tileY+1, tileZ);
+            closeTile(tileX, tileY-1, tileZ);
+
+            closeTile(tileX+1, tileY, tileZ);
+            closeTile(tileX-1, tileY, tileZ);
+
+            closeTile(tileX, tileY, tileZ+1);
+            closeTile(tileX, tileY, tileZ-1);
         }
     }
 
     private void closeTile(int x, int y, int z) {
         if (map.getTile(x, y, z) == null) {
             MapTile tile = map.touchTile(x, y, z, "MapGenerator");
-            tile.geometryType = MapTileGeometryType.FULL;
+            tile.setGeometryType(MapTileGeometryType.FULL);
         }
     }
 
@@ -80,36 +85,28 @@ public abstract class MapGenerator {
     }
 
 
-    private HashSet<MapTile> visitedFloodTiles;
-    private ArrayList<Vector3> tilesToFlood;
+    private FloodFill floodFill;
+
     protected void initiateFlood(Vector3 tilePosition, MapTileFillType fill) {
-        visitedFloodTiles = new HashSet<>();
-        tilesToFlood = new ArrayList<>();
-        addTileToFlood(tilePosition);
-        flood(fill);
-        Log.info("flood", "Flooded " + visitedFloodTiles.size() + " tiles");
+        ArrayList<Vector3> seeds = new ArrayList<>(1);
+        seeds.add(tilePosition);
+        flood(seeds, fill);
     }
 
-    private void flood(MapTileFillType fill) {
-        while (!tilesToFlood.isEmpty()) {
-            Vector3 coordinate = tilesToFlood.remove(0);
-            MapTile tile = map.getTile(coordinate);
-            visitedFloodTiles.add(tile);
-            tile.fillType = fill;
-            addTileToFlood(Direction.advanceVector(Direction.NORTH, coordinate.cpy()));
-            addTileToFlood(Direction.advanceVector(Direction.EAST, coordinate.cpy()));
-            addTileToFlood(Direction.advanceVector(Direction.SOUTH, coordinate.cpy()));
-            addTileToFlood(Direction.advanceVector(Direction.WEST, coordinate.cpy()));
-            addTileToFlood(Direction.advanceVector(Direction.DOWN, coordinate.cpy()));
+    /**
+     * Fills everything reachable from any of the seeds in one pass.
+     *
+     * @return Number of tiles filled
+     */
+    protected int flood(List<Vector3> seeds, MapTileFillType fill) {
+        if (floodFill == null) {
+            floodFill = new FloodFill(map);
         }
-    }
-
-    private void addTileToFlood(Vector3 tileCoordinate) {
-        MapTile tile = map.getTile(tileCoordinate);
-        if (tile == null || tile.geometryType == MapTileGeometryType.FULL || visitedFloodTiles.contains(tile)) {
-            return;
+        for (Vector3 seed : seeds) {
+            floodFill.addSeed((int)seed.x, (int)seed.y, (int)seed.z);
         }
-        visitedFloodTiles.add(tile);
-        tilesToFlood.add(tileCoordinate);
+        int filled = floodFill.fill(fill);
+        Log.info("flood", "Flooded " + filled + " tiles with " + fill + " from " + seeds.size() + " seed(s)");
+        return filled;
     }
 }
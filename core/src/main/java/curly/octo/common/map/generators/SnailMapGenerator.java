@@ -1,9 +1,9 @@
 package curly.octo.common.map.generators;
 
 import com.badlogic.gdx.math.Vector3;
+import com.esotericsoftware.minlog.Log;
 import curly.octo.common.map.generators.snails.*;
 import curly.octo.common.map.GameMap;
-import curly.octo.common.map.MapTile;
 import curly.octo.common.map.enums.Direction;
 import curly.octo.common.map.enums.MapTileGeometryType;
 import curly.octo.common.map.generators.snails.BaseSnail;
@@ -16,6 +16,10 @@ import java.util.Random;
  * A map generator that uses the "snails" system to create interesting dungeon layouts.
  * Snails are simple agents that move around and mark tiles as part of the map.
  * Uses expansion nodes to create complex, interconnected dungeon structures.
+ *
+ * Snails run on a {@link SnailEngine}, so snails in different parts of the map carve at the same time.
+ * Generation can be spread over several calls to {@link #advance(long)}, and capped with
+ * {@link #setTileBudget(int)}. The map only depends on the seed, not on how the work was sliced.
  */
 public class SnailMapGenerator extends MapGenerator {
 
@@ -27,6 +31,15 @@ public class SnailMapGenerator extends MapGenerator {
     private static final int MIN_MAP_SIZE = 200; // Minimum tiles before considering completion
     private static final int MAX_MAP_SIZE = 1000; // Maximum tiles to prevent infinite generation
     private static final float OPTIONAL_NODE_PROBABILITY = 0.4f; // Chance to use optional nodes
+    private static final int MAX_ITERATIONS = 1000;
+
+    private enum Phase { START, NECESSARY, OPTIONAL, INJECT, FINISHED }
+
+    private final SnailEngine engine;
+    private final Vector3 startPos = new Vector3(0, 0, 0);  // Y=0 is floor level for snails
+    private Phase phase = Phase.START;
+    private int iterations;
+    private int tileBudget = Integer.MAX_VALUE;
 
     // Snail type registry for flexible snail generation
     private final SnailTypeRegistry snailRegistry;
@@ -38,20 +51,89 @@ public class SnailMapGenerator extends MapGenerator {
     public SnailMapGenerator(Random random, GameMap gameMap, LevelProfile profile) {
         super(random, gameMap);
         this.snailRegistry = profile.createRegistry();
+        this.engine = new SnailEngine(gameMap);
+    }
+
+    /**
+     * Stops taking on new expansion nodes once the map holds this many tiles. Snails already running still
+     * finish, and closing the map adds walls on top, so the final map can be somewhat larger.
+     */
+    public void setTileBudget(int maxTiles) {
+        this.tileBudget = maxTiles;
     }
 
     @Override
     public void generate() {
-        // Start with a spawn room - spawn at ground floor level
-        Vector3 startPos = new Vector3(0, 0, 0);  // Y=0 is floor level for snails
+        while (!advance(Long.MAX_VALUE)) {
+            // Keep going until the map is finished
+        }
+    }
+
+    /**
+     * Generates for about the given time, then returns so the caller can get on with its frame or tick.
+     * Work stops between snail waves, never inside one, so however the calls are spaced the map comes out
+     * the same.
+     *
+     * @return true once the map is finished
+     */
+    public boolean advance(long budgetNanos) {
+        long start = System.nanoTime();
+        while (phase != Phase.FINISHED) {
+            step();
+            if (System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+        }
+        return phase == Phase.FINISHED;
+    }
 
-        // Create initial spawn room
-        RoomSnail startRoom = new RoomSnail(map, startPos, Direction.NORTH, random, 70, 40, 70);
-        executeSnailWithNodes(startRoom);
+    public boolean isFinished() {
+        return phase == Phase.FINISHED;
+    }
 
-        // Generate expansion-based dungeon
-        generateExpansionBasedMap();
+    private void step() {
+        if (!engine.isIdle()) {
+            collectExpansionNodes(engine.runWave());
+            return;
+        }
 
+        switch (phase) {
+            case START:
+                // Create initial spawn room at ground floor level
+                RoomSnail startRoom = new RoomSnail(map, startPos.cpy(), Direction.NORTH, random, 70, 40, 70);
+                engine.submit(startRoom, random.nextLong());
+                phase = Phase.NECESSARY;
+                break;
+            case NECESSARY:
+                if (iterations >= MAX_ITERATIONS || map.getTileCount() >= tileBudget ||
+                    !(hasNecessaryNodes() || shouldAddMoreOptionalNodes())) {
+                    finish();
+                    phase = Phase.FINISHED;
+                } else {
+                    // Process all necessary nodes first
+                    processNecessaryNodes();
+                    phase = Phase.OPTIONAL;
+                }
+                break;
+            case OPTIONAL:
+                // Then process some optional nodes if map isn't large enough
+                processOptionalNodes();
+                phase = Phase.INJECT;
+                break;
+            case INJECT:
+                // If map is still too small and we're running out of nodes, inject more
+                if (map.getTileCount() < MIN_MAP_SIZE && !hasNecessaryNodes() && optionalNodes.size() < 3) {
+                    injectExpansionNodes();
+                }
+                iterations++;
+                phase = Phase.NECESSARY;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void finish() {
         // Add spawn point at origin
         Vector3 spawn = startPos.cpy();
         spawn.y = spawn.y + (35);
@@ -61,25 +143,12 @@ public class SnailMapGenerator extends MapGenerator {
         addLight(new Vector3(startPos.x, startPos.y + 1, startPos.z));
 
         // Close the map by creating walls around all open spaces
-        int tilesBeforeClose = map.getAllTiles().size();
+        int tilesBeforeClose = map.getTileCount();
         closeMap();
-        int tilesAfterClose = map.getAllTiles().size();
-
-        // Count tiles by type for debugging
-        int emptyTiles = 0;
-        int fullTiles = 0;
-        for (MapTile tile : map.getAllTiles()) {
-            if (tile.geometryType == MapTileGeometryType.EMPTY) {
-                emptyTiles++;
-            } else if (tile.geometryType == MapTileGeometryType.FULL) {
-                fullTiles++;
-            }
-        }
 
-        // Debug output
-        System.out.println("SnailMapGenerator: Before closeMap: " + tilesBeforeClose + " tiles");
-        System.out.println("SnailMapGenerator: After closeMap: " + tilesAfterClose + " tiles");
-        System.out.println("SnailMapGenerator: Final count - " + emptyTiles + " EMPTY, " + fullTiles + " FULL");
+        Log.info("SnailMapGenerator", "Generated " + tilesBeforeClose + " tiles in " + iterations + " iterations, " +
+            map.getTileCount() + " after closing (" + map.getTileCount(MapTileGeometryType.EMPTY) + " EMPTY, " +
+            map.getTileCount(MapTileGeometryType.FULL) + " FULL)");
     }
 
     /**
@@ -90,59 +159,13 @@ public class SnailMapGenerator extends MapGenerator {
         return LevelProfile.BALANCED;
     }
 
-    private void generateExpansionBasedMap() {
-        int iterations = 0;
-        int maxIterations = 1000;
-
-        while ((hasNecessaryNodes() || shouldAddMoreOptionalNodes()) && iterations < maxIterations) {
-            // Process all necessary nodes first
-            processNecessaryNodes();
-            // Then process some optional nodes if map isn't large enough
-            processOptionalNodes();
-
-            // If map is still too small and we're running out of nodes, inject more
-            if (map.getAllTiles().size() < MIN_MAP_SIZE && !hasNecessaryNodes() && optionalNodes.size() < 3) {
-                injectExpansionNodes();
+    private void collectExpansionNodes(List<ExpansionNode> nodes) {
+        for (ExpansionNode node : nodes) {
+            if (node.getPriority() == ExpansionNode.Priority.NECESSARY) {
+                necessaryNodes.add(node);
+            } else {
+                optionalNodes.add(node);
             }
-
-            iterations++;
-        }
-    }
-
-    private void executeSnailWithNodes(BaseSnail snail) {
-        List<BaseSnail> activeSnails = new ArrayList<>();
-        activeSnails.add(snail);
-
-        int maxSteps = 100;
-        int steps = 0;
-
-        while (!activeSnails.isEmpty() && steps < maxSteps) {
-            List<BaseSnail> nextGeneration = new ArrayList<>();
-
-            for (BaseSnail activeSnail : activeSnails) {
-                if (!activeSnail.isDone()) {
-                    SnailResult result = activeSnail.execute();
-
-                    if (!result.isComplete()) {
-                        nextGeneration.add(activeSnail);
-                    }
-
-                    // Add spawned snails
-                    nextGeneration.addAll(result.getSpawnedSnails());
-
-                    // Collect expansion nodes
-                    for (ExpansionNode node : result.getExpansionNodes()) {
-                        if (node.getPriority() == ExpansionNode.Priority.NECESSARY) {
-                            necessaryNodes.add(node);
-                        } else {
-                            optionalNodes.add(node);
-                        }
-                    }
-                }
-            }
-
-            activeSnails = nextGeneration;
-            steps++;
         }
     }
 
@@ -154,7 +177,7 @@ public class SnailMapGenerator extends MapGenerator {
             if (!node.isConsumed()) {
                 BaseSnail snail = createRandomSnailForNode(node);
                 if (snail != null) {
-                    executeSnailWithNodes(snail);
+                    engine.submit(snail, random.nextLong());
                     node.consume();
                 }
             }
@@ -169,7 +192,7 @@ public class SnailMapGenerator extends MapGenerator {
             if (!node.isConsumed() && random.nextFloat() < OPTIONAL_NODE_PROBABILITY) {
                 BaseSnail snail = createRandomSnailForNode(node);
                 if (snail != null) {
-                    executeSnailWithNodes(snail);
+                    engine.submit(snail, random.nextLong());
                     node.consume();
                 }
             }
@@ -187,9 +210,9 @@ public class SnailMapGenerator extends MapGenerator {
     }
 
     private boolean shouldAddMoreOptionalNodes() {
-        int currentTiles = map.getAllTiles().size();
+        int currentTiles = map.getTileCount();
         boolean hasOptionalNodes = !optionalNodes.isEmpty();
-        boolean underMaxSize = currentTiles < MAX_MAP_SIZE;
+        boolean underMaxSize = currentTiles < Math.min(MAX_MAP_SIZE, tileBudget);
         boolean underMinSize = currentTiles < MIN_MAP_SIZE;
 
         // Force expansion if under minimum size and we have any nodes available
@@ -238,17 +261,10 @@ public class SnailMapGenerator extends MapGenerator {
      */
     private List<Vector3> findWallExpansionOpportunities() {
         List<Vector3> opportunities = new ArrayList<>();
-        List<com.badlogic.gdx.math.Vector3> allTiles = new ArrayList<>();
-
-        // Convert existing tiles to coordinate list
-        map.getAllTiles().forEach(tile -> {
-            Vector3 tileCoord = new Vector3(
-                Math.round(tile.x / 16f), // Convert world coords to tile coords
-                Math.round(tile.y / 16f),
-                Math.round(tile.z / 16f)
-            );
-            allTiles.add(tileCoord);
-        });
+        List<Vector3> allTiles = new ArrayList<>(map.getTileCount());
+
+        // Existing tiles by tile index
+        map.forEachPackedTile((x, y, z, packed) -> allTiles.add(new Vector3(x, y, z)));
 
         // Check each existing tile for expansion opportunities
         for (Vector3 tilePos : allTiles) {
@@ -260,7 +276,7 @@ public class SnailMapGenerator extends MapGenerator {
                 Direction.advanceVector(dir, adjacentPos);
 
                 // If this adjacent position is empty and has some space around it, it's an opportunity
-                if (map.getTile((int)adjacentPos.x, (int)adjacentPos.y, (int)adjacentPos.z) != null) {
+                if (map.hasTile((int)adjacentPos.x, (int)adjacentPos.y, (int)adjacentPos.z)) {
                     continue; // Skip if tile already exists
                 }
 
@@ -280,7 +296,7 @@ public class SnailMapGenerator extends MapGenerator {
         Vector3 checkPos = startPos.cpy();
 
         for (int i = 0; i < requiredSpace; i++) {
-            if (map.getTile((int)checkPos.x, (int)checkPos.y, (int)checkPos.z) != null) {
+            if (map.hasTile((int)checkPos.x, (int)checkPos.y, (int)checkPos.z)) {
                 return false; // Hit existing tile
             }
             Direction.advanceVector(direction, checkPos);
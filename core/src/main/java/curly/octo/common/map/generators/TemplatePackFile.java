@@ -0,0 +1,150 @@
+package curly.octo.common.map.generators;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary template packs cached on disk, so template images and configs are decoded once instead of every
+ * time a generator is constructed.
+ *
+ * A pack is named by its generator and stamped with a format version and a hash of the name, size and
+ * modification time of every source asset it was compiled from; it is recompiled whenever either changes.
+ * The stamp only reads file metadata, so checking a pack costs nothing like compiling it. Packs are read
+ * through a memory mapping.
+ */
+public final class TemplatePackFile {
+
+    private static final int MAGIC = 0x54504B31; // "TPK1"
+    private static final String SUFFIX = ".templatepack";
+
+    private TemplatePackFile() {}
+
+    /**
+     * @return Paths listed in assets.txt under the prefix with the extension, extension removed
+     */
+    public static ArrayList<String> listAssets(String prefix, String extension) {
+        ArrayList<String> paths = new ArrayList<>();
+        FileHandle assetsFile = Gdx.files.internal("assets.txt");
+        try (BufferedReader reader = new BufferedReader(assetsFile.reader())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmedLine = line.trim();
+                if (trimmedLine.startsWith(prefix) && trimmedLine.endsWith(extension)) {
+                    paths.add(trimmedLine.substring(0, trimmedLine.length() - extension.length()));
+                }
+            }
+        } catch (IOException e) {
+            Log.error("TemplatePackFile", "Error reading assets.txt", e);
+        }
+        return paths;
+    }
+
+    /**
+     * @return SHA-256 (lowercase hex) over the names, sizes and modification times of the internal files.
+     * Files packaged in a jar report no modification time, so there a changed file is only noticed if its
+     * size changed too; a new build is expected to ship new files anyway.
+     */
+    public static String stampSources(List<String> internalPaths) {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer metadata = ByteBuffer.allocate(2 * Long.BYTES);
+        for (String path : internalPaths) {
+            sha.update(path.getBytes(StandardCharsets.UTF_8));
+            FileHandle file = Gdx.files.internal(path);
+            if (file.exists()) {
+                metadata.clear();
+                metadata.putLong(file.length()).putLong(file.lastModified());
+                sha.update(metadata.array());
+            } else {
+                sha.update((byte) 0);
+            }
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : sha.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @return The pack body, memory-mapped and positioned after the header, or null if there is no pack
+     * compiled from these sources in this format
+     */
+    public static ByteBuffer read(String packName, int formatVersion, String sourceHash) {
+        FileHandle file = packFile(packName);
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.file().toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != formatVersion ||
+                !sourceHash.equals(getString(buffer))) {
+                Log.info("TemplatePackFile", "Template pack " + file.name() + " is out of date");
+                return null;
+            }
+            return buffer.slice();
+        } catch (IOException | RuntimeException e) {
+            Log.warn("TemplatePackFile", "Discarding unreadable template pack " + file.name() + ": " + e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Stores a compiled pack body. Failing to store only costs recompiling next time.
+     *
+     * @return The body, ready to be read like a pack from {@link #read}
+     */
+    public static ByteBuffer write(String packName, int formatVersion, String sourceHash, byte[] body) {
+        FileHandle file = packFile(packName);
+        try {
+            file.parent().mkdirs();
+            try (DataOutputStream out = new DataOutputStream(file.write(false, 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(formatVersion);
+                putString(out, sourceHash);
+                out.write(body);
+            }
+            Log.info("TemplatePackFile", "Stored template pack " + file.name() + " (" + body.length + " bytes)");
+        } catch (Exception e) {
+            Log.warn("TemplatePackFile", "Failed to store template pack " + file.name() + ": " + e.getMessage());
+            file.delete();
+        }
+        return ByteBuffer.wrap(body);
+    }
+
+    private static FileHandle packFile(String packName) {
+        return Gdx.files.external(Constants.TEMPLATE_CACHE_DIRECTORY).child(packName + SUFFIX);
+    }
+
+    public static void putString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,165 @@
+package curly.octo.common.map.generators.kiss;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.map.GameMap;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid of placed template bounds over voxel coordinates, so overlap checks only visit templates
+ * sharing a cell with the candidate instead of every template placed so far.
+ *
+ * Each placement is listed in every cell its bounds touch. Queries stamp placements as they are checked so
+ * one spanning several cells is only tested once, and allocate nothing once the cells exist.
+ */
+public class KissPlacementGrid {
+
+    /** Overlap (in voxels) along any one axis that still counts as a doorway connection */
+    public static final int DOORWAY_TOLERANCE = 1;
+
+    private static final int CELL_SHIFT = 4; // 16 voxel cells
+
+    private final LongMap<IntArray> cells = new LongMap<>();
+    private final Array<KissTemplate> templates = new Array<>(true, 64);
+    private int[] bounds = new int[6 * 64]; // minX, minY, minZ, maxX, maxY, maxZ (exclusive) per placement
+    private int[] checkedStamp = new int[64];
+    private int queryStamp;
+
+    /**
+     * Records a placed template.
+     *
+     * @return Index of the placement
+     */
+    public int add(KissTemplate template, int offsetX, int offsetY, int offsetZ) {
+        int index = templates.size;
+        if ((index + 1) * 6 > bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            checkedStamp = Arrays.copyOf(checkedStamp, checkedStamp.length * 2);
+        }
+        templates.add(template);
+        int base = index * 6;
+        bounds[base] = offsetX;
+        bounds[base + 1] = offsetY;
+        bounds[base + 2] = offsetZ;
+        bounds[base + 3] = offsetX + template.sizeX;
+        bounds[base + 4] = offsetY + template.sizeY;
+        bounds[base + 5] = offsetZ + template.sizeZ;
+
+        for (int cx = offsetX >> CELL_SHIFT; cx <= (bounds[base + 3] - 1) >> CELL_SHIFT; cx++) {
+            for (int cy = offsetY >> CELL_SHIFT; cy <= (bounds[base + 4] - 1) >> CELL_SHIFT; cy++) {
+                for (int cz = offsetZ >> CELL_SHIFT; cz <= (bounds[base + 5] - 1) >> CELL_SHIFT; cz++) {
+                    long key = GameMap.packTileKey(cx, cy, cz);
+                    IntArray cell = cells.get(key);
+                    if (cell == null) {
+                        cell = new IntArray(false, 4);
+                        cells.put(key, cell);
+                    }
+                    cell.add(index);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Checks whether a template at the given offset would collide with a placed template. Overlaps thin enough
+     * to be a doorway (at most {@link #DOORWAY_TOLERANCE} voxels along some axis) are allowed as long as both
+     * templates don't put a wall on the same voxel.
+     */
+    public boolean wouldOverlap(KissTemplate template, int offsetX, int offsetY, int offsetZ) {
+        int maxX = offsetX + template.sizeX;
+        int maxY = offsetY + template.sizeY;
+        int maxZ = offsetZ + template.sizeZ;
+        int stamp = nextStamp();
+
+        for (int cx = offsetX >> CELL_SHIFT; cx <= (maxX - 1) >> CELL_SHIFT; cx++) {
+            for (int cy = offsetY >> CELL_SHIFT; cy <= (maxY - 1) >> CELL_SHIFT; cy++) {
+                for (int cz = offsetZ >> CELL_SHIFT; cz <= (maxZ - 1) >> CELL_SHIFT; cz++) {
+                    IntArray cell = cells.get(GameMap.packTileKey(cx, cy, cz));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < cell.size; i++) {
+                        int placed = cell.get(i);
+                        if (checkedStamp[placed] == stamp) {
+                            continue;
+                        }
+                        checkedStamp[placed] = stamp;
+                        if (collides(template, offsetX, offsetY, offsetZ, maxX, maxY, maxZ, placed)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean collides(KissTemplate template, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int placed) {
+        int base = placed * 6;
+        int overlapMinX = Math.max(minX, bounds[base]);
+        int overlapMinY = Math.max(minY, bounds[base + 1]);
+        int overlapMinZ = Math.max(minZ, bounds[base + 2]);
+        int overlapMaxX = Math.min(maxX, bounds[base + 3]);
+        int overlapMaxY = Math.min(maxY, bounds[base + 4]);
+        int overlapMaxZ = Math.min(maxZ, bounds[base + 5]);
+        if (overlapMinX >= overlapMaxX || overlapMinY >= overlapMaxY || overlapMinZ >= overlapMaxZ) {
+            return false;
+        }
+
+        // Anything thicker than a doorway along every axis is a real overlap
+        if (overlapMaxX - overlapMinX > DOORWAY_TOLERANCE && overlapMaxY - overlapMinY > DOORWAY_TOLERANCE &&
+            overlapMaxZ - overlapMinZ > DOORWAY_TOLERANCE) {
+            return true;
+        }
+
+        // Thin overlap: only a conflict where both templates want a wall
+        KissTemplate placedTemplate = templates.get(placed);
+        for (int x = overlapMinX; x < overlapMaxX; x++) {
+            for (int y = overlapMinY; y < overlapMaxY; y++) {
+                for (int z = overlapMinZ; z < overlapMaxZ; z++) {
+                    if (template.isWallAt(x - minX, y - minY, z - minZ) &&
+                        placedTemplate.isWallAt(x - bounds[base], y - bounds[base + 1], z - bounds[base + 2])) {
+                        if (Log.DEBUG) {
+                            Log.debug("KissPlacementGrid", "Tile-level conflict at (" + x + "," + y + "," + z +
+                                ") with wall from " + placedTemplate.name);
+                        }
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private int nextStamp() {
+        if (++queryStamp == 0) {
+            Arrays.fill(checkedStamp, 0);
+            queryStamp = 1;
+        }
+        return queryStamp;
+    }
+
+    public int size() {
+        return templates.size;
+    }
+
+    public KissTemplate getTemplate(int index) {
+        return templates.get(index);
+    }
+
+    public int getOffsetX(int index) {
+        return bounds[index * 6];
+    }
+
+    public int getOffsetY(int index) {
+        return bounds[index * 6 + 1];
+    }
+
+    public int getOffsetZ(int index) {
+        return bounds[index * 6 + 2];
+    }
+}
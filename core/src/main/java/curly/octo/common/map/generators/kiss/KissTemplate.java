@@ -5,10 +5,17 @@ import com.badlogic.gdx.math.Vector3;
 import curly.octo.common.map.enums.Direction;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * A template rotation decoded into tile lists. Templates are cached and shared between generators, so the
+ * lists are unmodifiable and their vectors must be copied rather than changed.
+ */
 public class KissTemplate {
 
     public static final int WALL_PIXEL = 255;
@@ -20,37 +27,50 @@ public class KissTemplate {
 
     public String name;
     public String originalTemplatePath;
-    public Color[][][] templatePixels;
-    public KissJson jsonConfigs;
-
-    public ArrayList<Vector3> wallTiles;
-    public ArrayList<Vector3> openTiles;
-    public ArrayList<Vector3> lightTiles;
-    public ArrayList<Vector3> spawnTiles;
-    public ArrayList<Vector3> floodTiles;
-    public final ArrayList<KissEntrance> templatesEntrances;
+    public final int[] voxels; // RGBA8888 pixel of each voxel by voxelIndex
+    public final KissJson jsonConfigs;
+
+    // Filled while the pixels are processed and only exposed through the read-only views below
+    private final ArrayList<Vector3> wallTileList = new ArrayList<>();
+    private final ArrayList<Vector3> openTileList = new ArrayList<>();
+    private final ArrayList<Vector3> lightTileList = new ArrayList<>();
+    private final ArrayList<Vector3> spawnTileList = new ArrayList<>();
+    private final ArrayList<Vector3> floodTileList = new ArrayList<>();
+    private final ArrayList<KissEntrance> entranceList = new ArrayList<>();
+
+    public final List<Vector3> wallTiles = Collections.unmodifiableList(wallTileList);
+    public final List<Vector3> openTiles = Collections.unmodifiableList(openTileList);
+    public final List<Vector3> lightTiles = Collections.unmodifiableList(lightTileList);
+    public final List<Vector3> spawnTiles = Collections.unmodifiableList(spawnTileList);
+    public final List<Vector3> floodTiles = Collections.unmodifiableList(floodTileList);
+    public final List<KissEntrance> templatesEntrances = Collections.unmodifiableList(entranceList);
+
+    public final int sizeX, sizeY, sizeZ; // Voxel bounds; Y is the slice
+    private final BitSet walls; // Wall voxels by voxelIndex, for constant time lookups during placement
 
     private final HashMap<Integer, ArrayList<Vector3>> entranceColorToEntrancePixelsMap;
 
-    public KissTemplate(Color[][][] templatePixels, KissJson jsonConfigs) {
+    /**
+     * @param voxels RGBA8888 pixels indexed by {@link #voxelIndex}
+     */
+    public KissTemplate(int sizeX, int sizeY, int sizeZ, int[] voxels, KissJson jsonConfigs) {
         this.jsonConfigs = jsonConfigs;
-        templatesEntrances = new ArrayList<>();
         entranceColorToEntrancePixelsMap = new HashMap<>();
-        this.templatePixels = templatePixels;
-        wallTiles = new ArrayList<>();
-        openTiles = new ArrayList<>();
-        lightTiles = new ArrayList<>();
-        spawnTiles = new ArrayList<>();
-        floodTiles = new ArrayList<>();
+        this.voxels = voxels;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        walls = new BitSet(sizeX * sizeY * sizeZ);
         processPixels();
         compileEntrances();
     }
 
     private void processPixels() {
-        for(int slice = 0; slice < templatePixels.length; slice++) {
-            for(int x = 0; x < templatePixels[slice].length; x++) {
-                for(int z = 0; z < templatePixels[slice][x].length; z++) {
-                    processPixel(slice, x, z, templatePixels[slice][x][z]);
+        Color pixelColor = new Color();
+        for(int slice = 0; slice < sizeY; slice++) {
+            for(int x = 0; x < sizeX; x++) {
+                for(int z = 0; z < sizeZ; z++) {
+                    processPixel(slice, x, z, pixelColor.set(voxels[voxelIndex(x, slice, z, sizeX, sizeZ)]));
                 }
             }
         }
@@ -62,30 +82,48 @@ public class KissTemplate {
             int typeValue = (int)(255 * pixelColor.a);
             switch(typeValue) {
                 case WALL_PIXEL:
-                    wallTiles.add(pixelCoordinates);
+                    wallTileList.add(pixelCoordinates);
+                    walls.set(voxelIndex(x, slice, z, sizeX, sizeZ));
                     break;
                 case ENTRANCE_PIXEL:
                     addPixelToEntrancesMap(slice, x, z, pixelColor);
-                    openTiles.add(pixelCoordinates);
+                    openTileList.add(pixelCoordinates);
                     break;
                 case SPAWN_PIXEL:
-                    openTiles.add(pixelCoordinates);
-                    spawnTiles.add(pixelCoordinates);
+                    openTileList.add(pixelCoordinates);
+                    spawnTileList.add(pixelCoordinates);
                     jsonConfigs.tags.add(KissTags.SPAWN);
                     break;
                 case FLOOD_PIXEL:
-                    openTiles.add(pixelCoordinates);
-                    floodTiles.add(pixelCoordinates);
+                    openTileList.add(pixelCoordinates);
+                    floodTileList.add(pixelCoordinates);
                     break;
                 case LIGHT_PIXEL:
-                    lightTiles.add(pixelCoordinates);
-                    openTiles.add(pixelCoordinates);
+                    lightTileList.add(pixelCoordinates);
+                    openTileList.add(pixelCoordinates);
                     break;
             }
         } else {
-            openTiles.add(pixelCoordinates);
+            openTileList.add(pixelCoordinates);
+        }
+
+    }
+
+    /**
+     * @return Whether the template has a wall at the local voxel; false outside its bounds
+     */
+    public boolean isWallAt(int x, int y, int z) {
+        if (x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ) {
+            return false;
         }
+        return walls.get(voxelIndex(x, y, z, sizeX, sizeZ));
+    }
 
+    /**
+     * @return Index of a voxel in a template's voxel array: slices (Y) outermost, then X, then Z
+     */
+    public static int voxelIndex(int x, int y, int z, int sizeX, int sizeZ) {
+        return (y * sizeX + x) * sizeZ + z;
     }
 
     private void addPixelToEntrancesMap(int slice, int x, int z, Color pixelColor) {
@@ -124,7 +162,7 @@ public class KissTemplate {
             }
 
             KissEntrance entrance = new KissEntrance(entranceHash, minX, minY, minZ, this, mostLikelyDirection);
-            templatesEntrances.add(entrance);
+            entranceList.add(entrance);
         }
     }
 
@@ -133,19 +171,19 @@ public class KissTemplate {
 
         if (slice == 0) {
             addDirectionCount(directionCount, Direction.DOWN);
-        } else if (slice == templatePixels.length -1) {
+        } else if (slice == sizeY - 1) {
             addDirectionCount(directionCount, Direction.UP);
         }
 
         if (x == 0) {
             addDirectionCount(directionCount, Direction.WEST);
-        } else if (x == templatePixels[templatePixels.length-1].length-1) {
+        } else if (x == sizeX - 1) {
             addDirectionCount(directionCount, Direction.EAST);
         }
 
         if (z == 0) {
             addDirectionCount(directionCount, Direction.SOUTH);
-        } else if (z == templatePixels[templatePixels.length-1][templatePixels[0].length-1].length-1) {
+        } else if (z == sizeZ - 1) {
             addDirectionCount(directionCount, Direction.NORTH);
         }
     }
@@ -0,0 +1,132 @@
+package curly.octo.common.map.generators.kiss;
+
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.map.generators.TemplatePackFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kiss templates compiled into a binary pack: each source's JSON settings followed by the packed RGBA voxels
+ * of every rotation it allows, already rotated. Loading a pack skips PNG and JSON decoding entirely, and the
+ * templates built from it are kept for the life of the process, so constructing another KissGenerator
+ * (e.g. on every map regeneration) reuses them.
+ *
+ * Templates are read-only once built (their tile lists are unmodifiable) and are shared between generators
+ * on different threads.
+ */
+public final class KissTemplatePack {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String PACK_NAME = "kiss";
+
+    private static final Map<String, List<KissTemplate>> loaded = new HashMap<>();
+
+    private KissTemplatePack() {}
+
+    /**
+     * @param templatePaths Templates by asset path without extension, e.g. "template_kiss/spawn_dome"
+     * @param templateDirectories Directories whose templates (listed in assets.txt) are included too
+     * @return Every rotation of every template, in the order given
+     */
+    public static synchronized ArrayList<KissTemplate> load(String[] templatePaths, String[] templateDirectories) {
+        String key = Arrays.toString(templatePaths) + Arrays.toString(templateDirectories);
+        List<KissTemplate> templates = loaded.get(key);
+        if (templates == null) {
+            long start = System.nanoTime();
+            ArrayList<String> sources = new ArrayList<>(Arrays.asList(templatePaths));
+            for (String directory : templateDirectories) {
+                // Goxel sources sit next to each exported png/json pair
+                sources.addAll(TemplatePackFile.listAssets(directory, ".gox"));
+            }
+            templates = readOrCompile(sources);
+            loaded.put(key, templates);
+            Log.info("KissTemplatePack", "Loaded " + templates.size() + " templates from " + sources.size() + " sources in " +
+                (System.nanoTime() - start) / 1_000_000 + "ms");
+        }
+        return new ArrayList<>(templates);
+    }
+
+    private static List<KissTemplate> readOrCompile(List<String> sources) {
+        ArrayList<String> files = new ArrayList<>();
+        for (String source : sources) {
+            files.add(source + ".json");
+            files.add(source + ".png");
+        }
+        String sourceHash = TemplatePackFile.stampSources(files);
+
+        ByteBuffer pack = TemplatePackFile.read(PACK_NAME, FORMAT_VERSION, sourceHash);
+        if (pack != null) {
+            try {
+                return readPack(pack);
+            } catch (RuntimeException e) {
+                Log.warn("KissTemplatePack", "Recompiling unreadable template pack: " + e.getMessage());
+            }
+        }
+        return readPack(TemplatePackFile.write(PACK_NAME, FORMAT_VERSION, sourceHash, compile(sources)));
+    }
+
+    private static byte[] compile(List<String> sources) {
+        Log.info("KissTemplatePack", "Compiling " + sources.size() + " template sources");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(sources.size());
+            for (String source : sources) {
+                KissJson json = KissTemplateReader.readKissJsonFile(source + ".json");
+                int[] voxels = KissTemplateReader.readTemplateVoxelsFromPNG(source, json);
+
+                TemplatePackFile.putString(out, source);
+                out.writeInt(json.width);
+                out.writeInt(json.height);
+                out.writeInt(json.depth);
+                out.writeInt(json.tags.size());
+                for (String tag : json.tags) {
+                    TemplatePackFile.putString(out, tag);
+                }
+                out.writeInt(json.rotations.length);
+                for (String rotation : json.rotations) {
+                    TemplatePackFile.putString(out, rotation);
+                    for (int voxel : KissTemplateReader.rotateVoxels(voxels, json, rotation)) {
+                        out.writeInt(voxel);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Only written to memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<KissTemplate> readPack(ByteBuffer pack) {
+        ArrayList<KissTemplate> templates = new ArrayList<>();
+        int sourceCount = pack.getInt();
+        for (int s = 0; s < sourceCount; s++) {
+            String source = TemplatePackFile.getString(pack);
+            KissJson json = new KissJson();
+            json.width = pack.getInt();
+            json.height = pack.getInt();
+            json.depth = pack.getInt();
+            int tagCount = pack.getInt();
+            for (int t = 0; t < tagCount; t++) {
+                json.tags.add(TemplatePackFile.getString(pack));
+            }
+            json.rotations = new String[pack.getInt()];
+            for (int r = 0; r < json.rotations.length; r++) {
+                json.rotations[r] = TemplatePackFile.getString(pack);
+                int[] voxels = new int[json.width * json.height * json.depth];
+                pack.asIntBuffer().get(voxels);
+                pack.position(pack.position() + voxels.length * Integer.BYTES);
+                templates.add(KissTemplateReader.createTemplate(source, json, json.rotations[r], voxels));
+            }
+        }
+        return templates;
+    }
+}
@@ -2,7 +2,6 @@ package curly.octo.common.map.generators.kiss;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.PixmapIO;
 import com.esotericsoftware.minlog.Log;
@@ -16,35 +15,54 @@ public class KissTemplateReader {
     public static ArrayList<KissTemplate> createTemplates(String templatePath) {
         ArrayList<KissTemplate> templates = new ArrayList<>();
         KissJson json = readKissJsonFile(templatePath + ".json");
+        int[] voxels = readTemplateVoxelsFromPNG(templatePath, json);
 
         for(String rotation : json.rotations) {
-            templates.add(readTemplate(templatePath, json, rotation));
+            templates.add(createTemplate(templatePath, json, rotation, rotateVoxels(voxels, json, rotation)));
         }
         return templates;
     }
 
-    private static KissTemplate readTemplate(String templatePath, KissJson json, String rotation) {
-        Color[][][] templatePixels = readTemplatePixelsFromPNG(templatePath, json);
-
-        switch(rotation) {
-            case "90":
-                templatePixels = rotatePixelArray90Degrees(templatePixels);
-                break;
-            case "180":
-                templatePixels = rotatePixelArray180Degrees(templatePixels);
-                break;
-            case "270":
-                templatePixels = rotatePixelArray270Degrees(templatePixels);
-                break;
-        }
+    /**
+     * @param rotatedVoxels The template's voxels already turned by {@link #rotateVoxels}
+     */
+    static KissTemplate createTemplate(String templatePath, KissJson json, String rotation, int[] rotatedVoxels) {
+        boolean sideways = quarterTurns(rotation) % 2 == 1;
+        int sizeX = sideways ? json.depth : json.width;
+        int sizeZ = sideways ? json.width : json.depth;
 
-        KissTemplate newTemplate = new KissTemplate(templatePixels, json);
+        KissTemplate newTemplate = new KissTemplate(sizeX, json.height, sizeZ, rotatedVoxels, json);
         newTemplate.name = extractTemplateNameFromFilePath(templatePath) + "_" + rotation;
         newTemplate.originalTemplatePath = templatePath;
 //        printTemplateSlices(newTemplate);
         return newTemplate;
     }
 
+    /**
+     * @param voxels Unrotated voxels as read by {@link #readTemplateVoxelsFromPNG}
+     * @return The voxels turned around Y by the rotation ("0", "90", "180" or "270")
+     */
+    static int[] rotateVoxels(int[] voxels, KissJson json, String rotation) {
+        int sizeX = json.width;
+        int sizeZ = json.depth;
+        for (int turn = 0; turn < quarterTurns(rotation); turn++) {
+            voxels = rotateVoxels90Degrees(voxels, sizeX, json.height, sizeZ);
+            int rotatedSizeX = sizeZ;
+            sizeZ = sizeX;
+            sizeX = rotatedSizeX;
+        }
+        return voxels;
+    }
+
+    private static int quarterTurns(String rotation) {
+        switch(rotation) {
+            case "90": return 1;
+            case "180": return 2;
+            case "270": return 3;
+            default: return 0;
+        }
+    }
+
     private static String extractTemplateNameFromFilePath(String templatePath) {
         int lastSlash = Math.max(templatePath.lastIndexOf('/'), templatePath.lastIndexOf('\\'));
         String filename = templatePath.substring(lastSlash + 1);
@@ -56,27 +74,17 @@ public class KissTemplateReader {
         return filename;
     }
 
-    private static Color[][][] rotatePixelArray270Degrees(Color[][][] pixels) {
-        Color[][][] rotatedPixels = rotatePixelArray180Degrees(pixels);
-        return rotatePixelArray90Degrees(rotatedPixels);
-    }
-
-    private static Color[][][] rotatePixelArray180Degrees(Color[][][] pixels) {
-        Color[][][] rotatedPixels = rotatePixelArray90Degrees(pixels);
-        return rotatePixelArray90Degrees(rotatedPixels);
-    }
-
-    private static Color[][][] rotatePixelArray90Degrees(Color[][][] pixels) {
-        int height = pixels.length;
-        int width = pixels[0].length;
-        int depth = pixels[0][0].length;
-        Color[][][] rotated = new Color[height][depth][width];
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                for (int z = 0; z < depth; z++) {
+    /**
+     * @return The voxels turned a quarter around Y; the rotated template is sizeZ wide and sizeX deep
+     */
+    private static int[] rotateVoxels90Degrees(int[] voxels, int sizeX, int sizeY, int sizeZ) {
+        int[] rotated = new int[voxels.length];
+        for (int y = 0; y < sizeY; y++) {
+            for (int x = 0; x < sizeX; x++) {
+                for (int z = 0; z < sizeZ; z++) {
                     int newX = z;
-                    int newZ = width - 1 - x;
-                    rotated[y][newX][newZ] = pixels[y][x][z];
+                    int newZ = sizeX - 1 - x;
+                    rotated[KissTemplate.voxelIndex(newX, y, newZ, sizeZ, sizeX)] = voxels[KissTemplate.voxelIndex(x, y, z, sizeX, sizeZ)];
                 }
             }
         }
@@ -112,8 +120,11 @@ public class KissTemplateReader {
         return 1.0f;
     }
 
-    private static Color[][][] readTemplatePixelsFromPNG(String templatePath, KissJson json) {
-        Color[][][] templatePixels = new Color[json.height][json.width][json.depth];
+    /**
+     * @return RGBA8888 pixels by {@link KissTemplate#voxelIndex}; voxels missing from the image are 0 (open)
+     */
+    static int[] readTemplateVoxelsFromPNG(String templatePath, KissJson json) {
+        int[] voxels = new int[json.width * json.height * json.depth];
 
         FileHandle templateFileHandle = Gdx.files.internal(templatePath + ".png");
         Pixmap pixmap = new Pixmap(templateFileHandle);
@@ -123,16 +134,15 @@ public class KissTemplateReader {
                     int xOffset = slice * json.width;
                     // Flip Z-axis: Pixmap Y-axis is top-to-bottom (0=top), but we want bottom-to-top in 3D space
                     int pixmapY = (json.depth - 1) - z;
-                    Color pixelColor = new Color(pixmap.getPixel(x + xOffset, pixmapY));
-                    templatePixels[slice][x][z] = pixelColor;
+                    voxels[KissTemplate.voxelIndex(x, slice, z, json.width, json.depth)] = pixmap.getPixel(x + xOffset, pixmapY);
                 }
             }
         }
         pixmap.dispose();
-        return templatePixels;
+        return voxels;
     }
 
-    private static KissJson readKissJsonFile(String templatePath) {
+    static KissJson readKissJsonFile(String templatePath) {
         try {
             String jsonPath = templatePath.replace(".png", ".json");
             FileHandle jsonFileHandle = Gdx.files.internal(jsonPath);
@@ -144,27 +154,27 @@ public class KissTemplateReader {
     }
 
     private static void printTemplateSlices(KissTemplate newTemplate) {
-        for(int slice = 0; slice < newTemplate.templatePixels.length; slice++) {
-            printSlice(newTemplate.name, newTemplate.originalTemplatePath, newTemplate.templatePixels[slice], slice);
+        for(int slice = 0; slice < newTemplate.sizeY; slice++) {
+            printSlice(newTemplate, slice);
         }
     }
 
-    private static void printSlice(String templateName, String templatePath, Color[][] slice, int sliceLayer) {
+    private static void printSlice(KissTemplate template, int sliceLayer) {
+        String templateName = template.name;
+        String templatePath = template.originalTemplatePath;
         // Extract the directory and filename from templatePath
         String directory = templatePath.substring(0, templatePath.lastIndexOf('/') + 1);
         // Create the new filename with slice layer
         String outputFilename = directory + templateName + "_slice_" + sliceLayer + ".png";
-        // Create a Pixmap from the 2D color array
-        // slice[x][z] matches how we read: pixmap.getPixel(x + xOffset, z)
-        int width = slice.length;
-        int depth = slice[0].length;
+        // Create a Pixmap from the slice's voxels, x and z matching how we read: pixmap.getPixel(x + xOffset, z)
+        int width = template.sizeX;
+        int depth = template.sizeZ;
         Pixmap pixmap = new Pixmap(width, depth, Pixmap.Format.RGBA8888);
 
         // Fill the pixmap with colors from the array, using z for vertical axis to match reading
         for (int x = 0; x < width; x++) {
             for (int z = 0; z < depth; z++) {
-                pixmap.setColor(slice[x][z]);
-                pixmap.drawPixel(x, z);
+                pixmap.drawPixel(x, z, template.voxels[KissTemplate.voxelIndex(x, sliceLayer, z, width, depth)]);
             }
         }
         // Write the pixmap to a file
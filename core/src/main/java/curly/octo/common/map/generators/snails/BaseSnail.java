@@ -10,24 +10,30 @@ import java.util.Random;
 
 public abstract class BaseSnail {
 
-    public static Random randomLights;
-
     public final GameMap map;
 
     protected Vector3 coordinate;
     protected Direction direction;
     protected boolean complete;
     protected Random random;
+    protected SnailWorkspace workspace;
 
     public BaseSnail(GameMap map, Vector3 coordinate, Direction direction, Random random) {
-        if (randomLights == null) {
-            randomLights = new Random();
-        }
         this.map = map;
         this.coordinate = coordinate;
         this.direction = direction;
         this.complete = false;
         this.random = random;
+        this.workspace = new SnailWorkspace(map);
+    }
+
+    /**
+     * Points this snail, and any snail it drives, at another workspace and random stream. SnailEngine calls
+     * this before running a snail on a worker thread.
+     */
+    protected void bind(SnailWorkspace workspace, Random random) {
+        this.workspace = workspace;
+        this.random = random;
     }
 
     /**
@@ -48,19 +54,19 @@ public abstract class BaseSnail {
 
     private void addLight(Vector3 lightPos) {
         // Ensure light tile exists
-        map.touchTile(lightPos, "BaseSnail");
+        workspace.touchTile((int)lightPos.x, (int)lightPos.y, (int)lightPos.z);
 
         // Create light hint at position
         LightHint lightHint = new LightHint(map.constructKeyFromIndexCoordinates(
             (int)lightPos.x, (int)lightPos.y + 1, (int)lightPos.z));
-        lightHint.color_r = randomLights.nextFloat();//0.8f;  // Warm white light
-        lightHint.color_g = randomLights.nextFloat();//0.7f;
-        lightHint.color_b = randomLights.nextFloat();//0.5f;
-        lightHint.intensity = random.nextInt(5) + randomLights.nextFloat();//3f;  // Much lower intensity
-        lightHint.intensity = randomLights.nextFloat();//3f;  // Much lower intensity
+        // Drawn from the snail's own stream so a seed always lights the map the same way
+        lightHint.color_r = random.nextFloat();//0.8f;  // Warm white light
+        lightHint.color_g = random.nextFloat();//0.7f;
+        lightHint.color_b = random.nextFloat();//0.5f;
+        lightHint.intensity = random.nextFloat();//3f;  // Much lower intensity
         lightHint.flicker = LightPresets.LIGHT_FLICKER_1;
 
-        map.registerHint(lightHint);
+        workspace.registerHint(lightHint);
     }
 
     /**
@@ -79,11 +85,11 @@ public abstract class BaseSnail {
     }
 
     protected void markTileAsPartOfMap() {
-        this.map.touchTile(this.coordinate, "BaseSnail");
+        markTileAsPartOfMap(this.coordinate);
     }
 
     protected void markTileAsPartOfMap(Vector3 coordinate) {
-        this.map.touchTile(coordinate, "BaseSnail");
+        workspace.touchTile((int)coordinate.x, (int)coordinate.y, (int)coordinate.z);
     }
 
     /**
@@ -92,7 +98,7 @@ public abstract class BaseSnail {
      * @return true if a tile already exists, false otherwise
      */
     protected boolean tileExists(Vector3 coordinate) {
-        return map.getTile((int)coordinate.x, (int)coordinate.y, (int)coordinate.z) != null;
+        return workspace.hasTile((int)coordinate.x, (int)coordinate.y, (int)coordinate.z);
     }
 
     /**
@@ -100,7 +106,7 @@ public abstract class BaseSnail {
      * @return true if map is still small and should continue generating
      */
     protected boolean shouldBeLenientWithCollisions() {
-        return map.getAllTiles().size() < 200; // MIN_MAP_SIZE
+        return workspace.getTileCount() < 200; // MIN_MAP_SIZE
     }
 
     /**
@@ -111,7 +117,7 @@ public abstract class BaseSnail {
      * @return true if a tile already exists, false otherwise
      */
     protected boolean tileExists(int x, int y, int z) {
-        return map.getTile(x, y, z) != null;
+        return workspace.hasTile(x, y, z);
     }
 
     // Getters for snail state
@@ -70,6 +70,12 @@ public class ParallelSnail extends BaseSnail {
         return result;
     }
 
+    @Override
+    protected void bind(SnailWorkspace workspace, Random random) {
+        super.bind(workspace, random);
+        primarySnail.bind(workspace, random);
+    }
+
     @Override
     public BaseSnail createCopy() {
         BaseSnail[] spawnCopies = new BaseSnail[spawnSnails.length];
@@ -60,6 +60,13 @@ public class SequentialSnail extends BaseSnail {
         return result;
     }
 
+    @Override
+    protected void bind(SnailWorkspace workspace, Random random) {
+        super.bind(workspace, random);
+        currentSnail.bind(workspace, random);
+        nextSnail.bind(workspace, random);
+    }
+
     @Override
     public BaseSnail createCopy() {
         SequentialSnail copy = new SequentialSnail(map, coordinate.cpy(), direction, random,
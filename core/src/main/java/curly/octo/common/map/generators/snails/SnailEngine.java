@@ -0,0 +1,179 @@
+package curly.octo.common.map.generators.snails;
+
+import com.badlogic.gdx.math.Vector3;
+import curly.octo.common.map.GameMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs snails in waves, several at a time.
+ *
+ * Every submitted snail, and every snail a BranchSnail or ParallelSnail spawns, becomes a job with its own
+ * random stream and buffered {@link SnailWorkspace}. A wave takes pending jobs in order, holding back any
+ * whose reserved region overlaps a job already in the wave, and runs them on worker threads against the map
+ * as it stood when the wave began. Once the whole wave is done, the jobs' tiles, hints and expansion nodes
+ * are committed in job order and the snails they spawned queue up behind the held back jobs.
+ *
+ * Nothing a wave does depends on thread timing or the number of workers, so the same submissions with the
+ * same seeds always build the same map.
+ */
+public class SnailEngine {
+
+    /**
+     * Steps each branch of a submitted snail's spawn tree may take. A spawned snail gets the steps its
+     * parent had left, so no branch runs past step MAX_STEPS of its tree. This is a per-branch limit, not a
+     * total: the generator's iteration and tile limits bound the whole map.
+     */
+    public static final int MAX_STEPS = 100;
+
+    /** Most jobs run in one wave */
+    private static final int MAX_WAVE_JOBS = 16;
+
+    /** Tiles around a job's starting point, along each axis, that no other job in its wave may start in */
+    private static final int RESERVATION_RADIUS = 12;
+
+    private static ExecutorService workers;
+
+    private final GameMap map;
+    private final ArrayList<Job> pending = new ArrayList<>();
+
+    public SnailEngine(GameMap map) {
+        this.map = map;
+    }
+
+    /**
+     * Queues a snail to run in a later wave.
+     *
+     * @param seed Seeds the snail's random stream, so it no longer draws from the generator's
+     */
+    public void submit(BaseSnail snail, long seed) {
+        pending.add(new Job(snail, seed, MAX_STEPS));
+    }
+
+    /**
+     * @return true when no snails are waiting to run
+     */
+    public boolean isIdle() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Runs one wave and commits it to the map. Must be called from the thread that owns the map.
+     *
+     * @return Expansion nodes created by the wave, in job order
+     */
+    public List<ExpansionNode> runWave() {
+        ArrayList<Job> wave = new ArrayList<>();
+        ArrayList<Job> heldBack = new ArrayList<>();
+        for (Job job : pending) {
+            if (wave.size() < MAX_WAVE_JOBS && !overlapsAny(job, wave)) {
+                wave.add(job);
+            } else {
+                heldBack.add(job);
+            }
+        }
+        pending.clear();
+        pending.addAll(heldBack);
+
+        if (wave.size() == 1) {
+            wave.get(0).call();
+        } else {
+            try {
+                for (Future<Void> result : workers().invokeAll(wave)) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while running snails", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Snail failed", e.getCause());
+            }
+        }
+
+        ArrayList<ExpansionNode> expansionNodes = new ArrayList<>();
+        for (Job job : wave) {
+            job.workspace.commit();
+            expansionNodes.addAll(job.expansionNodes);
+            pending.addAll(job.children);
+        }
+        return expansionNodes;
+    }
+
+    private static boolean overlapsAny(Job job, List<Job> wave) {
+        for (Job other : wave) {
+            if (Math.abs(job.startX - other.startX) <= 2 * RESERVATION_RADIUS &&
+                Math.abs(job.startY - other.startY) <= 2 * RESERVATION_RADIUS &&
+                Math.abs(job.startZ - other.startZ) <= 2 * RESERVATION_RADIUS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static synchronized ExecutorService workers() {
+        if (workers == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            AtomicInteger threadCount = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "SnailWorker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * One snail run to completion (or until its steps run out) in its own workspace.
+     */
+    private final class Job implements Callable<Void> {
+        final BaseSnail snail;
+        final long seed;
+        final int startX, startY, startZ;
+        int stepsLeft;
+
+        SnailWorkspace workspace;
+        final ArrayList<ExpansionNode> expansionNodes = new ArrayList<>();
+        final ArrayList<Job> children = new ArrayList<>();
+
+        Job(BaseSnail snail, long seed, int steps) {
+            this.snail = snail;
+            this.seed = seed;
+            this.stepsLeft = steps;
+            Vector3 start = snail.getCoordinate();
+            this.startX = (int)start.x;
+            this.startY = (int)start.y;
+            this.startZ = (int)start.z;
+        }
+
+        @Override
+        public Void call() {
+            Random random = new Random(seed);
+            workspace = new SnailWorkspace(map, true);
+            snail.bind(workspace, random);
+
+            while (stepsLeft > 0 && !snail.isDone()) {
+                SnailResult result = snail.execute();
+                stepsLeft--;
+                expansionNodes.addAll(result.getExpansionNodes());
+                if (stepsLeft > 0) {
+                    for (BaseSnail spawned : result.getSpawnedSnails()) {
+                        children.add(new Job(spawned, random.nextLong(), stepsLeft));
+                    }
+                }
+                if (result.isComplete()) {
+                    break;
+                }
+            }
+            return null;
+        }
+    }
+}
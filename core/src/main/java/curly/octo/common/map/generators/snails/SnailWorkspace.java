@@ -0,0 +1,83 @@
+package curly.octo.common.map.generators.snails;
+
+import curly.octo.common.map.GameMap;
+import curly.octo.common.map.exploration.TileKeySet;
+import curly.octo.common.map.hints.MapHint;
+
+import java.util.ArrayList;
+
+/**
+ * Where a snail reads and writes tiles.
+ *
+ * A direct workspace edits the map in place. A buffered one (used by {@link SnailEngine}) leaves the map
+ * alone: the tiles and hints it creates are held until {@link #commit()}, and reads see the map plus those
+ * tiles. Buffered workspaces only read the map, so several can be worked on at once from different threads.
+ */
+public class SnailWorkspace {
+
+    private static final String TEMPLATE_NAME = "BaseSnail";
+
+    private final GameMap map;
+    private final boolean buffered;
+    private final TileKeySet addedTiles;
+    private final ArrayList<MapHint> addedHints;
+
+    public SnailWorkspace(GameMap map) {
+        this(map, false);
+    }
+
+    SnailWorkspace(GameMap map, boolean buffered) {
+        this.map = map;
+        this.buffered = buffered;
+        this.addedTiles = buffered ? new TileKeySet() : null;
+        this.addedHints = buffered ? new ArrayList<>() : null;
+    }
+
+    public boolean hasTile(int x, int y, int z) {
+        return map.hasTile(x, y, z) || (buffered && addedTiles.contains(GameMap.packTileKey(x, y, z)));
+    }
+
+    /**
+     * Creates an empty tile here unless one already exists.
+     */
+    public void touchTile(int x, int y, int z) {
+        if (!buffered) {
+            map.touchTile(x, y, z, TEMPLATE_NAME);
+        } else if (!map.hasTile(x, y, z)) {
+            addedTiles.add(GameMap.packTileKey(x, y, z));
+        }
+    }
+
+    public void registerHint(MapHint hint) {
+        if (buffered) {
+            addedHints.add(hint);
+        } else {
+            map.registerHint(hint);
+        }
+    }
+
+    /**
+     * @return Tiles in the map plus tiles held by this workspace
+     */
+    public int getTileCount() {
+        return buffered ? map.getTileCount() + addedTiles.size() : map.getTileCount();
+    }
+
+    /**
+     * Writes held tiles and hints into the map, hints in the order they were registered. Nothing else may be
+     * reading or writing the map meanwhile.
+     */
+    void commit() {
+        if (!buffered) {
+            return;
+        }
+        for (long key : addedTiles.toArray()) {
+            map.touchTile(GameMap.keyToIndexX(key), GameMap.keyToIndexY(key), GameMap.keyToIndexZ(key), TEMPLATE_NAME);
+        }
+        for (MapHint hint : addedHints) {
+            map.registerHint(hint);
+        }
+        addedTiles.clear();
+        addedHints.clear();
+    }
+}
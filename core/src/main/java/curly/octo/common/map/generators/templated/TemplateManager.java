@@ -1,17 +1,9 @@
 package curly.octo.common.map.generators.templated;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.esotericsoftware.minlog.Log;
 import curly.octo.common.map.enums.Direction;
 
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.util.*;
 
-import static com.badlogic.gdx.net.HttpRequestBuilder.json;
-
 public class TemplateManager {
 
     public static final String TEMPLATE_FOLDER = "templates";
@@ -43,82 +35,13 @@ public class TemplateManager {
     }
 
     private void loadTemplatesFromAssetsFile() {
-        FileHandle assetsFile = Gdx.files.internal("assets.txt");
-        try (BufferedReader reader = new BufferedReader(assetsFile.reader())) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String trimmedLine = line.trim();
-                if (trimmedLine.startsWith(TEMPLATE_FOLDER) && trimmedLine.endsWith(TEMPLATE_EXTENSION)) {
-                    String[] directoryParts = trimmedLine.split("/");
-                    String collectionName = directoryParts[1];
-                    String templateName = directoryParts[2].split("\\.")[0];
-
-                    String configsPath = TEMPLATE_FOLDER + "/" + collectionName + "/" + templateName + CONFIG_EXTENSION;
-                    FileHandle room_configs = Gdx.files.internal(configsPath);
-                    if (!room_configs.exists()) {
-                        Log.error("loadTemplatesFromAssetsFile", "missing config file for: " + configsPath);
-                        continue;
-                    }
-                    TemplateRoomConfigs configs = json.fromJson(TemplateRoomConfigs.class, room_configs);
-
-                    String templatePath = TEMPLATE_FOLDER + "/" + collectionName + "/" + templateName + TEMPLATE_EXTENSION;
-                    FileHandle room_template = Gdx.files.internal(templatePath);
-                    if (!room_template.exists()) {
-                        Log.error("loadTemplatesFromAssetsFile", "missing template file for: " + templatePath);
-                        continue;
-                    }
-                    TemplateRoom room = loadTemplate(collectionName, room_template, configs);
-                    roomTemplates.add(room);
-                    templateNameToRoomTemplateMap.put(templateName, room);
-                    if (!collectionNameToRoomTemplatesMap.containsKey(collectionName)) {
-                        collectionNameToRoomTemplatesMap.put(collectionName, new ArrayList<>());
-                    }
-                    collectionNameToRoomTemplatesMap.get(collectionName).add(room);
-                }
-            }
-        } catch (IOException e) {
-            Log.error("TemplateManager", "Error reading assets.txt", e);
-        }
-    }
-
-    private TemplateRoom loadTemplate(String collectionName,FileHandle templateFile, TemplateRoomConfigs configs) {
-        Pixmap pixmap = null;
-
-        try {
-            pixmap = new Pixmap(templateFile);
-
-            int imageWidth = pixmap.getWidth();
-            int imageHeight = pixmap.getHeight();
-
-            if (imageWidth % imageHeight != 0) {
-                throw new IllegalArgumentException("Image width (" + imageWidth +
-                    ") is not an even multiple of sliceWidth (" + imageHeight + ")");
-            }
-
-            int depth = imageWidth / imageHeight;
-            int[][][] walls = new int[depth][imageHeight][imageHeight];
-
-            for (int slice = 0; slice < depth; slice++) {
-                for (int x = 0; x < imageHeight; x++) {
-                    for (int z = 0; z < imageHeight; z++) {
-                        int pixelX = x + (slice * imageHeight);
-                        int pixel = pixmap.getPixel(pixelX, z);
-                        int alpha = (pixel & 0x000000FF);
-                        walls[slice][z][x] = (alpha == 0) ? 1 : 0;
-                    }
-                }
-            }
-
-            String templateName = templateFile.nameWithoutExtension();
-            return new TemplateRoom(collectionName, templateName, configs, walls);
-
-        } catch (Exception e) {
-            Log.error("TemplateLoader", "Failed to load template " + templateFile.path() + ": " + e.getMessage());
-            throw new RuntimeException("Could not load template: " + templateFile.path(), e);
-        } finally {
-            if (pixmap != null) {
-                pixmap.dispose();
+        for (TemplateRoom room : TemplateRoomPack.load()) {
+            roomTemplates.add(room);
+            templateNameToRoomTemplateMap.put(room.template_name, room);
+            if (!collectionNameToRoomTemplatesMap.containsKey(room.collection_name)) {
+                collectionNameToRoomTemplatesMap.put(room.collection_name, new ArrayList<>());
             }
+            collectionNameToRoomTemplatesMap.get(room.collection_name).add(room);
         }
     }
 
@@ -0,0 +1,180 @@
+package curly.octo.common.map.generators.templated;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.map.generators.TemplatePackFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.badlogic.gdx.net.HttpRequestBuilder.json;
+
+/**
+ * Room templates compiled into a binary pack: each room's collection, name, config JSON and wall bits.
+ * Loading a pack skips decoding the template images, and the rooms are kept for the life of the process so
+ * every TemplateManager after the first reuses them.
+ */
+public final class TemplateRoomPack {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String PACK_NAME = "templates";
+
+    private static List<TemplateRoom> loaded;
+
+    private TemplateRoomPack() {}
+
+    /**
+     * @return Every room template listed in assets.txt, in listing order
+     */
+    public static synchronized List<TemplateRoom> load() {
+        if (loaded == null) {
+            long start = System.nanoTime();
+            ArrayList<String[]> sources = new ArrayList<>(); // Collection name, template name
+            ArrayList<String> files = new ArrayList<>();
+            for (String path : TemplatePackFile.listAssets(TemplateManager.TEMPLATE_FOLDER, TemplateManager.TEMPLATE_EXTENSION)) {
+                String[] directoryParts = path.split("/");
+                String collectionName = directoryParts[1];
+                String templateName = directoryParts[2].split("\\.")[0];
+                sources.add(new String[]{collectionName, templateName});
+                files.add(basePath(collectionName, templateName) + TemplateManager.CONFIG_EXTENSION);
+                files.add(basePath(collectionName, templateName) + TemplateManager.TEMPLATE_EXTENSION);
+            }
+            String sourceHash = TemplatePackFile.stampSources(files);
+
+            ByteBuffer pack = TemplatePackFile.read(PACK_NAME, FORMAT_VERSION, sourceHash);
+            if (pack != null) {
+                try {
+                    loaded = readPack(pack);
+                } catch (RuntimeException e) {
+                    Log.warn("TemplateRoomPack", "Recompiling unreadable template pack: " + e.getMessage());
+                }
+            }
+            if (loaded == null) {
+                loaded = readPack(TemplatePackFile.write(PACK_NAME, FORMAT_VERSION, sourceHash, compile(sources)));
+            }
+            Log.info("TemplateRoomPack", "Loaded " + loaded.size() + " room templates in " +
+                (System.nanoTime() - start) / 1_000_000 + "ms");
+        }
+        return loaded;
+    }
+
+    private static String basePath(String collectionName, String templateName) {
+        return TemplateManager.TEMPLATE_FOLDER + "/" + collectionName + "/" + templateName;
+    }
+
+    private static byte[] compile(List<String[]> sources) {
+        Log.info("TemplateRoomPack", "Compiling " + sources.size() + " room templates");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            int count = 0;
+            ByteArrayOutputStream roomBytes = new ByteArrayOutputStream();
+            DataOutputStream roomOut = new DataOutputStream(roomBytes);
+            for (String[] source : sources) {
+                String collectionName = source[0];
+                String templateName = source[1];
+                String configsPath = basePath(collectionName, templateName) + TemplateManager.CONFIG_EXTENSION;
+                FileHandle roomConfigs = Gdx.files.internal(configsPath);
+                if (!roomConfigs.exists()) {
+                    Log.error("TemplateRoomPack", "missing config file for: " + configsPath);
+                    continue;
+                }
+                String templatePath = basePath(collectionName, templateName) + TemplateManager.TEMPLATE_EXTENSION;
+                FileHandle roomTemplate = Gdx.files.internal(templatePath);
+                if (!roomTemplate.exists()) {
+                    Log.error("TemplateRoomPack", "missing template file for: " + templatePath);
+                    continue;
+                }
+
+                int[][][] walls = readWalls(roomTemplate);
+                TemplatePackFile.putString(roomOut, collectionName);
+                TemplatePackFile.putString(roomOut, roomTemplate.nameWithoutExtension());
+                TemplatePackFile.putString(roomOut, roomConfigs.readString());
+                roomOut.writeInt(walls.length);
+                roomOut.writeInt(walls[0].length);
+                for (int[][] slice : walls) {
+                    for (int[] row : slice) {
+                        for (int wall : row) {
+                            roomOut.writeByte(wall);
+                        }
+                    }
+                }
+                count++;
+            }
+            roomOut.flush();
+            out.writeInt(count);
+            roomBytes.writeTo(out);
+        } catch (IOException e) {
+            // Only written to memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return Walls by [slice][z][x], 1 where the image is transparent
+     */
+    private static int[][][] readWalls(FileHandle templateFile) {
+        Pixmap pixmap = null;
+        try {
+            pixmap = new Pixmap(templateFile);
+
+            int imageWidth = pixmap.getWidth();
+            int imageHeight = pixmap.getHeight();
+
+            if (imageWidth % imageHeight != 0) {
+                throw new IllegalArgumentException("Image width (" + imageWidth +
+                    ") is not an even multiple of sliceWidth (" + imageHeight + ")");
+            }
+
+            int depth = imageWidth / imageHeight;
+            int[][][] walls = new int[depth][imageHeight][imageHeight];
+
+            for (int slice = 0; slice < depth; slice++) {
+                for (int x = 0; x < imageHeight; x++) {
+                    for (int z = 0; z < imageHeight; z++) {
+                        int pixelX = x + (slice * imageHeight);
+                        int pixel = pixmap.getPixel(pixelX, z);
+                        int alpha = (pixel & 0x000000FF);
+                        walls[slice][z][x] = (alpha == 0) ? 1 : 0;
+                    }
+                }
+            }
+            return walls;
+        } catch (Exception e) {
+            Log.error("TemplateLoader", "Failed to load template " + templateFile.path() + ": " + e.getMessage());
+            throw new RuntimeException("Could not load template: " + templateFile.path(), e);
+        } finally {
+            if (pixmap != null) {
+                pixmap.dispose();
+            }
+        }
+    }
+
+    private static List<TemplateRoom> readPack(ByteBuffer pack) {
+        ArrayList<TemplateRoom> rooms = new ArrayList<>();
+        int count = pack.getInt();
+        for (int i = 0; i < count; i++) {
+            String collectionName = TemplatePackFile.getString(pack);
+            String templateName = TemplatePackFile.getString(pack);
+            TemplateRoomConfigs configs = json.fromJson(TemplateRoomConfigs.class, TemplatePackFile.getString(pack));
+            int depth = pack.getInt();
+            int size = pack.getInt();
+            int[][][] walls = new int[depth][size][size];
+            for (int[][] slice : walls) {
+                for (int[] row : slice) {
+                    for (int j = 0; j < size; j++) {
+                        row[j] = pack.get();
+                    }
+                }
+            }
+            rooms.add(new TemplateRoom(collectionName, templateName, configs, walls));
+        }
+        return rooms;
+    }
+}
@@ -7,7 +7,7 @@ import curly.octo.common.Constants;
 import curly.octo.common.map.GameMap;
 import curly.octo.common.map.MapTile;
 import curly.octo.common.map.enums.Direction;
-import curly.octo.common.map.enums.MapTileGeometryType;
+import curly.octo.common.map.storage.PackedTile;
 
 /**
  * Physics body builder that creates collision triangles for ALL occupied map tiles.
@@ -15,36 +15,63 @@ import curly.octo.common.map.enums.MapTileGeometryType;
  */
 public class AllTilesPhysicsBodyBuilder extends PhysicsBodyBuilder {
 
+    private int totalTiles;
+    private int solidTiles;
+
     public AllTilesPhysicsBodyBuilder(GameMap gameMap) {
         super(gameMap);
     }
 
     @Override
     public btTriangleMesh buildTriangleMesh() {
-        btTriangleMesh triangleMesh = new btTriangleMesh();
-        totalTriangleCount = 0;
+        btTriangleMesh triangleMesh = super.buildTriangleMesh();
 
-        int totalTiles = 0;
-        int solidTiles = 0;
+        Log.info("AllTilesPhysicsBodyBuilder",
+            String.format("Processed %d total tiles, %d solid tiles, built %d triangles",
+                totalTiles, solidTiles, totalTriangleCount));
+
+        return triangleMesh;
+    }
 
-        for(MapTile tile : gameMap.getAllTiles()) {
-            totalTiles++;
-            if (tile.geometryType != MapTileGeometryType.EMPTY) {
-                solidTiles++;
-                addTileTriangles(triangleMesh, tile);
+    @Override
+    public btTriangleMesh buildTriangleMesh(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        btTriangleMesh triangleMesh = new btTriangleMesh();
+        totalTriangleCount = 0;
+        totalTiles = 0;
+        solidTiles = 0;
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    int packed = gameMap.getPackedTile(x, y, z);
+                    if (!PackedTile.isPresent(packed)) {
+                        continue;
+                    }
+                    totalTiles++;
+                    if (PackedTile.isSolid(packed)) {
+                        solidTiles++;
+                        // FULL tiles are merged below
+                        if (!greedyMerging || !isFullTile(packed)) {
+                            addTileTriangles(triangleMesh, gameMap.getTile(x, y, z));
+                        }
+                    }
+                }
             }
         }
 
-        Log.info("AllTilesPhysicsBodyBuilder",
-            String.format("Processed %d total tiles, %d solid tiles, built %d triangles",
-                totalTiles, solidTiles, totalTriangleCount));
+        if (greedyMerging && solidTiles > 0) {
+            // Every side of every FULL tile, merged into larger rectangles per chunk
+            addMergedFaces(triangleMesh,
+                (tileX, tileY, tileZ, face) -> isFullTile(gameMap.getPackedTile(tileX, tileY, tileZ)) ? 1 : 0,
+                minX, minY, minZ, maxX, maxY, maxZ);
+        }
 
         return triangleMesh;
     }
 
     @Override
     public String getStrategyDescription() {
-        return "All Tiles Strategy - builds collision for every occupied tile";
+        return "All Tiles Strategy" + (greedyMerging ? " (greedy merged)" : "") + " - builds collision for every occupied tile";
     }
 
     private void addTileTriangles(btTriangleMesh triangleMesh, MapTile tile) {
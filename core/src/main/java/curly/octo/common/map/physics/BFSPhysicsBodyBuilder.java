@@ -5,23 +5,21 @@ import com.badlogic.gdx.physics.bullet.collision.btTriangleMesh;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.common.Constants;
 import curly.octo.common.map.GameMap;
-import curly.octo.common.map.MapTile;
+import curly.octo.common.map.TileFaces;
 import curly.octo.common.map.enums.Direction;
-import curly.octo.common.map.enums.MapTileGeometryType;
-import curly.octo.common.map.exploration.TileExplorationManager;
-
-import java.util.*;
+import curly.octo.common.map.exploration.MapConnectivity;
+import curly.octo.common.map.storage.PackedTile;
 
 /**
- * Physics body builder that uses multi-pass BFS to create collision triangles
+ * Physics body builder that uses the map's connectivity analysis to create collision triangles
  * for surfaces exposed to reachable areas. This includes both areas reachable
  * from spawn points and isolated regions, ensuring complete physics coverage
  * for all map areas while optimizing by only building boundary surfaces.
  */
 public class BFSPhysicsBodyBuilder extends PhysicsBodyBuilder {
 
-    private Set<MapTile> reachableTiles = new HashSet<>();
-    private Set<MapTile> boundaryTiles = new HashSet<>();
+    private int reachableTileCount;
+    private int boundaryTileCount;
 
     public BFSPhysicsBodyBuilder(GameMap gameMap) {
         super(gameMap);
@@ -29,27 +27,46 @@ public class BFSPhysicsBodyBuilder extends PhysicsBodyBuilder {
 
     @Override
     public btTriangleMesh buildTriangleMesh() {
-        btTriangleMesh triangleMesh = new btTriangleMesh();
-        totalTriangleCount = 0;
-
-        // Step 1: Find all reachable empty tiles using multi-pass BFS
+        // Step 1: Reachable empty tiles and their solid boundary come from the cached connectivity pass
         findAllReachableAreas();
 
-        // Step 2: Find boundary tiles (solid tiles adjacent to reachable empty space)
-        findBoundaryTiles();
-
         Log.info("BFSPhysicsBodyBuilder",
             String.format("Found %d reachable tiles, %d boundary tiles for physics",
-                reachableTiles.size(), boundaryTiles.size()));
+                reachableTileCount, boundaryTileCount));
 
-        // Step 3: Only create physics triangles for boundary tiles
-        if (boundaryTiles.isEmpty()) {
+        if (boundaryTileCount == 0) {
             Log.warn("BFSPhysicsBodyBuilder", "No boundary tiles found - creating empty triangle mesh");
             // Still return the empty triangle mesh - Bullet can handle empty meshes if we don't add any triangles
+        }
+
+        // Step 2: Only create physics triangles for boundary tiles
+        return super.buildTriangleMesh();
+    }
+
+    @Override
+    public btTriangleMesh buildTriangleMesh(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        btTriangleMesh triangleMesh = new btTriangleMesh();
+        totalTriangleCount = 0;
+
+        MapConnectivity connectivity = gameMap.getConnectivity();
+        reachableTileCount = connectivity.getReachableEmptyCount();
+        boundaryTileCount = connectivity.getBoundaryTileCount();
+
+        if (greedyMerging) {
+            // Exposed FULL faces are merged into larger rectangles, other shapes are still built per tile
+            addMergedFaces(triangleMesh,
+                (tileX, tileY, tileZ, face) ->
+                    TileFaces.has(connectivity.getBoundaryFaceMask(tileX, tileY, tileZ), face)
+                        && isFullTile(gameMap.getPackedTile(tileX, tileY, tileZ)) ? 1 : 0,
+                minX, minY, minZ, maxX, maxY, maxZ);
+            connectivity.forEachBoundaryTile(minX, minY, minZ, maxX, maxY, maxZ, (tileX, tileY, tileZ, exposedFaces) -> {
+                if (!isFullTile(gameMap.getPackedTile(tileX, tileY, tileZ))) {
+                    addBoundaryTileTriangles(triangleMesh, tileX, tileY, tileZ, exposedFaces);
+                }
+            });
         } else {
-            for (MapTile tile : boundaryTiles) {
-                addBoundaryTileTriangles(triangleMesh, tile);
-            }
+            connectivity.forEachBoundaryTile(minX, minY, minZ, maxX, maxY, maxZ, (tileX, tileY, tileZ, exposedFaces) ->
+                addBoundaryTileTriangles(triangleMesh, tileX, tileY, tileZ, exposedFaces));
         }
 
         return triangleMesh;
@@ -57,95 +74,39 @@ public class BFSPhysicsBodyBuilder extends PhysicsBodyBuilder {
 
     @Override
     public String getStrategyDescription() {
-        return String.format("Multi-pass BFS Strategy - builds collision for %d boundary tiles from %d reachable areas (vs %d total occupied tiles)",
-            boundaryTiles.size(), reachableTiles.size(), getTotalOccupiedTiles());
+        return String.format("Multi-pass BFS Strategy" + (greedyMerging ? " (greedy merged)" : "") + " - builds collision for %d boundary tiles from %d reachable areas (vs %d total occupied tiles)",
+            boundaryTileCount, reachableTileCount, getTotalOccupiedTiles());
     }
 
     private void findAllReachableAreas() {
-        reachableTiles.clear();
-
-        // Use TileExplorationManager for multi-pass BFS
-        TileExplorationManager explorationManager = new TileExplorationManager(gameMap);
-        List<Set<MapTile>> allRegions = explorationManager.exploreAllRegions();
+        MapConnectivity connectivity = gameMap.getConnectivity();
+        reachableTileCount = connectivity.getReachableEmptyCount();
+        boundaryTileCount = connectivity.getBoundaryTileCount();
 
-        // Include empty tiles from all discovered regions (both connected and isolated)
-        for (Set<MapTile> region : allRegions) {
-            for (MapTile tile : region) {
-                if (tile.geometryType == MapTileGeometryType.EMPTY) {
-                    reachableTiles.add(tile);
-                }
-            }
-        }
-
-        TileExplorationManager.ExplorationStats stats = explorationManager.getStats();
         Log.info("BFSPhysicsBodyBuilder", String.format(
             "Multi-pass BFS found %d reachable empty tiles across %d regions: %s",
-            reachableTiles.size(), allRegions.size(), stats.toString()));
-    }
-
-    private void findBoundaryTiles() {
-        boundaryTiles.clear();
-
-        // Check all reachable empty tiles for solid neighbors
-        for (MapTile emptyTile : reachableTiles) {
-            int tileX = (int)(emptyTile.x / Constants.MAP_TILE_SIZE);
-            int tileY = (int)(emptyTile.y / Constants.MAP_TILE_SIZE);
-            int tileZ = (int)(emptyTile.z / Constants.MAP_TILE_SIZE);
-
-            // Check all 6 neighbors of this empty tile
-            int[] dx = {-1, 1, 0, 0, 0, 0};
-            int[] dy = {0, 0, -1, 1, 0, 0};
-            int[] dz = {0, 0, 0, 0, -1, 1};
-
-            for (int i = 0; i < 6; i++) {
-                int nx = tileX + dx[i];
-                int ny = tileY + dy[i];
-                int nz = tileZ + dz[i];
-
-                MapTile neighbor = gameMap.getTile(nx, ny, nz);
-
-                // If neighbor exists and is solid (not empty), it's a boundary tile
-                if (neighbor != null && neighbor.geometryType != MapTileGeometryType.EMPTY) {
-                    boundaryTiles.add(neighbor);
-                }
-
-            }
-        }
+            reachableTileCount, connectivity.getRegionCount(), connectivity.toString()));
     }
 
     private int getTotalOccupiedTiles() {
-        return gameMap.getAllTiles().size();
+        return gameMap.getTileCount();
     }
 
-    private void addBoundaryTileTriangles(btTriangleMesh triangleMesh, MapTile tile) {
+    /**
+     * @param exposedFaces Face mask (-X, +X, -Y, +Y, -Z, +Z) of faces adjacent to reachable space
+     */
+    private void addBoundaryTileTriangles(btTriangleMesh triangleMesh, int tileX, int tileY, int tileZ, int exposedFaces) {
         // Only add triangles for faces that are adjacent to reachable empty space
-        float x = tile.x;
-        float y = tile.y;
-        float z = tile.z;
         float size = Constants.MAP_TILE_SIZE;
+        float x = tileX * size;
+        float y = tileY * size;
+        float z = tileZ * size;
 
-        int tileX = (int)(x / size);
-        int tileY = (int)(y / size);
-        int tileZ = (int)(z / size);
-
-        // Check each face direction to see if it's adjacent to reachable space
-        boolean[] exposedFaces = new boolean[6]; // -X, +X, -Y, +Y, -Z, +Z
-
-        // Check -X face
-        exposedFaces[0] = isAdjacentToReachableSpace(tileX - 1, tileY, tileZ);
-        // Check +X face
-        exposedFaces[1] = isAdjacentToReachableSpace(tileX + 1, tileY, tileZ);
-        // Check -Y face
-        exposedFaces[2] = isAdjacentToReachableSpace(tileX, tileY - 1, tileZ);
-        // Check +Y face
-        exposedFaces[3] = isAdjacentToReachableSpace(tileX, tileY + 1, tileZ);
-        // Check -Z face
-        exposedFaces[4] = isAdjacentToReachableSpace(tileX, tileY, tileZ - 1);
-        // Check +Z face
-        exposedFaces[5] = isAdjacentToReachableSpace(tileX, tileY, tileZ + 1);
+        int packed = gameMap.getPackedTile(tileX, tileY, tileZ);
+        Direction direction = PackedTile.direction(packed);
 
         // Only add triangles for the specific geometry type and exposed faces
-        switch (tile.geometryType) {
+        switch (PackedTile.geometryType(packed)) {
             case FULL:
                 addFullBlockTrianglesSelective(triangleMesh, x, y, z, size, exposedFaces);
                 break;
@@ -153,108 +114,50 @@ public class BFSPhysicsBodyBuilder extends PhysicsBodyBuilder {
                 addHalfBlockTrianglesSelective(triangleMesh, x, y, z, size, exposedFaces);
                 break;
             case SLAT:
-                addSlantTrianglesSelective(triangleMesh, x, y, z, size, tile.direction, false, exposedFaces);
+                addSlantTrianglesSelective(triangleMesh, x, y, z, size, direction, false, exposedFaces);
                 break;
             case HALF_SLANT:
-                addSlantTrianglesSelective(triangleMesh, x, y, z, size, tile.direction, true, exposedFaces);
+                addSlantTrianglesSelective(triangleMesh, x, y, z, size, direction, true, exposedFaces);
                 break;
             case TALL_HALF_SLANT:
-                addTallHalfSlantTrianglesSelective(triangleMesh, x, y, z, size, tile.direction, exposedFaces);
+                addTallHalfSlantTrianglesSelective(triangleMesh, x, y, z, size, direction, exposedFaces);
                 break;
         }
     }
 
-    private boolean isAdjacentToReachableSpace(int x, int y, int z) {
-        MapTile tile = gameMap.getTile(x, y, z);
-        return reachableTiles.contains(tile);
-    }
-
-    private void addFullBlockTrianglesSelective(btTriangleMesh triangleMesh, float x, float y, float z, float size, boolean[] exposedFaces) {
-        // Define the 8 vertices of a cube
-        Vector3 v000 = new Vector3(x, y, z);
-        Vector3 v001 = new Vector3(x, y, z + size);
-        Vector3 v010 = new Vector3(x, y + size, z);
-        Vector3 v011 = new Vector3(x, y + size, z + size);
-        Vector3 v100 = new Vector3(x + size, y, z);
-        Vector3 v101 = new Vector3(x + size, y, z + size);
-        Vector3 v110 = new Vector3(x + size, y + size, z);
-        Vector3 v111 = new Vector3(x + size, y + size, z + size);
-
-        int trianglesAdded = 0;
-
-        // Left face (-X) - face index 0
-        if (exposedFaces[0]) {
-            triangleMesh.addTriangle(v000, v001, v010);
-            triangleMesh.addTriangle(v010, v001, v011);
-            trianglesAdded += 2;
-        }
-
-        // Right face (+X) - face index 1
-        if (exposedFaces[1]) {
-            triangleMesh.addTriangle(v100, v110, v101);
-            triangleMesh.addTriangle(v101, v110, v111);
-            trianglesAdded += 2;
-        }
-
-        // Bottom face (-Y) - face index 2
-        if (exposedFaces[2]) {
-            triangleMesh.addTriangle(v000, v100, v001);
-            triangleMesh.addTriangle(v100, v101, v001);
-            trianglesAdded += 2;
-        }
-
-        // Top face (+Y) - face index 3
-        if (exposedFaces[3]) {
-            triangleMesh.addTriangle(v010, v011, v110);
-            triangleMesh.addTriangle(v110, v011, v111);
-            trianglesAdded += 2;
-        }
-
-        // Front face (-Z) - face index 4
-        if (exposedFaces[4]) {
-            triangleMesh.addTriangle(v000, v010, v100);
-            triangleMesh.addTriangle(v100, v010, v110);
-            trianglesAdded += 2;
-        }
-
-        // Back face (+Z) - face index 5
-        if (exposedFaces[5]) {
-            triangleMesh.addTriangle(v001, v101, v011);
-            triangleMesh.addTriangle(v101, v111, v011);
-            trianglesAdded += 2;
+    private void addFullBlockTrianglesSelective(btTriangleMesh triangleMesh, float x, float y, float z, float size, int exposedFaces) {
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            if (TileFaces.has(exposedFaces, face)) {
+                addBoxFace(triangleMesh, x, y, z, x + size, y + size, z + size, face);
+            }
         }
-
-        totalTriangleCount += trianglesAdded;
     }
 
     // Similar selective methods for other geometry types...
     // For brevity, implementing simplified versions that add all triangles for now
     // TODO: Could be optimized further to only add exposed faces for each geometry type
 
-    private void addHalfBlockTrianglesSelective(btTriangleMesh triangleMesh, float x, float y, float z, float size, boolean[] exposedFaces) {
+    private void addHalfBlockTrianglesSelective(btTriangleMesh triangleMesh, float x, float y, float z, float size, int exposedFaces) {
         // Simplified: add all triangles if any face is exposed
         if (hasAnyExposedFace(exposedFaces)) {
             addHalfBlockTriangles(triangleMesh, x, y, z, size);
         }
     }
 
-    private void addSlantTrianglesSelective(btTriangleMesh triangleMesh, float x, float y, float z, float size, Direction direction, boolean isHalf, boolean[] exposedFaces) {
+    private void addSlantTrianglesSelective(btTriangleMesh triangleMesh, float x, float y, float z, float size, Direction direction, boolean isHalf, int exposedFaces) {
         if (hasAnyExposedFace(exposedFaces)) {
             addSlantTriangles(triangleMesh, x, y, z, size, direction, isHalf);
         }
     }
 
-    private void addTallHalfSlantTrianglesSelective(btTriangleMesh triangleMesh, float x, float y, float z, float size, Direction direction, boolean[] exposedFaces) {
+    private void addTallHalfSlantTrianglesSelective(btTriangleMesh triangleMesh, float x, float y, float z, float size, Direction direction, int exposedFaces) {
         if (hasAnyExposedFace(exposedFaces)) {
             addTallHalfSlantTriangles(triangleMesh, x, y, z, size, direction);
         }
     }
 
-    private boolean hasAnyExposedFace(boolean[] exposedFaces) {
-        for (boolean exposed : exposedFaces) {
-            if (exposed) return true;
-        }
-        return false;
+    private boolean hasAnyExposedFace(int exposedFaces) {
+        return exposedFaces != TileFaces.NONE;
     }
 
     // Reuse the triangle generation methods from AllTilesPhysicsBodyBuilder
@@ -1,7 +1,15 @@
 package curly.octo.common.map.physics;
 
+import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.bullet.collision.btTriangleMesh;
+import curly.octo.common.Constants;
 import curly.octo.common.map.GameMap;
+import curly.octo.common.map.GreedyMesher;
+import curly.octo.common.map.LevelChunk;
+import curly.octo.common.map.TileFaces;
+import curly.octo.common.map.enums.MapTileGeometryType;
+import curly.octo.common.map.exploration.MapConnectivity;
+import curly.octo.common.map.storage.PackedTile;
 
 /**
  * Abstract interface for building physics bodies from GameMap data.
@@ -11,16 +19,32 @@ public abstract class PhysicsBodyBuilder {
 
     protected GameMap gameMap;
     protected long totalTriangleCount = 0;
+    protected boolean greedyMerging = true;
 
     public PhysicsBodyBuilder(GameMap gameMap) {
         this.gameMap = gameMap;
     }
 
     /**
-     * Build the triangle mesh for physics collision.
+     * Build the triangle mesh for physics collision over the whole map.
      * @return The built triangle mesh
      */
-    public abstract btTriangleMesh buildTriangleMesh();
+    public btTriangleMesh buildTriangleMesh() {
+        MapConnectivity connectivity = gameMap.getConnectivity();
+        if (connectivity.isEmpty()) {
+            totalTriangleCount = 0;
+            return new btTriangleMesh();
+        }
+        return buildTriangleMesh(connectivity.getMinX(), connectivity.getMinY(), connectivity.getMinZ(),
+            connectivity.getMaxX(), connectivity.getMaxY(), connectivity.getMaxZ());
+    }
+
+    /**
+     * Build the triangle mesh for the tiles inside the given tile bounds (inclusive), e.g. one chunk.
+     * Triangle counts restart at zero for every call.
+     * @return The built triangle mesh
+     */
+    public abstract btTriangleMesh buildTriangleMesh(int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
 
     /**
      * Get the total number of triangles added to the mesh.
@@ -35,4 +59,95 @@ public abstract class PhysicsBodyBuilder {
      * @return Description string
      */
     public abstract String getStrategyDescription();
+
+    /**
+     * Enable or disable merging of coplanar FULL tile faces into larger rectangles.
+     * @param greedyMerging true to merge faces, false to build two triangles per tile face
+     */
+    public void setGreedyMerging(boolean greedyMerging) {
+        this.greedyMerging = greedyMerging;
+    }
+
+    public boolean isGreedyMerging() {
+        return greedyMerging;
+    }
+
+    protected static boolean isFullTile(int packed) {
+        return PackedTile.isSolid(packed) && PackedTile.geometryType(packed) == MapTileGeometryType.FULL;
+    }
+
+    /**
+     * Greedy-merges the faces supplied by the source over the given tile bounds (inclusive) and adds
+     * two triangles per merged rectangle. Merging runs per chunk-aligned block, so no rectangle is
+     * longer than a chunk side, and faces outside the bounds are ignored.
+     * @return Number of merged rectangles added
+     */
+    protected int addMergedFaces(btTriangleMesh triangleMesh, GreedyMesher.FaceSource faces,
+                                 int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int block = LevelChunk.CHUNK_SIZE;
+        float size = Constants.MAP_TILE_SIZE;
+        GreedyMesher mesher = new GreedyMesher(block);
+        GreedyMesher.FaceSource source = (tileX, tileY, tileZ, face) ->
+            tileX < minX || tileX > maxX || tileY < minY || tileY > maxY || tileZ < minZ || tileZ > maxZ
+                ? 0 : faces.faceKey(tileX, tileY, tileZ, face);
+        GreedyMesher.QuadVisitor visitor = (face, key, tileX, tileY, tileZ, sizeX, sizeY, sizeZ) ->
+            addBoxFace(triangleMesh, tileX * size, tileY * size, tileZ * size,
+                (tileX + sizeX) * size, (tileY + sizeY) * size, (tileZ + sizeZ) * size, face);
+
+        int quads = 0;
+        for (int y = Math.floorDiv(minY, block) * block; y <= maxY; y += block) {
+            for (int z = Math.floorDiv(minZ, block) * block; z <= maxZ; z += block) {
+                for (int x = Math.floorDiv(minX, block) * block; x <= maxX; x += block) {
+                    quads += mesher.mesh(x, y, z, source, visitor);
+                }
+            }
+        }
+        return quads;
+    }
+
+    /**
+     * Adds the two triangles of one side of an axis-aligned box.
+     * @param face Face index (-X, +X, -Y, +Y, -Z, +Z), see {@link TileFaces}
+     */
+    protected void addBoxFace(btTriangleMesh triangleMesh, float x0, float y0, float z0,
+                              float x1, float y1, float z1, int face) {
+        Vector3 v000 = new Vector3(x0, y0, z0);
+        Vector3 v001 = new Vector3(x0, y0, z1);
+        Vector3 v010 = new Vector3(x0, y1, z0);
+        Vector3 v011 = new Vector3(x0, y1, z1);
+        Vector3 v100 = new Vector3(x1, y0, z0);
+        Vector3 v101 = new Vector3(x1, y0, z1);
+        Vector3 v110 = new Vector3(x1, y1, z0);
+        Vector3 v111 = new Vector3(x1, y1, z1);
+
+        switch (face) {
+            case TileFaces.NEG_X:
+                triangleMesh.addTriangle(v000, v001, v010);
+                triangleMesh.addTriangle(v010, v001, v011);
+                break;
+            case TileFaces.POS_X:
+                triangleMesh.addTriangle(v100, v110, v101);
+                triangleMesh.addTriangle(v101, v110, v111);
+                break;
+            case TileFaces.NEG_Y:
+                triangleMesh.addTriangle(v000, v100, v001);
+                triangleMesh.addTriangle(v100, v101, v001);
+                break;
+            case TileFaces.POS_Y:
+                triangleMesh.addTriangle(v010, v011, v110);
+                triangleMesh.addTriangle(v110, v011, v111);
+                break;
+            case TileFaces.NEG_Z:
+                triangleMesh.addTriangle(v000, v010, v100);
+                triangleMesh.addTriangle(v100, v010, v110);
+                break;
+            case TileFaces.POS_Z:
+                triangleMesh.addTriangle(v001, v101, v011);
+                triangleMesh.addTriangle(v101, v111, v011);
+                break;
+            default:
+                return;
+        }
+        totalTriangleCount += 2;
+    }
 }
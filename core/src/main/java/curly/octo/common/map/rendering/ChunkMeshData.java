@@ -0,0 +1,231 @@
+package curly.octo.common.map.rendering;
+
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.utils.MeshBuilder;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.FloatArray;
+import curly.octo.common.map.LevelChunk;
+import curly.octo.common.map.TileFaces;
+import curly.octo.common.map.enums.MapTileMaterial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CPU-side geometry for one chunk, built off the render thread and uploaded to GL later.
+ *
+ * Vertices are interleaved position, normal and texture coordinates, matching
+ * {@code MeshBuilder.createAttributes(USAGE)}. Indices are unsigned shorts, so a material whose
+ * geometry does not fit in one index range is split over several parts.
+ */
+public class ChunkMeshData {
+
+    public static final long USAGE = VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates;
+    public static final int VERTEX_SIZE = 8;
+
+    private final LevelChunk chunk;
+    private final List<Part> parts = new ArrayList<>();
+    private final Part[] openParts = new Part[MapTileMaterial.values().length];
+    private final FloatArray spawnPositions = new FloatArray();
+
+    int facesBuilt;
+    int tilesProcessed;
+
+    public ChunkMeshData(LevelChunk chunk) {
+        this.chunk = chunk;
+    }
+
+    /**
+     * @return The part to append to for this material, with room for at least the given number of vertices
+     */
+    Part part(MapTileMaterial material, int verticesNeeded) {
+        Part part = openParts[material.ordinal()];
+        if (part == null || part.vertexCount + verticesNeeded > MeshBuilder.MAX_VERTICES) {
+            String id = material.name().toLowerCase();
+            part = new Part(material, part == null ? id : id + "_" + parts.size());
+            openParts[material.ordinal()] = part;
+            parts.add(part);
+        }
+        return part;
+    }
+
+    void addSpawnMarker(float x, float y, float z) {
+        spawnPositions.add(x, y, z);
+    }
+
+    public LevelChunk getChunk() {
+        return chunk;
+    }
+
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    /**
+     * @return Spawn marker positions as consecutive x, y, z triples
+     */
+    public FloatArray getSpawnPositions() {
+        return spawnPositions;
+    }
+
+    public boolean hasGeometry() {
+        return !parts.isEmpty() || spawnPositions.size > 0;
+    }
+
+    public int getFacesBuilt() {
+        return facesBuilt;
+    }
+
+    public int getTilesProcessed() {
+        return tilesProcessed;
+    }
+
+    /**
+     * Geometry for a single material, appended to with the same conventions as MeshPartBuilder.
+     */
+    public static class Part {
+        private final MapTileMaterial material;
+        private final String id;
+        private float[] vertices = new float[64 * VERTEX_SIZE];
+        private short[] indices = new short[96];
+        private int vertexCount;
+        private int indexCount;
+
+        // Corners of each box face in TileFaces order; corner bits are 1 = +x, 2 = +y, 4 = +z
+        private static final int[][] BOX_FACE_CORNERS = {
+            {0, 4, 6, 2}, {5, 1, 3, 7}, {4, 0, 1, 5}, {2, 6, 7, 3}, {1, 0, 2, 3}, {4, 5, 7, 6}
+        };
+
+        Part(MapTileMaterial material, String id) {
+            this.material = material;
+            this.id = id;
+        }
+
+        public MapTileMaterial getMaterial() {
+            return material;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public float[] getVertices() {
+            return vertices;
+        }
+
+        public short[] getIndices() {
+            return indices;
+        }
+
+        public int getVertexCount() {
+            return vertexCount;
+        }
+
+        public int getIndexCount() {
+            return indexCount;
+        }
+
+        /**
+         * One face of the axis-aligned box at (x, y, z), written straight into the arrays. Same layout as
+         * the old buildFace: triangles v0 v1 v2 and v0 v2 v3, with the face's outward normal.
+         *
+         * @param face TileFaces direction
+         * @param uvUnit 0 to map the face to one full texture, otherwise the edge length one texture repeat
+         *               covers, so merged faces tile the same as unmerged ones
+         */
+        void boxFace(int face, float x, float y, float z, float sizeX, float sizeY, float sizeZ, float uvUnit) {
+            int[] corners = BOX_FACE_CORNERS[face];
+            float maxU = 1f, maxV = 1f;
+            if (uvUnit > 0f) {
+                maxU = edgeLength(corners[0], corners[1], sizeX, sizeY, sizeZ) / uvUnit;
+                maxV = edgeLength(corners[0], corners[3], sizeX, sizeY, sizeZ) / uvUnit;
+            }
+            float nx = TileFaces.dx(face), ny = TileFaces.dy(face), nz = TileFaces.dz(face);
+
+            int first = vertexCount;
+            for (int i = 0; i < 4; i++) {
+                int corner = corners[i];
+                vertex(x + ((corner & 1) != 0 ? sizeX : 0f),
+                       y + ((corner & 2) != 0 ? sizeY : 0f),
+                       z + ((corner & 4) != 0 ? sizeZ : 0f),
+                       nx, ny, nz, i == 1 || i == 2 ? maxU : 0f, i >= 2 ? maxV : 0f);
+            }
+            triangle(first, first + 1, first + 2);
+            triangle(first, first + 2, first + 3);
+        }
+
+        private static float edgeLength(int cornerA, int cornerB, float sizeX, float sizeY, float sizeZ) {
+            int axis = cornerA ^ cornerB;
+            return axis == 1 ? sizeX : axis == 2 ? sizeY : sizeZ;
+        }
+
+        /**
+         * Same layout as MeshPartBuilder.rect(Vector3, Vector3, Vector3, Vector3, Vector3).
+         */
+        void rect(Vector3 corner00, Vector3 corner10, Vector3 corner11, Vector3 corner01, Vector3 normal) {
+            int i00 = vertex(corner00, normal, 0, 1);
+            int i10 = vertex(corner10, normal, 1, 1);
+            int i11 = vertex(corner11, normal, 1, 0);
+            int i01 = vertex(corner01, normal, 0, 0);
+            triangle(i00, i10, i11);
+            triangle(i11, i01, i00);
+        }
+
+        /**
+         * Same faces, winding and normals as BoxShapeBuilder.build with eight corners (same parameter order).
+         */
+        void box(Vector3 corner000, Vector3 corner010, Vector3 corner100, Vector3 corner110,
+                 Vector3 corner001, Vector3 corner011, Vector3 corner101, Vector3 corner111) {
+            Vector3 normal = new Vector3();
+            boxNormal(normal, corner000, corner110, corner001, corner111);
+            rect(corner000, corner010, corner110, corner100, normal);
+            rect(corner011, corner001, corner101, corner111, normal.scl(-1f));
+
+            boxNormal(normal, corner000, corner101, corner010, corner111);
+            rect(corner001, corner000, corner100, corner101, normal);
+            rect(corner010, corner011, corner111, corner110, normal.scl(-1f));
+
+            boxNormal(normal, corner000, corner011, corner100, corner111);
+            rect(corner001, corner011, corner010, corner000, normal);
+            rect(corner100, corner110, corner111, corner101, normal.scl(-1f));
+        }
+
+        // Normal pointing from the centre of (b0, b1) to the centre of (a0, a1)
+        private static void boxNormal(Vector3 out, Vector3 a0, Vector3 a1, Vector3 b0, Vector3 b1) {
+            out.set((a0.x + a1.x - b0.x - b1.x) * 0.5f,
+                    (a0.y + a1.y - b0.y - b1.y) * 0.5f,
+                    (a0.z + a1.z - b0.z - b1.z) * 0.5f).nor();
+        }
+
+        private int vertex(Vector3 position, Vector3 normal, float u, float v) {
+            return vertex(position.x, position.y, position.z, normal.x, normal.y, normal.z, u, v);
+        }
+
+        private int vertex(float x, float y, float z, float nx, float ny, float nz, float u, float v) {
+            int offset = vertexCount * VERTEX_SIZE;
+            if (offset + VERTEX_SIZE > vertices.length) {
+                vertices = Arrays.copyOf(vertices, vertices.length * 2);
+            }
+            vertices[offset] = x;
+            vertices[offset + 1] = y;
+            vertices[offset + 2] = z;
+            vertices[offset + 3] = nx;
+            vertices[offset + 4] = ny;
+            vertices[offset + 5] = nz;
+            vertices[offset + 6] = u;
+            vertices[offset + 7] = v;
+            return vertexCount++;
+        }
+
+        private void triangle(int i0, int i1, int i2) {
+            if (indexCount + 3 > indices.length) {
+                indices = Arrays.copyOf(indices, indices.length * 2);
+            }
+            // Values above Short.MAX_VALUE wrap, GL reads them back as unsigned
+            indices[indexCount++] = (short) i0;
+            indices[indexCount++] = (short) i1;
+            indices[indexCount++] = (short) i2;
+        }
+    }
+}
@@ -1,30 +1,39 @@
 package curly.octo.common.map.rendering;
 
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
 import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g3d.Material;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.utils.MeshBuilder;
 import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
-import com.badlogic.gdx.graphics.g3d.utils.shapebuilders.BoxShapeBuilder;
 import com.badlogic.gdx.graphics.g3d.utils.shapebuilders.SphereShapeBuilder;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.common.Constants;
 import curly.octo.common.map.ChunkManager;
 import curly.octo.common.map.GameMap;
+import curly.octo.common.map.GreedyMesher;
 import curly.octo.common.map.LevelChunk;
 import curly.octo.common.map.MapTile;
+import curly.octo.common.map.TileFaces;
 import curly.octo.common.map.enums.MapTileFillType;
 import curly.octo.common.map.enums.MapTileGeometryType;
-import curly.octo.common.map.exploration.TileExplorationManager;
+import curly.octo.common.map.enums.MapTileMaterial;
+import curly.octo.common.map.exploration.MapConnectivity;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Map model builder that creates separate ModelInstances for each chunk, enabling
@@ -44,16 +53,33 @@ public class ChunkedMapModelBuilder extends MapModelBuilder implements Disposabl
     private Map<LevelChunk, ChunkFaceInfo> chunkFaceVisibility;
 
     // Chunk-based rendering system
-    private Map<LevelChunk, ChunkModelData> chunkModels;
+    private Map<Long, ChunkModelData> chunkModels; // Keyed by LevelChunk.getChunkKey()
     private Array<ModelInstance> allChunkInstances;
 
-    // Separate water model (built separately to avoid transparency contamination)
-    private Model waterModel;
+    // Water surfaces, one model per chunk kept apart from the solid chunk models to avoid transparency
+    // contamination. Keyed like chunkModels so tile edits only rebuild the water of the chunks they touch.
+    private final Map<Long, ChunkModelData> waterModels = new HashMap<>();
+    private Material waterMaterial;
+
+    // Two-stage chunk building: meshes are computed on MESH_POOL, then uploaded on the render thread
+    private static final ForkJoinPool MESH_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private static final int MAX_VERTICES_PER_TILE = 24;
+    private final List<ForkJoinTask<?>> meshTasks = new ArrayList<>();
+    private Queue<ChunkMeshData> finishedMeshes = new ConcurrentLinkedQueue<>();
+    private int pendingChunkMeshes;
+    private Material stoneMaterial, dirtMaterial, grassMaterial, spawnMaterial, wallMaterial;
+
+    // Chunk meshing strategy
+    public enum MeshingStrategy {
+        PER_FACE,   // Two triangles for every visible tile face
+        GREEDY      // Coplanar faces of FULL tiles with the same material are merged into larger quads
+    }
+    private MeshingStrategy meshingStrategy = MeshingStrategy.GREEDY;
 
     public ChunkedMapModelBuilder(GameMap gameMap) {
         super(gameMap);
         this.chunkManager = new ChunkManager(gameMap);
-        this.chunkFaceVisibility = new HashMap<>();
+        this.chunkFaceVisibility = new ConcurrentHashMap<>();
         this.chunkModels = new HashMap<>();
         this.allChunkInstances = new Array<>();
     }
@@ -75,194 +101,334 @@ public class ChunkedMapModelBuilder extends MapModelBuilder implements Disposabl
     public Array<ModelInstance> getChunksNearPosition(Vector3 position, float maxDistance) {
         Array<ModelInstance> nearbyInstances = new Array<>();
 
-        for (Map.Entry<LevelChunk, ChunkModelData> entry : chunkModels.entrySet()) {
-            LevelChunk chunk = entry.getKey();
-            ChunkModelData modelData = entry.getValue();
-
-            // Calculate distance from position to chunk center
-            Vector3 chunkCenter = chunk.getWorldOffset().cpy();
-            chunkCenter.add(LevelChunk.CHUNK_SIZE * Constants.MAP_TILE_SIZE / 2f); // Center of chunk
-
-            float distance = chunkCenter.dst(position);
-            if (distance <= maxDistance) {
+        for (ChunkModelData modelData : chunkModels.values()) {
+            if (isChunkNear(modelData.chunk, position, maxDistance)) {
                 nearbyInstances.add(modelData.instance);
             }
         }
 
-        // ALWAYS include the water model since it spans all chunks
-        // Water is a single global model, not tied to any specific chunk position
-        if (waterModel != null) {
-            // Find the water instance in allChunkInstances
-            for (ModelInstance instance : allChunkInstances) {
-                if (instance.model == waterModel) {
-                    nearbyInstances.add(instance);
-                    break;
-                }
+        // Water after every solid chunk so transparent surfaces are drawn last
+        for (ChunkModelData modelData : waterModels.values()) {
+            if (isChunkNear(modelData.chunk, position, maxDistance)) {
+                nearbyInstances.add(modelData.instance);
             }
         }
 
         return nearbyInstances;
     }
 
+    private static boolean isChunkNear(LevelChunk chunk, Vector3 position, float maxDistance) {
+        // Calculate distance from position to chunk center
+        Vector3 chunkCenter = chunk.getWorldOffset().cpy();
+        chunkCenter.add(LevelChunk.CHUNK_SIZE * Constants.MAP_TILE_SIZE / 2f); // Center of chunk
+        return chunkCenter.dst(position) <= maxDistance;
+    }
+
 
     @Override
     public void buildGeometry(ModelBuilder modelBuilder, Material stoneMaterial, Material dirtMaterial,
                             Material grassMaterial, Material spawnMaterial, Material wallMaterial,
                             Material waterMaterial) {
+        // Blocking version of the two-stage pipeline: wait for every chunk, then upload them all
+        startChunkMeshGeneration(stoneMaterial, dirtMaterial, grassMaterial, spawnMaterial, wallMaterial);
+        awaitChunkMeshes();
+        uploadFinishedChunks(Long.MAX_VALUE);
+    }
+
+    /**
+     * Stage one of chunk model building. Organizes the map into chunks and queues one mesh task per chunk
+     * on the mesh pool; each task computes face visibility and fills primitive vertex/index arrays.
+     * Nothing here touches GL, so it can be called from any thread. The map must not be modified until
+     * {@link #uploadFinishedChunks(long)} reports completion.
+     */
+    public void startChunkMeshGeneration(Material stoneMaterial, Material dirtMaterial, Material grassMaterial,
+                                         Material spawnMaterial, Material wallMaterial) {
         // Clear previous models
         dispose();
 
         totalFacesBuilt = 0;
         totalTilesProcessed = 0;
 
-        // Organize map into chunks using BFS from spawn points
-        populatedChunks = chunkManager.organizeIntoChunks();
+        this.stoneMaterial = stoneMaterial;
+        this.dirtMaterial = dirtMaterial;
+        this.grassMaterial = grassMaterial;
+        this.spawnMaterial = spawnMaterial;
+        this.wallMaterial = wallMaterial;
 
-        // Calculate face visibility for each chunk
-        calculateChunkFaceVisibility();
+        long startTime = System.currentTimeMillis();
 
-        // Build individual models for each chunk
-        buildIndividualChunkModels(stoneMaterial, dirtMaterial, grassMaterial,
-                                 spawnMaterial, wallMaterial, waterMaterial);
-    }
+        // Organize map into chunks using the map's connectivity analysis
+        populatedChunks = chunkManager.organizeIntoChunks();
+        chunkFaceVisibility.clear();
+
+        // Compute connectivity once up front so the mesh tasks only read it
+        MapConnectivity connectivity = gameMap.getConnectivity();
+        Queue<ChunkMeshData> results = finishedMeshes;
 
-    /**
-     * Build separate Model and ModelInstance for each chunk.
-     */
-    private void buildIndividualChunkModels(Material stoneMaterial, Material dirtMaterial,
-                                          Material grassMaterial, Material spawnMaterial,
-                                          Material wallMaterial, Material waterMaterial) {
         for (LevelChunk chunk : populatedChunks) {
             // Skip chunks with no solid tiles
             if (chunk.getSolidTileCount() == 0) {
                 continue;
             }
+            meshTasks.add(MESH_POOL.submit(() -> {
+                ChunkMeshData meshData = null;
+                try {
+                    meshData = compileChunkMesh(chunk, connectivity);
+                } catch (Throwable t) {
+                    Log.error("ChunkedMapModelBuilder", "Failed to build mesh for chunk " + chunk.getChunkCoordinates() + ": " + t.getMessage(), t);
+                    if (t instanceof Error) {
+                        throw (Error) t;
+                    }
+                } finally {
+                    // Always report the chunk, empty if it failed, so the upload stage can finish
+                    results.add(meshData != null ? meshData : new ChunkMeshData(chunk));
+                }
+            }));
+        }
+        pendingChunkMeshes = meshTasks.size();
 
-            // Create a ModelBuilder for this chunk
-            ModelBuilder chunkBuilder = new ModelBuilder();
-            chunkBuilder.begin();
+        Log.info("ChunkedMapModelBuilder", String.format("Queued %d chunk meshes on %d threads in %dms",
+            pendingChunkMeshes, MESH_POOL.getParallelism(), System.currentTimeMillis() - startTime));
+    }
 
-            boolean hasGeometry = buildSingleChunkGeometry(chunkBuilder, chunk, stoneMaterial,
-                                                         dirtMaterial, grassMaterial, spawnMaterial,
-                                                         wallMaterial, waterMaterial);
+    /**
+     * Stage two of chunk model building. Uploads finished chunk meshes to GL until the time budget runs out.
+     * At least one finished chunk is uploaded per call. Must be called on the render thread.
+     *
+     * @param budgetNanos Time allowed for this call
+     * @return true once every chunk queued by {@link #startChunkMeshGeneration} has been uploaded
+     */
+    public boolean uploadFinishedChunks(long budgetNanos) {
+        long startTime = System.nanoTime();
+        ChunkMeshData meshData;
+        while (pendingChunkMeshes > 0 && (meshData = finishedMeshes.poll()) != null) {
+            uploadChunkMesh(meshData);
+            pendingChunkMeshes--;
+            if (System.nanoTime() - startTime >= budgetNanos) {
+                break;
+            }
+        }
 
-            if (hasGeometry) {
-                // Finish the model
-                Model chunkModel = chunkBuilder.end();
-                ModelInstance chunkInstance = new ModelInstance(chunkModel);
+        if (pendingChunkMeshes == 0 && !meshTasks.isEmpty()) {
+            meshTasks.clear();
+            Log.info("ChunkedMapModelBuilder", "All chunk meshes uploaded: " + chunkModels.size() + " chunk models");
+        }
+        return pendingChunkMeshes == 0;
+    }
 
-                // Store the chunk model data
-                ChunkModelData modelData = new ChunkModelData(chunk, chunkModel, chunkInstance);
-                chunkModels.put(chunk, modelData);
-                allChunkInstances.add(chunkInstance);
-            }
+    /**
+     * Blocks until every queued chunk mesh has been computed. They still need {@link #uploadFinishedChunks(long)}.
+     */
+    public void awaitChunkMeshes() {
+        for (ForkJoinTask<?> task : meshTasks) {
+            task.join();
         }
     }
 
     /**
-     * Build geometry for a single chunk.
-     * @return true if any geometry was built, false if chunk is empty
+     * @return true if no chunk meshes are waiting to be built or uploaded
+     */
+    public boolean isChunkMeshGenerationComplete() {
+        return pendingChunkMeshes == 0;
+    }
+
+    /**
+     * Builds the CPU-side mesh of one chunk. Runs on the mesh pool and only reads the map.
      */
-    private boolean buildSingleChunkGeometry(ModelBuilder chunkBuilder, LevelChunk chunk,
-                                           Material stoneMaterial, Material dirtMaterial,
-                                           Material grassMaterial, Material spawnMaterial,
-                                           Material wallMaterial, Material waterMaterial) {
-
-        Map<String, MapTile> chunkTiles = chunk.getAllTiles();
-        ChunkFaceInfo faceInfo = chunkFaceVisibility.get(chunk);
-        boolean hasGeometry = false;
-
-        // Create mesh parts for each material
-        // NOTE: Deliberately NOT creating waterBuilder here - water is built separately to avoid transparency contamination
-        MeshPartBuilder stoneBuilder = null, dirtBuilder = null, grassBuilder = null;
-        MeshPartBuilder spawnBuilder = null, wallBuilder = null;
-
-        // Build tiles in this chunk
-        for (MapTile tile : chunkTiles.values()) {
-            // Add spawn markers
+    private ChunkMeshData compileChunkMesh(LevelChunk chunk, MapConnectivity connectivity) {
+        ChunkMeshData meshData = new ChunkMeshData(chunk);
+        ChunkFaceInfo faceInfo = calculateChunkFaceVisibility(chunk, connectivity);
+        chunkFaceVisibility.put(chunk, faceInfo);
+
+        // Greedy mode: FULL tiles are only recorded here (material and visible faces per local index)
+        // and merged into larger quads below; every other shape is still built per tile
+        boolean greedy = meshingStrategy == MeshingStrategy.GREEDY;
+        int[] mergeableFaces = greedy ? new int[LevelChunk.CHUNK_SIZE * LevelChunk.CHUNK_SIZE * LevelChunk.CHUNK_SIZE] : null;
+
+        chunk.forEachTile((tileX, tileY, tileZ, tile) -> {
+            // Add spawn markers (spheres are built during upload, they need the shared shape builder)
             if (tile.isSpawnTile()) {
-                if (spawnBuilder == null) {
-                    chunkBuilder.node();
-                    spawnBuilder = chunkBuilder.part("spawn", GL20.GL_TRIANGLES,
-                        VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-                        spawnMaterial);
-                }
-                Matrix4 spawnPosition = new Matrix4().translate(new Vector3(tile.x, tile.y, tile.z));
-                SphereShapeBuilder.build(spawnBuilder, spawnPosition, 2, 2, 2, 10, 10);
-                totalFacesBuilt += 200; // Approximate faces for sphere
-                hasGeometry = true;
+                meshData.addSpawnMarker(tile.x, tile.y, tile.z);
+                meshData.facesBuilt += 200; // Approximate faces for sphere
             }
 
             // Add solid tile geometry
             if (tile.geometryType != MapTileGeometryType.EMPTY) {
-                // Create appropriate builder on demand
-                MeshPartBuilder builder = null;
-                switch (tile.material) {
-                    case DIRT:
-                        if (dirtBuilder == null) {
-                            chunkBuilder.node();
-                            dirtBuilder = chunkBuilder.part("dirt", GL20.GL_TRIANGLES,
-                                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-                                dirtMaterial);
-                        }
-                        builder = dirtBuilder;
-                        break;
-                    case GRASS:
-                        if (grassBuilder == null) {
-                            chunkBuilder.node();
-                            grassBuilder = chunkBuilder.part("grass", GL20.GL_TRIANGLES,
-                                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-                                grassMaterial);
-                        }
-                        builder = grassBuilder;
-                        break;
-                    case WALL:
-                        if (wallBuilder == null) {
-                            chunkBuilder.node();
-                            wallBuilder = chunkBuilder.part("wall", GL20.GL_TRIANGLES,
-                                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-                                wallMaterial);
-                        }
-                        builder = wallBuilder;
-                        break;
-                    case STONE:
-                    default:
-                        if (stoneBuilder == null) {
-                            chunkBuilder.node();
-                            stoneBuilder = chunkBuilder.part("stone", GL20.GL_TRIANGLES,
-                                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-                                stoneMaterial);
-                        }
-                        builder = stoneBuilder;
-                        break;
-                }
-
-                boolean[] visibleFaces = faceInfo != null ? faceInfo.getVisibleFaces(tile) : null;
-                if (visibleFaces != null) {
-                    buildTileGeometry(builder, tile, visibleFaces);
-                    // Count visible faces
-                    for (boolean face : visibleFaces) {
-                        if (face) totalFacesBuilt += 2; // 2 triangles per face
-                    }
+                Integer visibleFaces = faceInfo.getVisibleFaces(tile);
+                if (greedy && visibleFaces != null && tile.geometryType == MapTileGeometryType.FULL) {
+                    mergeableFaces[localIndex(chunk, tileX, tileY, tileZ)] = ((tile.material.ordinal() + 1) << TileFaces.COUNT) | visibleFaces;
                 } else {
-                    // Fallback: build all faces
-                    buildTileGeometry(builder, tile);
-                    totalFacesBuilt += 12; // 6 faces * 2 triangles each
+                    ChunkMeshData.Part part = meshData.part(tile.material, MAX_VERTICES_PER_TILE);
+                    if (visibleFaces != null) {
+                        buildTileGeometry(part, tile, visibleFaces);
+                        // Count visible faces
+                        meshData.facesBuilt += TileFaces.count(visibleFaces) * 2; // 2 triangles per face
+                    } else {
+                        // Fallback: build all faces
+                        buildTileGeometry(part, tile);
+                        meshData.facesBuilt += 12; // 6 faces * 2 triangles each
+                    }
                 }
 
-                totalTilesProcessed++;
-                hasGeometry = true;
+                meshData.tilesProcessed++;
             }
 
-            // Water surfaces are now built separately to avoid transparency contamination
+            // Water surfaces are built separately to avoid transparency contamination
             // See buildWaterGeometry() method
+        });
+
+        if (greedy) {
+            MapTileMaterial[] materials = MapTileMaterial.values();
+            new GreedyMesher(LevelChunk.CHUNK_SIZE).mesh(
+                chunk.getOriginTileX(), chunk.getOriginTileY(), chunk.getOriginTileZ(),
+                (tileX, tileY, tileZ, face) -> {
+                    int entry = mergeableFaces[localIndex(chunk, tileX, tileY, tileZ)];
+                    // Key is material + 1, so faces only merge with the same material
+                    return TileFaces.has(entry, face) ? entry >>> TileFaces.COUNT : 0;
+                },
+                (face, key, tileX, tileY, tileZ, sizeX, sizeY, sizeZ) -> {
+                    ChunkMeshData.Part part = meshData.part(materials[key - 1], 4);
+                    buildMergedFace(part, face, tileX, tileY, tileZ, sizeX, sizeY, sizeZ);
+                    meshData.facesBuilt += 2;
+                });
         }
 
-        return hasGeometry;
+        return meshData;
+    }
+
+    private static int localIndex(LevelChunk chunk, int tileX, int tileY, int tileZ) {
+        int size = LevelChunk.CHUNK_SIZE;
+        return (tileX - chunk.getOriginTileX())
+            + (tileZ - chunk.getOriginTileZ()) * size
+            + (tileY - chunk.getOriginTileY()) * size * size;
+    }
+
+    /**
+     * Turns a finished chunk mesh into a Model and ModelInstance. Render thread only.
+     */
+    private void uploadChunkMesh(ChunkMeshData meshData) {
+        totalFacesBuilt += meshData.getFacesBuilt();
+        totalTilesProcessed += meshData.getTilesProcessed();
+
+        if (!meshData.hasGeometry()) {
+            return;
+        }
+
+        ModelBuilder chunkBuilder = new ModelBuilder();
+        chunkBuilder.begin();
+
+        for (ChunkMeshData.Part part : meshData.getParts()) {
+            Mesh mesh = new Mesh(true, part.getVertexCount(), part.getIndexCount(),
+                MeshBuilder.createAttributes(ChunkMeshData.USAGE));
+            mesh.setVertices(part.getVertices(), 0, part.getVertexCount() * ChunkMeshData.VERTEX_SIZE);
+            mesh.setIndices(part.getIndices(), 0, part.getIndexCount());
+
+            // The model takes ownership of the mesh and disposes it with the model
+            chunkBuilder.node();
+            chunkBuilder.part(part.getId(), mesh, GL20.GL_TRIANGLES, materialFor(part.getMaterial()));
+        }
+
+        FloatArray spawnPositions = meshData.getSpawnPositions();
+        if (spawnPositions.size > 0) {
+            chunkBuilder.node();
+            MeshPartBuilder spawnBuilder = chunkBuilder.part("spawn", GL20.GL_TRIANGLES,
+                ChunkMeshData.USAGE, spawnMaterial);
+            for (int i = 0; i < spawnPositions.size; i += 3) {
+                Matrix4 spawnPosition = new Matrix4().translate(spawnPositions.get(i), spawnPositions.get(i + 1), spawnPositions.get(i + 2));
+                SphereShapeBuilder.build(spawnBuilder, spawnPosition, 2, 2, 2, 10, 10);
+            }
+        }
+
+        // Finish the model
+        Model chunkModel = chunkBuilder.end();
+        ModelInstance chunkInstance = new ModelInstance(chunkModel);
+
+        // Store the chunk model data
+        LevelChunk chunk = meshData.getChunk();
+        chunkModels.put(chunk.getChunkKey(), new ChunkModelData(chunk, chunkModel, chunkInstance,
+            meshData.getFacesBuilt(), meshData.getTilesProcessed()));
+        allChunkInstances.add(chunkInstance);
+    }
+
+    /**
+     * Re-meshes the given chunks after tile edits and swaps their models in place; every other chunk
+     * model is left alone. Meshes are compiled on the calling thread, which is fine for the few chunks
+     * an edit touches; whole maps should go through {@link #startChunkMeshGeneration}. The water surfaces
+     * of those chunks are rebuilt too once {@link #buildWaterGeometry} has run. Render thread only.
+     *
+     * @param chunkKeys Chunk keys as produced by {@link ChunkManager#encodeChunkCoordinates}
+     * @return Number of chunk models that were replaced, added or removed
+     */
+    public int rebuildChunks(long[] chunkKeys) {
+        if (!isChunkMeshGenerationComplete()) {
+            Log.warn("ChunkedMapModelBuilder", "Ignoring chunk rebuild while a full mesh build is in progress");
+            return 0;
+        }
+
+        long startTime = System.nanoTime();
+        MapConnectivity connectivity = gameMap.getConnectivity();
+        int changed = 0;
+
+        for (long chunkKey : chunkKeys) {
+            removeChunkWater(chunkKey);
+            ChunkModelData old = chunkModels.remove(chunkKey);
+            if (old != null) {
+                allChunkInstances.removeValue(old.instance, true);
+                old.model.dispose();
+                totalFacesBuilt -= old.facesBuilt;
+                totalTilesProcessed -= old.tilesProcessed;
+            }
+            if (populatedChunks != null) {
+                populatedChunks.removeIf(chunk -> chunk.getChunkKey() == chunkKey);
+            }
+            chunkFaceVisibility.keySet().removeIf(chunk -> chunk.getChunkKey() == chunkKey);
+
+            LevelChunk chunk = chunkManager.rebuildChunk(
+                GameMap.keyToIndexX(chunkKey), GameMap.keyToIndexY(chunkKey), GameMap.keyToIndexZ(chunkKey));
+            if (chunk != null && chunk.hasContent()) {
+                if (populatedChunks != null) {
+                    populatedChunks.add(chunk);
+                }
+                uploadChunkMesh(compileChunkMesh(chunk, connectivity));
+                if (waterMaterial != null) {
+                    buildChunkWater(new ModelBuilder(), chunk);
+                }
+            }
+
+            if (old != null || chunkModels.containsKey(chunkKey)) {
+                changed++;
+            }
+        }
+
+        Log.info("ChunkedMapModelBuilder", String.format("Rebuilt %d of %d dirty chunks in %.2fms",
+            changed, chunkKeys.length, (System.nanoTime() - startTime) / 1_000_000f));
+        return changed;
+    }
+
+    private Material materialFor(MapTileMaterial material) {
+        switch (material) {
+            case DIRT:
+                return dirtMaterial;
+            case GRASS:
+                return grassMaterial;
+            case WALL:
+                return wallMaterial;
+            case STONE:
+            default:
+                return stoneMaterial;
+        }
     }
 
     @Override
     public void dispose() {
+        // Abandon any chunk meshes still in flight; their results land in the old queue
+        for (ForkJoinTask<?> task : meshTasks) {
+            task.cancel(false);
+        }
+        meshTasks.clear();
+        finishedMeshes = new ConcurrentLinkedQueue<>();
+        pendingChunkMeshes = 0;
+
         // Dispose all chunk models
         for (ChunkModelData modelData : chunkModels.values()) {
             if (modelData.model != null) {
@@ -272,62 +438,71 @@ public class ChunkedMapModelBuilder extends MapModelBuilder implements Disposabl
         chunkModels.clear();
         allChunkInstances.clear();
 
-        // Dispose water model
-        if (waterModel != null) {
-            waterModel.dispose();
-            waterModel = null;
+        // Dispose water models
+        for (ChunkModelData modelData : waterModels.values()) {
+            modelData.model.dispose();
         }
+        waterModels.clear();
     }
 
     @Override
     public void buildWaterGeometry(ModelBuilder modelBuilder, Material waterMaterial) {
-        // Build water as a SEPARATE model to avoid transparency contamination of solid geometry
+        // Build water as SEPARATE models to avoid transparency contamination of solid geometry
+        this.waterMaterial = waterMaterial;
 
         if (populatedChunks == null || populatedChunks.isEmpty()) {
             Log.warn("ChunkedMapModelBuilder", "No populated chunks found - cannot build water geometry");
             return;
         }
 
-        modelBuilder.begin();
-        modelBuilder.node();
-        MeshPartBuilder waterBuilder = modelBuilder.part("water", GL20.GL_TRIANGLES,
-            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-            waterMaterial);
-
         int waterSurfacesBuilt = 0;
-
-        // Iterate through all populated chunks and find water surface tiles
-        int totalWaterTiles = 0;
-        int topMostWaterTiles = 0;
-
         for (LevelChunk chunk : populatedChunks) {
-            Map<String, MapTile> chunkTiles = chunk.getAllTiles();
+            waterSurfacesBuilt += buildChunkWater(modelBuilder, chunk);
+        }
+        Log.info("ChunkedMapModelBuilder", "Built " + waterSurfacesBuilt + " water surfaces in " + waterModels.size() + " chunks");
+    }
 
-            for (MapTile tile : chunkTiles.values()) {
-                // Only create water surface for EMPTY tiles filled with water (not solid underwater blocks!)
-                if (tile.fillType == MapTileFillType.WATER &&
-                    tile.geometryType == MapTileGeometryType.EMPTY) {
+    /**
+     * Builds the water model of one chunk from its top-most water tiles, if it has any.
+     *
+     * @return Number of water surfaces built
+     */
+    private int buildChunkWater(ModelBuilder modelBuilder, LevelChunk chunk) {
+        MeshPartBuilder waterBuilder = null;
+        int waterSurfacesBuilt = 0;
 
-                    totalWaterTiles++;
-                    Vector3 tileCoords = getTileCoordinates(tile);
-                    boolean isTopMost = isTopMostFillTile((int)tileCoords.x, (int)tileCoords.y, (int)tileCoords.z, MapTileFillType.WATER);
+        for (MapTile tile : chunk.getAllTiles().values()) {
+            // Only create water surface for EMPTY tiles filled with water (not solid underwater blocks!)
+            if (tile.fillType == MapTileFillType.WATER &&
+                tile.geometryType == MapTileGeometryType.EMPTY &&
+                isTopMostFillTile(tile.getTileX(), tile.getTileY(), tile.getTileZ(), MapTileFillType.WATER)) {
 
-                    if (isTopMost) {
-                        topMostWaterTiles++;
-                        buildWaterSurface(waterBuilder, tile);
-                        waterSurfacesBuilt++;
-                    }
+                if (waterBuilder == null) {
+                    modelBuilder.begin();
+                    modelBuilder.node();
+                    waterBuilder = modelBuilder.part("water", GL20.GL_TRIANGLES,
+                        VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
+                        waterMaterial);
                 }
+                buildWaterSurface(waterBuilder, tile);
+                waterSurfacesBuilt++;
             }
         }
 
-        if (waterSurfacesBuilt > 0) {
-            waterModel = modelBuilder.end();
+        if (waterBuilder != null) {
+            Model waterModel = modelBuilder.end();
             ModelInstance waterInstance = new ModelInstance(waterModel);
-
+            waterModels.put(chunk.getChunkKey(), new ChunkModelData(chunk, waterModel, waterInstance, waterSurfacesBuilt, 0));
             allChunkInstances.add(waterInstance);
-        } else {
-            modelBuilder.end(); // Must call end() even if no geometry was built
+        }
+        return waterSurfacesBuilt;
+    }
+
+    private void removeChunkWater(long chunkKey) {
+        ChunkModelData old = waterModels.remove(chunkKey);
+        if (old != null) {
+            allChunkInstances.removeValue(old.instance, true);
+            old.model.dispose();
         }
     }
 
@@ -348,320 +523,75 @@ public class ChunkedMapModelBuilder extends MapModelBuilder implements Disposabl
         int totalChunks = chunkManager != null ? chunkManager.getTotalChunkCount() : 0;
         int chunkModelsCreated = chunkModels != null ? chunkModels.size() : 0;
         int allInstancesCount = allChunkInstances != null ? allChunkInstances.size : 0;
-        return String.format("Dynamic Chunked Strategy - %d chunk models created from %d total chunks (%d faces, %d tiles, %d instances)",
+        return String.format("Dynamic Chunked Strategy (" + meshingStrategy + " meshing) - %d chunk models created from %d total chunks (%d faces, %d tiles, %d instances)",
             chunkModelsCreated, totalChunks, getTotalFacesBuilt(), getTotalTilesProcessed(), allInstancesCount);
     }
 
     /**
-     * Calculate which faces of tiles in each chunk should be visible.
+     * Calculate which faces of the tiles in a chunk should be visible.
      * This is done by checking neighboring tiles, including tiles in adjacent chunks.
      * Only faces exposed to reachable empty space are marked as visible.
      */
-    private void calculateChunkFaceVisibility() {
-        chunkFaceVisibility.clear();
-
-        // First, identify all reachable empty tiles using BFS from spawn points
-        Set<MapTile> reachableEmptyTiles = findReachableEmptyTiles();
+    private ChunkFaceInfo calculateChunkFaceVisibility(LevelChunk chunk, MapConnectivity connectivity) {
+        ChunkFaceInfo faceInfo = new ChunkFaceInfo();
 
-        for (LevelChunk chunk : populatedChunks) {
-            ChunkFaceInfo faceInfo = new ChunkFaceInfo();
-            Map<String, MapTile> chunkTiles = chunk.getAllTiles();
-
-            for (MapTile tile : chunkTiles.values()) {
-                if (tile.geometryType != MapTileGeometryType.EMPTY) {
-                    boolean[] visibleFaces = calculateTileVisibleFaces(tile, reachableEmptyTiles);
-
-                    // Check if this tile has any visible faces
-                    boolean hasVisibleFace = false;
-                    for (boolean face : visibleFaces) {
-                        if (face) {
-                            hasVisibleFace = true;
-                            break;
-                        }
-                    }
+        chunk.forEachTile((tileX, tileY, tileZ, tile) -> {
+            if (tile.geometryType != MapTileGeometryType.EMPTY) {
+                int visibleFaces = calculateTileVisibleFaces(tileX, tileY, tileZ, connectivity);
 
-                    // Fallback: if no faces are visible but this tile is adjacent to reachable space,
-                    // make at least one face visible to prevent gaps
-                    if (!hasVisibleFace && isTileAdjacentToReachableSpace(tile, reachableEmptyTiles)) {
-                        visibleFaces = calculateBasicVisibleFaces(tile); // Use basic culling as fallback
-                    }
-                    faceInfo.setVisibleFaces(tile, visibleFaces);
+                // Fallback: if no faces are visible but this tile is adjacent to reachable space,
+                // make at least one face visible to prevent gaps
+                if (visibleFaces == TileFaces.NONE && connectivity.isAdjacentToReachableEmpty(tileX, tileY, tileZ)) {
+                    visibleFaces = gameMap.getOpenFaceMask(tileX, tileY, tileZ); // Use basic culling as fallback
                 }
+                faceInfo.setVisibleFaces(tile, visibleFaces);
             }
+        });
 
-            chunkFaceVisibility.put(chunk, faceInfo);
-        }
-    }
-
-    /**
-     * Find all empty tiles reachable using multi-pass BFS.
-     * This includes tiles reachable from spawn points AND tiles in isolated regions.
-     */
-    private Set<MapTile> findReachableEmptyTiles() {
-        TileExplorationManager explorationManager = new TileExplorationManager(gameMap);
-        List<Set<MapTile>> allRegions = explorationManager.exploreAllRegions();
-
-        Set<MapTile> reachableEmptyTiles = new HashSet<>();
-
-        // Include empty tiles from all discovered regions (both connected and isolated)
-        for (Set<MapTile> region : allRegions) {
-            for (MapTile tile : region) {
-                if (tile.geometryType == MapTileGeometryType.EMPTY) {
-                    reachableEmptyTiles.add(tile);
-                }
-            }
-        }
-        return reachableEmptyTiles;
+        return faceInfo;
     }
 
     /**
      * Calculate which faces of a tile should be visible by checking neighbors.
      * Only faces exposed to reachable empty space are considered visible.
+     *
+     * @return Face mask in {@link TileFaces} order (-X, +X, -Y, +Y, -Z, +Z)
      */
-    private boolean[] calculateTileVisibleFaces(MapTile tile, Set<MapTile> reachableEmptyTiles) {
-        boolean[] visibleFaces = new boolean[6]; // -X, +X, -Y, +Y, -Z, +Z
-        Vector3 tileCoords = getTileCoordinates(tile);
-
-        // Check all 6 directions
-        int[] dx = {-1, 1, 0, 0, 0, 0};
-        int[] dy = {0, 0, -1, 1, 0, 0};
-        int[] dz = {0, 0, 0, 0, -1, 1};
-
-        for (int i = 0; i < 6; i++) {
-            int neighborX = (int)tileCoords.x + dx[i];
-            int neighborY = (int)tileCoords.y + dy[i];
-            int neighborZ = (int)tileCoords.z + dz[i];
-
-            MapTile neighbor = gameMap.getTile(neighborX, neighborY, neighborZ);
-
-            // Face is visible if neighbor is reachable empty space
-            if (neighbor != null && neighbor.geometryType == MapTileGeometryType.EMPTY) {
-                visibleFaces[i] = reachableEmptyTiles.contains(neighbor);
-            } else if (neighbor == null) {
-                // Face exposed to outside world - only visible if we're on the boundary of reachable space
-                // Check if any adjacent empty tile is reachable
-                visibleFaces[i] = isAdjacentToReachableSpace(neighborX, neighborY, neighborZ, reachableEmptyTiles);
-            } else {
-                // Neighbor is solid, face is not visible
-                visibleFaces[i] = false;
-            }
-        }
-
-        return visibleFaces;
-    }
-
-    /**
-     * Check if a position (which might be outside the map) is adjacent to reachable empty space.
-     */
-    private boolean isAdjacentToReachableSpace(int x, int y, int z, Set<MapTile> reachableEmptyTiles) {
-        // Check the 6 neighbors of this position
-        int[] dx = {-1, 1, 0, 0, 0, 0};
-        int[] dy = {0, 0, -1, 1, 0, 0};
-        int[] dz = {0, 0, 0, 0, -1, 1};
-
-        for (int i = 0; i < 6; i++) {
-            MapTile adjacentTile = gameMap.getTile(x + dx[i], y + dy[i], z + dz[i]);
-            if (adjacentTile != null && reachableEmptyTiles.contains(adjacentTile)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Check if a tile is adjacent to any reachable empty space (used for gap prevention).
-     */
-    private boolean isTileAdjacentToReachableSpace(MapTile tile, Set<MapTile> reachableEmptyTiles) {
-        Vector3 tileCoords = getTileCoordinates(tile);
-
-        int[] dx = {-1, 1, 0, 0, 0, 0};
-        int[] dy = {0, 0, -1, 1, 0, 0};
-        int[] dz = {0, 0, 0, 0, -1, 1};
-
-        for (int i = 0; i < 6; i++) {
-            int neighborX = (int)tileCoords.x + dx[i];
-            int neighborY = (int)tileCoords.y + dy[i];
-            int neighborZ = (int)tileCoords.z + dz[i];
-
-            MapTile neighbor = gameMap.getTile(neighborX, neighborY, neighborZ);
-            if (neighbor != null && reachableEmptyTiles.contains(neighbor)) {
-                return true;
+    private int calculateTileVisibleFaces(int tileX, int tileY, int tileZ, MapConnectivity connectivity) {
+        // Faces touching reachable empty tiles were already found by the connectivity pass
+        int visibleFaces = connectivity.getBoundaryFaceMask(tileX, tileY, tileZ);
+
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            int neighborX = tileX + TileFaces.dx(face);
+            int neighborY = tileY + TileFaces.dy(face);
+            int neighborZ = tileZ + TileFaces.dz(face);
+
+            // Face exposed to outside world - only visible if we're on the boundary of reachable space
+            if (!gameMap.hasTile(neighborX, neighborY, neighborZ) &&
+                connectivity.isAdjacentToReachableEmpty(neighborX, neighborY, neighborZ)) {
+                visibleFaces |= TileFaces.bit(face);
             }
         }
-        return false;
-    }
-
-    /**
-     * Calculate basic visible faces (exposed to any empty space) as a fallback.
-     */
-    private boolean[] calculateBasicVisibleFaces(MapTile tile) {
-        boolean[] visibleFaces = new boolean[6];
-        Vector3 tileCoords = getTileCoordinates(tile);
-
-        int[] dx = {-1, 1, 0, 0, 0, 0};
-        int[] dy = {0, 0, -1, 1, 0, 0};
-        int[] dz = {0, 0, 0, 0, -1, 1};
-
-        for (int i = 0; i < 6; i++) {
-            int neighborX = (int)tileCoords.x + dx[i];
-            int neighborY = (int)tileCoords.y + dy[i];
-            int neighborZ = (int)tileCoords.z + dz[i];
-
-            MapTile neighbor = gameMap.getTile(neighborX, neighborY, neighborZ);
-            // Face is visible if neighbor doesn't exist or is empty (basic culling)
-            visibleFaces[i] = (neighbor == null || neighbor.geometryType == MapTileGeometryType.EMPTY);
-        }
 
         return visibleFaces;
     }
 
 
-    /**
-     * Build geometry for the specified chunks.
-     */
-    private void buildChunkedGeometry(ModelBuilder modelBuilder, Material stoneMaterial, Material dirtMaterial,
-                                    Material grassMaterial, Material spawnMaterial, Material wallMaterial,
-                                    Material waterMaterial, Set<LevelChunk> chunksToRender) {
-
-        // Create mesh parts for each material
-        modelBuilder.node();
-        MeshPartBuilder stoneBuilder = modelBuilder.part("stone", GL20.GL_TRIANGLES,
-            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-            stoneMaterial);
-
-        modelBuilder.node();
-        MeshPartBuilder dirtBuilder = modelBuilder.part("dirt", GL20.GL_TRIANGLES,
-            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-            dirtMaterial);
-
-        modelBuilder.node();
-        MeshPartBuilder grassBuilder = modelBuilder.part("grass", GL20.GL_TRIANGLES,
-            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-            grassMaterial);
-
-        modelBuilder.node();
-        MeshPartBuilder spawnBuilder = modelBuilder.part("spawn", GL20.GL_TRIANGLES,
-            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-            spawnMaterial);
-
-        modelBuilder.node();
-        MeshPartBuilder wallBuilder = modelBuilder.part("wall", GL20.GL_TRIANGLES,
-            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-            wallMaterial);
-
-        MeshPartBuilder waterBuilder = null;
-        if (waterMaterial != null) {
-            modelBuilder.node();
-            waterBuilder = modelBuilder.part("water", GL20.GL_TRIANGLES,
-                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-                waterMaterial);
-        }
-
-        int totalRenderedTiles = 0;
-        int totalChunksProcessed = 0;
-
-        // Process each chunk to render
-        for (LevelChunk chunk : chunksToRender) {
-            int chunkRenderedTiles = processChunk(chunk, stoneBuilder, dirtBuilder, grassBuilder,
-                                               spawnBuilder, wallBuilder, waterBuilder);
-            totalRenderedTiles += chunkRenderedTiles;
-            totalChunksProcessed++;
-            totalTilesProcessed += chunk.getSolidTileCount();
-        }
-    }
-
-    /**
-     * Process a single chunk and add its geometry to the appropriate builders.
-     */
-    private int processChunk(LevelChunk chunk, MeshPartBuilder stoneBuilder, MeshPartBuilder dirtBuilder,
-                           MeshPartBuilder grassBuilder, MeshPartBuilder spawnBuilder, MeshPartBuilder wallBuilder,
-                           MeshPartBuilder waterBuilder) {
-
-        Map<String, MapTile> chunkTiles = chunk.getAllTiles();
-        ChunkFaceInfo faceInfo = chunkFaceVisibility.get(chunk);
-        int renderedTilesInChunk = 0;
-
-        for (MapTile tile : chunkTiles.values()) {
-            // Add spawn markers
-            if (tile.isSpawnTile()) {
-                Matrix4 spawnPosition = new Matrix4().translate(new Vector3(tile.x, tile.y, tile.z));
-                SphereShapeBuilder.build(spawnBuilder, spawnPosition, 2, 2, 2, 10, 10);
-                totalFacesBuilt += 200; // Approximate faces for sphere
-            }
-
-            // Add solid tile geometry
-            if (tile.geometryType != MapTileGeometryType.EMPTY) {
-                MeshPartBuilder builder = selectBuilderByMaterial(tile, stoneBuilder, dirtBuilder,
-                                                                grassBuilder, wallBuilder);
-
-                boolean[] visibleFaces = faceInfo != null ? faceInfo.getVisibleFaces(tile) : null;
-                if (visibleFaces != null) {
-                    buildTileGeometry(builder, tile, visibleFaces);
-
-                    // Count visible faces
-                    for (boolean face : visibleFaces) {
-                        if (face) totalFacesBuilt += 2; // 2 triangles per face
-                    }
-                } else {
-                    // Fallback: build all faces
-                    buildTileGeometry(builder, tile);
-                    totalFacesBuilt += 12; // 6 faces * 2 triangles each
-                }
-
-                renderedTilesInChunk++;
-            }
-
-            // Add water surfaces if requested
-            // ONLY create water surface for EMPTY tiles filled with water (not solid underwater blocks!)
-            if (waterBuilder != null &&
-                tile.fillType == MapTileFillType.WATER &&
-                tile.geometryType == MapTileGeometryType.EMPTY) {
-
-                Vector3 tileCoords = getTileCoordinates(tile);
-                if (isTopMostFillTile((int)tileCoords.x, (int)tileCoords.y, (int)tileCoords.z, MapTileFillType.WATER)) {
-                    buildWaterSurface(waterBuilder, tile);
-                    totalFacesBuilt += 2; // 2 triangles for water quad
-                }
-            }
-        }
-
-        return renderedTilesInChunk;
-    }
-
-    /**
-     * Select the appropriate mesh builder based on tile material.
-     */
-    private MeshPartBuilder selectBuilderByMaterial(MapTile tile, MeshPartBuilder stoneBuilder,
-                                                   MeshPartBuilder dirtBuilder, MeshPartBuilder grassBuilder,
-                                                   MeshPartBuilder wallBuilder) {
-        switch (tile.material) {
-            case DIRT:
-                return dirtBuilder;
-            case GRASS:
-                return grassBuilder;
-            case WALL:
-                return wallBuilder;
-            case STONE:
-            default:
-                return stoneBuilder;
-        }
-    }
-
     /**
      * Build tile geometry with face culling.
      */
-    private void buildTileGeometry(MeshPartBuilder builder, MapTile tile, boolean[] visibleFaces) {
+    private void buildTileGeometry(ChunkMeshData.Part part, MapTile tile, int visibleFaces) {
         switch(tile.geometryType) {
             case HALF:
-                buildCulledHalfTile(builder, tile, visibleFaces);
+                buildCulledHalfTile(part, tile, visibleFaces);
                 break;
             case SLAT:
             case HALF_SLANT:
             case TALL_HALF_SLANT:
-                buildSlant(builder, tile); // Keep existing slant logic
+                buildSlant(part, tile); // Keep existing slant logic
                 break;
             default:
-                buildCulledFullTile(builder, tile, visibleFaces);
+                buildCulledFullTile(part, tile, visibleFaces);
                 break;
         }
     }
@@ -669,85 +599,76 @@ public class ChunkedMapModelBuilder extends MapModelBuilder implements Disposabl
     /**
      * Build tile geometry without face culling (fallback).
      */
-    private void buildTileGeometry(MeshPartBuilder builder, MapTile tile) {
+    private void buildTileGeometry(ChunkMeshData.Part part, MapTile tile) {
         switch(tile.geometryType) {
             case HALF:
-                buildHalfTile(builder, tile);
+                buildHalfTile(part, tile);
                 break;
             case SLAT:
             case HALF_SLANT:
             case TALL_HALF_SLANT:
-                buildSlant(builder, tile);
+                buildSlant(part, tile);
                 break;
             default:
-                buildFullTile(builder, tile);
+                buildFullTile(part, tile);
                 break;
         }
     }
 
-    // Geometry building methods (similar to BFSVisibleMapModelBuilder but chunk-aware)
+    // Geometry building methods, writing into primitive arrays so they can run on the mesh pool
 
-    private void buildCulledFullTile(MeshPartBuilder builder, MapTile tile, boolean[] visibleFaces) {
-        float x = tile.x;
-        float y = tile.y;
-        float z = tile.z;
+    private void buildCulledFullTile(ChunkMeshData.Part part, MapTile tile, int visibleFaces) {
+        buildCulledBox(part, tile, Constants.MAP_TILE_SIZE, visibleFaces);
+    }
+
+    private void buildCulledHalfTile(ChunkMeshData.Part part, MapTile tile, int visibleFaces) {
+        buildCulledBox(part, tile, Constants.MAP_TILE_SIZE / 2f, visibleFaces);
+    }
+
+    private void buildCulledBox(ChunkMeshData.Part part, MapTile tile, float height, int visibleFaces) {
         float size = Constants.MAP_TILE_SIZE;
+        buildBoxFaces(part, tile.x, tile.y, tile.z, size, height, size, visibleFaces, 0f);
+    }
 
-        Vector3[] vertices = {
-            new Vector3(x, y, z),           // 0
-            new Vector3(x + size, y, z),    // 1
-            new Vector3(x, y + size, z),    // 2
-            new Vector3(x + size, y + size, z), // 3
-            new Vector3(x, y, z + size),    // 4
-            new Vector3(x + size, y, z + size), // 5
-            new Vector3(x, y + size, z + size), // 6
-            new Vector3(x + size, y + size, z + size) // 7
-        };
-
-        // Build only visible faces: -X=0, +X=1, -Y=2, +Y=3, -Z=4, +Z=5
-        if (visibleFaces[0]) buildFace(builder, vertices[0], vertices[4], vertices[6], vertices[2]); // -X face
-        if (visibleFaces[1]) buildFace(builder, vertices[5], vertices[1], vertices[3], vertices[7]); // +X face
-        if (visibleFaces[2]) buildFace(builder, vertices[4], vertices[0], vertices[1], vertices[5]); // -Y face
-        if (visibleFaces[3]) buildFace(builder, vertices[2], vertices[6], vertices[7], vertices[3]); // +Y face
-        if (visibleFaces[4]) buildFace(builder, vertices[1], vertices[0], vertices[2], vertices[3]); // -Z face
-        if (visibleFaces[5]) buildFace(builder, vertices[4], vertices[5], vertices[7], vertices[6]); // +Z face
-    }
-
-    private void buildCulledHalfTile(MeshPartBuilder builder, MapTile tile, boolean[] visibleFaces) {
-        float x = tile.x;
-        float y = tile.y;
-        float z = tile.z;
+    /**
+     * Builds one face of a box covering several merged tiles (see {@link GreedyMesher.QuadVisitor}).
+     */
+    private void buildMergedFace(ChunkMeshData.Part part, int face, int tileX, int tileY, int tileZ,
+                                 int sizeX, int sizeY, int sizeZ) {
         float size = Constants.MAP_TILE_SIZE;
-        float halfHeight = size / 2f;
+        buildBoxFaces(part, tileX * size, tileY * size, tileZ * size, sizeX * size, sizeY * size, sizeZ * size,
+            TileFaces.bit(face), size);
+    }
 
-        Vector3[] vertices = {
-            new Vector3(x, y, z),           // 0
-            new Vector3(x + size, y, z),    // 1
-            new Vector3(x, y + halfHeight, z), // 2
-            new Vector3(x + size, y + halfHeight, z), // 3
-            new Vector3(x, y, z + size),    // 4
-            new Vector3(x + size, y, z + size), // 5
-            new Vector3(x, y + halfHeight, z + size), // 6
-            new Vector3(x + size, y + halfHeight, z + size) // 7
-        };
+    /**
+     * @param uvUnit 0 to map each face to one full texture, otherwise the edge length one texture repeat covers
+     */
+    private void buildBoxFaces(ChunkMeshData.Part part, float x, float y, float z,
+                               float sizeX, float height, float sizeZ, int visibleFaces, float uvUnit) {
+        for (int face = 0; face < TileFaces.COUNT; face++) {
+            if (TileFaces.has(visibleFaces, face)) {
+                part.boxFace(face, x, y, z, sizeX, height, sizeZ, uvUnit);
+            }
+        }
+    }
 
-        if (visibleFaces[0]) buildFace(builder, vertices[0], vertices[4], vertices[6], vertices[2]); // -X face
-        if (visibleFaces[1]) buildFace(builder, vertices[5], vertices[1], vertices[3], vertices[7]); // +X face
-        if (visibleFaces[2]) buildFace(builder, vertices[4], vertices[0], vertices[1], vertices[5]); // -Y face
-        if (visibleFaces[3]) buildFace(builder, vertices[2], vertices[6], vertices[7], vertices[3]); // +Y face
-        if (visibleFaces[4]) buildFace(builder, vertices[1], vertices[0], vertices[2], vertices[3]); // -Z face
-        if (visibleFaces[5]) buildFace(builder, vertices[4], vertices[5], vertices[7], vertices[6]); // +Z face
+    private void buildFullTile(ChunkMeshData.Part part, MapTile tile) {
+        buildCenteredBox(part, tile.x, tile.y, tile.z, Constants.MAP_TILE_SIZE, Constants.MAP_TILE_SIZE, Constants.MAP_TILE_SIZE);
     }
 
-    private void buildFullTile(MeshPartBuilder builder, MapTile tile) {
-        BoxShapeBuilder.build(builder, tile.x, tile.y, tile.z, Constants.MAP_TILE_SIZE, Constants.MAP_TILE_SIZE, Constants.MAP_TILE_SIZE);
+    private void buildHalfTile(ChunkMeshData.Part part, MapTile tile) {
+        buildCenteredBox(part, tile.x, tile.y, tile.z, Constants.MAP_TILE_SIZE, Constants.MAP_TILE_SIZE / 2f, Constants.MAP_TILE_SIZE);
     }
 
-    private void buildHalfTile(MeshPartBuilder builder, MapTile tile) {
-        BoxShapeBuilder.build(builder, tile.x, tile.y, tile.z, Constants.MAP_TILE_SIZE, Constants.MAP_TILE_SIZE / 2f, Constants.MAP_TILE_SIZE);
+    // Same placement as BoxShapeBuilder.build(builder, x, y, z, width, height, depth), i.e. centred on (x, y, z)
+    private void buildCenteredBox(ChunkMeshData.Part part, float x, float y, float z, float width, float height, float depth) {
+        float x0 = x - width / 2f, y0 = y - height / 2f, z0 = z - depth / 2f;
+        float x1 = x + width / 2f, y1 = y + height / 2f, z1 = z + depth / 2f;
+        part.box(new Vector3(x0, y0, z0), new Vector3(x0, y1, z0), new Vector3(x1, y0, z0), new Vector3(x1, y1, z0),
+                 new Vector3(x0, y0, z1), new Vector3(x0, y1, z1), new Vector3(x1, y0, z1), new Vector3(x1, y1, z1));
     }
 
-    private void buildSlant(MeshPartBuilder builder, MapTile tile) {
+    private void buildSlant(ChunkMeshData.Part part, MapTile tile) {
         float vertexOffset = Constants.MAP_TILE_SIZE / 2.0f;
 
         float minX = tile.x + Constants.MAP_TILE_SIZE / 2.0f - vertexOffset;
@@ -788,30 +709,7 @@ public class ChunkedMapModelBuilder extends MapModelBuilder implements Disposabl
                 v011 = v001;
                 break;
         }
-        BoxShapeBuilder.build(builder, v000, v001, v010, v011, v100, v101, v110, v111);
-    }
-
-    private void buildFace(MeshPartBuilder builder, Vector3 v0, Vector3 v1, Vector3 v2, Vector3 v3) {
-        Vector3 edge1 = new Vector3(v1).sub(v0);
-        Vector3 edge2 = new Vector3(v3).sub(v0);
-        Vector3 normal = new Vector3(edge1).crs(edge2).nor();
-
-        Vector2 uv0 = new Vector2(0, 0);
-        Vector2 uv1 = new Vector2(1, 0);
-        Vector2 uv2 = new Vector2(1, 1);
-        Vector2 uv3 = new Vector2(0, 1);
-
-        builder.triangle(
-            builder.vertex(v0, normal, null, uv0),
-            builder.vertex(v1, normal, null, uv1),
-            builder.vertex(v2, normal, null, uv2)
-        );
-
-        builder.triangle(
-            builder.vertex(v0, normal, null, uv0),
-            builder.vertex(v2, normal, null, uv2),
-            builder.vertex(v3, normal, null, uv3)
-        );
+        part.box(v000, v001, v010, v011, v100, v101, v110, v111);
     }
 
     // Surface building methods for transparent materials
@@ -861,13 +759,6 @@ public class ChunkedMapModelBuilder extends MapModelBuilder implements Disposabl
 
     // Utility methods
 
-    private Vector3 getTileCoordinates(MapTile tile) {
-        int tileX = (int)(tile.x / Constants.MAP_TILE_SIZE);
-        int tileY = (int)(tile.y / Constants.MAP_TILE_SIZE);
-        int tileZ = (int)(tile.z / Constants.MAP_TILE_SIZE);
-        return new Vector3(tileX, tileY, tileZ);
-    }
-
     private boolean isTopMostFillTile(int x, int y, int z, MapTileFillType fillType) {
         MapTile tileAbove = gameMap.getTile(x, y + 1, z);
         boolean isTopMost = tileAbove == null || tileAbove.fillType != fillType;
@@ -877,17 +768,34 @@ public class ChunkedMapModelBuilder extends MapModelBuilder implements Disposabl
 
     // Helper class to store face visibility information for chunks
     private static class ChunkFaceInfo {
-        private Map<MapTile, boolean[]> tileFaceVisibility = new HashMap<>();
+        // Face masks are 0..63, so boxing hits the Integer cache and never allocates
+        private Map<MapTile, Integer> tileFaceVisibility = new HashMap<>();
 
-        void setVisibleFaces(MapTile tile, boolean[] visibleFaces) {
+        void setVisibleFaces(MapTile tile, int visibleFaces) {
             tileFaceVisibility.put(tile, visibleFaces);
         }
 
-        boolean[] getVisibleFaces(MapTile tile) {
+        Integer getVisibleFaces(MapTile tile) {
             return tileFaceVisibility.get(tile);
         }
     }
 
+    /**
+     * Set the meshing strategy used for chunks built after this call.
+     * @param strategy The strategy to use for chunk geometry
+     */
+    public void setMeshingStrategy(MeshingStrategy strategy) {
+        this.meshingStrategy = strategy;
+    }
+
+    /**
+     * Get the current chunk meshing strategy.
+     * @return The current strategy
+     */
+    public MeshingStrategy getMeshingStrategy() {
+        return meshingStrategy;
+    }
+
     /**
      * Get the ChunkManager used by this builder.
      * @return The ChunkManager instance
@@ -914,11 +822,15 @@ public class ChunkedMapModelBuilder extends MapModelBuilder implements Disposabl
         final LevelChunk chunk;
         final Model model;
         final ModelInstance instance;
+        final int facesBuilt;
+        final int tilesProcessed;
 
-        ChunkModelData(LevelChunk chunk, Model model, ModelInstance instance) {
+        ChunkModelData(LevelChunk chunk, Model model, ModelInstance instance, int facesBuilt, int tilesProcessed) {
             this.chunk = chunk;
             this.model = model;
             this.instance = instance;
+            this.facesBuilt = facesBuilt;
+            this.tilesProcessed = tilesProcessed;
         }
     }
 }
@@ -0,0 +1,290 @@
+package curly.octo.common.map.storage;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import curly.octo.common.Constants;
+import curly.octo.common.map.enums.MapTileFillType;
+import curly.octo.common.map.enums.MapTileGeometryType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Dense chunked tile storage. The world is split into cubic chunks of
+ * {@link Constants#MAP_CHUNK_SIZE} tiles per side, each backed by a flat int[] of packed tiles.
+ * Chunks are only allocated once a tile is stored inside them.
+ *
+ * Compared to one boxed MapTile per HashMap entry this costs 4 bytes per voxel inside an
+ * allocated chunk, and a lookup is a chunk-key compare (usually against the last chunk used)
+ * plus an array read.
+ *
+ * Tile counts per geometry and fill type are kept up to date on every write, so map statistics never need
+ * a pass over the tiles.
+ *
+ * Concurrent reads are safe as long as nothing writes to the storage at the same time.
+ */
+public class ChunkedTileStorage implements TileStorage, KryoSerializable {
+
+    public static final int CHUNK_SIZE = Constants.MAP_CHUNK_SIZE;
+    public static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    public static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    public static final int CHUNK_VOLUME = CHUNK_SIZE * CHUNK_SIZE * CHUNK_SIZE;
+
+    private final HashMap<Long, Chunk> chunks = new HashMap<>();
+    private int tileCount;
+    private final int[] geometryCounts = new int[MapTileGeometryType.values().length];
+    private final int[] fillCounts = new int[MapTileFillType.values().length];
+
+    // Last chunk touched; a single reference so racing readers always see a consistent key/array pair
+    private transient Chunk lastChunk;
+
+    public ChunkedTileStorage() {
+        if (Integer.bitCount(CHUNK_SIZE) != 1) {
+            throw new IllegalStateException("MAP_CHUNK_SIZE must be a power of two, got " + CHUNK_SIZE);
+        }
+    }
+
+    @Override
+    public int get(int x, int y, int z) {
+        Chunk chunk = findChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT, z >> CHUNK_SHIFT);
+        if (chunk == null) {
+            return PackedTile.NONE;
+        }
+        return chunk.tiles[localIndex(x, y, z)];
+    }
+
+    @Override
+    public void set(int x, int y, int z, int packed) {
+        int cx = x >> CHUNK_SHIFT;
+        int cy = y >> CHUNK_SHIFT;
+        int cz = z >> CHUNK_SHIFT;
+        Chunk chunk = findChunk(cx, cy, cz);
+        if (chunk == null) {
+            if (packed == PackedTile.NONE) {
+                return;
+            }
+            chunk = new Chunk(cx, cy, cz);
+            chunks.put(chunk.key, chunk);
+            lastChunk = chunk;
+        }
+
+        int index = localIndex(x, y, z);
+        int old = chunk.tiles[index];
+        chunk.tiles[index] = packed;
+        tally(old, -1);
+        tally(packed, 1);
+
+        if (old == PackedTile.NONE && packed != PackedTile.NONE) {
+            chunk.count++;
+            tileCount++;
+        } else if (old != PackedTile.NONE && packed == PackedTile.NONE) {
+            chunk.count--;
+            tileCount--;
+            if (chunk.count == 0) {
+                chunks.remove(chunk.key);
+                if (lastChunk == chunk) {
+                    lastChunk = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return tileCount;
+    }
+
+    @Override
+    public int count(MapTileGeometryType geometryType) {
+        return geometryCounts[geometryType.ordinal()];
+    }
+
+    @Override
+    public int count(MapTileFillType fillType) {
+        return fillCounts[fillType.ordinal()];
+    }
+
+    private void tally(int packed, int delta) {
+        if (packed != PackedTile.NONE) {
+            geometryCounts[PackedTile.geometryOrdinal(packed)] += delta;
+            fillCounts[PackedTile.fillOrdinal(packed)] += delta;
+        }
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        for (Chunk chunk : chunks.values()) {
+            int baseX = chunk.cx << CHUNK_SHIFT;
+            int baseY = chunk.cy << CHUNK_SHIFT;
+            int baseZ = chunk.cz << CHUNK_SHIFT;
+            int[] tiles = chunk.tiles;
+            for (int i = 0; i < CHUNK_VOLUME; i++) {
+                int packed = tiles[i];
+                if (packed != PackedTile.NONE) {
+                    visitor.visit(
+                        baseX + (i & CHUNK_MASK),
+                        baseY + ((i >> (CHUNK_SHIFT * 2)) & CHUNK_MASK),
+                        baseZ + ((i >> CHUNK_SHIFT) & CHUNK_MASK),
+                        packed);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        chunks.clear();
+        tileCount = 0;
+        Arrays.fill(geometryCounts, 0);
+        Arrays.fill(fillCounts, 0);
+        lastChunk = null;
+    }
+
+    /**
+     * @return Number of allocated chunks
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Visits every allocated chunk with its backing array, indexed x fastest, then z, then y.
+     * The array must not be modified.
+     */
+    public void forEachChunk(ChunkVisitor visitor) {
+        for (Chunk chunk : chunks.values()) {
+            visitor.visit(chunk.cx, chunk.cy, chunk.cz, chunk.tiles);
+        }
+    }
+
+    /**
+     * Replaces a whole chunk with a copy of the given array (same layout as {@link #forEachChunk}).
+     * Used by bulk loaders that decode a chunk at a time.
+     */
+    public void putChunk(int cx, int cy, int cz, int[] tiles) {
+        long key = chunkKey(cx, cy, cz);
+        Chunk old = chunks.remove(key);
+        if (old != null) {
+            tileCount -= old.count;
+            for (int packed : old.tiles) {
+                tally(packed, -1);
+            }
+        }
+        if (lastChunk == old) {
+            lastChunk = null;
+        }
+
+        Chunk chunk = new Chunk(cx, cy, cz);
+        System.arraycopy(tiles, 0, chunk.tiles, 0, CHUNK_VOLUME);
+        for (int packed : tiles) {
+            if (packed != PackedTile.NONE) {
+                chunk.count++;
+                tally(packed, 1);
+            }
+        }
+        if (chunk.count > 0) {
+            chunks.put(key, chunk);
+            tileCount += chunk.count;
+        }
+    }
+
+    /**
+     * Callback for {@link #forEachChunk(ChunkVisitor)}.
+     */
+    public interface ChunkVisitor {
+        void visit(int cx, int cy, int cz, int[] tiles);
+    }
+
+    private Chunk findChunk(int cx, int cy, int cz) {
+        long key = chunkKey(cx, cy, cz);
+        Chunk cached = lastChunk;
+        if (cached != null && cached.key == key) {
+            return cached;
+        }
+        Chunk chunk = chunks.get(key);
+        if (chunk != null) {
+            lastChunk = chunk;
+        }
+        return chunk;
+    }
+
+    private static int localIndex(int x, int y, int z) {
+        return (x & CHUNK_MASK) | ((z & CHUNK_MASK) << CHUNK_SHIFT) | ((y & CHUNK_MASK) << (CHUNK_SHIFT * 2));
+    }
+
+    /**
+     * Same 21-bit-per-axis encoding GameMap uses for tile keys, applied to chunk coordinates.
+     */
+    private static long chunkKey(int cx, int cy, int cz) {
+        return (((long)cx & 0x1FFFFF) << 42) | (((long)cy & 0x1FFFFF) << 21) | ((long)cz & 0x1FFFFF);
+    }
+
+    // Kryo serialization: chunk coordinates followed by either the dense tile array
+    // or (local index, packed) pairs, whichever is smaller
+
+    @Override
+    public void write(Kryo kryo, Output output) {
+        output.writeVarInt(chunks.size(), true);
+        for (Chunk chunk : chunks.values()) {
+            output.writeInt(chunk.cx);
+            output.writeInt(chunk.cy);
+            output.writeInt(chunk.cz);
+            output.writeVarInt(chunk.count, true);
+            boolean dense = chunk.count * 2 >= CHUNK_VOLUME;
+            output.writeBoolean(dense);
+            for (int i = 0; i < CHUNK_VOLUME; i++) {
+                int packed = chunk.tiles[i];
+                if (dense) {
+                    output.writeInt(packed);
+                } else if (packed != PackedTile.NONE) {
+                    output.writeVarInt(i, true);
+                    output.writeInt(packed);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void read(Kryo kryo, Input input) {
+        clear();
+        int chunkCount = input.readVarInt(true);
+        for (int c = 0; c < chunkCount; c++) {
+            Chunk chunk = new Chunk(input.readInt(), input.readInt(), input.readInt());
+            chunk.count = input.readVarInt(true);
+            boolean dense = input.readBoolean();
+            if (dense) {
+                for (int i = 0; i < CHUNK_VOLUME; i++) {
+                    chunk.tiles[i] = input.readInt();
+                    tally(chunk.tiles[i], 1);
+                }
+            } else {
+                for (int i = 0; i < chunk.count; i++) {
+                    int index = input.readVarInt(true);
+                    chunk.tiles[index] = input.readInt();
+                    tally(chunk.tiles[index], 1);
+                }
+            }
+            chunks.put(chunk.key, chunk);
+            tileCount += chunk.count;
+        }
+    }
+
+    /**
+     * One allocated chunk of packed tiles.
+     */
+    private static final class Chunk {
+        final long key;
+        final int cx, cy, cz;
+        final int[] tiles = new int[CHUNK_VOLUME];
+        int count;
+
+        Chunk(int cx, int cy, int cz) {
+            this.cx = cx;
+            this.cy = cy;
+            this.cz = cz;
+            this.key = chunkKey(cx, cy, cz);
+        }
+    }
+}
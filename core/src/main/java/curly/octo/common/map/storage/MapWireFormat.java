@@ -0,0 +1,293 @@
+package curly.octo.common.map.storage;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.map.GameMap;
+import curly.octo.common.map.exploration.TileKeySet;
+import curly.octo.common.map.hints.LightHint;
+import curly.octo.common.map.hints.MapHint;
+import curly.octo.common.map.hints.SpawnPointHint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Versioned binary encoding of a GameMap, used instead of Kryo's field-by-field object graph.
+ *
+ * Layout (varints are Kryo's; "zigzag" means signed varint):
+ * <pre>
+ * int      MAGIC
+ * byte     VERSION
+ * varint   template name count, then that many strings (id = position)
+ * varint   chunk count, then per chunk:
+ *            zigzag cx, cy, cz
+ *            runs of (varint length, varint packed tile) covering all CHUNK_VOLUME slots,
+ *            in ChunkedTileStorage order (x fastest, then z, then y)
+ * varint   hint count, then per hint:
+ *            byte type, varlong tile key, type-specific fields
+ * -------- identity section --------
+ * string   map id (nullable)
+ * varint   light count, then each light hint's entity id (nullable), in hint order
+ * int      length of the identity section before this int, big-endian
+ * </pre>
+ *
+ * Everything before the identity section is the map's content; {@link #contentLength} finds where it
+ * ends so content hashes can leave the ids out.
+ *
+ * Both directions stream through Kryo's Output/Input and work a chunk at a time; no MapTile is
+ * created for any voxel.
+ */
+public final class MapWireFormat {
+
+    public static final int MAGIC = 0x4D415031; // "MAP1"
+    public static final byte VERSION = 2;
+
+    private static final byte HINT_SPAWN_POINT = 1;
+    private static final byte HINT_LIGHT = 2;
+
+    private static final int CHUNK_SIZE = ChunkedTileStorage.CHUNK_SIZE;
+    private static final int CHUNK_SHIFT = ChunkedTileStorage.CHUNK_SHIFT;
+    private static final int CHUNK_VOLUME = ChunkedTileStorage.CHUNK_VOLUME;
+
+    private MapWireFormat() {
+    }
+
+    public static void write(GameMap map, Output output) {
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+
+        // String table
+        int templateCount = map.getTemplateNameCount();
+        output.writeVarInt(templateCount, true);
+        for (int id = 0; id < templateCount; id++) {
+            output.writeString(map.getTemplateName(id));
+        }
+
+        writeTiles(map.getTileStorage(), output);
+        ArrayList<MapHint> lightHints = writeHints(map, output);
+
+        long identityStart = output.total();
+        output.writeString(map.getMapId());
+        output.writeVarInt(lightHints.size(), true);
+        for (MapHint hint : lightHints) {
+            output.writeString(((LightHint) hint).entityId);
+        }
+        // Big-endian regardless of Kryo's int byte order, since contentLength decodes it by hand
+        int identityLength = (int) (output.total() - identityStart);
+        output.writeByte(identityLength >>> 24);
+        output.writeByte(identityLength >>> 16);
+        output.writeByte(identityLength >>> 8);
+        output.writeByte(identityLength);
+    }
+
+    /**
+     * @param data A map encoded by {@link #write}, e.g. the start of a transfer payload
+     * @param length Length of the encoded map
+     * @return Bytes of the map's content at the start of the range, i.e. everything but the identity section
+     */
+    public static int contentLength(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int identityLength = (data[end - 4] & 0xFF) << 24 | (data[end - 3] & 0xFF) << 16 |
+            (data[end - 2] & 0xFF) << 8 | (data[end - 1] & 0xFF);
+        return length - 4 - identityLength;
+    }
+
+    public static GameMap read(Input input) {
+        int magic = input.readInt();
+        if (magic != MAGIC) {
+            throw new KryoException("Not a map stream (magic " + Integer.toHexString(magic) + ")");
+        }
+        byte version = input.readByte();
+        if (version != VERSION) {
+            throw new KryoException("Unsupported map format version " + version + ", expected " + VERSION);
+        }
+
+        ChunkedTileStorage storage = new ChunkedTileStorage();
+        GameMap map = new GameMap(storage);
+
+        int templateCount = input.readVarInt(true);
+        for (int id = 0; id < templateCount; id++) {
+            map.internTemplateName(input.readString());
+        }
+
+        readTiles(storage, input);
+        ArrayList<LightHint> lightHints = readHints(map, input);
+
+        map.setMapId(input.readString());
+        int lightCount = input.readVarInt(true);
+        if (lightCount != lightHints.size()) {
+            throw new KryoException("Map names " + lightCount + " lights but has " + lightHints.size());
+        }
+        for (LightHint light : lightHints) {
+            light.entityId = input.readString();
+        }
+        input.skip(4); // Identity section length, only needed by contentLength
+
+        map.invalidateConnectivity();
+        return map;
+    }
+
+    private static void writeTiles(TileStorage storage, Output output) {
+        if (storage instanceof ChunkedTileStorage) {
+            ChunkedTileStorage chunked = (ChunkedTileStorage) storage;
+            output.writeVarInt(chunked.getChunkCount(), true);
+            chunked.forEachChunk((cx, cy, cz, tiles) -> writeChunk(output, cx, cy, cz, tiles));
+            return;
+        }
+
+        // Other storages: find the occupied chunks, then gather each one into the same layout
+        TileKeySet chunkKeys = new TileKeySet();
+        storage.forEach((x, y, z, packed) ->
+            chunkKeys.add(GameMap.packTileKey(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT, z >> CHUNK_SHIFT)));
+        output.writeVarInt(chunkKeys.size(), true);
+        int[] tiles = new int[CHUNK_VOLUME];
+        for (long key : chunkKeys.toArray()) {
+            int cx = GameMap.keyToIndexX(key), cy = GameMap.keyToIndexY(key), cz = GameMap.keyToIndexZ(key);
+            for (int i = 0; i < CHUNK_VOLUME; i++) {
+                tiles[i] = storage.get((cx << CHUNK_SHIFT) + localX(i), (cy << CHUNK_SHIFT) + localY(i), (cz << CHUNK_SHIFT) + localZ(i));
+            }
+            writeChunk(output, cx, cy, cz, tiles);
+        }
+    }
+
+    private static void writeChunk(Output output, int cx, int cy, int cz, int[] tiles) {
+        output.writeVarInt(cx, false);
+        output.writeVarInt(cy, false);
+        output.writeVarInt(cz, false);
+
+        int i = 0;
+        while (i < CHUNK_VOLUME) {
+            int packed = tiles[i];
+            int run = 1;
+            while (i + run < CHUNK_VOLUME && tiles[i + run] == packed) {
+                run++;
+            }
+            output.writeVarInt(run, true);
+            output.writeVarInt(packed, true);
+            i += run;
+        }
+    }
+
+    private static void readTiles(ChunkedTileStorage storage, Input input) {
+        int chunkCount = input.readVarInt(true);
+        int[] tiles = new int[CHUNK_VOLUME];
+        for (int c = 0; c < chunkCount; c++) {
+            int cx = input.readVarInt(false);
+            int cy = input.readVarInt(false);
+            int cz = input.readVarInt(false);
+
+            int i = 0;
+            while (i < CHUNK_VOLUME) {
+                int run = input.readVarInt(true);
+                int packed = input.readVarInt(true);
+                if (run <= 0 || i + run > CHUNK_VOLUME) {
+                    throw new KryoException("Corrupt tile run of length " + run + " at slot " + i + " in chunk " + cx + "," + cy + "," + cz);
+                }
+                Arrays.fill(tiles, i, i + run, packed);
+                i += run;
+            }
+            storage.putChunk(cx, cy, cz, tiles);
+        }
+    }
+
+    /**
+     * @return The light hints written, in order; their entity ids go in the identity section
+     */
+    private static ArrayList<MapHint> writeHints(GameMap map, Output output) {
+        ArrayList<MapHint> spawnHints = map.getAllHintsOfType(SpawnPointHint.class);
+        ArrayList<MapHint> lightHints = map.getAllHintsOfType(LightHint.class);
+        // Hints without a tile cannot be looked up again, so they are not worth sending
+        spawnHints.removeIf(hint -> hint.tileLookupKey == null);
+        lightHints.removeIf(hint -> hint.tileLookupKey == null);
+        for (Class hintType : map.getHintTypes()) {
+            if (hintType != SpawnPointHint.class && hintType != LightHint.class) {
+                Log.warn("MapWireFormat", "No wire encoding for hint type " + hintType.getSimpleName() + ", dropping it");
+            }
+        }
+
+        output.writeVarInt(spawnHints.size() + lightHints.size(), true);
+        for (MapHint hint : spawnHints) {
+            output.writeByte(HINT_SPAWN_POINT);
+            output.writeVarLong(hint.tileLookupKey, true);
+        }
+        for (MapHint hint : lightHints) {
+            LightHint light = (LightHint) hint;
+            output.writeByte(HINT_LIGHT);
+            output.writeVarLong(light.tileLookupKey, true);
+            output.writeFloat(light.intensity);
+            output.writeFloat(light.color_r);
+            output.writeFloat(light.color_g);
+            output.writeFloat(light.color_b);
+            // Flicker length + 1, so 0 can stand for null
+            if (light.flicker == null) {
+                output.writeVarInt(0, true);
+            } else {
+                output.writeVarInt(light.flicker.length + 1, true);
+                output.writeFloats(light.flicker, 0, light.flicker.length);
+            }
+        }
+        return lightHints;
+    }
+
+    /**
+     * @return The light hints read, in order, still without their entity ids
+     */
+    private static ArrayList<LightHint> readHints(GameMap map, Input input) {
+        ArrayList<LightHint> lightHints = new ArrayList<>();
+        int hintCount = input.readVarInt(true);
+        for (int h = 0; h < hintCount; h++) {
+            byte type = input.readByte();
+            long tileKey = input.readVarLong(true);
+            switch (type) {
+                case HINT_SPAWN_POINT:
+                    map.registerHint(new SpawnPointHint(tileKey));
+                    break;
+                case HINT_LIGHT:
+                    LightHint light = new LightHint(tileKey);
+                    light.intensity = input.readFloat();
+                    light.color_r = input.readFloat();
+                    light.color_g = input.readFloat();
+                    light.color_b = input.readFloat();
+                    int flickerLength = input.readVarInt(true) - 1;
+                    light.flicker = flickerLength < 0 ? null : input.readFloats(flickerLength);
+                    map.registerHint(light);
+                    lightHints.add(light);
+                    break;
+                default:
+                    throw new KryoException("Unknown map hint type " + type);
+            }
+        }
+        return lightHints;
+    }
+
+    private static int localX(int index) {
+        return index & (CHUNK_SIZE - 1);
+    }
+
+    private static int localZ(int index) {
+        return (index >> CHUNK_SHIFT) & (CHUNK_SIZE - 1);
+    }
+
+    private static int localY(int index) {
+        return (index >> (CHUNK_SHIFT * 2)) & (CHUNK_SIZE - 1);
+    }
+
+    /**
+     * Kryo serializer writing GameMaps in this format, registered for GameMap.class in KryoNetwork.
+     */
+    public static class GameMapSerializer extends Serializer<GameMap> {
+        @Override
+        public void write(Kryo kryo, Output output, GameMap map) {
+            MapWireFormat.write(map, output);
+        }
+
+        @Override
+        public GameMap read(Kryo kryo, Input input, Class<? extends GameMap> type) {
+            return MapWireFormat.read(input);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package curly.octo.common.map.storage;
+
+import curly.octo.common.map.enums.Direction;
+import curly.octo.common.map.enums.MapTileFillType;
+import curly.octo.common.map.enums.MapTileGeometryType;
+import curly.octo.common.map.enums.MapTileMaterial;
+
+/**
+ * Static helpers for the packed int representation of a single voxel.
+ *
+ * Layout (least significant bit first):
+ * - bit 0:      present flag (a packed value of 0 always means "no tile")
+ * - bits 1-3:   fill type ordinal
+ * - bits 4-6:   geometry type ordinal
+ * - bits 7-9:   direction ordinal
+ * - bits 10-12: material ordinal
+ * - bit 13:     spawn flag (set through MapTile.AddHint)
+ * - bits 14-15: reserved
+ * - bits 16-31: template name id (index into the owning GameMap's string table)
+ */
+public final class PackedTile {
+
+    public static final int NONE = 0;
+
+    private static final int PRESENT_BIT = 1;
+    private static final int FILL_SHIFT = 1;
+    private static final int GEOMETRY_SHIFT = 4;
+    private static final int DIRECTION_SHIFT = 7;
+    private static final int MATERIAL_SHIFT = 10;
+    private static final int SPAWN_BIT = 1 << 13;
+    private static final int TEMPLATE_SHIFT = 16;
+
+    private static final int ENUM_MASK = 0x7;
+    private static final int TEMPLATE_MASK = 0xFFFF;
+
+    public static final int MAX_TEMPLATE_ID = TEMPLATE_MASK;
+
+    // Cached enum tables so decoding never clones values()
+    private static final MapTileFillType[] FILL_TYPES = MapTileFillType.values();
+    private static final MapTileGeometryType[] GEOMETRY_TYPES = MapTileGeometryType.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final MapTileMaterial[] MATERIALS = MapTileMaterial.values();
+
+    private PackedTile() {
+    }
+
+    /**
+     * Packs the given tile attributes into a single int. The result is never {@link #NONE}.
+     */
+    public static int pack(MapTileFillType fillType, MapTileGeometryType geometryType,
+                           Direction direction, MapTileMaterial material, int templateId) {
+        return PRESENT_BIT
+            | (fillType.ordinal() << FILL_SHIFT)
+            | (geometryType.ordinal() << GEOMETRY_SHIFT)
+            | (direction.ordinal() << DIRECTION_SHIFT)
+            | (material.ordinal() << MATERIAL_SHIFT)
+            | ((templateId & TEMPLATE_MASK) << TEMPLATE_SHIFT);
+    }
+
+    /**
+     * @return The packed value of a freshly touched tile: AIR, EMPTY, NORTH, STONE.
+     */
+    public static int defaultTile(int templateId) {
+        return pack(MapTileFillType.AIR, MapTileGeometryType.EMPTY, Direction.NORTH, MapTileMaterial.STONE, templateId);
+    }
+
+    public static boolean isPresent(int packed) {
+        return (packed & PRESENT_BIT) != 0;
+    }
+
+    /**
+     * @return true if the packed value is a tile whose geometry is EMPTY.
+     */
+    public static boolean isEmpty(int packed) {
+        return isPresent(packed) && geometryOrdinal(packed) == MapTileGeometryType.EMPTY.ordinal();
+    }
+
+    /**
+     * @return true if the packed value is a tile with any non-EMPTY geometry.
+     */
+    public static boolean isSolid(int packed) {
+        return isPresent(packed) && geometryOrdinal(packed) != MapTileGeometryType.EMPTY.ordinal();
+    }
+
+    public static int fillOrdinal(int packed) {
+        return (packed >>> FILL_SHIFT) & ENUM_MASK;
+    }
+
+    public static int geometryOrdinal(int packed) {
+        return (packed >>> GEOMETRY_SHIFT) & ENUM_MASK;
+    }
+
+    public static MapTileFillType fillType(int packed) {
+        return FILL_TYPES[fillOrdinal(packed)];
+    }
+
+    public static MapTileGeometryType geometryType(int packed) {
+        return GEOMETRY_TYPES[geometryOrdinal(packed)];
+    }
+
+    public static Direction direction(int packed) {
+        return DIRECTIONS[(packed >>> DIRECTION_SHIFT) & ENUM_MASK];
+    }
+
+    public static MapTileMaterial material(int packed) {
+        return MATERIALS[(packed >>> MATERIAL_SHIFT) & ENUM_MASK];
+    }
+
+    public static boolean isSpawn(int packed) {
+        return (packed & SPAWN_BIT) != 0;
+    }
+
+    public static int templateId(int packed) {
+        return (packed >>> TEMPLATE_SHIFT) & TEMPLATE_MASK;
+    }
+
+    public static int withFillType(int packed, MapTileFillType fillType) {
+        return (packed & ~(ENUM_MASK << FILL_SHIFT)) | (fillType.ordinal() << FILL_SHIFT);
+    }
+
+    public static int withGeometryType(int packed, MapTileGeometryType geometryType) {
+        return (packed & ~(ENUM_MASK << GEOMETRY_SHIFT)) | (geometryType.ordinal() << GEOMETRY_SHIFT);
+    }
+
+    public static int withDirection(int packed, Direction direction) {
+        return (packed & ~(ENUM_MASK << DIRECTION_SHIFT)) | (direction.ordinal() << DIRECTION_SHIFT);
+    }
+
+    public static int withMaterial(int packed, MapTileMaterial material) {
+        return (packed & ~(ENUM_MASK << MATERIAL_SHIFT)) | (material.ordinal() << MATERIAL_SHIFT);
+    }
+
+    public static int withSpawn(int packed, boolean spawn) {
+        return spawn ? (packed | SPAWN_BIT) : (packed & ~SPAWN_BIT);
+    }
+
+    public static int withTemplateId(int packed, int templateId) {
+        return (packed & ~(TEMPLATE_MASK << TEMPLATE_SHIFT)) | ((templateId & TEMPLATE_MASK) << TEMPLATE_SHIFT);
+    }
+}
@@ -0,0 +1,53 @@
+package curly.octo.common.map.storage;
+
+import curly.octo.common.map.enums.MapTileFillType;
+import curly.octo.common.map.enums.MapTileGeometryType;
+
+/**
+ * Backend that stores voxels as packed ints (see {@link PackedTile}) keyed by tile index coordinates.
+ * GameMap owns one of these and hands out MapTile views on top of it.
+ */
+public interface TileStorage {
+
+    /**
+     * @return The packed tile at the given tile index, or {@link PackedTile#NONE} if no tile exists there
+     */
+    int get(int x, int y, int z);
+
+    /**
+     * Stores a packed tile at the given tile index. Storing {@link PackedTile#NONE} removes the tile.
+     */
+    void set(int x, int y, int z, int packed);
+
+    /**
+     * @return Number of tiles currently stored
+     */
+    int size();
+
+    /**
+     * @return Number of stored tiles with the given geometry
+     */
+    int count(MapTileGeometryType geometryType);
+
+    /**
+     * @return Number of stored tiles with the given fill
+     */
+    int count(MapTileFillType fillType);
+
+    /**
+     * Visits every stored tile. Visit order is unspecified but stable for an unmodified storage.
+     */
+    void forEach(Visitor visitor);
+
+    /**
+     * Removes all tiles.
+     */
+    void clear();
+
+    /**
+     * Callback used by {@link #forEach(Visitor)}.
+     */
+    interface Visitor {
+        void visit(int x, int y, int z, int packed);
+    }
+}
@@ -12,6 +12,8 @@ import curly.octo.common.map.enums.MapTileMaterial;
 import curly.octo.common.map.hints.LightHint;
 import curly.octo.common.map.hints.MapHint;
 import curly.octo.common.map.hints.SpawnPointHint;
+import curly.octo.common.map.storage.ChunkedTileStorage;
+import curly.octo.common.map.storage.MapWireFormat;
 import curly.octo.server.playerManagement.ClientUniqueId;
 import org.bitlet.weupnp.GatewayDevice;
 import org.bitlet.weupnp.GatewayDiscover;
@@ -42,7 +44,11 @@ public class KryoNetwork {
 
     // This registers objects that will be sent over the network.
     public static void register(EndPoint endPoint) {
-        Kryo kryo = endPoint.getKryo();
+        register(endPoint.getKryo());
+    }
+
+    // Same registration for a standalone Kryo, e.g. one serializing transfer payloads off the network thread.
+    public static void register(Kryo kryo) {
 
         // Configure Kryo for better performance with our data
         kryo.setRegistrationRequired(true); // Require explicit registration for better error messages
@@ -59,9 +65,11 @@ public class KryoNetwork {
         kryo.register(int[].class);
         kryo.register(float[].class);
         kryo.register(boolean[].class);
+        kryo.register(long[].class);
         kryo.register(long.class);
         kryo.register(Long.class);
         kryo.register(String.class);
+        kryo.register(String[].class);
         kryo.register(Class.class);
 
         // Register LibGDX math classes
@@ -80,6 +88,7 @@ public class KryoNetwork {
         kryo.register(MapTile[].class);
         kryo.register(MapTile[][].class);
         kryo.register(MapTile[][][].class);
+        kryo.register(ChunkedTileStorage.class);
 
         // Map Hints
         kryo.register(SpawnPointHint.class);
@@ -103,8 +112,8 @@ public class KryoNetwork {
         kryo.register(PlayerObjectRosterUpdate.class);
         kryo.register(PlayerAssignmentUpdate.class);
 
-        // Register VoxelMap class
-        kryo.register(GameMap.class);
+        // Register VoxelMap class, sent in the compact binary map format rather than field by field
+        kryo.register(GameMap.class, new MapWireFormat.GameMapSerializer());
 
         // Register map transfer payload (combines map + game objects)
         kryo.register(MapTransferPayload.class);
@@ -0,0 +1,60 @@
+package curly.octo.common.network;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content hashes used to recognise maps, and pieces of a map transfer, that a client already has.
+ */
+public final class MapContentHash {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private MapContentHash() {}
+
+    /**
+     * @return SHA-256 of the range as lowercase hex
+     */
+    public static String of(byte[] data, int offset, int length) {
+        byte[] digest = digest(data, offset, length);
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * @return One 64-bit hash (a truncated SHA-256) per {@code chunkSize} piece of the data
+     */
+    public static long[] chunkHashes(byte[] data, int chunkSize) {
+        int chunkCount = (data.length + chunkSize - 1) / chunkSize;
+        long[] hashes = new long[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            int offset = i * chunkSize;
+            hashes[i] = chunkHash(data, offset, Math.min(chunkSize, data.length - offset));
+        }
+        return hashes;
+    }
+
+    public static long chunkHash(byte[] data, int offset, int length) {
+        byte[] digest = digest(data, offset, length);
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    private static byte[] digest(byte[] data, int offset, int length) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(data, offset, length);
+            return sha.digest();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
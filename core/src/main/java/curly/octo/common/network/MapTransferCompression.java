@@ -0,0 +1,293 @@
+package curly.octo.common.network;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codecs for the bulk map transfer. The server compresses the serialized payload once and announces
+ * the codec in MapTransferBeginMessage; the client feeds each chunk to a {@link Decoder} as soon as
+ * it can be appended, so nothing is left to decompress once the last chunk arrives.
+ *
+ * The start of a payload that rarely changes (the map) can be encoded ahead of time as a {@link Prefix};
+ * each transfer then only encodes its own tail. The result is still one ordinary stream for the client.
+ */
+public final class MapTransferCompression {
+
+    public static final int NONE = 0;
+    public static final int DEFLATE = 1;
+
+    /** Codec the server applies to map transfers, announced to clients in MapTransferBeginMessage */
+    public static final int DEFAULT = DEFLATE;
+
+    // zlib header for a 32K window at the default level, as Deflater writes it
+    private static final byte ZLIB_CMF = 0x78;
+    private static final byte ZLIB_FLG = (byte) 0x9C;
+    private static final int ADLER_BASE = 65521;
+
+    private MapTransferCompression() {}
+
+    public static String name(int codec) {
+        switch (codec) {
+            case NONE: return "none";
+            case DEFLATE: return "deflate";
+            default: return "unknown(" + codec + ")";
+        }
+    }
+
+    /**
+     * @return The data encoded with the given codec, or the same array for {@link #NONE}
+     */
+    public static byte[] compress(byte[] data, int codec) {
+        if (codec == NONE) {
+            return data;
+        }
+        if (codec != DEFLATE) {
+            throw new IllegalArgumentException("Unsupported map transfer codec " + codec);
+        }
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] buffer = new byte[Math.max(64, data.length / 4)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Encodes the start of a payload ahead of time. Deflate prefixes end on a sync flush, so blocks
+     * compressed later can follow them directly.
+     */
+    public static Prefix compressPrefix(byte[] data, int offset, int length, int codec) {
+        if (codec == NONE) {
+            return new Prefix(codec, Arrays.copyOfRange(data, offset, offset + length), length, 0);
+        }
+        if (codec != DEFLATE) {
+            throw new IllegalArgumentException("Unsupported map transfer codec " + codec);
+        }
+
+        Adler32 checksum = new Adler32();
+        checksum.update(data, offset, length);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(data, offset, length);
+            byte[] buffer = new byte[Math.max(64, length / 4)];
+            buffer[0] = ZLIB_CMF;
+            buffer[1] = ZLIB_FLG;
+            int written = 2;
+            // A sync flush that fills the buffer may have more to write
+            do {
+                if (written == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                written += deflater.deflate(buffer, written, buffer.length - written, Deflater.SYNC_FLUSH);
+            } while (written == buffer.length);
+            return new Prefix(codec, Arrays.copyOf(buffer, written), length, checksum.getValue());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Finishes a stream started by {@link #compressPrefix}. Decodes the same as
+     * {@link #compress(byte[], int)} applied to the prefix and tail together.
+     */
+    public static byte[] compress(Prefix prefix, byte[] tail, int offset, int length) {
+        byte[] head = prefix.encoded;
+        if (prefix.codec == NONE) {
+            byte[] result = Arrays.copyOf(head, head.length + length);
+            System.arraycopy(tail, offset, result, head.length, length);
+            return result;
+        }
+
+        Adler32 checksum = new Adler32();
+        checksum.update(tail, offset, length);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(tail, offset, length);
+            deflater.finish();
+            byte[] buffer = Arrays.copyOf(head, head.length + Math.max(64, length / 4));
+            int written = head.length;
+            while (!deflater.finished()) {
+                if (written == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                written += deflater.deflate(buffer, written, buffer.length - written);
+            }
+
+            // zlib trailer: Adler-32 of everything, big-endian
+            long adler = combineAdler32(prefix.checksum, checksum.getValue(), length);
+            buffer = Arrays.copyOf(buffer, written + 4);
+            buffer[written] = (byte) (adler >>> 24);
+            buffer[written + 1] = (byte) (adler >>> 16);
+            buffer[written + 2] = (byte) (adler >>> 8);
+            buffer[written + 3] = (byte) adler;
+            return buffer;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return Adler-32 of two ranges laid end to end, from their own checksums (zlib's adler32_combine)
+     */
+    private static long combineAdler32(long first, long second, long secondLength) {
+        long remainder = secondLength % ADLER_BASE;
+        long sum1 = first & 0xFFFF;
+        long sum2 = (remainder * sum1) % ADLER_BASE;
+        sum1 += (second & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += ((first >>> 16) & 0xFFFF) + ((second >>> 16) & 0xFFFF) + ADLER_BASE - remainder;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum2 >= (ADLER_BASE << 1)) sum2 -= (ADLER_BASE << 1);
+        if (sum2 >= ADLER_BASE) sum2 -= ADLER_BASE;
+        return sum1 | (sum2 << 16);
+    }
+
+    /**
+     * Start of a stream encoded ahead of time by {@link #compressPrefix}. Immutable.
+     */
+    public static final class Prefix {
+        private final int codec;
+        private final byte[] encoded;
+        private final int length;
+        private final long checksum; // Adler-32 of the uncompressed prefix, for the zlib trailer
+
+        private Prefix(int codec, byte[] encoded, int length, long checksum) {
+            this.codec = codec;
+            this.encoded = encoded;
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+        public int getCodec() {
+            return codec;
+        }
+
+        /**
+         * @return Bytes of the stream covered by this prefix
+         */
+        public int getEncodedLength() {
+            return encoded.length;
+        }
+
+        /**
+         * @return Uncompressed bytes the prefix encodes
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * @return Hashes of the whole chunks inside the prefix, which every stream finished from it shares
+         * (see {@link MapContentHash#chunkHashes})
+         */
+        public long[] chunkHashes(int chunkSize) {
+            long[] hashes = new long[encoded.length / chunkSize];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = MapContentHash.chunkHash(encoded, i * chunkSize, chunkSize);
+            }
+            return hashes;
+        }
+    }
+
+    /**
+     * Incremental decoder writing into a buffer of the announced uncompressed size.
+     * Chunks must be fed in order.
+     */
+    public static final class Decoder {
+        private final Inflater inflater;
+        private final byte[] output;
+        private final byte[] overflow = new byte[1];
+        private int written;
+
+        public Decoder(int codec, int uncompressedSize) {
+            if (codec != NONE && codec != DEFLATE) {
+                throw new IllegalArgumentException("Unsupported map transfer codec " + codec);
+            }
+            this.inflater = codec == DEFLATE ? new Inflater() : null;
+            this.output = new byte[uncompressedSize];
+        }
+
+        public void feed(byte[] data) throws IOException {
+            feed(data, 0, data.length);
+        }
+
+        public void feed(byte[] data, int offset, int length) throws IOException {
+            if (inflater == null) {
+                if (written + length > output.length) {
+                    throw new IOException("Map transfer is larger than the announced " + output.length + " bytes");
+                }
+                System.arraycopy(data, offset, output, written, length);
+                written += length;
+                return;
+            }
+
+            inflater.setInput(data, offset, length);
+            try {
+                while (!inflater.needsInput() && !inflater.finished()) {
+                    if (written == output.length) {
+                        // Only the stream trailer may be left; any further output is an error
+                        if (inflater.inflate(overflow) > 0) {
+                            throw new IOException("Map transfer inflates past the announced " + output.length + " bytes");
+                        }
+                        if (inflater.needsDictionary()) {
+                            throw new IOException("Map transfer stream requires a preset dictionary");
+                        }
+                        continue;
+                    }
+                    written += inflater.inflate(output, written, output.length - written);
+                    if (inflater.needsDictionary()) {
+                        throw new IOException("Map transfer stream requires a preset dictionary");
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt map transfer stream: " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * @return The output buffer; bytes before {@link #getBytesDecoded()} are final
+         */
+        public byte[] getBuffer() {
+            return output;
+        }
+
+        public int getBytesDecoded() {
+            return written;
+        }
+
+        /**
+         * Releases the inflater and returns the decoded payload.
+         *
+         * @throws IOException If the stream ended early
+         */
+        public byte[] finish() throws IOException {
+            boolean complete = written == output.length && (inflater == null || inflater.finished());
+            end();
+            if (!complete) {
+                throw new IOException("Map transfer ended after " + written + " of " + output.length + " bytes");
+            }
+            return output;
+        }
+
+        public void end() {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+}
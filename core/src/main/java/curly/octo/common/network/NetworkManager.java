@@ -1,185 +1,411 @@
 package curly.octo.common.network;
 
+import com.badlogic.gdx.utils.IntIntMap;
 import com.esotericsoftware.kryonet.Client;
 import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.kryonet.Server;
 import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+import curly.octo.common.network.telemetry.NetworkTelemetry;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 
 /**
  * Simplified network message system that replaces the complex listener pattern.
  * Provides type-safe message handling with minimal boilerplate.
+ *
+ * Each client has one, and each server match has its own, so several matches can share a process and a
+ * server without seeing each other's handlers or broadcasts.
+ *
+ * Handlers registered with onReceive do not run on the network thread. Received messages are pushed onto
+ * a bounded lock-free queue and handled when the simulation thread calls {@link #drain()} once per tick,
+ * so handlers can touch game state without locking. When that queue is full only coalesced types are
+ * dropped, since a newer message replaces them anyway; everything else, disconnects included, waits in an
+ * unbounded overflow queue behind it. Types registered with {@link #coalesce} only have
+ * their newest message per connection handled each drain. Handlers registered with onReceiveImmediate
+ * still run on the network thread, for work that must not wait for a tick.
  */
 public class NetworkManager {
 
-    // Storage for message handlers by message type
-    private static final Map<Class<?>, List<Consumer<Object>>> handlers = new HashMap<>();
-    // Storage for connection-aware message handlers by message type
-    private static final Map<Class<?>, List<BiConsumer<Connection, Object>>> connectionHandlers = new HashMap<>();
+    // Handler table per message type, resolved once when a message arrives
+    private final Map<Class<?>, Route> routes = new ConcurrentHashMap<>();
+    private final Route disconnectRoute = new Route(Connection.class);
 
     // Network endpoints
-    private static Server server;
-    private static Client client;
+    private final Server server;
+    private final Collection<Connection> connections; // Connections broadcasts go to (server only)
+    private final Client client;
+    private final NetworkTelemetry telemetry;
+
+    // Inbound pipeline: network threads produce, the simulation thread drains
+    private final MpscRingBuffer<Inbound> inbound;
+    private final ConcurrentLinkedQueue<Inbound> overflow = new ConcurrentLinkedQueue<>(); // Behind inbound when it is full
+    private final Inbound[] batch;
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicLong overflowedMessages = new AtomicLong();
+    private long coalescedMessages = 0;
+    private long reportedDrops = 0;
+    private long reportedOverflows = 0;
 
     /**
-     * Initialize the NetworkManager with a server instance.
+     * Creates a server-side NetworkManager whose broadcasts reach only the given connections.
+     *
+     * @param connections Live view of the connections that belong to this manager
+     * @param telemetry Records every message this manager sends, and how long received messages wait to be
+     *                  handled; the endpoint's TelemetrySerialization records their arrival and size
      */
-    public static void initialize(Server server) {
-        NetworkManager.server = server;
+    public NetworkManager(Server server, Collection<Connection> connections, NetworkTelemetry telemetry) {
+        this(server, connections, null, telemetry);
         Log.info("NetworkManager", "Initialized with server instance");
     }
 
     /**
-     * Initialize the NetworkManager with a client instance.
+     * Creates a client-side NetworkManager.
      */
-    public static void initialize(Client client) {
-        NetworkManager.client = client;
+    public NetworkManager(Client client, NetworkTelemetry telemetry) {
+        this(null, null, client, telemetry);
         Log.info("NetworkManager", "Initialized with client instance");
     }
 
+    private NetworkManager(Server server, Collection<Connection> connections, Client client, NetworkTelemetry telemetry) {
+        this.server = server;
+        this.connections = connections;
+        this.client = client;
+        this.telemetry = telemetry;
+        this.inbound = new MpscRingBuffer<>(Constants.NETWORK_INBOUND_QUEUE_CAPACITY);
+        this.batch = new Inbound[inbound.capacity()];
+    }
+
 
     /**
-     * Register a handler for a specific message type.
+     * Register a handler for a specific message type, run on the thread that calls {@link #drain()}.
      * Multiple handlers can be registered for the same message type.
      *
      * @param messageType The class of the message to handle
      * @param handler The handler function to call when this message type is received
      */
     @SuppressWarnings("unchecked")
-    public static <T extends NetworkMessage> void onReceive(Class<T> messageType, Consumer<T> handler) {
-        handlers.computeIfAbsent(messageType, k -> new ArrayList<>())
-                .add(obj -> handler.accept((T) obj));
+    public <T extends NetworkMessage> void onReceive(Class<T> messageType, Consumer<T> handler) {
+        route(messageType).addQueued((conn, obj) -> handler.accept((T) obj));
 
         Log.info("NetworkManager", "Registered handler for " + messageType.getSimpleName());
     }
 
     /**
-     * Register a connection-aware handler for a specific message type.
-     * Multiple handlers can be registered for the same message type.
+     * Register a connection-aware handler for a specific message type, run on the thread that calls
+     * {@link #drain()}. Multiple handlers can be registered for the same message type.
      *
      * @param messageType The class of the message to handle
      * @param handler The handler function to call when this message type is received (receives connection and message)
      */
     @SuppressWarnings("unchecked")
-    public static <T extends NetworkMessage> void onReceive(Class<T> messageType, BiConsumer<Connection, T> handler) {
-        connectionHandlers.computeIfAbsent(messageType, k -> new ArrayList<>())
-                .add((conn, obj) -> handler.accept(conn, (T) obj));
+    public <T extends NetworkMessage> void onReceive(Class<T> messageType, BiConsumer<Connection, T> handler) {
+        route(messageType).addQueued((conn, obj) -> handler.accept(conn, (T) obj));
 
         Log.info("NetworkManager", "Registered connection-aware handler for " + messageType.getSimpleName());
     }
 
+    /**
+     * Register a handler that runs on the network thread as soon as the message arrives.
+     * Only for handlers that are thread-safe and must not wait for the next tick, such as map chunks
+     * streamed to a background decoder.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends NetworkMessage> void onReceiveImmediate(Class<T> messageType, Consumer<T> handler) {
+        route(messageType).addImmediate((conn, obj) -> handler.accept((T) obj));
+
+        Log.info("NetworkManager", "Registered immediate handler for " + messageType.getSimpleName());
+    }
+
+    /**
+     * Register a handler for connections that closed, run on the thread that calls {@link #drain()}
+     * after any messages the connection sent before closing.
+     */
+    public void onDisconnected(Consumer<Connection> handler) {
+        disconnectRoute.addQueued((conn, obj) -> handler.accept(conn));
+    }
+
+    /**
+     * Handle only the newest queued message of this type per connection each drain.
+     * For state that each message replaces entirely, such as positions.
+     *
+     * @param supersedes Whether the first message replaces the second; with UDP the later arrival
+     *                   is not always the newer message
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends NetworkMessage> void coalesce(Class<T> messageType, BiPredicate<T, T> supersedes) {
+        route(messageType).supersedes = (newer, older) -> supersedes.test((T) newer, (T) older);
+    }
+
+    private Route route(Class<?> messageType) {
+        return routes.computeIfAbsent(messageType, Route::new);
+    }
+
     /**
      * Send a message from server to a specific client.
      */
-    public static void sendToClient(int connectionId, NetworkMessage message) {
+    public void sendToClient(int connectionId, NetworkMessage message) {
         if (server == null) {
             Log.error("NetworkManager", "Cannot send to client: server not initialized");
             return;
         }
 
-        Log.info("NetworkManager", "Sending " + message.getClass().getSimpleName() + " to client " + connectionId);
-        server.sendToTCP(connectionId, message);
+        Log.debug("NetworkManager", "Sending " + message.getClass().getSimpleName() + " to client " + connectionId);
+        for (Connection connection : connections) {
+            if (connection.getID() == connectionId) {
+                telemetry.sendTCP(connection, message);
+                return;
+            }
+        }
+        Log.warn("NetworkManager", "Cannot send " + message.getClass().getSimpleName() + " to client " + connectionId +
+            ": not one of this manager's connections");
     }
 
     /**
-     * Send a message from server to all connected clients.
+     * Send a message from server to every client this manager covers.
      */
-    public static void sendToAllClients(NetworkMessage message) {
+    public void sendToAllClients(NetworkMessage message) {
         if (server == null) {
             Log.error("NetworkManager", "Cannot send to all clients: server not initialized");
             return;
         }
 
-        Log.info("NetworkManager", "Broadcasting " + message.getClass().getSimpleName() + " to all clients");
-        server.sendToAllTCP(message);
+        Log.debug("NetworkManager", "Broadcasting " + message.getClass().getSimpleName() + " to all clients");
+        for (Connection connection : connections) {
+            telemetry.sendTCP(connection, message);
+        }
     }
 
     /**
      * Send a message from client to server.
      */
-    public static void sendToServer(NetworkMessage message) {
+    public void sendToServer(NetworkMessage message) {
         if (client == null) {
             Log.error("NetworkManager", "Cannot send to server: client not initialized");
             return;
         }
 
-        Log.info("NetworkManager", "Sending " + message.getClass().getSimpleName() + " to server");
-        client.sendTCP(message);
+        Log.debug("NetworkManager", "Sending " + message.getClass().getSimpleName() + " to server");
+        telemetry.sendTCP(client, message);
     }
 
     /**
-     * Route an incoming message to its registered handlers.
-     * This method is called by NetworkListener when a message is received.
+     * Route an incoming message to its registered handlers: immediate handlers run now, queued handlers
+     * on the next {@link #drain()}.
+     * This method is called on the network thread by NetworkListener (client) or MatchHost (server).
      */
-    @SuppressWarnings("unchecked")
-    public static void routeMessage(Connection connection, Object message) {
+    public void routeMessage(Connection connection, Object message) {
         if (!(message instanceof NetworkMessage)) {
             // For backwards compatibility, ignore non-NetworkMessage objects
             return;
         }
 
         Class<?> messageType = message.getClass();
-        List<Consumer<Object>> messageHandlers = handlers.get(messageType);
-        List<BiConsumer<Connection, Object>> connectionMessageHandlers = connectionHandlers.get(messageType);
+        Route route = routes.get(messageType);
+        if (route == null || (route.immediate.length == 0 && route.queued.length == 0)) {
+            Log.warn("NetworkManager", "No handlers registered for " + messageType.getSimpleName());
+            return;
+        }
 
-        int totalHandlers = (messageHandlers != null ? messageHandlers.size() : 0) +
-                           (connectionMessageHandlers != null ? connectionMessageHandlers.size() : 0);
+        route.dispatch(route.immediate, connection, message);
+        if (route.queued.length > 0) {
+            enqueue(new Inbound(route, connection, message, System.nanoTime()));
+        }
+    }
 
-        if (totalHandlers == 0) {
-            Log.warn("NetworkManager", "No handlers registered for " + messageType.getSimpleName());
+    /**
+     * Queues a closed connection for the onDisconnected handlers. Called on the network thread.
+     */
+    public void routeDisconnect(Connection connection) {
+        if (disconnectRoute.queued.length > 0) {
+            enqueue(new Inbound(disconnectRoute, connection, null, System.nanoTime()));
+        }
+    }
+
+    private void enqueue(Inbound entry) {
+        // Once anything overflowed, later entries queue behind it so each connection's order is kept
+        if (overflow.isEmpty() && inbound.offer(entry)) {
             return;
         }
+        if (entry.route.supersedes != null) {
+            // A newer message of a coalesced type replaces this one anyway
+            droppedMessages.incrementAndGet();
+        } else {
+            overflow.add(entry);
+            overflowedMessages.incrementAndGet();
+        }
+    }
 
-        // Call all registered message-only handlers
-        if (messageHandlers != null) {
-            for (Consumer<Object> handler : messageHandlers) {
-                try {
-                    handler.accept(message);
-                } catch (Exception e) {
-                    Log.error("NetworkManager", "Error handling " + messageType.getSimpleName() + " (message-only): " + e.getMessage());
-                    e.printStackTrace();
+    /**
+     * Handles every message queued since the last drain, in arrival order, skipping messages superseded
+     * by a newer one of the same coalesced type from the same connection.
+     * Only one thread may drain, normally the simulation thread once per tick.
+     *
+     * @return Number of messages handled
+     */
+    public int drain() {
+        int count = 0;
+        Inbound entry;
+        while (count < batch.length && ((entry = inbound.poll()) != null || (entry = overflow.poll()) != null)) {
+            Route route = entry.route;
+            if (route.supersedes != null) {
+                int key = entry.connection != null ? entry.connection.getID() : 0;
+                int previous = route.latest.get(key, -1);
+                if (previous < 0) {
+                    route.latest.put(key, count);
+                } else if (route.supersedes.test(entry.message, batch[previous].message)) {
+                    route.latest.put(key, count);
+                    batch[previous] = null;
+                    coalescedMessages++;
+                } else {
+                    coalescedMessages++;
+                    continue;
                 }
             }
+            batch[count++] = entry;
         }
 
-        // Call all registered connection-aware handlers
-        if (connectionMessageHandlers != null) {
-            for (BiConsumer<Connection, Object> handler : connectionMessageHandlers) {
-                try {
-                    handler.accept(connection, message);
-                } catch (Exception e) {
-                    Log.error("NetworkManager", "Error handling " + messageType.getSimpleName() + " (connection-aware): " + e.getMessage());
-                    e.printStackTrace();
-                }
+        int handled = 0;
+        long now = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            entry = batch[i];
+            if (entry == null) {
+                continue;
+            }
+            batch[i] = null;
+            if (entry.route.supersedes != null) {
+                entry.route.latest.clear();
+            }
+            if (entry.message != null) {
+                telemetry.recordHandled(entry.route.messageType, now - entry.receivedNanos);
             }
+            entry.route.dispatch(entry.route.queued, entry.connection, entry.message);
+            handled++;
         }
+
+        long dropped = droppedMessages.get();
+        if (dropped != reportedDrops) {
+            Log.warn("NetworkManager", "Inbound queue full, dropped " + (dropped - reportedDrops) +
+                " coalesced messages (" + dropped + " total)");
+            reportedDrops = dropped;
+        }
+        long overflowed = overflowedMessages.get();
+        if (overflowed != reportedOverflows) {
+            Log.warn("NetworkManager", "Inbound queue full, " + (overflowed - reportedOverflows) +
+                " messages waited in the overflow queue (" + overflowed + " total)");
+            reportedOverflows = overflowed;
+        }
+        return handled;
+    }
+
+    /**
+     * @return Statistics for everything this manager sends and receives
+     */
+    public NetworkTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    /**
+     * @return Messages of coalesced types discarded because the inbound queue was full
+     */
+    public long getDroppedMessageCount() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * @return Queued messages skipped because a newer one of the same coalesced type replaced them
+     */
+    public long getCoalescedMessageCount() {
+        return coalescedMessages;
+    }
+
+    /**
+     * @return Approximate number of messages waiting for the next drain
+     */
+    public int getQueuedMessageCount() {
+        return inbound.size() + overflow.size();
     }
 
     /**
      * Clear all registered handlers. Useful for cleanup or testing.
      */
-    public static void clearHandlers() {
-        handlers.clear();
-        connectionHandlers.clear();
+    public void clearHandlers() {
+        routes.clear();
+        disconnectRoute.queued = Route.NONE;
         Log.info("NetworkManager", "Cleared all message handlers");
     }
 
     /**
      * Get the number of registered handlers for a message type.
      */
-    public static int getHandlerCount(Class<? extends NetworkMessage> messageType) {
-        List<Consumer<Object>> messageHandlers = handlers.get(messageType);
-        List<BiConsumer<Connection, Object>> connectionMessageHandlers = connectionHandlers.get(messageType);
+    public int getHandlerCount(Class<? extends NetworkMessage> messageType) {
+        Route route = routes.get(messageType);
+        return route != null ? route.immediate.length + route.queued.length : 0;
+    }
+
+    /**
+     * Handlers for one message type. The arrays are replaced, never modified, when handlers are added.
+     */
+    private static class Route {
+        @SuppressWarnings("unchecked")
+        static final BiConsumer<Connection, Object>[] NONE = new BiConsumer[0];
+
+        final Class<?> messageType;
+        volatile BiConsumer<Connection, Object>[] immediate = NONE;
+        volatile BiConsumer<Connection, Object>[] queued = NONE;
+        volatile BiPredicate<Object, Object> supersedes; // null unless coalesced
+        final IntIntMap latest = new IntIntMap(); // Drain thread only: connection id -> batch index
+
+        Route(Class<?> messageType) {
+            this.messageType = messageType;
+        }
+
+        synchronized void addImmediate(BiConsumer<Connection, Object> handler) {
+            immediate = append(immediate, handler);
+        }
+
+        synchronized void addQueued(BiConsumer<Connection, Object> handler) {
+            queued = append(queued, handler);
+        }
 
-        int messageOnlyCount = messageHandlers != null ? messageHandlers.size() : 0;
-        int connectionAwareCount = connectionMessageHandlers != null ? connectionMessageHandlers.size() : 0;
+        private static BiConsumer<Connection, Object>[] append(BiConsumer<Connection, Object>[] handlers,
+                                                               BiConsumer<Connection, Object> handler) {
+            BiConsumer<Connection, Object>[] grown = Arrays.copyOf(handlers, handlers.length + 1);
+            grown[handlers.length] = handler;
+            return grown;
+        }
+
+        void dispatch(BiConsumer<Connection, Object>[] handlers, Connection connection, Object message) {
+            for (BiConsumer<Connection, Object> handler : handlers) {
+                try {
+                    handler.accept(connection, message);
+                } catch (Exception e) {
+                    Log.error("NetworkManager", "Error handling " + messageType.getSimpleName() + ": " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static class Inbound {
+        final Route route;
+        final Connection connection;
+        final Object message;
+        final long receivedNanos;
 
-        return messageOnlyCount + connectionAwareCount;
+        Inbound(Route route, Connection connection, Object message, long receivedNanos) {
+            this.route = route;
+            this.connection = connection;
+            this.message = message;
+            this.receivedNanos = receivedNanos;
+        }
     }
 }
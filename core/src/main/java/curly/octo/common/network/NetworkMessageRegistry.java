@@ -1,9 +1,11 @@
 package curly.octo.common.network;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.common.network.messages.*;
 import curly.octo.common.network.messages.legacyMessages.*;
+import curly.octo.common.network.messages.mapTransferMessages.MapChunkRequestMessage;
 import curly.octo.common.network.messages.mapTransferMessages.MapTransferAllClientProgressMessage;
 import curly.octo.common.network.messages.mapTransferMessages.MapTransferBeginMessage;
 import curly.octo.common.network.messages.mapTransferMessages.MapTransferCompleteMessage;
@@ -45,8 +47,9 @@ public class NetworkMessageRegistry {
         registerMessage(kryo, MapTransferStartMessage.class);
         registerMessage(kryo, MapTransferBeginMessage.class);
         registerMessage(kryo, MapTransferCompleteMessage.class);
-        registerMessage(kryo, MapChunkMessage.class);
+        registerMessage(kryo, MapChunkMessage.class, new MapChunkMessage.ChunkSerializer());
         registerMessage(kryo, MapTransferAllClientProgressMessage.class);
+        registerMessage(kryo, MapChunkRequestMessage.class);
 
         // Map and game messages
         registerMessage(kryo, MapDataUpdate.class);
@@ -59,9 +62,10 @@ public class NetworkMessageRegistry {
         registerMessage(kryo, PlayerDisconnectUpdate.class);
         registerMessage(kryo, PlayerResetMessage.class);
         registerMessage(kryo, PlayerImpulseMessage.class);
+        registerMessage(kryo, WorldSnapshotMessage.class, new WorldSnapshotMessage.SnapshotSerializer());
 
         // Legacy player messages (not NetworkMessage types yet)
-        registerMessage(kryo, PlayerUpdate.class);
+        registerMessage(kryo, PlayerUpdate.class, new PlayerUpdate.UpdateSerializer());
         registerMessage(kryo, ClientStateChangeMessage.class);
         registerMessage(kryo, ClientIdentificationMessage.class);
     }
@@ -70,8 +74,19 @@ public class NetworkMessageRegistry {
      * Register a single message type with Kryo and track it.
      */
     private static void registerMessage(Kryo kryo, Class<?> messageClass) {
+        registerMessage(kryo, messageClass, null);
+    }
+
+    /**
+     * Register a single message type with a custom serializer (or Kryo's default when null).
+     */
+    private static <T> void registerMessage(Kryo kryo, Class<T> messageClass, Serializer<T> serializer) {
         try {
-            kryo.register(messageClass);
+            if (serializer != null) {
+                kryo.register(messageClass, serializer);
+            } else {
+                kryo.register(messageClass);
+            }
             if (NetworkMessage.class.isAssignableFrom(messageClass)) {
                 registeredMessages.add((Class<? extends NetworkMessage>) messageClass);
             }
@@ -13,6 +13,7 @@ import java.util.List;
 public class MapTransferPayload {
     /**
      * The game map containing terrain, tiles, and map hints.
+     * Left null in the bulk map transfer, which sends the map ahead of the payload in MapWireFormat.
      */
     public GameMap map;
 
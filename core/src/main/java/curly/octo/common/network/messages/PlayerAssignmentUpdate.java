@@ -4,13 +4,15 @@ import curly.octo.common.network.NetworkMessage;
 
 public class PlayerAssignmentUpdate extends NetworkMessage {
     public String playerId;
+    public int playerHandle;  // Small numeric ID standing in for playerId in gameplay traffic
 
     public PlayerAssignmentUpdate() {
         // Default constructor required for Kryo
     }
 
-    public PlayerAssignmentUpdate(String playerId) {
+    public PlayerAssignmentUpdate(String playerId, int playerHandle) {
         this.playerId = playerId;
+        this.playerHandle = playerHandle;
     }
 
 }
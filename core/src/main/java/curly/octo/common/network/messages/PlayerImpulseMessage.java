@@ -4,21 +4,21 @@ import com.badlogic.gdx.math.Vector3;
 import curly.octo.common.network.NetworkMessage;
 
 public class PlayerImpulseMessage extends NetworkMessage {
-    public String playerId;
+    public int playerHandle;  // Entity handle from PlayerAssignmentUpdate
     public float impulseX, impulseY, impulseZ;
 
     public PlayerImpulseMessage() {
     }
 
-    public PlayerImpulseMessage(String playerId, Vector3 impulse) {
-        this.playerId = playerId;
+    public PlayerImpulseMessage(int playerHandle, Vector3 impulse) {
+        this.playerHandle = playerHandle;
         this.impulseX = impulse.x;
         this.impulseY = impulse.y;
         this.impulseZ = impulse.z;
     }
 
-    public PlayerImpulseMessage(String playerId, float x, float y, float z) {
-        this.playerId = playerId;
+    public PlayerImpulseMessage(int playerHandle, float x, float y, float z) {
+        this.playerHandle = playerHandle;
         this.impulseX = x;
         this.impulseY = y;
         this.impulseZ = z;
@@ -1,31 +1,64 @@
 package curly.octo.common.network.messages;
 
 import com.badlogic.gdx.math.Vector3;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import curly.octo.common.network.NetworkMessage;
+import curly.octo.common.network.state.StateQuantizer;
 
+/**
+ * The sending client's own player state. The server knows which player a connection controls, so the
+ * update carries no player ID; position and angles are quantized with the quantizer of the newest world
+ * snapshot the client has, whose sequence number doubles as the acknowledgement for snapshot deltas.
+ */
 public class PlayerUpdate extends NetworkMessage {
-    public String playerId;
-    public float x, y, z;
-    public float yaw, pitch;
+    public int sequence;        // Increases with every update a client sends; the server drops older ones
+    public int ackedSnapshot;   // Newest WorldSnapshotMessage the client has decoded
+    public int quantizerId;     // StateQuantizer.getId() of the quantizer the values below use
+    public int x, y, z;
+    public int yaw, pitch;
 
     public PlayerUpdate() {
     }
 
-    public PlayerUpdate(String playerId, Vector3 position) {
-        this.playerId = playerId;
-        this.x = position.x;
-        this.y = position.y;
-        this.z = position.z;
-        this.yaw = 0f;
-        this.pitch = 0f;
+    public PlayerUpdate(int sequence, int ackedSnapshot, StateQuantizer quantizer, Vector3 position, float yaw, float pitch) {
+        this.sequence = sequence;
+        this.ackedSnapshot = ackedSnapshot;
+        this.quantizerId = quantizer.getId();
+        this.x = quantizer.quantize(StateQuantizer.X, position.x);
+        this.y = quantizer.quantize(StateQuantizer.Y, position.y);
+        this.z = quantizer.quantize(StateQuantizer.Z, position.z);
+        this.yaw = quantizer.quantize(StateQuantizer.YAW, yaw);
+        this.pitch = quantizer.quantize(StateQuantizer.PITCH, pitch);
     }
 
-    public PlayerUpdate(String playerId, Vector3 position, float yaw, float pitch) {
-        this.playerId = playerId;
-        this.x = position.x;
-        this.y = position.y;
-        this.z = position.z;
-        this.yaw = yaw;
-        this.pitch = pitch;
+    public static class UpdateSerializer extends Serializer<PlayerUpdate> {
+        @Override
+        public void write(Kryo kryo, Output output, PlayerUpdate update) {
+            output.writeVarInt(update.sequence, true);
+            output.writeVarInt(update.ackedSnapshot, true);
+            output.writeInt(update.quantizerId);
+            output.writeVarInt(update.x, true);
+            output.writeVarInt(update.y, true);
+            output.writeVarInt(update.z, true);
+            output.writeVarInt(update.yaw, true);
+            output.writeVarInt(update.pitch, true);
+        }
+
+        @Override
+        public PlayerUpdate read(Kryo kryo, Input input, Class<? extends PlayerUpdate> type) {
+            PlayerUpdate update = new PlayerUpdate();
+            update.sequence = input.readVarInt(true);
+            update.ackedSnapshot = input.readVarInt(true);
+            update.quantizerId = input.readInt();
+            update.x = input.readVarInt(true);
+            update.y = input.readVarInt(true);
+            update.z = input.readVarInt(true);
+            update.yaw = input.readVarInt(true);
+            update.pitch = input.readVarInt(true);
+            return update;
+        }
     }
 }
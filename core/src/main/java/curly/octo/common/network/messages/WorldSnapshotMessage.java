@@ -0,0 +1,74 @@
+package curly.octo.common.network.messages;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import curly.octo.common.network.NetworkMessage;
+
+/**
+ * State of every player, sent by the server to each client once per snapshot tick.
+ * Replaces relaying every PlayerUpdate to every other client as it arrives.
+ *
+ * The state is a StateDeltaCodec encoding, normally a delta against the newest snapshot the client has
+ * acknowledged in its PlayerUpdates. Snapshots arrive over UDP, so clients drop any with a sequence number
+ * not newer than the last one they applied, or whose baseline they no longer have.
+ */
+public class WorldSnapshotMessage extends NetworkMessage {
+
+    public static final int NO_BASELINE = -1;
+
+    public int sequence;
+    public int baselineSequence = NO_BASELINE;
+    public byte[] data;
+
+    public WorldSnapshotMessage() {
+    }
+
+    public WorldSnapshotMessage(int sequence, int baselineSequence, byte[] data) {
+        this.sequence = sequence;
+        this.baselineSequence = baselineSequence;
+        this.data = data;
+    }
+
+    public boolean hasBaseline() {
+        return baselineSequence != NO_BASELINE;
+    }
+
+    /**
+     * @return true if sequence {@code a} is newer than {@code b}, allowing for wrap-around
+     */
+    public static boolean isNewer(int a, int b) {
+        return a - b > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "WorldSnapshotMessage{sequence=" + sequence + ", baseline=" + baselineSequence +
+            ", bytes=" + (data != null ? data.length : 0) + "}";
+    }
+
+    /**
+     * Sends the baseline as a distance back from the sequence (0 for none), which fits in one byte.
+     */
+    public static class SnapshotSerializer extends Serializer<WorldSnapshotMessage> {
+        @Override
+        public void write(Kryo kryo, Output output, WorldSnapshotMessage message) {
+            output.writeVarInt(message.sequence, true);
+            output.writeVarInt(message.hasBaseline() ? message.sequence - message.baselineSequence : 0, true);
+            byte[] data = message.data != null ? message.data : new byte[0];
+            output.writeVarInt(data.length, true);
+            output.writeBytes(data);
+        }
+
+        @Override
+        public WorldSnapshotMessage read(Kryo kryo, Input input, Class<? extends WorldSnapshotMessage> type) {
+            WorldSnapshotMessage message = new WorldSnapshotMessage();
+            message.sequence = input.readVarInt(true);
+            int baselineDistance = input.readVarInt(true);
+            message.baselineSequence = baselineDistance != 0 ? message.sequence - baselineDistance : NO_BASELINE;
+            message.data = input.readBytes(input.readVarInt(true));
+            return message;
+        }
+    }
+}
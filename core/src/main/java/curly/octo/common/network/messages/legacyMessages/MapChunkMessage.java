@@ -1,7 +1,13 @@
 package curly.octo.common.network.messages.legacyMessages;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import curly.octo.common.network.NetworkMessage;
 
+import java.nio.ByteBuffer;
+
 /**
  * Message containing a chunk of map data for chunked map transfer.
  * Maps are broken into small chunks to avoid large network buffers.
@@ -10,7 +16,10 @@ public class MapChunkMessage extends NetworkMessage {
     public String mapId;          // Unique identifier for this map transfer
     public int chunkIndex;        // Index of this chunk (0-based)
     public int totalChunks;       // Total number of chunks for this map
-    public byte[] chunkData;      // The actual chunk data (max 8KB)
+    public byte[] chunkData;      // The actual chunk data (max 8KB), set on the receiving side
+
+    // Sending side: view into the shared transfer buffer, written straight into the connection's buffer
+    public transient ByteBuffer chunkSlice;
 
     // Required for Kryo serialization
     public MapChunkMessage() {}
@@ -22,9 +31,56 @@ public class MapChunkMessage extends NetworkMessage {
         this.chunkData = chunkData;
     }
 
+    public MapChunkMessage(String mapId, int chunkIndex, int totalChunks, ByteBuffer chunkSlice) {
+        this.mapId = mapId;
+        this.chunkIndex = chunkIndex;
+        this.totalChunks = totalChunks;
+        this.chunkSlice = chunkSlice;
+    }
+
+    public int getChunkLength() {
+        if (chunkSlice != null) {
+            return chunkSlice.remaining();
+        }
+        return chunkData != null ? chunkData.length : 0;
+    }
+
     @Override
     public String toString() {
         return "MapChunkMessage{mapId='" + mapId + "', chunk=" + chunkIndex + "/" + totalChunks +
-               ", size=" + (chunkData != null ? chunkData.length : 0) + " bytes}";
+               ", size=" + getChunkLength() + " bytes}";
+    }
+
+    /**
+     * Writes the slice's bytes without an intermediate array. Slices must be array-backed, which is why
+     * the server shares a plain wrapped buffer and only ever hands out duplicates of it.
+     */
+    public static class ChunkSerializer extends Serializer<MapChunkMessage> {
+        @Override
+        public void write(Kryo kryo, Output output, MapChunkMessage message) {
+            output.writeString(message.mapId);
+            output.writeVarInt(message.chunkIndex, true);
+            output.writeVarInt(message.totalChunks, true);
+
+            ByteBuffer slice = message.chunkSlice;
+            if (slice != null) {
+                output.writeVarInt(slice.remaining(), true);
+                output.writeBytes(slice.array(), slice.arrayOffset() + slice.position(), slice.remaining());
+            } else {
+                byte[] data = message.chunkData != null ? message.chunkData : new byte[0];
+                output.writeVarInt(data.length, true);
+                output.writeBytes(data);
+            }
+        }
+
+        @Override
+        public MapChunkMessage read(Kryo kryo, Input input, Class<? extends MapChunkMessage> type) {
+            MapChunkMessage message = new MapChunkMessage();
+            message.mapId = input.readString();
+            message.chunkIndex = input.readVarInt(true);
+            message.totalChunks = input.readVarInt(true);
+            message.chunkData = input.readBytes(input.readVarInt(true));
+            return message;
+        }
     }
 }
@@ -0,0 +1,26 @@
+package curly.octo.common.network.messages.mapTransferMessages;
+
+import curly.octo.common.network.NetworkMessage;
+
+/**
+ * Sent by a client after MapTransferBeginMessage when its map cache already holds part of the transfer.
+ * The server then sends only the listed chunks instead of all of them.
+ */
+public class MapChunkRequestMessage extends NetworkMessage {
+
+    public String mapId;          // Transfer the request applies to
+    public int[] chunkIndices;    // Chunks the client still needs, in the order to send them
+
+    public MapChunkRequestMessage() {}
+
+    public MapChunkRequestMessage(String mapId, int[] chunkIndices) {
+        this.mapId = mapId;
+        this.chunkIndices = chunkIndices;
+    }
+
+    @Override
+    public String toString() {
+        return "MapChunkRequestMessage{mapId='" + mapId + "', chunks=" +
+            (chunkIndices != null ? chunkIndices.length : 0) + "}";
+    }
+}
@@ -1,24 +1,36 @@
 package curly.octo.common.network.messages.mapTransferMessages;
 
+import curly.octo.common.network.MapTransferCompression;
 import curly.octo.common.network.NetworkMessage;
 
 public class MapTransferBeginMessage extends NetworkMessage {
 
     public String mapId;          // Unique identifier for this map transfer
     public int totalChunks;       // Total number of chunks to expect
-    public long totalSize;        // Total size of the map in bytes
+    public long totalSize;        // Total size of the transferred (possibly compressed) data in bytes
+    public int compression;       // MapTransferCompression codec applied to the chunk stream
+    public long uncompressedSize; // Size of the payload once decoded
+    public String contentHash;    // SHA-256 of the map's wire encoding without its ids, the client's cache key
+    public long[] chunkHashes;    // MapContentHash.chunkHash of every transferred chunk
 
     public MapTransferBeginMessage() {}
 
     public MapTransferBeginMessage(String mapId, int totalChunks, long totalSize) {
+        this(mapId, totalChunks, totalSize, MapTransferCompression.NONE, totalSize);
+    }
+
+    public MapTransferBeginMessage(String mapId, int totalChunks, long totalSize, int compression, long uncompressedSize) {
         this.mapId = mapId;
         this.totalChunks = totalChunks;
         this.totalSize = totalSize;
+        this.compression = compression;
+        this.uncompressedSize = uncompressedSize;
     }
 
     @Override
     public String toString() {
         return "MapTransferBeginMessage{mapId='" + mapId + "', totalChunks=" + totalChunks +
-            ", totalSize=" + totalSize + " bytes}";
+            ", totalSize=" + totalSize + " bytes, compression=" + MapTransferCompression.name(compression) +
+            ", uncompressedSize=" + uncompressedSize + " bytes, contentHash=" + contentHash + "}";
     }
 }
@@ -0,0 +1,71 @@
+package curly.octo.common.network.state;
+
+import com.esotericsoftware.kryo.KryoException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads values written by {@link BitWriter}.
+ */
+final class BitReader {
+
+    private final byte[] data;
+    private int position;
+    private long scratch;
+    private int scratchBits;
+
+    BitReader(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * @throws KryoException If the data ends first
+     */
+    int readBits(int count) {
+        if (count == 0) {
+            return 0;
+        }
+        while (scratchBits < count) {
+            if (position >= data.length) {
+                throw new KryoException("Truncated state data (" + data.length + " bytes)");
+            }
+            scratch |= (long) (data[position++] & 0xFF) << scratchBits;
+            scratchBits += 8;
+        }
+        int value = (int) (scratch & ((1L << count) - 1));
+        scratch >>>= count;
+        scratchBits -= count;
+        return value;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    int readUnsigned() {
+        int value = 0;
+        int shift = 0;
+        boolean more;
+        do {
+            if (shift >= 32) {
+                throw new KryoException("Malformed variable-length value in state data");
+            }
+            value |= readBits(4) << shift;
+            shift += 4;
+            more = readBit();
+        } while (more);
+        return value;
+    }
+
+    String readString() {
+        int length = readUnsigned();
+        if (length > data.length) {
+            throw new KryoException("String of " + length + " bytes exceeds the state data");
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) readBits(8);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,66 @@
+package curly.octo.common.network.state;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Appends values of arbitrary bit width to a growable byte array, least significant bit first.
+ */
+final class BitWriter {
+
+    private byte[] buffer = new byte[64];
+    private int length;
+    private long scratch;
+    private int scratchBits;
+
+    /**
+     * Writes the low {@code count} bits of the value (0 to 32).
+     */
+    void writeBits(int value, int count) {
+        if (count == 0) {
+            return;
+        }
+        scratch |= ((long) value & ((1L << count) - 1)) << scratchBits;
+        scratchBits += count;
+        while (scratchBits >= 8) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[length++] = (byte) scratch;
+            scratch >>>= 8;
+            scratchBits -= 8;
+        }
+    }
+
+    void writeBit(boolean value) {
+        writeBits(value ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes a non-negative value in 4-bit groups, each followed by a continuation bit.
+     */
+    void writeUnsigned(int value) {
+        do {
+            int group = value & 0xF;
+            value >>>= 4;
+            writeBits(group, 4);
+            writeBit(value != 0);
+        } while (value != 0);
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(bytes.length);
+        for (byte b : bytes) {
+            writeBits(b, 8);
+        }
+    }
+
+    byte[] toByteArray() {
+        byte[] result = Arrays.copyOf(buffer, length + (scratchBits > 0 ? 1 : 0));
+        if (scratchBits > 0) {
+            result[length] = (byte) scratch;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+package curly.octo.common.network.state;
+
+import java.util.Arrays;
+
+/**
+ * Quantized state of every player at one snapshot tick, ordered by entity handle.
+ *
+ * The server keeps the snapshots it sent to each client and the client keeps the ones it decoded, so
+ * either side can use one as the baseline of a later delta.
+ */
+public final class EntityStateSnapshot {
+
+    public final int sequence;
+    public final StateQuantizer quantizer;
+
+    private final int[] handles;
+    private final String[] entityIds;
+    private final int[] values;
+
+    /**
+     * @param handles   Entity handles in ascending order
+     * @param entityIds Entity ID of each handle
+     * @param values    {@link StateQuantizer#FIELD_COUNT} quantized values per entity
+     */
+    public EntityStateSnapshot(int sequence, StateQuantizer quantizer, int[] handles, String[] entityIds, int[] values) {
+        if (entityIds.length != handles.length || values.length != handles.length * StateQuantizer.FIELD_COUNT) {
+            throw new IllegalArgumentException("Snapshot arrays disagree on the entity count");
+        }
+        for (int i = 1; i < handles.length; i++) {
+            if (handles[i] <= handles[i - 1]) {
+                throw new IllegalArgumentException("Entity handles must be unique and ascending");
+            }
+        }
+        this.sequence = sequence;
+        this.quantizer = quantizer;
+        this.handles = handles;
+        this.entityIds = entityIds;
+        this.values = values;
+    }
+
+    public int size() {
+        return handles.length;
+    }
+
+    public int getHandle(int index) {
+        return handles[index];
+    }
+
+    public String getEntityId(int index) {
+        return entityIds[index];
+    }
+
+    public int getValue(int index, int field) {
+        return values[index * StateQuantizer.FIELD_COUNT + field];
+    }
+
+    /**
+     * @return The dequantized value of a field
+     */
+    public float getState(int index, int field) {
+        return quantizer.dequantize(field, getValue(index, field));
+    }
+
+    /**
+     * @return Index of the entity with this handle, or a negative value if absent
+     */
+    public int indexOf(int handle) {
+        return Arrays.binarySearch(handles, handle);
+    }
+
+    @Override
+    public String toString() {
+        return "EntityStateSnapshot{sequence=" + sequence + ", entities=" + handles.length + "}";
+    }
+}
@@ -0,0 +1,25 @@
+package curly.octo.common.network.state;
+
+/**
+ * The most recent snapshots by sequence number, for looking up delta baselines.
+ */
+public final class SnapshotHistory {
+
+    private final EntityStateSnapshot[] slots;
+
+    public SnapshotHistory(int capacity) {
+        this.slots = new EntityStateSnapshot[capacity];
+    }
+
+    public void put(EntityStateSnapshot snapshot) {
+        slots[Math.floorMod(snapshot.sequence, slots.length)] = snapshot;
+    }
+
+    /**
+     * @return The snapshot with this sequence number, or null if it was never stored or has been overwritten
+     */
+    public EntityStateSnapshot get(int sequence) {
+        EntityStateSnapshot snapshot = slots[Math.floorMod(sequence, slots.length)];
+        return snapshot != null && snapshot.sequence == sequence ? snapshot : null;
+    }
+}
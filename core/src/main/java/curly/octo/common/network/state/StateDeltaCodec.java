@@ -0,0 +1,257 @@
+package curly.octo.common.network.state;
+
+import com.esotericsoftware.kryo.KryoException;
+
+import java.util.Arrays;
+
+/**
+ * Bit-packed encoding of an {@link EntityStateSnapshot}, either in full or as a delta against a
+ * baseline snapshot the receiver has acknowledged.
+ *
+ * Layout:
+ * <pre>
+ * bit       1 = full snapshot, followed by the StateQuantizer parameters
+ * unsigned  removed count, then handle gaps of entities in the baseline but not this snapshot (delta only)
+ * unsigned  entry count, then per entry in handle order:
+ *             unsigned handle gap
+ *             bit   1 = not in the baseline: entity ID string and every field at full width (delta only;
+ *                   in a full snapshot every entry is new and the bit is omitted)
+ *             else  FIELD_COUNT-bit mask of changed fields, then per changed field:
+ *                   bit 0 + SMALL_DELTA_BITS zigzag delta, or bit 1 + the value at full width
+ * </pre>
+ * Entities whose quantized state matches the baseline are left out and copied from it when decoding.
+ * Deltas wrap at each field's width, so yaw crossing zero stays a small delta.
+ */
+public final class StateDeltaCodec {
+
+    private static final int SMALL_DELTA_BITS = 6;
+
+    private StateDeltaCodec() {}
+
+    /**
+     * @param baseline Snapshot the receiver already has, or null to encode in full. Must use the same
+     *                 quantizer as {@code current}.
+     */
+    public static byte[] encode(EntityStateSnapshot current, EntityStateSnapshot baseline) {
+        if (baseline != null && !baseline.quantizer.equals(current.quantizer)) {
+            throw new IllegalArgumentException("Baseline " + baseline.sequence + " uses a different quantizer");
+        }
+        StateQuantizer quantizer = current.quantizer;
+        BitWriter writer = new BitWriter();
+        boolean full = baseline == null;
+        writer.writeBit(full);
+
+        if (full) {
+            quantizer.write(writer);
+        } else {
+            writeRemoved(writer, current, baseline);
+        }
+
+        int[] entries = new int[current.size()];
+        int entryCount = 0;
+        for (int i = 0; i < current.size(); i++) {
+            int baseIndex = full ? -1 : baseline.indexOf(current.getHandle(i));
+            if (baseIndex < 0 || changedMask(current, i, baseline, baseIndex) != 0) {
+                entries[entryCount++] = i;
+            }
+        }
+
+        writer.writeUnsigned(entryCount);
+        int previousHandle = -1;
+        for (int e = 0; e < entryCount; e++) {
+            int i = entries[e];
+            int handle = current.getHandle(i);
+            writer.writeUnsigned(handle - previousHandle - 1);
+            previousHandle = handle;
+
+            int baseIndex = full ? -1 : baseline.indexOf(handle);
+            if (!full) {
+                writer.writeBit(baseIndex < 0);
+            }
+            if (baseIndex < 0) {
+                writer.writeString(current.getEntityId(i));
+                for (int field = 0; field < StateQuantizer.FIELD_COUNT; field++) {
+                    writer.writeBits(current.getValue(i, field), quantizer.getBits(field));
+                }
+                continue;
+            }
+
+            int mask = changedMask(current, i, baseline, baseIndex);
+            writer.writeBits(mask, StateQuantizer.FIELD_COUNT);
+            for (int field = 0; field < StateQuantizer.FIELD_COUNT; field++) {
+                if ((mask & (1 << field)) == 0) {
+                    continue;
+                }
+                int bits = quantizer.getBits(field);
+                int value = current.getValue(i, field);
+                int delta = signExtend(value - baseline.getValue(baseIndex, field), bits);
+                int zigzag = (delta << 1) ^ (delta >> 31);
+                if (zigzag >>> SMALL_DELTA_BITS == 0) {
+                    writer.writeBit(false);
+                    writer.writeBits(zigzag, SMALL_DELTA_BITS);
+                } else {
+                    writer.writeBit(true);
+                    writer.writeBits(value, bits);
+                }
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    private static void writeRemoved(BitWriter writer, EntityStateSnapshot current, EntityStateSnapshot baseline) {
+        int removedCount = 0;
+        for (int i = 0; i < baseline.size(); i++) {
+            if (current.indexOf(baseline.getHandle(i)) < 0) {
+                removedCount++;
+            }
+        }
+        writer.writeUnsigned(removedCount);
+        int previousHandle = -1;
+        for (int i = 0; i < baseline.size(); i++) {
+            int handle = baseline.getHandle(i);
+            if (current.indexOf(handle) < 0) {
+                writer.writeUnsigned(handle - previousHandle - 1);
+                previousHandle = handle;
+            }
+        }
+    }
+
+    private static int changedMask(EntityStateSnapshot current, int index, EntityStateSnapshot baseline, int baseIndex) {
+        int mask = 0;
+        for (int field = 0; field < StateQuantizer.FIELD_COUNT; field++) {
+            if (current.getValue(index, field) != baseline.getValue(baseIndex, field)) {
+                mask |= 1 << field;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @param baseline The snapshot the sender encoded against, or null if it was sent in full
+     * @throws KryoException If the data is corrupt or does not match the baseline
+     */
+    public static EntityStateSnapshot decode(int sequence, byte[] data, EntityStateSnapshot baseline) {
+        BitReader reader = new BitReader(data);
+        boolean full = reader.readBit();
+        if (!full && baseline == null) {
+            throw new KryoException("Snapshot " + sequence + " is a delta but no baseline was given");
+        }
+        StateQuantizer quantizer = full ? StateQuantizer.read(reader) : baseline.quantizer;
+        int maxCount = data.length * 8;
+
+        int[] removed = new int[0];
+        if (!full) {
+            removed = new int[checkCount(reader.readUnsigned(), maxCount)];
+            int handle = -1;
+            for (int r = 0; r < removed.length; r++) {
+                handle += reader.readUnsigned() + 1;
+                removed[r] = handle;
+            }
+        }
+
+        int entryCount = checkCount(reader.readUnsigned(), maxCount);
+        int[] entryHandles = new int[entryCount];
+        String[] entryIds = new String[entryCount];
+        int[] entryValues = new int[entryCount * StateQuantizer.FIELD_COUNT];
+        int handle = -1;
+        for (int e = 0; e < entryCount; e++) {
+            handle += reader.readUnsigned() + 1;
+            entryHandles[e] = handle;
+            int offset = e * StateQuantizer.FIELD_COUNT;
+
+            if (full || reader.readBit()) {
+                entryIds[e] = reader.readString();
+                for (int field = 0; field < StateQuantizer.FIELD_COUNT; field++) {
+                    entryValues[offset + field] = reader.readBits(quantizer.getBits(field));
+                }
+                continue;
+            }
+
+            int baseIndex = baseline.indexOf(handle);
+            if (baseIndex < 0) {
+                throw new KryoException("Snapshot " + sequence + " changes entity " + handle + " missing from baseline " + baseline.sequence);
+            }
+            entryIds[e] = baseline.getEntityId(baseIndex);
+            int mask = reader.readBits(StateQuantizer.FIELD_COUNT);
+            for (int field = 0; field < StateQuantizer.FIELD_COUNT; field++) {
+                int bits = quantizer.getBits(field);
+                int base = baseline.getValue(baseIndex, field);
+                if ((mask & (1 << field)) == 0) {
+                    entryValues[offset + field] = base;
+                } else if (!reader.readBit()) {
+                    int zigzag = reader.readBits(SMALL_DELTA_BITS);
+                    int delta = (zigzag >>> 1) ^ -(zigzag & 1);
+                    entryValues[offset + field] = (base + delta) & (int) ((1L << bits) - 1);
+                } else {
+                    entryValues[offset + field] = reader.readBits(bits);
+                }
+            }
+        }
+
+        return full
+            ? new EntityStateSnapshot(sequence, quantizer, entryHandles, entryIds, entryValues)
+            : merge(sequence, baseline, removed, entryHandles, entryIds, entryValues);
+    }
+
+    /**
+     * Combines the baseline entities that were neither removed nor changed with the decoded entries.
+     */
+    private static EntityStateSnapshot merge(int sequence, EntityStateSnapshot baseline, int[] removed,
+                                             int[] entryHandles, String[] entryIds, int[] entryValues) {
+        int capacity = baseline.size() + entryHandles.length;
+        int[] handles = new int[capacity];
+        String[] ids = new String[capacity];
+        int[] values = new int[capacity * StateQuantizer.FIELD_COUNT];
+        int count = 0;
+
+        int b = 0, e = 0, r = 0;
+        while (b < baseline.size() || e < entryHandles.length) {
+            int baseHandle = b < baseline.size() ? baseline.getHandle(b) : Integer.MAX_VALUE;
+            int entryHandle = e < entryHandles.length ? entryHandles[e] : Integer.MAX_VALUE;
+            if (entryHandle <= baseHandle) {
+                handles[count] = entryHandle;
+                ids[count] = entryIds[e];
+                System.arraycopy(entryValues, e * StateQuantizer.FIELD_COUNT, values, count * StateQuantizer.FIELD_COUNT, StateQuantizer.FIELD_COUNT);
+                count++;
+                e++;
+                if (entryHandle == baseHandle) {
+                    b++;
+                }
+                continue;
+            }
+            while (r < removed.length && removed[r] < baseHandle) {
+                r++;
+            }
+            if (r < removed.length && removed[r] == baseHandle) {
+                b++;
+                continue;
+            }
+            handles[count] = baseHandle;
+            ids[count] = baseline.getEntityId(b);
+            for (int field = 0; field < StateQuantizer.FIELD_COUNT; field++) {
+                values[count * StateQuantizer.FIELD_COUNT + field] = baseline.getValue(b, field);
+            }
+            count++;
+            b++;
+        }
+
+        if (count < capacity) {
+            handles = Arrays.copyOf(handles, count);
+            ids = Arrays.copyOf(ids, count);
+            values = Arrays.copyOf(values, count * StateQuantizer.FIELD_COUNT);
+        }
+        return new EntityStateSnapshot(sequence, baseline.quantizer, handles, ids, values);
+    }
+
+    private static int checkCount(int count, int max) {
+        if (count < 0 || count > max) {
+            throw new KryoException("Entity count " + count + " exceeds what the state data can hold");
+        }
+        return count;
+    }
+
+    private static int signExtend(int value, int bits) {
+        int shift = 32 - bits;
+        return (value << shift) >> shift;
+    }
+}
@@ -0,0 +1,172 @@
+package curly.octo.common.network.state;
+
+import com.badlogic.gdx.math.Vector3;
+import com.esotericsoftware.kryo.KryoException;
+import curly.octo.common.Constants;
+import curly.octo.common.map.ChunkManager;
+import curly.octo.common.map.GameMap;
+
+/**
+ * Maps player state onto small integers for the network.
+ *
+ * Positions are stored in steps of {@link Constants#NETWORK_POSITION_QUANTUM} from the low corner of the
+ * map bounds, using only as many bits per axis as the map needs. Yaw wraps around a full turn and pitch
+ * covers straight down to straight up. Both ends of a connection must use the same quantizer; the server
+ * sends its parameters with every snapshot that is not a delta, and tags player updates with {@link #getId()}.
+ */
+public final class StateQuantizer {
+
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int Z = 2;
+    public static final int YAW = 3;
+    public static final int PITCH = 4;
+    public static final int FIELD_COUNT = 5;
+
+    private static final int YAW_BITS = 12;   // ~0.09 degrees
+    private static final int PITCH_BITS = 11; // ~0.09 degrees
+    private static final int MAX_POSITION_BITS = 24;
+    private static final int POSITION_BITS_WIDTH = 5; // bits needed to send a position bit count
+
+    private final float[] origin = new float[3];
+    private final int[] bits = new int[FIELD_COUNT];
+    private final int id;
+
+    private StateQuantizer(float originX, float originY, float originZ, int bitsX, int bitsY, int bitsZ) {
+        origin[X] = originX;
+        origin[Y] = originY;
+        origin[Z] = originZ;
+        bits[X] = bitsX;
+        bits[Y] = bitsY;
+        bits[Z] = bitsZ;
+        bits[YAW] = YAW_BITS;
+        bits[PITCH] = PITCH_BITS;
+
+        int hash = 17;
+        for (int axis = X; axis <= Z; axis++) {
+            hash = hash * 31 + Float.floatToIntBits(origin[axis]);
+            hash = hash * 31 + bits[axis];
+        }
+        this.id = hash;
+    }
+
+    /**
+     * Covers the world-space box between the two corners, widened by a margin for players above or
+     * beside the outermost tiles.
+     */
+    public static StateQuantizer forBounds(Vector3 min, Vector3 max) {
+        float margin = Constants.NETWORK_POSITION_BOUNDS_MARGIN_TILES * Constants.MAP_TILE_SIZE;
+        return new StateQuantizer(min.x - margin, min.y - margin, min.z - margin,
+            bitsFor(max.x - min.x + 2 * margin), bitsFor(max.y - min.y + 2 * margin), bitsFor(max.z - min.z + 2 * margin));
+    }
+
+    /**
+     * Covers the tile bounds of the map as computed by {@link ChunkManager}.
+     */
+    public static StateQuantizer forMap(GameMap map) {
+        ChunkManager chunkManager = new ChunkManager(map);
+        Vector3 min = chunkManager.getMinWorldCoords().scl(Constants.MAP_TILE_SIZE);
+        Vector3 max = chunkManager.getMaxWorldCoords().add(1, 1, 1).scl(Constants.MAP_TILE_SIZE);
+        return forBounds(min, max);
+    }
+
+    private static int bitsFor(float extent) {
+        long steps = (long) Math.ceil(extent / Constants.NETWORK_POSITION_QUANTUM) + 1;
+        int bitCount = 64 - Long.numberOfLeadingZeros(Math.max(1, steps - 1));
+        return Math.min(MAX_POSITION_BITS, Math.max(1, bitCount));
+    }
+
+    /**
+     * @return The quantized value, clamped to the field's range
+     */
+    public int quantize(int field, float value) {
+        int max = (1 << bits[field]) - 1;
+        switch (field) {
+            case YAW:
+                float turns = (value % 360f) / 360f;
+                if (turns < 0f) {
+                    turns += 1f;
+                }
+                return Math.round(turns * (1 << bits[field])) & max;
+            case PITCH:
+                float pitch = Math.max(-90f, Math.min(90f, value));
+                return Math.round((pitch + 90f) / 180f * max);
+            default:
+                long steps = Math.round((value - origin[field]) / Constants.NETWORK_POSITION_QUANTUM);
+                return (int) Math.max(0, Math.min(max, steps));
+        }
+    }
+
+    public float dequantize(int field, int quantized) {
+        switch (field) {
+            case YAW:
+                return quantized * 360f / (1 << bits[field]);
+            case PITCH:
+                return quantized * 180f / ((1 << bits[field]) - 1) - 90f;
+            default:
+                return origin[field] + quantized * Constants.NETWORK_POSITION_QUANTUM;
+        }
+    }
+
+    /**
+     * @return Number of bits a quantized value of this field occupies
+     */
+    public int getBits(int field) {
+        return bits[field];
+    }
+
+    /**
+     * @return Hash of the parameters, used to recognise updates quantized against a different map
+     */
+    public int getId() {
+        return id;
+    }
+
+    void write(BitWriter writer) {
+        for (int axis = X; axis <= Z; axis++) {
+            writer.writeBits(Float.floatToIntBits(origin[axis]), 32);
+            writer.writeBits(bits[axis], POSITION_BITS_WIDTH);
+        }
+    }
+
+    static StateQuantizer read(BitReader reader) {
+        float[] readOrigin = new float[3];
+        int[] readBits = new int[3];
+        for (int axis = X; axis <= Z; axis++) {
+            readOrigin[axis] = Float.intBitsToFloat(reader.readBits(32));
+            readBits[axis] = reader.readBits(POSITION_BITS_WIDTH);
+            if (readBits[axis] < 1 || readBits[axis] > MAX_POSITION_BITS) {
+                throw new KryoException("Invalid position bit count " + readBits[axis]);
+            }
+        }
+        return new StateQuantizer(readOrigin[X], readOrigin[Y], readOrigin[Z], readBits[X], readBits[Y], readBits[Z]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StateQuantizer)) {
+            return false;
+        }
+        StateQuantizer other = (StateQuantizer) o;
+        for (int axis = X; axis <= Z; axis++) {
+            if (Float.floatToIntBits(origin[axis]) != Float.floatToIntBits(other.origin[axis]) || bits[axis] != other.bits[axis]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "StateQuantizer{origin=(" + origin[X] + ", " + origin[Y] + ", " + origin[Z] + "), bits=(" +
+            bits[X] + ", " + bits[Y] + ", " + bits[Z] + ")}";
+    }
+}
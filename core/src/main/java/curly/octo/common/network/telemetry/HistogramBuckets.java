@@ -0,0 +1,66 @@
+package curly.octo.common.network.telemetry;
+
+import java.util.function.IntToLongFunction;
+
+/**
+ * Bucket layout shared by the fixed-size histograms (network telemetry's ValueHistogram and the tick
+ * profiler's LatencyHistogram): exact below 16, then eight log-linear buckets per power of two (about
+ * 12% resolution) up to Long.MAX_VALUE. Each histogram keeps its own counters.
+ */
+public final class HistogramBuckets {
+
+    private static final int LINEAR_LIMIT = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Counters a histogram needs to cover every non-negative long */
+    public static final int COUNT = LINEAR_LIMIT + (63 - 4) * SUB_BUCKETS;
+
+    private HistogramBuckets() {}
+
+    /**
+     * @return Bucket holding a non-negative value
+     */
+    public static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return Largest value that falls in the bucket
+     */
+    public static long bucketUpper(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        long base = 1L << exponent;
+        return base + (sub + 1) * (base >> SUB_BUCKET_BITS) - 1;
+    }
+
+    /**
+     * @param countOf Samples in each bucket
+     * @param samples Total samples, 0 when empty
+     * @param max Largest sample, which caps the result
+     * @return Approximate value at the percentile (0-100), 0 when empty
+     */
+    public static long percentile(IntToLongFunction countOf, long samples, long max, double percentile) {
+        if (samples == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * samples));
+        long seen = 0;
+        for (int bucket = 0; bucket < COUNT; bucket++) {
+            seen += countOf.applyAsLong(bucket);
+            if (seen >= rank) {
+                return Math.min(bucketUpper(bucket), max);
+            }
+        }
+        return max;
+    }
+}
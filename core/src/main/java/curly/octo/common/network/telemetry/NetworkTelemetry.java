@@ -0,0 +1,253 @@
+package curly.octo.common.network.telemetry;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.minlog.Log;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms for one network endpoint (the client, or every match on a server host):
+ * <ul>
+ *     <li>messages and bytes sent per message class, and how long each send took to serialize into the
+ *     connection's write buffer</li>
+ *     <li>messages and bytes received per message class, and how long they waited for the tick that
+ *     handled them</li>
+ *     <li>TCP write buffer occupancy and round trip time per gameplay connection, and write buffer occupancy
+ *     per bulk transfer connection. The two servers number their connections independently, so each kind
+ *     is kept apart.</li>
+ * </ul>
+ * Every method is safe to call from any thread and recording does not allocate once a message class or
+ * connection has been seen. {@link #reportIfDue()} logs everything as one JSON document per interval
+ * and starts new histograms; {@link #toJson()} gives the same document on demand.
+ */
+public class NetworkTelemetry {
+
+    private final String name;
+    private final long reportIntervalNanos;
+    private final Map<Class<?>, MessageStats> sent = new ConcurrentHashMap<>();
+    private final Map<Class<?>, MessageStats> received = new ConcurrentHashMap<>();
+    private final Map<Integer, ConnectionStats> connections = new ConcurrentHashMap<>(); // Gameplay connection id ->
+    private final Map<Integer, ConnectionStats> bulkConnections = new ConcurrentHashMap<>(); // Bulk connection id ->
+    private final AtomicLong lastReportNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param name Names the endpoint in reports
+     */
+    public NetworkTelemetry(String name, long reportIntervalNanos) {
+        this.name = name;
+        this.reportIntervalNanos = reportIntervalNanos;
+    }
+
+    /**
+     * Sends over TCP and records the message.
+     *
+     * @return Bytes written, as reported by KryoNet (0 if the connection is closed)
+     */
+    public int sendTCP(Connection connection, Object message) {
+        long start = System.nanoTime();
+        int bytes = connection.sendTCP(message);
+        recordSent(message.getClass(), bytes, System.nanoTime() - start);
+        return bytes;
+    }
+
+    /**
+     * Sends over UDP and records the message.
+     *
+     * @return Bytes written, as reported by KryoNet (0 if the connection is closed)
+     */
+    public int sendUDP(Connection connection, Object message) {
+        long start = System.nanoTime();
+        int bytes = connection.sendUDP(message);
+        recordSent(message.getClass(), bytes, System.nanoTime() - start);
+        return bytes;
+    }
+
+    public void recordSent(Class<?> messageType, int bytes, long sendNanos) {
+        MessageStats stats = stats(sent, messageType);
+        stats.messages.increment();
+        stats.bytes.add(bytes);
+        stats.sizes.record(bytes);
+        stats.micros.record(sendNanos / 1_000);
+    }
+
+    /**
+     * Records a message as it is read on the network thread (see {@link TelemetrySerialization}).
+     */
+    public void recordReceived(Class<?> messageType, int bytes) {
+        MessageStats stats = stats(received, messageType);
+        stats.messages.increment();
+        stats.bytes.add(bytes);
+        stats.sizes.record(bytes);
+    }
+
+    /**
+     * Records how long a received message waited between arriving and being handled.
+     */
+    public void recordHandled(Class<?> messageType, long queuedNanos) {
+        stats(received, messageType).micros.record(queuedNanos / 1_000);
+    }
+
+    private static MessageStats stats(Map<Class<?>, MessageStats> byType, Class<?> messageType) {
+        MessageStats stats = byType.get(messageType);
+        return stats != null ? stats : byType.computeIfAbsent(messageType, type -> new MessageStats());
+    }
+
+    /**
+     * Records a gameplay connection's current TCP write buffer occupancy and round trip time, and asks
+     * KryoNet to measure the round trip time again for the next sample.
+     */
+    public void sampleConnection(Connection connection) {
+        if (!connection.isConnected()) {
+            return;
+        }
+        ConnectionStats stats = connectionStats(connections, connection);
+        stats.recordWriteBuffer(connection.getTcpWriteBufferSize());
+        int returnTripTime = connection.getReturnTripTime();
+        if (returnTripTime > 0) {
+            stats.returnTripMillis.record(returnTripTime);
+        }
+        connection.updateReturnTripTime();
+    }
+
+    /**
+     * Records TCP write buffer occupancy of a bulk transfer connection, as seen by the map transfer's
+     * flow control.
+     */
+    public void recordBulkWriteBuffer(Connection bulkConnection, int pendingBytes) {
+        connectionStats(bulkConnections, bulkConnection).recordWriteBuffer(pendingBytes);
+    }
+
+    private static ConnectionStats connectionStats(Map<Integer, ConnectionStats> byId, Connection connection) {
+        ConnectionStats stats = byId.get(connection.getID());
+        return stats != null ? stats : byId.computeIfAbsent(connection.getID(), id -> new ConnectionStats());
+    }
+
+    /**
+     * Drops a closed gameplay connection's statistics.
+     */
+    public void removeConnection(Connection connection) {
+        connections.remove(connection.getID());
+    }
+
+    /**
+     * Drops a closed bulk transfer connection's statistics.
+     */
+    public void removeBulkConnection(Connection bulkConnection) {
+        bulkConnections.remove(bulkConnection.getID());
+    }
+
+    /**
+     * Logs {@link #toJson()} and starts new histograms once per report interval.
+     */
+    public void reportIfDue() {
+        long now = System.nanoTime();
+        long last = lastReportNanos.get();
+        if (now - last < reportIntervalNanos || !lastReportNanos.compareAndSet(last, now)) {
+            return;
+        }
+        Log.info("NetworkTelemetry", toJson(now - last));
+        for (MessageStats stats : sent.values()) {
+            stats.reset();
+        }
+        for (MessageStats stats : received.values()) {
+            stats.reset();
+        }
+        for (ConnectionStats stats : connections.values()) {
+            stats.reset();
+        }
+        for (ConnectionStats stats : bulkConnections.values()) {
+            stats.reset();
+        }
+    }
+
+    /**
+     * @return Totals since startup and histograms since the last report, as JSON: sent and received
+     * statistics by message class (sizes in bytes, send and queue times in microseconds) and statistics
+     * by gameplay and bulk connection id (write buffer in bytes, round trip time in milliseconds)
+     */
+    public String toJson() {
+        return toJson(System.nanoTime() - lastReportNanos.get());
+    }
+
+    private String toJson(long intervalNanos) {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"endpoint\":\"").append(name).append("\",\"intervalMs\":").append(intervalNanos / 1_000_000);
+
+        json.append(",\"sent\":{");
+        appendMessages(json, sent, true);
+        json.append("},\"received\":{");
+        appendMessages(json, received, false);
+
+        json.append("},\"connections\":{");
+        appendConnections(json, connections, true);
+        json.append("},\"bulkConnections\":{");
+        appendConnections(json, bulkConnections, false);
+        return json.append("}}").toString();
+    }
+
+    private static void appendConnections(StringBuilder json, Map<Integer, ConnectionStats> byId, boolean withRtt) {
+        boolean first = true;
+        for (Map.Entry<Integer, ConnectionStats> entry : new TreeMap<>(byId).entrySet()) {
+            ConnectionStats stats = entry.getValue();
+            json.append(first ? "" : ",").append('"').append(entry.getKey()).append("\":{\"writeBufferBytes\":")
+                .append(stats.lastWriteBufferBytes).append(",\"writeBuffer\":");
+            stats.writeBufferBytes.appendJson(json);
+            if (withRtt) {
+                json.append(",\"rttMs\":");
+                stats.returnTripMillis.appendJson(json);
+            }
+            json.append('}');
+            first = false;
+        }
+    }
+
+    private static void appendMessages(StringBuilder json, Map<Class<?>, MessageStats> byType, boolean outbound) {
+        TreeMap<String, MessageStats> sorted = new TreeMap<>();
+        for (Map.Entry<Class<?>, MessageStats> entry : byType.entrySet()) {
+            sorted.put(entry.getKey().getSimpleName(), entry.getValue());
+        }
+        boolean first = true;
+        for (Map.Entry<String, MessageStats> entry : sorted.entrySet()) {
+            MessageStats stats = entry.getValue();
+            json.append(first ? "" : ",").append('"').append(entry.getKey()).append("\":{\"messages\":")
+                .append(stats.messages.sum()).append(",\"bytes\":").append(stats.bytes.sum()).append(",\"size\":");
+            stats.sizes.appendJson(json);
+            json.append(outbound ? ",\"sendUs\":" : ",\"queuedUs\":");
+            stats.micros.appendJson(json);
+            json.append('}');
+            first = false;
+        }
+    }
+
+    private static class MessageStats {
+        final LongAdder messages = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final ValueHistogram sizes = new ValueHistogram();
+        final ValueHistogram micros = new ValueHistogram(); // Send time, or time queued before handling
+
+        void reset() {
+            sizes.reset();
+            micros.reset();
+        }
+    }
+
+    private static class ConnectionStats {
+        final ValueHistogram writeBufferBytes = new ValueHistogram();
+        final ValueHistogram returnTripMillis = new ValueHistogram(); // Gameplay connections only
+        volatile int lastWriteBufferBytes;
+
+        void recordWriteBuffer(int pendingBytes) {
+            writeBufferBytes.record(pendingBytes);
+            lastWriteBufferBytes = pendingBytes;
+        }
+
+        void reset() {
+            writeBufferBytes.reset();
+            returnTripMillis.reset();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package curly.octo.common.network.telemetry;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.serialization.KryoSerialization;
+import curly.octo.common.network.NetworkMessage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * KryoNet serialization that records every NetworkMessage it reads, with its size. KryoNet hands listeners
+ * only the decoded object, so this is the one place the received size is known.
+ *
+ * Sizes exclude KryoNet's length prefix. Framework messages (keep alives, pings) are not recorded, matching
+ * what {@link NetworkTelemetry#sendTCP} sees on the sending side.
+ */
+public class TelemetrySerialization extends KryoSerialization {
+
+    private final NetworkTelemetry telemetry;
+
+    public TelemetrySerialization(NetworkTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    @Override
+    public synchronized Object read(Connection connection, ByteBuffer buffer) {
+        int start = buffer.position();
+        Object object = super.read(connection, buffer);
+        if (object instanceof NetworkMessage) {
+            telemetry.recordReceived(object.getClass(), buffer.position() - start);
+        }
+        return object;
+    }
+}
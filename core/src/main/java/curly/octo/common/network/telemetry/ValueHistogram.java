@@ -0,0 +1,74 @@
+package curly.octo.common.network.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size histogram of non-negative values in whatever unit the caller records (microseconds, bytes,
+ * milliseconds), bucketed as described in {@link HistogramBuckets}.
+ *
+ * Unlike the tick profiler's LatencyHistogram this one is recorded from several threads at once, so every
+ * bucket is an atomic counter. Recording never allocates or locks.
+ */
+public final class ValueHistogram {
+
+    private final AtomicLongArray counts = new AtomicLongArray(HistogramBuckets.COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(HistogramBuckets.bucketOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * @return Approximate value at the percentile (0-100), 0 when empty. Samples recorded while this runs
+     * may or may not be counted.
+     */
+    public long percentile(double percentile) {
+        return HistogramBuckets.percentile(counts::get, count.get(), max.get(), percentile);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        long samples = count.get();
+        return samples > 0 ? total.get() / samples : 0;
+    }
+
+    /**
+     * Starts a new interval. Samples recorded concurrently may land in either interval.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < HistogramBuckets.COUNT; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Appends {"count":..,"mean":..,"p50":..,"p99":..,"max":..}.
+     */
+    void appendJson(StringBuilder json) {
+        json.append("{\"count\":").append(getCount())
+            .append(",\"mean\":").append(getMean())
+            .append(",\"p50\":").append(percentile(50))
+            .append(",\"p99\":").append(percentile(99))
+            .append(",\"max\":").append(getMax())
+            .append('}');
+    }
+}
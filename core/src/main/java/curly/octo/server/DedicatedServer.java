@@ -0,0 +1,104 @@
+package curly.octo.server;
+
+import curly.octo.common.Constants;
+import curly.octo.server.tick.TickProfiler;
+import curly.octo.server.tick.TickScheduler;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The server on its own: a MatchHost with its gameplay and bulk transfer servers and the matches running on
+ * it, without a window, GL context, local client or Bullet world.
+ * Server maps are generated without physics, so nothing here needs native graphics or physics libraries.
+ *
+ * HostedGameMode runs a single-match one alongside a client connected to localhost; the headless launcher
+ * runs a multi-match one by itself.
+ */
+public class DedicatedServer {
+
+    private final MatchHost host;
+    private final boolean singleMatch;
+    private volatile boolean started = false;
+
+    /**
+     * Creates a server running exactly one match that every client joins.
+     */
+    public DedicatedServer(Random random) {
+        this.host = new MatchHost(random, 1, Integer.MAX_VALUE, 0);
+        this.singleMatch = true;
+    }
+
+    /**
+     * Creates a server that starts matches on demand as clients identify.
+     *
+     * @param workerThreads Threads ticking matches in parallel
+     */
+    public DedicatedServer(Random random, int maxMatches, int maxPlayersPerMatch, int workerThreads) {
+        this.host = new MatchHost(random, maxMatches, maxPlayersPerMatch, workerThreads);
+        this.singleMatch = false;
+    }
+
+    /**
+     * Binds the gameplay and bulk transfer ports. A single-match server creates its match here.
+     *
+     * @throws IOException If the server fails to bind its ports
+     */
+    public void start() throws IOException {
+        if (singleMatch) {
+            host.createMatch();
+        }
+        host.start();
+        started = true;
+    }
+
+    /**
+     * Runs one server tick of every match.
+     */
+    public void update(float deltaTime) {
+        if (started) {
+            host.update(deltaTime);
+        }
+    }
+
+    /**
+     * Runs fixed-step ticks on the calling thread until {@code running} returns false or the thread is interrupted.
+     */
+    public void runTicks(BooleanSupplier running) {
+        TickScheduler scheduler = new TickScheduler(Constants.GAME_FRAME_TIME_NS, Constants.SERVER_TICK_MAX_CATCH_UP,
+            Constants.SERVER_TICK_WAKE_MARGIN_NS, getTickProfiler());
+        scheduler.run(this::update, running);
+    }
+
+    /**
+     * Stops both servers, removes port forwarding rules and disposes the matches. Safe to call more than once.
+     */
+    public void stop() {
+        if (started) {
+            started = false;
+            host.stop();
+        }
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * @return The GameServer of the first match, the only one on a single-match server; null if there is none
+     */
+    public GameServer getGameServer() {
+        List<ServerMatch> matches = host.getMatches();
+        return matches.isEmpty() ? null : matches.get(0).getGameServer();
+    }
+
+    public MatchHost getMatchHost() {
+        return host;
+    }
+
+    public TickProfiler getTickProfiler() {
+        return host.getTickProfiler();
+    }
+}
@@ -2,6 +2,7 @@ package curly.octo.server;
 
 import curly.octo.common.Constants;
 import com.badlogic.gdx.math.Vector3;
+import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.kryonet.Server;
 import com.esotericsoftware.minlog.Log;
@@ -9,7 +10,7 @@ import curly.octo.common.network.messages.*;
 import curly.octo.server.playerManagement.ClientConnectionKey;
 import curly.octo.server.playerManagement.ClientProfile;
 import curly.octo.server.playerManagement.ClientUniqueId;
-import curly.octo.server.serverStates.ServerStateManager;
+import curly.octo.server.serverStates.BaseGameStateServer;
 import curly.octo.server.playerManagement.ConnectionStatus;
 import curly.octo.server.serverStates.mapTransfer.ServerMapTransferState;
 import curly.octo.common.map.GameMap;
@@ -18,67 +19,120 @@ import curly.octo.common.map.hints.MapHint;
 import curly.octo.common.map.hints.SpawnPointHint;
 import curly.octo.common.network.KryoNetwork;
 import curly.octo.common.network.NetworkManager;
+import curly.octo.common.network.telemetry.NetworkTelemetry;
 import curly.octo.common.network.messages.legacyMessages.MapRegenerationStartMessage;
 import curly.octo.common.network.messages.legacyMessages.ClientReadyForMapMessage;
+import curly.octo.common.network.messages.mapTransferMessages.MapChunkRequestMessage;
+import curly.octo.common.network.state.EntityStateSnapshot;
+import curly.octo.common.network.state.SnapshotHistory;
+import curly.octo.common.network.state.StateDeltaCodec;
+import curly.octo.common.network.state.StateQuantizer;
+import curly.octo.server.interest.InterestManager;
+import curly.octo.server.interest.SnapshotInterestFilter;
 import curly.octo.common.PlayerObject;
 import curly.octo.common.PlayerUtilities;
 import curly.octo.server.workflows.BulkTransferServer;
+import curly.octo.server.workflows.MapPreparationPipeline;
+import curly.octo.server.workflows.PreparedMap;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Handles server-side network operations.
+ * Handles server-side network operations for one match.
+ * The KryoNet servers belong to the MatchHost; this match only sees the gameplay connections routed to it.
  */
 public class GameServer {
-    private final Server server;  // Gameplay connection (small buffers)
-    private final BulkTransferServer bulkServer;  // Map transfer connection (large buffers)
-
-    private final NetworkListener networkListener;
+    private final Server server;  // Gameplay connection (small buffers), shared by every match on the host
+    private final BulkTransferServer bulkServer;  // Map transfer connection (large buffers), shared likewise
+    private final MapPreparationPipeline mapPreparation; // Upcoming maps, shared likewise
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet(); // Gameplay connections routed to this match
+    private final NetworkManager networkManager;
+    private final NetworkTelemetry telemetry; // Shared by every match on the host
+    private final Kryo payloadKryo = new Kryo(); // The servers' Kryo belongs to their update threads
     private final ServerGameObjectManager gameObjectManager;
     private final ServerCoordinator serverCoordinator;
-    private final Map<Integer, String> connectionToPlayerMap = new HashMap<>();
-    private final Set<Integer> readyClients = new HashSet<>(); // Track clients that have received map and assignment
+    private final Map<Integer, String> connectionToPlayerMap = new ConcurrentHashMap<>(); // Read by the snapshot tick
+    private final Set<Integer> readyClients = ConcurrentHashMap.newKeySet(); // Clients that have received map and assignment; read by the snapshot tick
+    private final Map<Integer, Integer> lastPlayerUpdateSequence = new ConcurrentHashMap<>(); // connectionId -> newest PlayerUpdate applied
+    private final Map<String, Integer> playerHandles = new ConcurrentHashMap<>(); // playerId -> handle sent in PlayerAssignmentUpdate
+    private final AtomicInteger nextPlayerHandle = new AtomicInteger();
+    private final Map<Integer, SnapshotHistory> sentSnapshots = new ConcurrentHashMap<>(); // connectionId -> delta baselines
+    private final Map<Integer, Integer> lastAckedSnapshot = new ConcurrentHashMap<>(); // connectionId -> newest snapshot acknowledged
+    private GameMap quantizedMap;
+    private StateQuantizer stateQuantizer;
+    private final Vector3 updatePosition = new Vector3(); // Scratch for handlePlayerUpdate (tick thread only)
 
     // Map regeneration state tracking
     private volatile boolean isRegenerating = false;
+    private volatile CompletableFuture<PreparedMap> pendingMap; // Installed by the tick once the pipeline completes it
+    private int rejectedMaps; // Prepared maps this regeneration discarded for failing validation
     private long currentRegenerationId = 0;
     private final Set<Integer> clientsReadyForMap = new HashSet<>();
-    private Thread regenerationThread;
 
     // Initial generation player assignment tracking
     private final Map<Integer, String> pendingPlayerAssignments = new ConcurrentHashMap<>();
 
-    // Chunked map transfer support
-    private final Map<String, byte[]> serializedMaps = new ConcurrentHashMap<>(); // Cache serialized maps
-
 
-    public GameServer(Random random, ServerGameObjectManager gameObjectManager, ServerCoordinator serverCoordinator) {
+    public GameServer(Random random, ServerGameObjectManager gameObjectManager, ServerCoordinator serverCoordinator, MatchHost host) {
         this.gameObjectManager = gameObjectManager;
         this.serverCoordinator = serverCoordinator;
+        this.server = host.getServer();
+        this.bulkServer = host.getBulkServer();
+        this.mapPreparation = host.getMapPreparation();
+
+        KryoNetwork.register(payloadKryo);
+        // Handlers run on the tick thread when ServerCoordinator drains the manager
+        this.telemetry = host.getTelemetry();
+        networkManager = new NetworkManager(server, connections, telemetry);
+        networkManager.coalesce(PlayerUpdate.class, (newer, older) -> WorldSnapshotMessage.isNewer(newer.sequence, older.sequence));
+        networkManager.onReceive(PlayerUpdate.class, this::handlePlayerUpdate);
+        networkManager.onReceive(ClientStateChangeMessage.class, this::handleClientStateChangeMessage);
+        networkManager.onReceive(ClientIdentificationMessage.class, this::handleClientIdentification);
+        networkManager.onReceive(MapChunkRequestMessage.class, this::handleMapChunkRequest);
+        networkManager.onDisconnected(this::handleClientDisconnected);
+    }
 
-        // Small buffers for gameplay connection (low latency for position updates)
-        this.server = new Server(Constants.GAMEPLAY_BUFFER_SIZE, Constants.GAMEPLAY_BUFFER_SIZE);
-        this.networkListener = new NetworkListener(this);
-
-        KryoNetwork.register(server);
-        NetworkManager.initialize(server);
-        NetworkManager.onReceive(PlayerUpdate.class, this::handlePlayerUpdate);
-        NetworkManager.onReceive(ClientStateChangeMessage.class, this::handleClientStateChangeMessage);
-        NetworkManager.onReceive(ClientIdentificationMessage.class, this::handleClientIdentification);
+    /**
+     * Routes a gameplay connection to this match. Called by MatchHost before the connection's
+     * identification is delivered.
+     */
+    public void addConnection(Connection connection) {
+        connections.add(connection);
+    }
 
-        server.addListener(networkListener);
+    /**
+     * @return Live view of the gameplay connections routed to this match
+     */
+    public Collection<Connection> getConnections() {
+        return Collections.unmodifiableSet(connections);
+    }
 
-        // Create bulk transfer server (will be started in start() method)
-        this.bulkServer = new BulkTransferServer();
+    public int getConnectionCount() {
+        return connections.size();
+    }
 
-        // Set ServerCoordinator reference on bulk server for profile tracking
-        bulkServer.setServerCoordinator(serverCoordinator);
+    /**
+     * @return Handlers and broadcasts for this match's connections
+     */
+    public NetworkManager getNetworkManager() {
+        return networkManager;
+    }
 
-        Log.info("GameServer", "Initialized with dual-connection architecture (gameplay: 8KB, bulk: 64KB)");
+    /**
+     * @return Kryo with the network registrations for serializing this match's map transfer payloads;
+     * synchronize on it while writing
+     */
+    public Kryo getPayloadKryo() {
+        return payloadKryo;
+    }
 
-        server.addListener(networkListener);
+    public boolean isRegenerating() {
+        return isRegenerating;
     }
 
     public void handleClientStateChangeMessage(Connection connection, ClientStateChangeMessage stateChangeMessage) {
@@ -88,6 +142,16 @@ public class GameServer {
         serverCoordinator.updateClientState(clientKey, stateChangeMessage.oldState, stateChangeMessage.newState);
     }
 
+    public void handleMapChunkRequest(Connection connection, MapChunkRequestMessage request) {
+        BaseGameStateServer state = serverCoordinator.getStateManager().getCurrentState();
+        if (state instanceof ServerMapTransferState) {
+            ((ServerMapTransferState) state).handleChunkRequest(connection, request);
+        } else {
+            Log.warn("GameServer", "Ignoring " + request + " from connection " + connection.getID() +
+                     " - no map transfer in progress");
+        }
+    }
+
     public void handleClientIdentification(Connection connection, ClientIdentificationMessage identificationMessage) {
         // Check if this is a bulk connection - if so, skip ClientProfile registration
         // Bulk connections are tracked separately in BulkTransferServer
@@ -148,75 +212,100 @@ public class GameServer {
     }
 
     public void handlePlayerUpdate(Connection connection, PlayerUpdate update) {
-        // Received a player position update, update in game object manager
-        //TODO: don't include playerId in message. This should be determined via Connection/ClientProfile
-        PlayerObject player = gameObjectManager.getPlayerById(update.playerId);
-        if (player != null) {
-            player.setPosition(new Vector3(update.x, update.y, update.z));
-            player.setYaw(update.yaw);
-            player.setPitch(update.pitch);
+        // UDP can reorder; an update older than the last one applied from this connection is stale
+        Integer lastSequence = lastPlayerUpdateSequence.get(connection.getID());
+        if (lastSequence != null && !WorldSnapshotMessage.isNewer(update.sequence, lastSequence)) {
+            return;
         }
+        lastPlayerUpdateSequence.put(connection.getID(), update.sequence);
+        lastAckedSnapshot.put(connection.getID(), update.ackedSnapshot);
 
-        // Only broadcast to OTHER clients (exclude the sender)
-        for (Connection conn : server.getConnections()) {
-            if (readyClients.contains(conn.getID()) && conn.getID() != connection.getID()) {
-                conn.sendUDP(update);
-            }
+        // An update quantized against the previous map's bounds arrives briefly after a regeneration
+        StateQuantizer quantizer = getStateQuantizer();
+        if (quantizer == null || quantizer.getId() != update.quantizerId) {
+            return;
+        }
+
+        // Received a player position update, update in game object manager
+        // Other clients receive it with the next world snapshot (PlayerSnapshotAgent)
+        String playerId = connectionToPlayerMap.get(connection.getID());
+        PlayerObject player = playerId != null ? gameObjectManager.getPlayerById(playerId) : null;
+        if (player != null) {
+            player.setPosition(updatePosition.set(
+                quantizer.dequantize(StateQuantizer.X, update.x),
+                quantizer.dequantize(StateQuantizer.Y, update.y),
+                quantizer.dequantize(StateQuantizer.Z, update.z)));
+            player.setYaw(quantizer.dequantize(StateQuantizer.YAW, update.yaw));
+            player.setPitch(quantizer.dequantize(StateQuantizer.PITCH, update.pitch));
         }
     }
 
     /**
-     * Starts the server and binds it to the specified ports.
-     * @throws IOException if the server fails to start or bind to the ports
+     * Sends a world snapshot to every client that has its map and player assignment. Each client gets only
+     * the entities it has an interest in, encoded as a delta against the newest snapshot that client has
+     * acknowledged (or in full when there is none to use).
      */
-    /**
-     * Starts the server, binds to the configured ports, and attempts to set up port forwarding.
-     * @throws IOException if the server fails to start or bind to the ports
-     */
-    public void start() throws IOException {
-        // Start gameplay server
-        server.start();
-        server.bind(KryoNetwork.TCP_PORT, KryoNetwork.UDP_PORT);
-        Log.info("Server", "Gameplay server started on TCP port " + KryoNetwork.TCP_PORT + " and UDP port " + KryoNetwork.UDP_PORT);
-
-        // Start bulk transfer server
-        bulkServer.start();
-        Log.info("Server", "Bulk transfer server started on TCP port " + Constants.BULK_TRANSFER_TCP_PORT +
-            " and UDP port " + Constants.BULK_TRANSFER_UDP_PORT);
-
-        // Attempt to set up port forwarding for both servers
-        if (KryoNetwork.setupPortForwarding("Game Server")) {
-            Log.info("Server", "Successfully set up port forwarding");
-        } else {
-            Log.warn("Server", "Failed to set up automatic port forwarding. Players may not be able to connect from the internet.");
-            Log.warn("Server", "Please configure port forwarding manually in your router settings if needed.");
+    public void broadcastSnapshot(EntityStateSnapshot world, InterestManager interest) {
+        for (Connection conn : connections) {
+            if (!readyClients.contains(conn.getID())) {
+                continue;
+            }
+            SnapshotHistory history = sentSnapshots.computeIfAbsent(conn.getID(),
+                id -> new SnapshotHistory(Constants.NETWORK_SNAPSHOT_HISTORY));
+
+            String playerId = connectionToPlayerMap.get(conn.getID());
+            PlayerObject observer = playerId != null ? gameObjectManager.getPlayerById(playerId) : null;
+            EntityStateSnapshot snapshot = SnapshotInterestFilter.filter(world, history.get(world.sequence - 1), interest,
+                observer != null ? observer.getPosition() : null, playerId != null ? getPlayerHandle(playerId) : -1);
+
+            Integer acked = lastAckedSnapshot.get(conn.getID());
+            EntityStateSnapshot baseline = acked != null ? history.get(acked) : null;
+            if (baseline != null && !baseline.quantizer.equals(snapshot.quantizer)) {
+                baseline = null;
+            }
+
+            byte[] data = StateDeltaCodec.encode(snapshot, baseline);
+            history.put(snapshot);
+            telemetry.sendUDP(conn, new WorldSnapshotMessage(snapshot.sequence,
+                baseline != null ? baseline.sequence : WorldSnapshotMessage.NO_BASELINE, data));
         }
     }
 
     /**
-     * Stops the server and releases all resources.
+     * @return The map currently being played, or null before the first one is generated
      */
+    public GameMap getCurrentMap() {
+        return serverCoordinator.getMapManager();
+    }
+
     /**
-     * Stops the server and cleans up any port forwarding rules.
+     * @return Quantizer for the bounds of the current map, or null while there is no map. Prepared maps
+     * come with theirs; any other map gets one built here the first time it is asked for.
      */
-    public void stop() {
-        if (server != null) {
-            // Remove port forwarding rules
-            KryoNetwork.removePortForwarding();
-            server.stop();
-            Log.info("Server", "Gameplay server stopped");
+    public synchronized StateQuantizer getStateQuantizer() {
+        GameMap map = serverCoordinator.getMapManager();
+        if (map == null) {
+            return null;
         }
-
-        if (bulkServer != null) {
-            bulkServer.stop();
-            Log.info("Server", "Bulk transfer server stopped");
+        if (map != quantizedMap) {
+            PreparedMap prepared = serverCoordinator.getPreparedMap();
+            stateQuantizer = prepared != null ? prepared.getStateQuantizer() : StateQuantizer.forMap(map);
+            quantizedMap = map;
+            Log.info("GameServer", "Quantizing player state with " + stateQuantizer);
         }
+        return stateQuantizer;
+    }
 
-        Log.info("Server", "All servers stopped and port forwarding rules removed");
+    /**
+     * @return The numeric handle assigned to this player, or -1 if it has not been assigned to a client yet
+     */
+    public int getPlayerHandle(String playerId) {
+        Integer handle = playerHandles.get(playerId);
+        return handle != null ? handle : -1;
     }
 
     /**
-     * @return the underlying KryoNet gameplay server instance
+     * @return the underlying KryoNet gameplay server instance, shared with every other match on the host
      */
     public Server getServer() {
         return server;
@@ -239,7 +328,7 @@ public class GameServer {
             try {
                 PlayerObjectRosterUpdate update = createPlayerRosterUpdate();
                 Log.info("GameServer", "Broadcasting player roster to all clients");
-                NetworkManager.sendToAllClients(update);
+                networkManager.sendToAllClients(update);
                 Log.info("GameServer", "Broadcast completed successfully");
             } catch (Exception e) {
                 Log.error("GameServer", "Error broadcasting player roster: " + e.getMessage());
@@ -258,7 +347,7 @@ public class GameServer {
             try {
                 PlayerObjectRosterUpdate update = createPlayerRosterUpdate();
                 Log.info("GameServer", "Sending player roster directly to connection " + connection.getID());
-                NetworkManager.sendToClient(connection.getID(), update);
+                networkManager.sendToClient(connection.getID(), update);
                 Log.info("GameServer", "Direct send completed successfully");
             } catch (Exception e) {
                 Log.error("GameServer", "Error sending player roster to connection: " + e.getMessage());
@@ -285,9 +374,10 @@ public class GameServer {
 
     public void assignPlayer(Connection connection, String playerId)
     {
-        PlayerAssignmentUpdate assignmentUpdate = new PlayerAssignmentUpdate();
-        assignmentUpdate.playerId = playerId;
-        NetworkManager.sendToClient(connection.getID(), assignmentUpdate);
+        // Reassignment after a regeneration keeps the handle the client already knows
+        int handle = playerHandles.computeIfAbsent(playerId, id -> nextPlayerHandle.getAndIncrement());
+        PlayerAssignmentUpdate assignmentUpdate = new PlayerAssignmentUpdate(playerId, handle);
+        networkManager.sendToClient(connection.getID(), assignmentUpdate);
 
         // Mark this client as ready to receive position updates
         readyClients.add(connection.getID());
@@ -297,7 +387,7 @@ public class GameServer {
     public void broadcastPlayerDisconnect(String playerId) {
         if (server != null) {
             PlayerDisconnectUpdate disconnectUpdate = new PlayerDisconnectUpdate(playerId);
-            NetworkManager.sendToAllClients(disconnectUpdate);
+            networkManager.sendToAllClients(disconnectUpdate);
             Log.info("GameServer", "Broadcasting player disconnect for player " + playerId);
         }
     }
@@ -312,13 +402,14 @@ public class GameServer {
     public void sendImpulseToPlayer(String playerId, Vector3 impulse) {
         if (server != null) {
             ClientProfile profile = serverCoordinator.clientManager.getClientProfileByPlayerUUID(playerId);
-            if (profile != null) {
-                PlayerImpulseMessage impulseMessage = new PlayerImpulseMessage(playerId, impulse);
-                NetworkManager.sendToClient(profile.gameplayConnectionId, impulseMessage);
+            int handle = getPlayerHandle(playerId);
+            if (profile != null && handle >= 0) {
+                PlayerImpulseMessage impulseMessage = new PlayerImpulseMessage(handle, impulse);
+                networkManager.sendToClient(profile.gameplayConnectionId, impulseMessage);
                 Log.info("GameServer", "Sent impulse to player " + playerId + " (connection " +
                          profile.gameplayConnectionId + "): " + impulse);
             } else {
-                Log.warn("GameServer", "Could not send impulse to player " + playerId + " - no client profile found");
+                Log.warn("GameServer", "Could not send impulse to player " + playerId + " - no client profile or handle found");
             }
         }
     }
@@ -326,17 +417,17 @@ public class GameServer {
     public void sendMapRefreshToUser(Connection connection) {
         Log.info("GameServer", "Initiating map transfer for client " + connection.getID());
 
-        boolean wasAlreadyInTransferState = ServerStateManager.getCurrentState() instanceof ServerMapTransferState;
+        boolean wasAlreadyInTransferState = serverCoordinator.getStateManager().getCurrentState() instanceof ServerMapTransferState;
 
         // Ensure we're in the correct state
         if (!wasAlreadyInTransferState) {
             // Transition to transfer state - start() will create workers for ALL clients
-            ServerStateManager.setServerState(ServerMapTransferState.class);
+            serverCoordinator.getStateManager().setServerState(ServerMapTransferState.class);
         } else {
             // Already in transfer state (mid-transfer join scenario)
             // Explicitly create worker for this new client only
             // The start() method won't run again, so we need to handle it here
-            ServerMapTransferState transferState = (ServerMapTransferState) ServerStateManager.getCurrentState();
+            ServerMapTransferState transferState = (ServerMapTransferState) serverCoordinator.getStateManager().getCurrentState();
             transferState.startTransferForClient(connection);
         }
     }
@@ -360,12 +451,9 @@ public class GameServer {
     private void triggerInitialMapGeneration(Connection connection) {
         Log.info("GameServer", "No initial map available - triggering initial map generation for client " + connection.getID());
 
-        // Generate a seed for the initial map
-        long initialSeed = System.currentTimeMillis();
-
         // Use the regeneration system for initial map generation with the initial generation flag
         // This ensures consistency with the regeneration workflow and UI
-        regenerateMap(initialSeed, "Initial map generation for host startup", true);
+        regenerateMapNext("Initial map generation for host startup", true);
     }
 
     /**
@@ -387,7 +475,7 @@ public class GameServer {
 
             // Find the connection object
             Connection connection = null;
-            for (Connection conn : server.getConnections()) {
+            for (Connection conn : connections) {
                 if (conn.getID() == connectionId) {
                     connection = conn;
                     break;
@@ -439,82 +527,109 @@ public class GameServer {
             Log.warn("GameServer", "Map regeneration already in progress, ignoring request");
             return;
         }
+        boolean prepared = mapPreparation.isReady(newSeed);
+        startRegeneration(newSeed, prepared, mapPreparation.take(newSeed), reason, isInitialGeneration);
+    }
 
-        // Wait for any previous regeneration thread to finish
-        if (regenerationThread != null && regenerationThread.isAlive()) {
-            Log.info("GameServer", "Waiting for previous regeneration thread to complete...");
-            try {
-                regenerationThread.join(5000); // Wait up to 5 seconds
-                if (regenerationThread.isAlive()) {
-                    Log.warn("GameServer", "Previous regeneration thread didn't complete in time, proceeding anyway");
-                }
-            } catch (InterruptedException e) {
-                Log.warn("GameServer", "Interrupted while waiting for previous regeneration thread");
-                Thread.currentThread().interrupt();
-            }
+    /**
+     * Regenerates the map with the oldest map in preparation, so the swap rarely waits on generation.
+     */
+    private void regenerateMapNext(String reason, boolean isInitialGeneration) {
+        if (isRegenerating) {
+            Log.warn("GameServer", "Map regeneration already in progress, ignoring request");
+            return;
         }
+        MapPreparationPipeline.Reservation next = mapPreparation.takeNext();
+        startRegeneration(next.getSeed(), next.getMap().isDone(), next.getMap(), reason, isInitialGeneration);
+    }
 
+    private void startRegeneration(long newSeed, boolean prepared, CompletableFuture<PreparedMap> map,
+                                   String reason, boolean isInitialGeneration) {
         Log.info("GameServer", "Starting map regeneration with seed: " + newSeed +
-                 (reason != null ? " (Reason: " + reason + ")" : ""));
+                 (reason != null ? " (Reason: " + reason + ")" : "") +
+                 (prepared ? ", map already prepared" : ", waiting for map preparation"));
 
         isRegenerating = true;
         currentRegenerationId = System.currentTimeMillis();
         clientsReadyForMap.clear();
 
-        // Start regeneration in a separate thread to avoid blocking
-        regenerationThread = new Thread(() -> {
-            try {
-                // Step 1: Notify all clients that map regeneration is starting
-                MapRegenerationStartMessage startMessage = new MapRegenerationStartMessage(currentRegenerationId, newSeed, reason, isInitialGeneration);
-                NetworkManager.sendToAllClients(startMessage);
-                Log.info("GameServer", "Sent regeneration start message to all clients, waiting for readiness confirmations...");
-
-                // Step 3: Clear cached map data to force fresh serialization
-                serializedMaps.clear();
-
-                // Step 3.5: Clear map-specific game objects (keep players)
-                if (gameObjectManager != null) {
-                    Log.info("GameServer", "Clearing map-specific objects (preserving " +
-                            gameObjectManager.getPlayerCount() + " players)");
-                    gameObjectManager.clearAllLights(); // Clear lights tied to old map
-                    gameObjectManager.clearAllObjects(); // Clears non-player objects only
-                    Log.info("GameServer", "Objects cleared, " + gameObjectManager.getPlayerCount() +
-                            " players preserved");
-                }
-
-                // Step 4: Ask the game world to regenerate the map
-                if (serverCoordinator != null) {
-                    serverCoordinator.regenerateMap(newSeed);
-                    Log.info("GameServer", "Map regenerated by game world");
-                } else {
-                    Log.error("GameServer", "Cannot regenerate map - game world is null");
-                    return;
-                }
+        // Notify all clients that map regeneration is starting
+        MapRegenerationStartMessage startMessage = new MapRegenerationStartMessage(currentRegenerationId, newSeed, reason, isInitialGeneration);
+        networkManager.sendToAllClients(startMessage);
+        Log.info("GameServer", "Sent regeneration start message to all clients");
 
-                // Step 5: Reset all players to new spawn locations FIRST
-                resetAllPlayersToSpawn();
+        // The preparation thread is shared by every match on the host, so it only completes the future;
+        // the next tick installs the map (see installPendingMap)
+        rejectedMaps = 0;
+        pendingMap = map;
+    }
 
-                // Step 6: Send new map to all connected clients (with updated positions)
-                Log.info("GameServer", "Broadcasting new map to all ready clients");
-                for (Connection connection : server.getConnections()) {
-                    sendMapRefreshToUser(connection);
+    /**
+     * Installs the map a regeneration is waiting for, once it is ready. Called by ServerCoordinator on the
+     * tick thread, like every other change to this match's state.
+     */
+    public void installPendingMap() {
+        CompletableFuture<PreparedMap> future = pendingMap;
+        if (future == null || !future.isDone()) {
+            return;
+        }
+        pendingMap = null;
+        boolean retrying = false;
+        try {
+            PreparedMap preparedMap = future.join();
+            if (!preparedMap.isValid()) {
+                preparedMap.getMap().dispose();
+                if (++rejectedMaps < Constants.MAP_REGENERATION_MAX_REJECTED) {
+                    MapPreparationPipeline.Reservation next = mapPreparation.takeNext();
+                    Log.warn("GameServer", "Map for seed " + preparedMap.getSeed() + " failed validation, " +
+                        "taking seed " + next.getSeed() + " instead");
+                    pendingMap = next.getMap();
+                    retrying = true;
+                    return;
                 }
-
-                // Pending player assignments will be completed by ServerWaitForClientsToBeReadyState
-                // after transfers complete - this ensures clients have game objects before assignment
-
+                Log.error("GameServer", "Rejected " + rejectedMaps + " maps in a row for failing validation, " +
+                    "keeping the current map");
+            } else {
+                installPreparedMap(preparedMap);
                 Log.info("GameServer", "Map regeneration completed successfully");
-
-            } catch (Exception e) {
-                Log.error("GameServer", "Failed to regenerate map: " + e.getMessage());
-                e.printStackTrace();
-            } finally {
+            }
+        } catch (Exception e) {
+            Log.error("GameServer", "Failed to regenerate map: " + e.getMessage(), e);
+        } finally {
+            if (!retrying) {
                 isRegenerating = false;
                 clientsReadyForMap.clear();
             }
-        });
+        }
+    }
+
+    /**
+     * Swaps a freshly prepared, valid map in for every client of this match.
+     */
+    private void installPreparedMap(PreparedMap preparedMap) {
+        // Clear map-specific game objects (keep players)
+        if (gameObjectManager != null) {
+            Log.info("GameServer", "Clearing map-specific objects (preserving " +
+                    gameObjectManager.getPlayerCount() + " players)");
+            gameObjectManager.clearAllLights(); // Clear lights tied to old map
+            gameObjectManager.clearAllObjects(); // Clears non-player objects only
+            Log.info("GameServer", "Objects cleared, " + gameObjectManager.getPlayerCount() +
+                    " players preserved");
+        }
+
+        serverCoordinator.swapMap(preparedMap);
+
+        // Reset all players to new spawn locations FIRST
+        resetAllPlayersToSpawn();
+
+        // Send new map to all connected clients (with updated positions)
+        Log.info("GameServer", "Broadcasting new map to all ready clients");
+        for (Connection connection : connections) {
+            sendMapRefreshToUser(connection);
+        }
 
-        regenerationThread.start();
+        // Pending player assignments will be completed by ServerWaitForClientsToBeReadyState
+        // after transfers complete - this ensures clients have game objects before assignment
     }
 
     /**
@@ -523,8 +638,7 @@ public class GameServer {
      * @param reason Optional reason for regeneration
      */
     public void regenerateMapRandom(String reason) {
-        long newSeed = System.currentTimeMillis();
-        regenerateMap(newSeed, reason != null ? reason : "Random regeneration");
+        regenerateMapNext(reason != null ? reason : "Random regeneration", false);
     }
 
     /**
@@ -571,14 +685,14 @@ public class GameServer {
                 PlayerResetMessage resetMessage = new PlayerResetMessage(playerId, spawnPosition, 0f);
 
                 Connection connection = null;
-                for (Connection conn : server.getConnections()) {
+                for (Connection conn : connections) {
                     if (conn.getID() == connectionId) {
                         connection = conn;
                         break;
                     }
                 }
                 if (connection != null) {
-                    NetworkManager.sendToClient(connection.getID(), resetMessage);
+                    networkManager.sendToClient(connection.getID(), resetMessage);
                     Log.info("GameServer", "Sent player reset to " + playerId +
                              " at position: " + spawnPosition);
                 }
@@ -617,7 +731,7 @@ public class GameServer {
     }
 
     /**
-     * Handles a client disconnection event from NetworkListener
+     * Handles a client disconnection, queued by MatchHost and run on the tick thread
      */
     public void handleClientDisconnected(Connection connection) {
         // Update client profile status to disconnected
@@ -629,7 +743,11 @@ public class GameServer {
         }
 
         // Remove from ready clients
+        connections.remove(connection);
         readyClients.remove(connection.getID());
+        lastPlayerUpdateSequence.remove(connection.getID());
+        sentSnapshots.remove(connection.getID());
+        lastAckedSnapshot.remove(connection.getID());
 
         // Remove any pending player assignment for this connection
         String pendingPlayerId = pendingPlayerAssignments.remove(connection.getID());
@@ -642,6 +760,7 @@ public class GameServer {
         if (playerId != null) {
             // Remove player mapping from ClientManager
             serverCoordinator.clientManager.removePlayerMapping(playerId);
+            playerHandles.remove(playerId);
 
             PlayerObject disconnectedPlayer = gameObjectManager.getPlayerById(playerId);
 
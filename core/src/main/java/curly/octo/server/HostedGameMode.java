@@ -5,7 +5,7 @@ import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.client.ClientGameMode;
 import curly.octo.common.GameMode;
-import curly.octo.server.serverStates.ServerStateManager;
+import curly.octo.server.tick.TickProfiler;
 
 import java.io.IOException;
 import java.util.Random;
@@ -13,46 +13,25 @@ import java.util.Random;
 /**
  * Hosted game mode that runs both a server and connects as a client to localhost.
  * This separates the server logic from the host player, making all players equal.
+ * The server half is a DedicatedServer, the same one the headless launcher runs.
  */
 public class HostedGameMode implements GameMode {
 
-    private final ServerCoordinator serverCoordinator;
+    private final DedicatedServer server;
     private final Random random;
-    private GameServer gameServer;
     private ClientGameMode clientGameMode;
     private boolean active = false;
-    private boolean serverStarted = false;
 
     public HostedGameMode(java.util.Random random) {
         this.random = random;
-        this.serverCoordinator = new ServerCoordinator(random);
+        this.server = new DedicatedServer(random);
     }
 
     @Override
     public void initialize() {
         try {
             Log.info("HostedGameMode", "Initializing hosted mode");
-            // Create game object manager
-            ServerGameObjectManager gameObjectManager = new ServerGameObjectManager();
-
-            // Create and start server with the game object manager
-            gameServer = new GameServer(
-                this.random,
-                gameObjectManager,
-                serverCoordinator
-            );
-
-            // Set the game server reference on coordinator (required for server agents)
-            serverCoordinator.setGameServer(gameServer);
-
-            gameServer.start();
-            serverStarted = true;
-
-            // Set the game object manager on the coordinator so it can update it
-            serverCoordinator.setGameObjectManager(gameObjectManager);
-
-            // Initialize ServerStateManager with dependencies
-            ServerStateManager.initializeManager(gameServer, serverCoordinator);
+            server.start();
 
             Log.info("HostedGameMode", "Server started, now connecting as client to localhost");
 
@@ -76,8 +55,8 @@ public class HostedGameMode implements GameMode {
 
     @Override
     public void update(float deltaTime) throws IOException {
-        if (!serverStarted) return;
-        serverCoordinator.update(deltaTime);
+        if (!server.isStarted()) return;
+        server.update(deltaTime);
         if (!active && clientGameMode != null) {
             active = true;
             Log.info("HostedGameMode", "Hosted mode activated (server running)");
@@ -108,17 +87,9 @@ public class HostedGameMode implements GameMode {
         }
 
         // Stop the server
-        if (gameServer != null) {
-            try {
-                gameServer.stop();
-                Log.info("HostedGameMode", "Server stopped");
-            } catch (Exception e) {
-                Log.error("HostedGameMode", "Error stopping server: " + e.getMessage());
-            }
-        }
+        server.stop();
 
         active = false;
-        serverStarted = false;
         Log.info("HostedGameMode", "Hosted game mode disposed");
     }
 
@@ -128,7 +99,11 @@ public class HostedGameMode implements GameMode {
     }
 
     public GameServer getGameServer() {
-        return gameServer;
+        return server.getGameServer();
+    }
+
+    public TickProfiler getTickProfiler() {
+        return server.getTickProfiler();
     }
 
     public ClientGameMode getClientGameMode() {
@@ -140,6 +115,7 @@ public class HostedGameMode implements GameMode {
      * This is a debug/admin function for testing map regeneration.
      */
     public void debugRegenerateMap() {
+        GameServer gameServer = server.getGameServer();
         if (gameServer != null) {
             Log.info("HostedGameMode", "Triggering debug map regeneration");
             gameServer.debugRegenerateMap();
@@ -155,6 +131,7 @@ public class HostedGameMode implements GameMode {
      * @param reason Optional reason for regeneration
      */
     public void regenerateMapWithSeed(long seed, String reason) {
+        GameServer gameServer = server.getGameServer();
         if (gameServer != null) {
             Log.info("HostedGameMode", "Triggering map regeneration with seed: " + seed);
             gameServer.regenerateMap(seed, reason);
@@ -0,0 +1,330 @@
+package curly.octo.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.Listener;
+import com.esotericsoftware.kryonet.Server;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+import curly.octo.common.network.KryoNetwork;
+import curly.octo.common.network.NetworkMessage;
+import curly.octo.common.network.messages.ClientIdentificationMessage;
+import curly.octo.common.network.telemetry.NetworkTelemetry;
+import curly.octo.common.network.telemetry.TelemetrySerialization;
+import curly.octo.server.playerManagement.ClientProfile;
+import curly.octo.server.playerManagement.ClientUniqueId;
+import curly.octo.server.tick.TickProfiler;
+import curly.octo.server.workflows.BulkTransferServer;
+import curly.octo.server.workflows.MapPreparationPipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the gameplay and bulk transfer servers and runs any number of independent ServerMatches over them.
+ *
+ * A gameplay connection belongs to no match until its ClientIdentificationMessage arrives. That message
+ * routes it to the match that already knows the client (a reconnect), else the first match with room,
+ * else a new match. From then on its messages are queued on that match's NetworkManager only. Matches whose
+ * players have all left are disposed, except the last one.
+ *
+ * Every tick all matches run in parallel on a shared worker pool, and the tick ends when the slowest is done.
+ */
+public class MatchHost {
+
+    private final Random random;
+    private final int maxMatches;
+    private final int maxPlayersPerMatch;
+
+    private final Server server;  // Gameplay connection (small buffers)
+    private final BulkTransferServer bulkServer;  // Map transfer connection (large buffers)
+    private final MapPreparationPipeline mapPreparation; // Next maps for every match, generated in the background
+
+    private final List<ServerMatch> matches = new CopyOnWriteArrayList<>();
+    private final Map<Integer, ServerMatch> connectionMatches = new ConcurrentHashMap<>(); // Gameplay connection id -> match
+    private final AtomicInteger nextMatchId = new AtomicInteger(1);
+    private final ExecutorService tickPool; // Null when matches tick on the calling thread
+    private final TickProfiler tickProfiler = new TickProfiler("Host", Constants.SERVER_TICK_REPORT_INTERVAL_NS);
+    private final NetworkTelemetry telemetry = new NetworkTelemetry("Server", Constants.NETWORK_TELEMETRY_REPORT_INTERVAL_NS);
+    private long lastTelemetrySampleNanos = System.nanoTime();
+    private boolean started = false;
+
+    /**
+     * @param maxMatches Matches run at once; clients beyond the last full match are refused
+     * @param maxPlayersPerMatch Gameplay connections routed to one match
+     * @param workerThreads Threads ticking matches in parallel, or 0 to tick them on the calling thread
+     */
+    public MatchHost(Random random, int maxMatches, int maxPlayersPerMatch, int workerThreads) {
+        this.random = random;
+        this.maxMatches = maxMatches;
+        this.maxPlayersPerMatch = maxPlayersPerMatch;
+
+        this.server = new Server(Constants.GAMEPLAY_BUFFER_SIZE, Constants.GAMEPLAY_BUFFER_SIZE,
+            new TelemetrySerialization(telemetry));
+        KryoNetwork.register(server);
+        server.addListener(new RoutingListener());
+
+        this.bulkServer = new BulkTransferServer(telemetry);
+        bulkServer.setProfileResolver(this::findClientProfile);
+
+        this.mapPreparation = new MapPreparationPipeline(new Random(random.nextLong()));
+
+        if (workerThreads > 0) {
+            AtomicInteger threadCount = new AtomicInteger();
+            tickPool = Executors.newFixedThreadPool(workerThreads, runnable -> {
+                Thread thread = new Thread(runnable, "MatchTickWorker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            tickPool = null;
+        }
+
+        Log.info("MatchHost", "Initialized for up to " + maxMatches + " matches of " + maxPlayersPerMatch +
+            " players (" + (workerThreads > 0 ? workerThreads + " tick workers" : "ticking inline") + ")");
+    }
+
+    /**
+     * Starts the servers, binds to the configured ports, and attempts to set up port forwarding.
+     *
+     * @throws IOException if the server fails to start or bind to the ports
+     */
+    public void start() throws IOException {
+        // Start gameplay server
+        server.start();
+        server.bind(KryoNetwork.TCP_PORT, KryoNetwork.UDP_PORT);
+        Log.info("Server", "Gameplay server started on TCP port " + KryoNetwork.TCP_PORT + " and UDP port " + KryoNetwork.UDP_PORT);
+
+        // Start bulk transfer server
+        bulkServer.start();
+        Log.info("Server", "Bulk transfer server started on TCP port " + Constants.BULK_TRANSFER_TCP_PORT +
+            " and UDP port " + Constants.BULK_TRANSFER_UDP_PORT);
+        mapPreparation.start();
+        started = true;
+
+        // Attempt to set up port forwarding for both servers
+        if (KryoNetwork.setupPortForwarding("Game Server")) {
+            Log.info("Server", "Successfully set up port forwarding");
+        } else {
+            Log.warn("Server", "Failed to set up automatic port forwarding. Players may not be able to connect from the internet.");
+            Log.warn("Server", "Please configure port forwarding manually in your router settings if needed.");
+        }
+    }
+
+    /**
+     * Creates a match up front, e.g. so a hosted game has its GameServer before anyone connects.
+     */
+    public synchronized ServerMatch createMatch() {
+        ServerMatch match = new ServerMatch(nextMatchId.getAndIncrement(), new Random(random.nextLong()), this);
+        matches.add(match);
+        Log.info("MatchHost", "Created match " + match.getId() + " (" + matches.size() + " running)");
+        return match;
+    }
+
+    /**
+     * Runs one tick of every match, in parallel when there is a worker pool and more than one match.
+     */
+    public void update(float deltaTime) {
+        retireAbandonedMatches();
+        sampleTelemetry();
+
+        if (tickPool == null || matches.size() < 2) {
+            for (ServerMatch match : matches) {
+                match.update(deltaTime);
+            }
+            return;
+        }
+
+        List<ServerMatch> ticking = new ArrayList<>(matches);
+        for (ServerMatch match : ticking) {
+            match.prepareTick(deltaTime);
+        }
+        try {
+            for (Future<Void> result : tickPool.invokeAll(ticking)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.error("MatchHost", "Match tick failed: " + e.getCause());
+        }
+    }
+
+    private void sampleTelemetry() {
+        long now = System.nanoTime();
+        if (started && now - lastTelemetrySampleNanos >= Constants.NETWORK_TELEMETRY_SAMPLE_INTERVAL_NS) {
+            lastTelemetrySampleNanos = now;
+            for (Connection connection : server.getConnections()) {
+                telemetry.sampleConnection(connection);
+            }
+        }
+        telemetry.reportIfDue();
+    }
+
+    private synchronized void retireAbandonedMatches() {
+        for (ServerMatch match : matches) {
+            if (matches.size() > 1 && match.isAbandoned()) {
+                matches.remove(match);
+                match.dispose();
+                Log.info("MatchHost", "Retired empty match " + match.getId() + " (" + matches.size() + " running)");
+            }
+        }
+    }
+
+    /**
+     * Picks the match for a newly identified gameplay connection.
+     *
+     * @return The match, or null if every match is full and no more can be created
+     */
+    private synchronized ServerMatch routeConnection(Connection connection, ClientIdentificationMessage identification) {
+        ClientUniqueId clientUniqueId = new ClientUniqueId(identification.clientUniqueId);
+
+        ServerMatch target = null;
+        for (ServerMatch match : matches) {
+            if (match.knowsClient(clientUniqueId)) {
+                target = match;
+                break;
+            }
+        }
+        if (target == null) {
+            for (ServerMatch match : matches) {
+                if (match.getGameServer().getConnectionCount() < maxPlayersPerMatch) {
+                    target = match;
+                    break;
+                }
+            }
+        }
+        if (target == null && matches.size() < maxMatches) {
+            target = createMatch();
+        }
+        if (target == null) {
+            return null;
+        }
+
+        target.addConnection(connection);
+        connectionMatches.put(connection.getID(), target);
+        Log.info("MatchHost", "Routed connection " + connection.getID() + " (" + identification.clientName +
+            ") to match " + target.getId());
+        return target;
+    }
+
+    /**
+     * @return The connected client's profile in whichever match it belongs to, or null
+     */
+    private ClientProfile findClientProfile(ClientUniqueId clientUniqueId) {
+        for (ServerMatch match : matches) {
+            ClientProfile profile = match.findClientProfile(clientUniqueId);
+            if (profile != null) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops the servers, removes port forwarding rules and disposes every match.
+     */
+    public void stop() {
+        if (started) {
+            // Remove port forwarding rules
+            KryoNetwork.removePortForwarding();
+            server.stop();
+            Log.info("Server", "Gameplay server stopped");
+            bulkServer.stop();
+            Log.info("Server", "Bulk transfer server stopped");
+            started = false;
+        }
+        if (tickPool != null) {
+            tickPool.shutdownNow();
+        }
+        mapPreparation.stop();
+        for (ServerMatch match : matches) {
+            match.dispose();
+        }
+        matches.clear();
+        connectionMatches.clear();
+        Log.info("Server", "All servers stopped and port forwarding rules removed");
+    }
+
+    public Server getServer() {
+        return server;
+    }
+
+    public BulkTransferServer getBulkServer() {
+        return bulkServer;
+    }
+
+    /**
+     * @return Maps generated and encoded ahead of the next regeneration of any match on this host
+     */
+    public MapPreparationPipeline getMapPreparation() {
+        return mapPreparation;
+    }
+
+    public List<ServerMatch> getMatches() {
+        return matches;
+    }
+
+    public TickProfiler getTickProfiler() {
+        return tickProfiler;
+    }
+
+    /**
+     * @return Message, byte and connection statistics for every match on this host
+     */
+    public NetworkTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    /**
+     * Routes gameplay traffic to matches; replaces a single GameServer listening to the whole server.
+     */
+    private class RoutingListener implements Listener {
+        @Override
+        public void connected(Connection connection) {
+            Log.info("Network", "Connection established: " + connection.getRemoteAddressTCP().getAddress() +
+                " (connection " + connection.getID() + "), waiting for identification");
+        }
+
+        @Override
+        public void disconnected(Connection connection) {
+            Log.info("Network", "Connection closed: " + connection.getID());
+            telemetry.removeConnection(connection);
+            ServerMatch match = connectionMatches.remove(connection.getID());
+            if (match != null) {
+                match.getGameServer().getNetworkManager().routeDisconnect(connection);
+            }
+        }
+
+        @Override
+        public void received(Connection connection, Object object) {
+            if (!(object instanceof NetworkMessage)) {
+                return;
+            }
+            ServerMatch match = connectionMatches.get(connection.getID());
+            if (match == null) {
+                if (!(object instanceof ClientIdentificationMessage)) {
+                    Log.warn("MatchHost", "Ignoring " + object.getClass().getSimpleName() + " from unidentified connection " +
+                        connection.getID());
+                    return;
+                }
+                match = routeConnection(connection, (ClientIdentificationMessage) object);
+                if (match == null) {
+                    Log.warn("MatchHost", "All " + maxMatches + " matches are full, refusing connection " + connection.getID());
+                    connection.close();
+                    return;
+                }
+            }
+            match.getGameServer().getNetworkManager().routeMessage(connection, object);
+        }
+    }
+}
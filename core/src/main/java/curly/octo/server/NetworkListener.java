@@ -7,26 +7,22 @@ import curly.octo.common.network.NetworkManager;
 // All message-specific imports removed - now handled by NetworkManager
 
 /**
- * Handles incoming network messages and connection events.
- * Extend this class and override the methods you need.
+ * Handles incoming network messages and connection events for a client.
+ * The server side routes each connection to its match in MatchHost instead.
  */
 public class NetworkListener implements Listener {
-    private final GameServer gameServer;
+    private final NetworkManager networkManager;
 
-    public NetworkListener(GameServer gameServer) {
-        this.gameServer = gameServer;
+    public NetworkListener(NetworkManager networkManager) {
+        this.networkManager = networkManager;
     }
 
     /**
-     * Called when a connection is received from a client (server-side)
-     * or when connected to a server (client-side).
+     * Called when connected to a server.
      */
     @Override
     public void connected(Connection connection) {
         Log.info("Network", "Connection established: " + connection.getRemoteAddressTCP().getAddress());
-        if (gameServer != null) {
-            gameServer.handleClientConnected(connection);
-        }
     }
 
     /**
@@ -35,17 +31,14 @@ public class NetworkListener implements Listener {
     @Override
     public void disconnected(Connection connection) {
         Log.info("Network", "Connection closed: " + connection.getID());
-        if (gameServer != null) {
-            gameServer.handleClientDisconnected(connection);
-        }
     }
 
     /**
      * Called when an object is received from a remote connection.
-     * Routes messages through the new NetworkManager system for simplified handling.
+     * Routes messages through the NetworkManager system for simplified handling.
      */
     @Override
     public void received(Connection connection, Object object) {
-        NetworkManager.routeMessage(connection, object);
+        networkManager.routeMessage(connection, object);
     }
 }
@@ -1,13 +1,19 @@
 package curly.octo.server;
 
 import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
 import curly.octo.server.playerManagement.ClientManager;
 import curly.octo.server.playerManagement.ClientConnectionKey;
 import curly.octo.server.playerManagement.ClientProfile;
 import curly.octo.server.playerManagement.ClientUniqueId;
 import curly.octo.server.serverAgents.BaseAgent;
+import curly.octo.server.serverEvents.EventBus;
 import curly.octo.server.serverAgents.PlayerCollisionAgent;
+import curly.octo.server.serverAgents.PlayerSnapshotAgent;
 import curly.octo.server.serverStates.ServerStateManager;
+import curly.octo.server.tick.TickPhase;
+import curly.octo.server.tick.TickProfiler;
+import curly.octo.server.workflows.PreparedMap;
 import curly.octo.common.map.GameMap;
 
 import java.util.ArrayList;
@@ -22,11 +28,15 @@ import java.util.Random;
 public class ServerCoordinator {
 
     // Core server state
-    protected GameMap mapManager;
+    protected volatile GameMap mapManager;
+    private volatile PreparedMap preparedMap; // Encoded alongside mapManager when it came from the preparation pipeline
     protected ServerGameObjectManager gameObjectManager;
     protected Random random;
     protected boolean disposed = false;
     private GameServer gameServer; // Reference to GameServer for agents
+    private ServerStateManager stateManager; // Created with the GameServer it drives
+    private final EventBus eventBus = new EventBus();
+    private final TickProfiler tickProfiler;
 
     public ClientManager clientManager;
 //    public HashMap<ClientConnectionKey, ClientProfile> clientProfiles;
@@ -50,7 +60,15 @@ public class ServerCoordinator {
     }
 
     public ServerCoordinator(Random random) {
+        this(random, "Server");
+    }
+
+    /**
+     * @param name Identifies this match in logs and tick reports
+     */
+    public ServerCoordinator(Random random, String name) {
         this.random = random;
+        this.tickProfiler = new TickProfiler(name, Constants.SERVER_TICK_REPORT_INTERVAL_NS);
         clientManager = new ClientManager();
         pendingStateUpdates = new HashMap<>();
         // Note: serverAgents will be instantiated when setGameServer() is called
@@ -64,6 +82,7 @@ public class ServerCoordinator {
      */
     public void setGameServer(GameServer gameServer) {
         this.gameServer = gameServer;
+        this.stateManager = new ServerStateManager(gameServer, this);
         instantiateServerAgents();
     }
 
@@ -74,6 +93,7 @@ public class ServerCoordinator {
         }
         this.serverAgents = new ArrayList<>();
         serverAgents.add(new PlayerCollisionAgent(gameObjectManager, gameServer));
+        serverAgents.add(new PlayerSnapshotAgent(gameObjectManager, gameServer));
     }
 
     /**
@@ -187,42 +207,71 @@ public class ServerCoordinator {
     }
 
     public void update(float deltaTime) {
+        long phaseStart = System.nanoTime();
+        // Handle everything received since the last tick, keeping only the newest position per player
+        if (gameServer != null) {
+            gameServer.getNetworkManager().drain();
+            gameServer.installPendingMap();
+        }
+        // Positions received from clients since the last tick only reach the spatial index here
+        if (gameObjectManager != null) {
+            gameObjectManager.refreshSpatialIndex();
+        }
+        phaseStart = tickProfiler.mark(TickPhase.NETWORK_INGEST, phaseStart);
+
         // Update server state machine
-        ServerStateManager.update(deltaTime);
+        if (stateManager != null) {
+            stateManager.update(deltaTime);
+        }
+        phaseStart = tickProfiler.mark(TickPhase.STATE_MACHINE, phaseStart);
+
         for(BaseAgent agent : serverAgents) {
             agent.update(deltaTime);
+            phaseStart = tickProfiler.mark(agent.getTickPhase(), phaseStart);
         }
-
     }
 
-    public void regenerateMap(long newSeed) {
-        Log.info("ServerCoordinator", "Regenerating host map with seed: " + newSeed);
-
-        try {
-            // Create new map FIRST (before disposing old one to minimize null window)
-            GameMap newMap = new GameMap(newSeed, true);
-            Log.info("ServerCoordinator", "Generated new host map with seed: " + newSeed);
-            Log.info("ServerCoordinator", "New map has " + newMap.getAllTiles().size() + " tiles, hash: " + newMap.hashCode());
-
-            // Store reference to old map
-            GameMap oldMap = mapManager;
+    public TickProfiler getTickProfiler() {
+        return tickProfiler;
+    }
 
-            // Atomically swap to new map
-            mapManager = newMap;
+    /**
+     * @return This match's state machine, or null until the GameServer is set
+     */
+    public ServerStateManager getStateManager() {
+        return stateManager;
+    }
 
-            // Dispose old map AFTER swap (minimizes window where map could be null/invalid)
-            if (oldMap != null) {
-                oldMap.dispose();
-            }
-            Log.info("ServerCoordinator", "Host map regeneration completed successfully");
+    public EventBus getEventBus() {
+        return eventBus;
+    }
 
-        } catch (Exception e) {
-            Log.error("ServerCoordinator", "Failed to regenerate host map: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Host map regeneration failed", e);
+    /**
+     * Swaps in a map prepared ahead of time, then disposes the previous map.
+     */
+    public void swapMap(PreparedMap prepared) {
+        GameMap newMap = prepared.getMap();
+        Log.info("ServerCoordinator", "Swapping in host map for seed " + prepared.getSeed() + " (" +
+            newMap.getTileCount() + " tiles, content hash " + prepared.getContentHash() + ")");
+
+        GameMap oldMap = mapManager;
+        mapManager = newMap;
+        preparedMap = prepared;
+
+        // Dispose old map AFTER swap (minimizes window where map could be null/invalid)
+        if (oldMap != null && oldMap != newMap) {
+            oldMap.dispose();
         }
     }
 
+    /**
+     * @return Transfer encoding of the current map, or null if the current map was not swapped in prepared
+     */
+    public PreparedMap getPreparedMap() {
+        PreparedMap prepared = preparedMap;
+        return prepared != null && prepared.getMap() == mapManager ? prepared : null;
+    }
+
     // Accessors
     public GameMap getMapManager() {
         return mapManager;
@@ -265,6 +314,7 @@ public class ServerCoordinator {
             }
             mapManager = null;
         }
+        preparedMap = null;
 
         clientManager.clearProfiles();
         disposed = true;
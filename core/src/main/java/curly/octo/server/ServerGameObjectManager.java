@@ -1,11 +1,16 @@
 package curly.octo.server;
 
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
 import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
 import curly.octo.common.GameObject;
 import curly.octo.common.PlayerObject;
 import curly.octo.common.WorldObject;
 import curly.octo.common.lights.BaseLight;
+import curly.octo.common.map.GameMap;
+import curly.octo.server.interest.InterestManager;
+import curly.octo.server.spatial.SpatialGrid;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -32,6 +37,17 @@ public class ServerGameObjectManager {
     private final ArrayList<BaseLight> gameLights = new ArrayList<>();
     private final HashSet<BaseLight> gameLightsToBeRemoved = new HashSet<>();
 
+    // Area-of-interest index over all game objects, rebuilt each snapshot tick
+    private final InterestManager interestManager = new InterestManager();
+
+    // Proximity indexes, brought up to date once per server tick by refreshSpatialIndex()
+    private final SpatialGrid<GameObject> objectGrid = new SpatialGrid<>(Constants.SPATIAL_GRID_CELL_TILES);
+    private final SpatialGrid<PlayerObject> playerGrid = new SpatialGrid<>(Constants.SPATIAL_GRID_CELL_TILES);
+    private final ArrayList<GameObject> liveObjects = new ArrayList<>();
+    private final ArrayList<PlayerObject> livePlayers = new ArrayList<>();
+    private final Array<GameObject> objectQueryBuffer = new Array<>();
+    private final Array<PlayerObject> playerQueryBuffer = new Array<>();
+
     /**
      * Updates all game objects and lights.
      * Does NOT handle rendering - server only tracks state.
@@ -157,6 +173,28 @@ public class ServerGameObjectManager {
         return null;
     }
 
+    /**
+     * Moves every live object to its current cell in the spatial indexes and drops removed ones.
+     * Only objects that crossed a cell boundary since the last call change cell. Called once per server tick;
+     * the spatial queries below see positions as of the last call.
+     */
+    public void refreshSpatialIndex() {
+        liveObjects.clear();
+        livePlayers.clear();
+        for (int i = 0; i < gameObjects.size(); i++) {
+            GameObject object = gameObjects.get(i);
+            if (gameObjectsToBeRemoved.contains(object)) {
+                continue;
+            }
+            liveObjects.add(object);
+            if (object instanceof PlayerObject) {
+                livePlayers.add((PlayerObject) object);
+            }
+        }
+        objectGrid.sync(liveObjects);
+        playerGrid.sync(livePlayers);
+    }
+
     /**
      * Gets all objects within a radius of a position (for spatial queries/arbitration).
      * @param position Center position
@@ -164,22 +202,32 @@ public class ServerGameObjectManager {
      * @return List of objects within radius
      */
     public List<GameObject> getObjectsInRadius(Vector3 position, float radius) {
-        List<GameObject> nearbyObjects = new ArrayList<>();
-        float radiusSquared = radius * radius;
-
-        for (GameObject obj : gameObjects) {
-            if (!gameObjectsToBeRemoved.contains(obj)) {
-                Vector3 objPos = obj.getPosition();
-                float distSquared = position.dst2(objPos);
-                if (distSquared <= radiusSquared) {
-                    nearbyObjects.add(obj);
-                }
-            }
+        objectGrid.queryRadius(position, radius, objectQueryBuffer);
+        List<GameObject> nearbyObjects = new ArrayList<>(objectQueryBuffer.size);
+        for (int i = 0; i < objectQueryBuffer.size; i++) {
+            nearbyObjects.add(objectQueryBuffer.get(i));
         }
-
         return nearbyObjects;
     }
 
+    /**
+     * Gets all objects within a radius of a position without allocating.
+     * @param out Buffer that is cleared and filled with the results
+     * @return Number of objects found
+     */
+    public int getObjectsInRadius(Vector3 position, float radius, Array<GameObject> out) {
+        return objectGrid.queryRadius(position, radius, out);
+    }
+
+    /**
+     * Gets all objects inside an axis-aligned box without allocating.
+     * @param out Buffer that is cleared and filled with the results
+     * @return Number of objects found
+     */
+    public int getObjectsInBox(Vector3 min, Vector3 max, Array<GameObject> out) {
+        return objectGrid.queryBox(min, max, out);
+    }
+
     /**
      * Gets all players within a radius of a position.
      * @param position Center position
@@ -187,22 +235,34 @@ public class ServerGameObjectManager {
      * @return List of players within radius
      */
     public List<PlayerObject> getPlayersInRadius(Vector3 position, float radius) {
-        List<PlayerObject> nearbyPlayers = new ArrayList<>();
-        float radiusSquared = radius * radius;
-
-        for (PlayerObject player : activePlayers) {
-            if (!gameObjectsToBeRemoved.contains(player)) {
-                Vector3 playerPos = player.getPosition();
-                float distSquared = position.dst2(playerPos);
-                if (distSquared <= radiusSquared) {
-                    nearbyPlayers.add(player);
-                }
-            }
+        playerGrid.queryRadius(position, radius, playerQueryBuffer);
+        List<PlayerObject> nearbyPlayers = new ArrayList<>(playerQueryBuffer.size);
+        for (int i = 0; i < playerQueryBuffer.size; i++) {
+            nearbyPlayers.add(playerQueryBuffer.get(i));
         }
-
         return nearbyPlayers;
     }
 
+    /**
+     * Gets all players within a radius of a position without allocating.
+     * @param out Buffer that is cleared and filled with the results
+     * @return Number of players found
+     */
+    public int getPlayersInRadius(Vector3 position, float radius, Array<PlayerObject> out) {
+        return playerGrid.queryRadius(position, radius, out);
+    }
+
+    /**
+     * Gets the players nearest to a position, closest first, without allocating.
+     * @param count Maximum number of players to return
+     * @param maxRadius Players further away are ignored
+     * @param out Buffer that is cleared and filled with the results
+     * @return Number of players found
+     */
+    public int getNearestPlayers(Vector3 position, int count, float maxRadius, Array<PlayerObject> out) {
+        return playerGrid.queryNearest(position, count, maxRadius, out);
+    }
+
     /**
      * Gets all active players (defensive copy).
      * @return List of all active players
@@ -235,6 +295,33 @@ public class ServerGameObjectManager {
         return activePlayers.size();
     }
 
+    // =====================================
+    // INTEREST MANAGEMENT (for replication)
+    // =====================================
+
+    /**
+     * Re-indexes every live game object by chunk for area-of-interest queries.
+     * Players, NPCs and other objects are all indexed, so anything replicated can be filtered per client.
+     * @param map The current map, whose open space decides which chunks are connected
+     */
+    public void refreshInterest(GameMap map) {
+        ArrayList<GameObject> live = new ArrayList<>(gameObjects.size());
+        for (GameObject object : gameObjects) {
+            if (!gameObjectsToBeRemoved.contains(object)) {
+                live.add(object);
+            }
+        }
+        interestManager.refresh(map, live);
+    }
+
+    /**
+     * Gets the area-of-interest index as of the last {@link #refreshInterest(GameMap)}.
+     * @return The interest manager
+     */
+    public InterestManager getInterestManager() {
+        return interestManager;
+    }
+
     // =====================================
     // VALIDATION METHODS (for arbitration)
     // =====================================
@@ -305,20 +392,10 @@ public class ServerGameObjectManager {
      * @return The nearest player, or null if no players exist
      */
     public PlayerObject getNearestPlayer(Vector3 position) {
-        PlayerObject nearest = null;
-        float nearestDistSquared = Float.MAX_VALUE;
-
-        for (PlayerObject player : activePlayers) {
-            if (!gameObjectsToBeRemoved.contains(player)) {
-                float distSquared = position.dst2(player.getPosition());
-                if (distSquared < nearestDistSquared) {
-                    nearestDistSquared = distSquared;
-                    nearest = player;
-                }
-            }
+        if (playerGrid.queryNearest(position, 1, Float.POSITIVE_INFINITY, playerQueryBuffer) == 0) {
+            return null;
         }
-
-        return nearest;
+        return playerQueryBuffer.get(0);
     }
 
     // =====================================
@@ -394,6 +471,8 @@ public class ServerGameObjectManager {
         }
 
         // Clear all collections
+        objectGrid.clear();
+        playerGrid.clear();
         gameObjects.clear();
         activePlayers.clear();
         gameLights.clear();
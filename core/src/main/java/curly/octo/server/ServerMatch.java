@@ -0,0 +1,121 @@
+package curly.octo.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+import curly.octo.server.playerManagement.ClientProfile;
+import curly.octo.server.playerManagement.ClientUniqueId;
+import curly.octo.server.tick.TickProfiler;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * One independent game: its own ServerCoordinator (map, ClientManager, state machine, event bus), object
+ * manager and GameServer. A MatchHost runs any number of these over one pair of KryoNet servers.
+ *
+ * As a Callable it runs one tick of {@link #prepareTick(float)}'s delta, so the host can hand every match
+ * to its worker pool at once.
+ */
+public class ServerMatch implements Callable<Void> {
+
+    private final int id;
+    private final ServerCoordinator serverCoordinator;
+    private final GameServer gameServer;
+    private volatile boolean hadPlayers = false;
+    private float pendingDelta;
+
+    public ServerMatch(int id, Random random, MatchHost host) {
+        this.id = id;
+        this.serverCoordinator = new ServerCoordinator(random, "Match " + id);
+        ServerGameObjectManager gameObjectManager = new ServerGameObjectManager();
+        this.gameServer = new GameServer(random, gameObjectManager, serverCoordinator, host);
+
+        // Set the game server reference on coordinator (required for server agents and the state machine)
+        serverCoordinator.setGameServer(gameServer);
+
+        // Set the game object manager on the coordinator so it can update it
+        serverCoordinator.setGameObjectManager(gameObjectManager);
+    }
+
+    /**
+     * Routes a gameplay connection to this match.
+     */
+    void addConnection(Connection connection) {
+        gameServer.addConnection(connection);
+        hadPlayers = true;
+    }
+
+    /**
+     * @return true if this match has a profile (connected or not) for the client, so a reconnect returns here
+     */
+    boolean knowsClient(ClientUniqueId clientUniqueId) {
+        for (ClientProfile profile : serverCoordinator.clientManager.getAllInactiveProfiles()) {
+            if (profile != null && clientUniqueId.equals(profile.clientUniqueId)) {
+                return true;
+            }
+        }
+        return findClientProfile(clientUniqueId) != null;
+    }
+
+    /**
+     * @return The connected client's profile in this match, or null
+     */
+    ClientProfile findClientProfile(ClientUniqueId clientUniqueId) {
+        for (ClientProfile profile : serverCoordinator.clientManager.getAllClientProfiles()) {
+            if (profile != null && clientUniqueId.equals(profile.clientUniqueId)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true once every player who joined has left and no map is being generated
+     */
+    boolean isAbandoned() {
+        return hadPlayers && gameServer.getConnectionCount() == 0 && !gameServer.isRegenerating();
+    }
+
+    void prepareTick(float deltaTime) {
+        pendingDelta = deltaTime;
+    }
+
+    @Override
+    public Void call() {
+        update(pendingDelta);
+        return null;
+    }
+
+    /**
+     * Runs one tick. A failing match logs and carries on rather than stopping the others.
+     */
+    public void update(float deltaTime) {
+        TickProfiler profiler = serverCoordinator.getTickProfiler();
+        long start = System.nanoTime();
+        try {
+            serverCoordinator.update(deltaTime);
+        } catch (RuntimeException e) {
+            Log.error("ServerMatch", "Match " + id + " tick failed: " + e.getMessage(), e);
+        }
+        long duration = System.nanoTime() - start;
+        profiler.endTick(duration, duration > Constants.GAME_FRAME_TIME_NS);
+        profiler.reportIfDue();
+    }
+
+    public void dispose() {
+        serverCoordinator.dispose();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public GameServer getGameServer() {
+        return gameServer;
+    }
+
+    public ServerCoordinator getServerCoordinator() {
+        return serverCoordinator;
+    }
+}
@@ -6,6 +6,7 @@ import curly.octo.common.Constants;
 import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.esotericsoftware.minlog.Log;
+import curly.octo.server.tick.TickScheduler;
 
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -22,7 +23,6 @@ public class ThreadedHostedGameMode implements GameMode {
     private final AtomicBoolean initialized = new AtomicBoolean(false);
     private volatile Exception initializationException = null;
 
-    private static final int TARGET_FPS = Constants.GAME_TARGET_FPS;
     private static final long FRAME_TIME_NS = Constants.GAME_FRAME_TIME_NS;
 
     public ThreadedHostedGameMode(java.util.Random random) {
@@ -42,39 +42,12 @@ public class ThreadedHostedGameMode implements GameMode {
 
                 Log.info("ThreadedHostedGameMode", "Server thread initialized successfully");
 
-                // Run the server update loop
-                long lastTime = System.nanoTime();
-                while (running.get()) {
-                    long currentTime = System.nanoTime();
-                    float deltaTime = (currentTime - lastTime) / 1_000_000_000.0f;
-                    lastTime = currentTime;
-
-                    // Cap delta time to prevent large jumps
-                    if (deltaTime > 0.1f) {
-                        deltaTime = 0.1f;
-                    }
-
-                    try {
-                        // Update the hosted game mode
-                        hostedGameMode.update(deltaTime);
-
-                        // Sleep to maintain target FPS
-                        long frameEndTime = System.nanoTime();
-                        long frameTime = frameEndTime - currentTime;
-                        long sleepTime = FRAME_TIME_NS - frameTime;
-
-                        if (sleepTime > 0) {
-                            Thread.sleep(sleepTime / 1_000_000, (int) (sleepTime % 1_000_000));
-                        }
-
-                    } catch (IOException e) {
-                        Log.error("ThreadedHostedGameMode", "Server update error: " + e.getMessage());
-                        e.printStackTrace();
-                    } catch (InterruptedException e) {
-                        Log.info("ThreadedHostedGameMode", "Server thread interrupted");
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
+                // Run the server update loop at a fixed step until disposed
+                TickScheduler scheduler = new TickScheduler(FRAME_TIME_NS, Constants.SERVER_TICK_MAX_CATCH_UP,
+                    Constants.SERVER_TICK_WAKE_MARGIN_NS, hostedGameMode.getTickProfiler());
+                scheduler.run(hostedGameMode::update, running::get);
+                if (Thread.currentThread().isInterrupted()) {
+                    Log.info("ThreadedHostedGameMode", "Server thread interrupted");
                 }
 
             } catch (Exception e) {
@@ -0,0 +1,13 @@
+package curly.octo.server.interest;
+
+/**
+ * How closely a client follows an entity.
+ */
+public enum InterestLevel {
+    /** In the observer's chunk, a neighbouring chunk, or a chunk connected to it through open space: every snapshot */
+    FULL,
+    /** Within {@link curly.octo.common.Constants#INTEREST_REDUCED_CHUNK_RADIUS} chunks: every few snapshots */
+    REDUCED,
+    /** Out of range: no updates */
+    NONE
+}
@@ -0,0 +1,215 @@
+package curly.octo.server.interest;
+
+import com.badlogic.gdx.math.Vector3;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+import curly.octo.common.GameObject;
+import curly.octo.common.map.ChunkManager;
+import curly.octo.common.map.GameMap;
+import curly.octo.common.map.LevelChunk;
+import curly.octo.common.map.exploration.MapConnectivity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Area-of-interest index for replication: which server objects each client should hear about, and how often.
+ *
+ * Objects are bucketed by the {@link LevelChunk} they stand in. An observer follows objects in its own and
+ * neighbouring chunks at full rate, as well as objects in chunks linked to its chunk through reachable
+ * open space within {@link Constants#INTEREST_CONNECTED_CHUNK_HOPS} steps, which follows doorways and
+ * corridors between rooms. Objects in the wider radius get a reduced rate and the rest none.
+ *
+ * The index covers every object handed to {@link #refresh}, so NPCs and other objects tracked by
+ * ServerGameObjectManager can be filtered the same way as players. Not thread-safe; use it from the
+ * server tick.
+ */
+public class InterestManager {
+
+    private GameMap map;
+    private final Map<Long, Set<Long>> chunkLinks = new HashMap<>();         // chunk -> chunks joined by open space
+    private final Map<Long, Set<Long>> fullInterestChunks = new HashMap<>(); // observer chunk -> FULL chunks, built on demand
+    private final Map<Long, ArrayList<GameObject>> objectsByChunk = new HashMap<>();
+    private final Map<String, Long> chunkByEntity = new HashMap<>();
+
+    /**
+     * Re-indexes the objects by chunk, first rebuilding the chunk links if the map has changed.
+     */
+    public void refresh(GameMap currentMap, Iterable<? extends GameObject> objects) {
+        if (currentMap != map) {
+            setMap(currentMap);
+        }
+
+        for (ArrayList<GameObject> bucket : objectsByChunk.values()) {
+            bucket.clear();
+        }
+        chunkByEntity.clear();
+        for (GameObject object : objects) {
+            Vector3 position = object.getPosition();
+            if (position == null || object.entityId == null) {
+                continue;
+            }
+            long chunk = chunkKeyOf(position);
+            objectsByChunk.computeIfAbsent(chunk, key -> new ArrayList<>()).add(object);
+            chunkByEntity.put(object.entityId, chunk);
+        }
+        objectsByChunk.values().removeIf(ArrayList::isEmpty);
+    }
+
+    private void setMap(GameMap newMap) {
+        map = newMap;
+        chunkLinks.clear();
+        fullInterestChunks.clear();
+        if (newMap == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        MapConnectivity connectivity = newMap.getConnectivity();
+        if (!connectivity.isEmpty()) {
+            for (int y = connectivity.getMinY(); y <= connectivity.getMaxY(); y++) {
+                for (int z = connectivity.getMinZ(); z <= connectivity.getMaxZ(); z++) {
+                    for (int x = connectivity.getMinX(); x <= connectivity.getMaxX(); x++) {
+                        if (!connectivity.isReachableEmpty(x, y, z)) {
+                            continue;
+                        }
+                        // Only the last tile of a chunk along an axis can open into the next chunk
+                        if (isChunkEdge(x) && connectivity.isReachableEmpty(x + 1, y, z)) {
+                            link(x, y, z, x + 1, y, z);
+                        }
+                        if (isChunkEdge(y) && connectivity.isReachableEmpty(x, y + 1, z)) {
+                            link(x, y, z, x, y + 1, z);
+                        }
+                        if (isChunkEdge(z) && connectivity.isReachableEmpty(x, y, z + 1)) {
+                            link(x, y, z, x, y, z + 1);
+                        }
+                    }
+                }
+            }
+        }
+        Log.info("InterestManager", "Linked " + chunkLinks.size() + " chunks through open space in " +
+            (System.nanoTime() - start) / 1_000_000 + "ms");
+    }
+
+    private static boolean isChunkEdge(int tile) {
+        return Math.floorMod(tile + 1, LevelChunk.CHUNK_SIZE) == 0;
+    }
+
+    private void link(int ax, int ay, int az, int bx, int by, int bz) {
+        long a = chunkKeyOfTile(ax, ay, az);
+        long b = chunkKeyOfTile(bx, by, bz);
+        chunkLinks.computeIfAbsent(a, key -> new HashSet<>()).add(b);
+        chunkLinks.computeIfAbsent(b, key -> new HashSet<>()).add(a);
+    }
+
+    /**
+     * @return Interest of an observer at this position in the indexed entity, NONE if it is not indexed
+     */
+    public InterestLevel getInterest(Vector3 observerPosition, String entityId) {
+        Long targetChunk = chunkByEntity.get(entityId);
+        if (targetChunk == null) {
+            return InterestLevel.NONE;
+        }
+        return classify(chunkKeyOf(observerPosition), targetChunk);
+    }
+
+    /**
+     * Visits every indexed object an observer at this position has any interest in.
+     */
+    public void forEachInterest(Vector3 observerPosition, InterestVisitor visitor) {
+        long observerChunk = chunkKeyOf(observerPosition);
+        for (Map.Entry<Long, ArrayList<GameObject>> bucket : objectsByChunk.entrySet()) {
+            InterestLevel level = classify(observerChunk, bucket.getKey());
+            if (level == InterestLevel.NONE) {
+                continue;
+            }
+            for (GameObject object : bucket.getValue()) {
+                visitor.visit(object, level);
+            }
+        }
+    }
+
+    public interface InterestVisitor {
+        void visit(GameObject object, InterestLevel level);
+    }
+
+    /**
+     * @return true if an entity at this level is due an update in this snapshot. Reduced-rate entities
+     *         are staggered by handle so they do not all update on the same tick.
+     */
+    public static boolean isDue(InterestLevel level, int sequence, int handle) {
+        switch (level) {
+            case FULL:
+                return true;
+            case REDUCED:
+                return Math.floorMod(sequence + handle, Constants.INTEREST_REDUCED_RATE_DIVISOR) == 0;
+            default:
+                return false;
+        }
+    }
+
+    private InterestLevel classify(long observerChunk, long targetChunk) {
+        if (fullInterestChunks.computeIfAbsent(observerChunk, this::findFullInterestChunks).contains(targetChunk)) {
+            return InterestLevel.FULL;
+        }
+        int distance = Math.max(Math.abs(GameMap.keyToIndexX(observerChunk) - GameMap.keyToIndexX(targetChunk)),
+            Math.max(Math.abs(GameMap.keyToIndexY(observerChunk) - GameMap.keyToIndexY(targetChunk)),
+                Math.abs(GameMap.keyToIndexZ(observerChunk) - GameMap.keyToIndexZ(targetChunk))));
+        return distance <= Constants.INTEREST_REDUCED_CHUNK_RADIUS ? InterestLevel.REDUCED : InterestLevel.NONE;
+    }
+
+    /**
+     * @return The observer's chunk, its 26 neighbours, and every chunk within the hop limit through open space
+     */
+    private Set<Long> findFullInterestChunks(long observerChunk) {
+        Set<Long> result = new HashSet<>();
+        int cx = GameMap.keyToIndexX(observerChunk);
+        int cy = GameMap.keyToIndexY(observerChunk);
+        int cz = GameMap.keyToIndexZ(observerChunk);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    result.add(ChunkManager.encodeChunkCoordinates(cx + dx, cy + dy, cz + dz));
+                }
+            }
+        }
+
+        Map<Long, Integer> hops = new HashMap<>();
+        ArrayDeque<Long> frontier = new ArrayDeque<>();
+        hops.put(observerChunk, 0);
+        frontier.add(observerChunk);
+        while (!frontier.isEmpty()) {
+            long chunk = frontier.poll();
+            int depth = hops.get(chunk);
+            result.add(chunk);
+            if (depth == Constants.INTEREST_CONNECTED_CHUNK_HOPS) {
+                continue;
+            }
+            for (long next : chunkLinks.getOrDefault(chunk, Collections.emptySet())) {
+                if (hops.putIfAbsent(next, depth + 1) == null) {
+                    frontier.add(next);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long chunkKeyOf(Vector3 worldPosition) {
+        return chunkKeyOfTile(
+            (int) Math.floor(worldPosition.x / Constants.MAP_TILE_SIZE),
+            (int) Math.floor(worldPosition.y / Constants.MAP_TILE_SIZE),
+            (int) Math.floor(worldPosition.z / Constants.MAP_TILE_SIZE));
+    }
+
+    private static long chunkKeyOfTile(int x, int y, int z) {
+        return ChunkManager.encodeChunkCoordinates(
+            Math.floorDiv(x, LevelChunk.CHUNK_SIZE),
+            Math.floorDiv(y, LevelChunk.CHUNK_SIZE),
+            Math.floorDiv(z, LevelChunk.CHUNK_SIZE));
+    }
+}
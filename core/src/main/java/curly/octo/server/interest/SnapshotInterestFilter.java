@@ -0,0 +1,68 @@
+package curly.octo.server.interest;
+
+import com.badlogic.gdx.math.Vector3;
+import curly.octo.common.network.state.EntityStateSnapshot;
+import curly.octo.common.network.state.StateQuantizer;
+
+import java.util.Arrays;
+
+/**
+ * Narrows a world snapshot to what one client should receive this tick.
+ *
+ * Entities that are not due an update keep the state last sent to that client rather than being left
+ * out, so the delta against the client's baseline costs nothing for them and they are not re-announced
+ * when they come back into range. Entities the client has never been sent stay out until they are of interest.
+ */
+public final class SnapshotInterestFilter {
+
+    private SnapshotInterestFilter() {}
+
+    /**
+     * @param previous         The snapshot sent to this client on the previous tick, or null
+     * @param observerPosition Position of the client's player, or null to follow every entity at full rate
+     * @param observerHandle   Handle of the client's player, which is never sent back to it
+     */
+    public static EntityStateSnapshot filter(EntityStateSnapshot world, EntityStateSnapshot previous,
+                                             InterestManager interest, Vector3 observerPosition, int observerHandle) {
+        if (previous != null && !previous.quantizer.equals(world.quantizer)) {
+            previous = null;
+        }
+
+        int[] handles = new int[world.size()];
+        String[] entityIds = new String[world.size()];
+        int[] values = new int[world.size() * StateQuantizer.FIELD_COUNT];
+        int count = 0;
+        for (int i = 0; i < world.size(); i++) {
+            int handle = world.getHandle(i);
+            if (handle == observerHandle) {
+                continue;
+            }
+            InterestLevel level = observerPosition != null
+                ? interest.getInterest(observerPosition, world.getEntityId(i))
+                : InterestLevel.FULL;
+            int previousIndex = previous != null ? previous.indexOf(handle) : -1;
+
+            EntityStateSnapshot source;
+            int sourceIndex;
+            if (level != InterestLevel.NONE && (previousIndex < 0 || InterestManager.isDue(level, world.sequence, handle))) {
+                source = world;
+                sourceIndex = i;
+            } else if (previousIndex >= 0) {
+                source = previous;
+                sourceIndex = previousIndex;
+            } else {
+                continue;
+            }
+
+            handles[count] = handle;
+            entityIds[count] = world.getEntityId(i);
+            for (int field = 0; field < StateQuantizer.FIELD_COUNT; field++) {
+                values[count * StateQuantizer.FIELD_COUNT + field] = source.getValue(sourceIndex, field);
+            }
+            count++;
+        }
+
+        return new EntityStateSnapshot(world.sequence, world.quantizer, Arrays.copyOf(handles, count),
+            Arrays.copyOf(entityIds, count), Arrays.copyOf(values, count * StateQuantizer.FIELD_COUNT));
+    }
+}
@@ -1,5 +1,6 @@
 package curly.octo.server.serverAgents;
 import curly.octo.server.ServerGameObjectManager;
+import curly.octo.server.tick.TickPhase;
 
 public abstract class BaseAgent {
 
@@ -10,4 +11,11 @@ public abstract class BaseAgent {
     }
 
     public abstract void update(float deltaTime);
+
+    /**
+     * @return The tick phase this agent's update time is reported under
+     */
+    public TickPhase getTickPhase() {
+        return TickPhase.AGENTS;
+    }
 }
@@ -1,8 +1,9 @@
 package curly.octo.server.serverAgents;
 
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
 import com.esotericsoftware.minlog.Log;
-import curly.octo.common.WorldObject;
+import curly.octo.common.PlayerObject;
 import curly.octo.server.GameServer;
 import curly.octo.server.ServerGameObjectManager;
 
@@ -12,6 +13,11 @@ public class PlayerCollisionAgent extends BaseAgent {
     private static final float COLLISION_DISTANCE = 4.0f; // Distance threshold for collision
     private static final float MAX_IMPULSE_STRENGTH = 0.005f; // Maximum impulse force
     private final Vector3 tempVector = new Vector3();
+    private final Vector3 position1 = new Vector3();
+    private final Vector3 position2 = new Vector3();
+    private final Vector3 impulse1 = new Vector3();
+    private final Vector3 impulse2 = new Vector3();
+    private final Array<PlayerObject> nearbyPlayers = new Array<>();
 
     public PlayerCollisionAgent(ServerGameObjectManager objectManager, GameServer gameServer) {
         super(objectManager);
@@ -24,25 +30,25 @@ public class PlayerCollisionAgent extends BaseAgent {
             return;
         }
 
-        // Check all pairs of players for collisions
+        // Broad phase: only players in nearby grid cells are candidates, each pair is checked once
         for(int i = 0; i < objectManager.activePlayers.size(); i++) {
-            for(int j = i+1; j < objectManager.activePlayers.size(); j++) {
-                WorldObject player1 = objectManager.activePlayers.get(i);
-                WorldObject player2 = objectManager.activePlayers.get(j);
+            PlayerObject player1 = objectManager.activePlayers.get(i);
+            player1.getPosition(position1);
+            objectManager.getPlayersInRadius(position1, COLLISION_DISTANCE, nearbyPlayers);
 
-                Vector3 pos1 = player1.getPosition();
-                Vector3 pos2 = player2.getPosition();
-
-                if (pos1 == null || pos2 == null) {
+            for(int j = 0; j < nearbyPlayers.size; j++) {
+                PlayerObject player2 = nearbyPlayers.get(j);
+                if (player2 == player1 || player1.entityId.compareTo(player2.entityId) >= 0) {
                     continue;
                 }
+                player2.getPosition(position2);
 
-                float distance = distance(pos1, pos2);
+                float distance = distance(position1, position2);
 
                 // If players are too close, push them apart
                 if (distance < COLLISION_DISTANCE && distance > 0.01f) {
                     // Calculate collision normal (direction from player1 to player2)
-                    tempVector.set(pos2).sub(pos1).nor();
+                    tempVector.set(position2).sub(position1).nor();
 
                     // Calculate impulse strength based on overlap
                     // Stronger push when players are closer together
@@ -50,10 +56,10 @@ public class PlayerCollisionAgent extends BaseAgent {
                     float impulseStrength = Math.min(overlap * 2.0f, MAX_IMPULSE_STRENGTH);
 
                     // Create impulse vectors (equal and opposite)
-                    Vector3 impulse1 = new Vector3(tempVector).scl(-impulseStrength); // Push player1 away
-                    Vector3 impulse2 = new Vector3(tempVector).scl(impulseStrength);  // Push player2 away
+                    impulse1.set(tempVector).scl(-impulseStrength); // Push player1 away
+                    impulse2.set(tempVector).scl(impulseStrength);  // Push player2 away
 
-                    // Send impulses to both players
+                    // Send impulses to both players (the messages copy the vectors)
                     gameServer.sendImpulseToPlayer(player1.entityId, impulse1);
                     gameServer.sendImpulseToPlayer(player2.entityId, impulse2);
 
@@ -0,0 +1,100 @@
+package curly.octo.server.serverAgents;
+
+import com.badlogic.gdx.math.Vector3;
+import curly.octo.common.Constants;
+import curly.octo.common.PlayerObject;
+import curly.octo.common.network.state.EntityStateSnapshot;
+import curly.octo.common.network.state.StateQuantizer;
+import curly.octo.server.GameServer;
+import curly.octo.server.ServerGameObjectManager;
+import curly.octo.server.tick.TickPhase;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * Quantizes every player's state once per snapshot tick and hands it to the server, which filters it by
+ * each client's area of interest and sends it as per-client deltas.
+ * Player updates only overwrite the server's copy of the player; this agent is what distributes them.
+ */
+public class PlayerSnapshotAgent extends BaseAgent {
+
+    private static final float SNAPSHOT_INTERVAL = Constants.NETWORK_SNAPSHOT_INTERVAL_NS / 1_000_000_000f;
+
+    private final GameServer gameServer;
+    private float timeSinceSnapshot = 0f;
+    private int nextSequence = 0;
+
+    public PlayerSnapshotAgent(ServerGameObjectManager objectManager, GameServer gameServer) {
+        super(objectManager);
+        this.gameServer = gameServer;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        if (objectManager == null || gameServer == null) {
+            return;
+        }
+
+        timeSinceSnapshot += deltaTime;
+        if (timeSinceSnapshot < SNAPSHOT_INTERVAL) {
+            return;
+        }
+        // Drop whole missed intervals rather than bursting to catch up after a stall
+        timeSinceSnapshot %= SNAPSHOT_INTERVAL;
+
+        StateQuantizer quantizer = gameServer.getStateQuantizer();
+        if (quantizer == null) {
+            return;
+        }
+        EntityStateSnapshot snapshot = buildSnapshot(quantizer);
+        if (snapshot.size() > 0) {
+            objectManager.refreshInterest(gameServer.getCurrentMap());
+            gameServer.broadcastSnapshot(snapshot, objectManager.getInterestManager());
+        }
+    }
+
+    @Override
+    public TickPhase getTickPhase() {
+        return TickPhase.SNAPSHOT_SEND;
+    }
+
+    private EntityStateSnapshot buildSnapshot(StateQuantizer quantizer) {
+        // Only players that have been assigned to a client have a handle
+        ArrayList<HandledPlayer> players = new ArrayList<>();
+        for (PlayerObject player : objectManager.activePlayers) {
+            int handle = gameServer.getPlayerHandle(player.entityId);
+            if (player.getPosition() != null && handle >= 0) {
+                players.add(new HandledPlayer(handle, player));
+            }
+        }
+        players.sort(Comparator.comparingInt(entry -> entry.handle));
+
+        int[] handles = new int[players.size()];
+        String[] entityIds = new String[players.size()];
+        int[] values = new int[players.size() * StateQuantizer.FIELD_COUNT];
+        for (int i = 0; i < players.size(); i++) {
+            PlayerObject player = players.get(i).player;
+            Vector3 position = player.getPosition();
+            int offset = i * StateQuantizer.FIELD_COUNT;
+            handles[i] = players.get(i).handle;
+            entityIds[i] = player.entityId;
+            values[offset + StateQuantizer.X] = quantizer.quantize(StateQuantizer.X, position.x);
+            values[offset + StateQuantizer.Y] = quantizer.quantize(StateQuantizer.Y, position.y);
+            values[offset + StateQuantizer.Z] = quantizer.quantize(StateQuantizer.Z, position.z);
+            values[offset + StateQuantizer.YAW] = quantizer.quantize(StateQuantizer.YAW, player.getYaw());
+            values[offset + StateQuantizer.PITCH] = quantizer.quantize(StateQuantizer.PITCH, player.getPitch());
+        }
+        return new EntityStateSnapshot(nextSequence++, quantizer, handles, entityIds, values);
+    }
+
+    private static class HandledPlayer {
+        final int handle;
+        final PlayerObject player;
+
+        HandledPlayer(int handle, PlayerObject player) {
+            this.handle = handle;
+            this.player = player;
+        }
+    }
+}
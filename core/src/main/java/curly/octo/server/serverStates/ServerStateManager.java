@@ -9,36 +9,33 @@ import curly.octo.server.GameServer;
 
 import java.util.HashMap;
 
+/**
+ * State machine for one match; each ServerCoordinator owns its own.
+ */
 public class ServerStateManager {
 
-    private static BaseGameStateServer currentState;
+    private volatile BaseGameStateServer currentState;
 
-    private static HashMap<Class, BaseGameStateServer> cachedServerStates;
-
-    private static GameServer gameServer;
-    private static ServerCoordinator serverCoordinator;
-
-    public static void initializeManager(GameServer server, ServerCoordinator coordinator) {
-        gameServer = server;
-        serverCoordinator = coordinator;
+    private final HashMap<Class, BaseGameStateServer> cachedServerStates;
 
+    public ServerStateManager(GameServer gameServer, ServerCoordinator serverCoordinator) {
         cachedServerStates = new HashMap<>();
         cachedServerStates.put(ServerMapTransferState.class, new ServerMapTransferState(gameServer, serverCoordinator));
         cachedServerStates.put(ServerWaitForClientsToBeReadyState.class, new ServerWaitForClientsToBeReadyState(gameServer, serverCoordinator));
         cachedServerStates.put(ServerPlayingState.class, new ServerPlayingState(gameServer, serverCoordinator));
     }
 
-    public static void update(float delta) {
+    public void update(float delta) {
         if (currentState != null) {
             currentState.update(delta);
         }
     }
 
-    public static BaseGameStateServer getCurrentState() {
+    public BaseGameStateServer getCurrentState() {
         return currentState;
     }
 
-    public static void setServerState(Class newState) {
+    public void setServerState(Class newState) {
         if (currentState != null) {
             currentState.end();
         }
@@ -52,4 +49,3 @@ public class ServerStateManager {
 
     }
 }
-
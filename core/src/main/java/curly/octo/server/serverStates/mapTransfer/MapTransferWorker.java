@@ -3,6 +3,8 @@ package curly.octo.server.serverStates.mapTransfer;
 import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.common.Constants;
+import curly.octo.common.network.MapTransferCompression;
+import curly.octo.common.network.telemetry.NetworkTelemetry;
 import curly.octo.server.ServerCoordinator;
 import curly.octo.server.playerManagement.ClientConnectionKey;
 import curly.octo.server.playerManagement.ClientProfile;
@@ -10,39 +12,48 @@ import curly.octo.server.GameServer;
 import curly.octo.common.network.messages.legacyMessages.MapChunkMessage;
 import curly.octo.common.network.messages.mapTransferMessages.MapTransferBeginMessage;
 import curly.octo.server.playerManagement.ClientUniqueId;
+import curly.octo.server.workflows.BulkTransferScheduler;
+
+import java.nio.ByteBuffer;
 
 /**
  * Handles map transfer for a single client.
- * Manages chunked transfer with rate limiting to prevent network buffer overflow.
- * Uses dedicated bulk transfer connection with large buffers (64KB).
+ * The tick thread drives the handshake in update(); once the client's bulk connection (64KB buffers) is
+ * ready, the BulkTransferScheduler sends chunks on its own thread as the connection's write buffer drains.
+ * Writing the last chunk does not finish the worker: chunks still in flight are lost if the bulk
+ * connection drops, so the worker stays until the client reports MapTransferCompleteState and resends
+ * whatever the client asks for again in the meantime.
  */
-public class MapTransferWorker {
+public class MapTransferWorker implements BulkTransferScheduler.Transfer {
     private ClientUniqueId clientUniqueId;  // Client unique ID to match across gameplay and bulk servers (may be null initially)
     private final int gameplayConnectionId;  // For logging and profile lookup
     private final GameServer gameServer;
     private final ServerCoordinator serverCoordinator;
-    private final byte[] mapData;
+    private final ByteBuffer mapData;  // Shared transferred bytes, already encoded with the compression codec
+    private final MapTransferBeginMessage beginMessage;  // Shared by every worker of this transfer
     private final String mapId;
     private final int totalChunks;
 
-    public int currentChunkIndex = 0;
-    private boolean transferComplete = false;
+    // Sending state belongs to the bulk transfer thread once the worker is submitted to the scheduler
+    public volatile int currentChunkIndex = 0;  // Chunks the client has, whether sent or already cached
+    private volatile int[] requestedChunks;  // Chunks the client last asked for; null sends all
+    private int[] sendingChunks;  // The request being worked through (transfer thread only)
+    private int requestedPosition = 0;
+    private volatile boolean allSent = false;  // Every requested chunk was written; cleared by a new request
+    private volatile boolean transferComplete = false;  // The client acknowledged the map
+    private boolean submitted = false;  // Handed to the BulkTransferScheduler (tick thread only)
     private boolean hasLoggedMissingId = false;  // Track if we've logged the missing ID warning
     private boolean hasStarted = false;  // Track if start() has been successfully called
 
-    // AGGRESSIVE settings for dedicated bulk transfer connection (64KB buffers, no gameplay interference)
-    private static final int MAX_CHUNKS_PER_FRAME = 50; // Max chunks per update (works at least up to 500)
-    // Buffer threshold: 88% of 64KB bulk transfer buffer
-    // Much higher than gameplay connection since this is dedicated to map transfer
-    private static final int MAX_BUFFER_THRESHOLD = 57344; // ~56KB (88% of 64KB, leaves 8KB safety margin)
-
-    public MapTransferWorker(Connection gameplayConnection, GameServer gameServer, ServerCoordinator serverCoordinator, byte[] mapData, String mapId) {
+    public MapTransferWorker(Connection gameplayConnection, GameServer gameServer, ServerCoordinator serverCoordinator,
+                             ByteBuffer mapData, MapTransferBeginMessage beginMessage) {
         this.gameplayConnectionId = gameplayConnection.getID();  // For logging
         this.gameServer = gameServer;
         this.serverCoordinator = serverCoordinator;
         this.mapData = mapData;
-        this.mapId = mapId;
-        this.totalChunks = (int) Math.ceil((double) mapData.length / Constants.NETWORK_CHUNK_SIZE);
+        this.beginMessage = beginMessage;
+        this.mapId = beginMessage.mapId;
+        this.totalChunks = beginMessage.totalChunks;
 
         // Try to get clientUniqueId from gameplay connection's profile
         // May be null initially if client hasn't sent identification yet - will retry in update()
@@ -70,7 +81,7 @@ public class MapTransferWorker {
         // Client will receive this, enter MapTransferInitiatedState, and connect bulk channel
         // After that, we can send chunks via the bulk connection in update()
         Connection gameplayConn = null;
-        Connection[] gameplayConns = gameServer.getServer().getConnections().toArray(new Connection[0]);
+        Connection[] gameplayConns = gameServer.getConnections().toArray(new Connection[0]);
         for (Connection c : gameplayConns) {
             if (c.getID() == gameplayConnectionId) {
                 gameplayConn = c;
@@ -84,10 +95,11 @@ public class MapTransferWorker {
             return;
         }
 
-        MapTransferBeginMessage beginMsg = new MapTransferBeginMessage(mapId, totalChunks, mapData.length);
-        gameplayConn.sendTCP(beginMsg);  // Send via GAMEPLAY connection
+        telemetry().sendTCP(gameplayConn, beginMessage);  // Send via GAMEPLAY connection
         Log.info("MapTransferWorker", "Sent MapTransferBeginMessage to client " + clientUniqueId +
-                " (" + totalChunks + " chunks, " + mapData.length + " bytes) via gameplay connection");
+                " (" + totalChunks + " chunks, " + mapData.capacity() + " bytes " +
+                MapTransferCompression.name(beginMessage.compression) + ", " + beginMessage.uncompressedSize +
+                " bytes decoded) via gameplay connection");
         Log.info("MapTransferWorker", "Waiting for client to connect bulk transfer channel...");
         hasStarted = true;  // Mark as started
     }
@@ -97,7 +109,7 @@ public class MapTransferWorker {
 
         // Retry getting clientUniqueId if it was null initially (race condition with identification)
         if (clientUniqueId == null) {
-            Connection[] gameplayConns = gameServer.getServer().getConnections().toArray(new Connection[0]);
+            Connection[] gameplayConns = gameServer.getConnections().toArray(new Connection[0]);
             for (Connection c : gameplayConns) {
                 if (c.getID() == gameplayConnectionId) {
                     ClientConnectionKey clientKey = new ClientConnectionKey(c);
@@ -125,7 +137,7 @@ public class MapTransferWorker {
 
         // Get gameplay connection for state checks (do this BEFORE bulk connection check)
         Connection gameplayConn = null;
-        Connection[] gameplayConns = gameServer.getServer().getConnections().toArray(new Connection[0]);
+        Connection[] gameplayConns = gameServer.getConnections().toArray(new Connection[0]);
         for (Connection c : gameplayConns) {
             if (c.getID() == gameplayConnectionId) {
                 gameplayConn = c;
@@ -171,39 +183,100 @@ public class MapTransferWorker {
             return;
         }
 
-        int chunksSentThisFrame = 0;
+        // From here the transfer thread sends chunks whenever the bulk connection can take them. The scheduler
+        // drops transfers whose connection closed; a client that reconnects asks for the chunks it is missing
+        BulkTransferScheduler scheduler = gameServer.getBulkServer().getScheduler();
+        if (!allSent && !scheduler.isScheduled(this)) {
+            if (submitted) {
+                Log.info("MapTransferWorker", "Resuming transfer to client " + clientUniqueId + " at chunk " + currentChunkIndex);
+            }
+            submitted = true;
+            scheduler.submit(bulkConn, this);
+        }
+    }
 
-        // Send chunks with rate limiting and buffer monitoring on BULK connection
-        while (currentChunkIndex < totalChunks && chunksSentThisFrame < MAX_CHUNKS_PER_FRAME) {
-            // Check bulk connection TCP write buffer
-            int pendingBytes = bulkConn.getTcpWriteBufferSize();
-            if (pendingBytes >= MAX_BUFFER_THRESHOLD) {
-                if (chunksSentThisFrame == 0 && currentChunkIndex % 20 == 0) {
-                    Log.info("MapTransferWorker", "Bulk buffer full (" + pendingBytes + " bytes), waiting");
+    @Override
+    public boolean sendNextChunk(Connection bulkConn) {
+        int chunkIndex;
+        while (true) {
+            int[] requested = requestedChunks;
+            if (requested != sendingChunks) {
+                sendingChunks = requested;
+                requestedPosition = 0;
+            }
+            if (requested != null) {
+                if (requestedPosition < requested.length) {
+                    chunkIndex = requested[requestedPosition++];
+                    currentChunkIndex = totalChunks - (requested.length - requestedPosition);
+                    break;
                 }
+            } else if (currentChunkIndex < totalChunks) {
+                chunkIndex = currentChunkIndex++;
                 break;
             }
 
-            sendChunk(bulkConn, currentChunkIndex);
-            currentChunkIndex++;
-            chunksSentThisFrame++;
+            allSent = true;
+            // A request that arrived while this one finished is picked up here rather than lost
+            if (requestedChunks == requested) {
+                Log.info("MapTransferWorker", "Sent every requested chunk to client " + clientUniqueId +
+                    ", waiting for it to confirm the map");
+                return false;
+            }
+            allSent = false;
         }
 
-        // Check if complete
-        if (currentChunkIndex >= totalChunks && !transferComplete) {
-            complete();
-        }
+        telemetry().recordBulkWriteBuffer(bulkConn, bulkConn.getTcpWriteBufferSize());
+        sendChunk(bulkConn, chunkIndex);
+        return true;
     }
 
     private void sendChunk(Connection bulkConn, int chunkIndex) {
         int offset = chunkIndex * Constants.NETWORK_CHUNK_SIZE;
-        int chunkLength = Math.min(Constants.NETWORK_CHUNK_SIZE, mapData.length - offset);
+        int chunkLength = Math.min(Constants.NETWORK_CHUNK_SIZE, mapData.capacity() - offset);
+
+        // A view of the shared buffer; the serializer copies it straight into the connection's write buffer
+        ByteBuffer chunkSlice = mapData.duplicate();
+        chunkSlice.position(offset).limit(offset + chunkLength);
+
+        MapChunkMessage chunkMsg = new MapChunkMessage(mapId, chunkIndex, totalChunks, chunkSlice.slice());
+        telemetry().sendTCP(bulkConn, chunkMsg);  // Send via BULK connection (required - too large for gameplay buffer)
+    }
+
+    private NetworkTelemetry telemetry() {
+        return gameServer.getNetworkManager().getTelemetry();
+    }
 
-        byte[] chunkData = new byte[chunkLength];
-        System.arraycopy(mapData, offset, chunkData, 0, chunkLength);
+    /**
+     * Replaces whatever is left to send with the chunks the client reports missing: the ones its map
+     * cache lacked before the transfer, the ones lost in flight when its bulk connection dropped, or the
+     * whole map when it could not be decoded.
+     */
+    public void requestChunks(int[] chunkIndices) {
+        if (transferComplete) {
+            Log.warn("MapTransferWorker", "Ignoring chunk request from client " + clientUniqueId + " - transfer already complete");
+            return;
+        }
+        for (int chunkIndex : chunkIndices) {
+            if (chunkIndex < 0 || chunkIndex >= totalChunks) {
+                Log.warn("MapTransferWorker", "Ignoring chunk request from client " + clientUniqueId +
+                    " - chunk " + chunkIndex + " out of range");
+                return;
+            }
+        }
+        Log.info("MapTransferWorker", "Client " + clientUniqueId + " has " + (totalChunks - chunkIndices.length) +
+            " of " + totalChunks + " chunks, sending the rest");
+        currentChunkIndex = totalChunks - chunkIndices.length;
+        requestedChunks = chunkIndices;
+        allSent = false;
+    }
 
-        MapChunkMessage chunkMsg = new MapChunkMessage(mapId, chunkIndex, totalChunks, chunkData);
-        bulkConn.sendTCP(chunkMsg);  // Send via BULK connection (required - too large for gameplay buffer)
+    /**
+     * Stops the transfer thread sending for this worker, e.g. when the transfer state ends early.
+     */
+    public void cancel() {
+        if (submitted) {
+            gameServer.getBulkServer().getScheduler().cancel(this);
+        }
     }
 
     private void complete() {
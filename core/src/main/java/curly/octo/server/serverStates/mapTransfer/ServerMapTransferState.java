@@ -4,24 +4,31 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
 import curly.octo.server.ServerCoordinator;
-import curly.octo.client.clientStates.mapTransferStates.MapTransferSharedStatics;
 import curly.octo.server.playerManagement.*;
 import curly.octo.server.serverStates.BaseGameStateServer;
-import curly.octo.server.serverStates.ServerStateManager;
 import curly.octo.common.map.GameMap;
+import curly.octo.common.map.storage.MapWireFormat;
 import curly.octo.common.network.messages.MapTransferPayload;
 import curly.octo.server.GameServer;
-import curly.octo.common.network.NetworkManager;
+import curly.octo.server.workflows.PreparedMap;
+import curly.octo.common.network.MapContentHash;
+import curly.octo.common.network.MapTransferCompression;
+import curly.octo.common.network.messages.mapTransferMessages.MapChunkRequestMessage;
 import curly.octo.common.network.messages.mapTransferMessages.MapTransferAllClientProgressMessage;
+import curly.octo.common.network.messages.mapTransferMessages.MapTransferBeginMessage;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Server state that manages map transfers to multiple clients.
@@ -29,8 +36,9 @@ import java.util.Queue;
  */
 public class ServerMapTransferState extends BaseGameStateServer {
 
-    private byte[] cachedMapData; // Serialize once, reuse for all clients
-    private HashMap<Integer, MapTransferWorker> activeWorkers; // connectionId -> worker
+    private ByteBuffer cachedMapData; // Serialize and compress once; every worker sends slices of this buffer
+    private MapTransferBeginMessage cachedBeginMessage; // Codec, sizes and content hashes of cachedMapData
+    private Map<Integer, MapTransferWorker> activeWorkers; // connectionId -> worker, also read by network handlers
     private boolean hasStartedTransfers = false; // Track if any transfers have been initiated
     private Queue<Connection> pendingClients = new LinkedList<>(); // Clients waiting for cachedMapData
 
@@ -40,7 +48,7 @@ public class ServerMapTransferState extends BaseGameStateServer {
 
     public ServerMapTransferState(GameServer gameServer, ServerCoordinator serverCoordinator) {
         super(gameServer, serverCoordinator);
-        activeWorkers = new HashMap<>();
+        activeWorkers = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -50,18 +58,56 @@ public class ServerMapTransferState extends BaseGameStateServer {
         // Reset transfer tracking
         hasStartedTransfers = false;
 
-        // Serialize map once
-        cachedMapData = getSerializedMapData();
-        if (cachedMapData != null) {
-            Log.info("ServerMapTransferState", "Cached map data: " + cachedMapData.length + " bytes");
-        } else {
+        // The map itself is normally encoded ahead of time by the preparation pipeline
+        long encodeStart = System.nanoTime();
+        PreparedMap preparedMap = serverCoordinator.getPreparedMap();
+        if (preparedMap == null) {
+            GameMap currentMap = serverCoordinator.getMapManager();
+            if (currentMap == null) {
+                Log.error("ServerMapTransferState", "Cannot serialize - no map available");
+                return;
+            }
+            Log.info("ServerMapTransferState", "Map was not prepared ahead, encoding it now");
+            preparedMap = PreparedMap.encode(0, currentMap);
+        }
+
+        // Only the game objects are serialized per transfer, then appended to the encoded map once;
+        // every worker streams the same encoded bytes
+        byte[] serializedPayload = getSerializedPayload(preparedMap.getMap());
+        if (serializedPayload == null) {
             Log.error("ServerMapTransferState", "Failed to serialize map data");
             return;
         }
+        MapTransferCompression.Prefix encodedMap = preparedMap.getEncodedMap();
+        byte[] encodedMapData = MapTransferCompression.compress(encodedMap, serializedPayload, 0, serializedPayload.length);
+        int serializedLength = encodedMap.getLength() + serializedPayload.length;
+        // Workers only read duplicates of this buffer. It stays array-backed (not asReadOnlyBuffer) so
+        // chunk slices can be written into the connection without copying them out first
+        cachedMapData = ByteBuffer.wrap(encodedMapData);
+        long encodeTime = System.nanoTime() - encodeStart;
+
+        // Hashes let clients reuse a cached copy of the map, or of individual chunks, instead of downloading them.
+        // Chunks holding only the map were hashed when it was encoded
+        int totalChunks = (encodedMapData.length + Constants.NETWORK_CHUNK_SIZE - 1) / Constants.NETWORK_CHUNK_SIZE;
+        cachedBeginMessage = new MapTransferBeginMessage(preparedMap.getMap().getMapId(), totalChunks,
+            encodedMapData.length, encodedMap.getCodec(), serializedLength);
+        cachedBeginMessage.contentHash = preparedMap.getContentHash();
+        long[] mapChunkHashes = preparedMap.getChunkHashes();
+        long[] chunkHashes = Arrays.copyOf(mapChunkHashes, totalChunks);
+        for (int i = mapChunkHashes.length; i < totalChunks; i++) {
+            int offset = i * Constants.NETWORK_CHUNK_SIZE;
+            chunkHashes[i] = MapContentHash.chunkHash(encodedMapData, offset,
+                Math.min(Constants.NETWORK_CHUNK_SIZE, encodedMapData.length - offset));
+        }
+        cachedBeginMessage.chunkHashes = chunkHashes;
+
+        Log.info("ServerMapTransferState", "Cached map data: " + encodedMapData.length + " bytes (" +
+            MapTransferCompression.name(encodedMap.getCodec()) + " from " + serializedLength + " bytes in " +
+            encodeTime / 1_000_000 + "ms, content hash " + cachedBeginMessage.contentHash + ")");
 
         // Create workers for ALL currently connected clients
         // This handles initial entry and mid-game joins where existing clients need to be notified
-        for (Connection conn : gameServer.getServer().getConnections()) {
+        for (Connection conn : gameServer.getConnections()) {
             // Skip disconnected clients
             ClientConnectionKey clientKey = new ClientConnectionKey(conn);
             ClientProfile profile = serverCoordinator.getClientProfile(clientKey);
@@ -105,7 +151,8 @@ public class ServerMapTransferState extends BaseGameStateServer {
             return;
         }
 
-        MapTransferWorker worker = new MapTransferWorker(connection, gameServer, serverCoordinator, cachedMapData, currentMap.getMapId());
+        MapTransferWorker worker = new MapTransferWorker(connection, gameServer, serverCoordinator,
+            cachedMapData, cachedBeginMessage);
         activeWorkers.put(connection.getID(), worker);
         worker.start();
         hasStartedTransfers = true; // Mark that we've started at least one transfer
@@ -122,7 +169,7 @@ public class ServerMapTransferState extends BaseGameStateServer {
         if (progressBroadcastTimer >= PROGRESS_BROADCAST_INTERVAL) {
             MapTransferAllClientProgressMessage groupProgress = constructGroupProgressMessage();
             // Broadcast progress to ALL clients (including those already in ClientPlayingState)
-            NetworkManager.sendToAllClients(groupProgress);
+            gameServer.getNetworkManager().sendToAllClients(groupProgress);
             progressBroadcastTimer = 0f;
         }
 
@@ -152,14 +199,14 @@ public class ServerMapTransferState extends BaseGameStateServer {
 
         if (hasStartedTransfers && activeWorkers.isEmpty()) {
             Log.info("ServerMapTransferState", "All transfers complete, transitioning to wait for clients");
-            ServerStateManager.setServerState(ServerWaitForClientsToBeReadyState.class);
+            serverCoordinator.getStateManager().setServerState(ServerWaitForClientsToBeReadyState.class);
         }
     }
 
     private MapTransferAllClientProgressMessage constructGroupProgressMessage() {
         HashMap<ClientUniqueId, Integer> clientIdToChunkProgressMap = new HashMap<>();
         // Iterate through ALL connected clients
-        for (Connection conn : gameServer.getServer().getConnections()) {
+        for (Connection conn : gameServer.getConnections()) {
             ClientConnectionKey clientKey = new ClientConnectionKey(conn);
             ClientProfile profile = serverCoordinator.getClientProfile(clientKey);
 
@@ -179,7 +226,7 @@ public class ServerMapTransferState extends BaseGameStateServer {
                 clientIdToChunkProgressMap.put(profile.clientUniqueId, worker.currentChunkIndex);
             } else {
                 // Client already has the map - mark as 100% complete
-                clientIdToChunkProgressMap.put(profile.clientUniqueId, MapTransferSharedStatics.getTotalChunks());
+                clientIdToChunkProgressMap.put(profile.clientUniqueId, cachedBeginMessage != null ? cachedBeginMessage.totalChunks : 0);
             }
         }
 
@@ -190,21 +237,21 @@ public class ServerMapTransferState extends BaseGameStateServer {
     public void end() {
         Log.info("ServerMapTransferState", "Exiting map transfer state, cleaning up " +
                 activeWorkers.size() + " active workers");
+        for (MapTransferWorker worker : activeWorkers.values()) {
+            worker.cancel();
+        }
         activeWorkers.clear();
         cachedMapData = null; // Release memory
+        cachedBeginMessage = null;
         pendingClients.clear();
     }
 
-    private byte[] getSerializedMapData() {
-        GameMap currentMap = serverCoordinator.getMapManager();
-        if (currentMap == null) {
-            Log.error("ServerMapTransferState", "Cannot serialize - no map available");
-            return null;
-        }
-
+    /**
+     * @return Kryo payload of every game object, which follows the map's wire format in the transfer
+     */
+    private byte[] getSerializedPayload(GameMap currentMap) {
         // Gather all game objects from ServerGameObjectManager
         MapTransferPayload payload = new MapTransferPayload();
-        payload.map = currentMap;
 
         if (serverCoordinator.getGameObjectManager() != null) {
             payload.gameObjects = serverCoordinator.getGameObjectManager().getAllObjects();
@@ -215,16 +262,20 @@ public class ServerMapTransferState extends BaseGameStateServer {
             Log.warn("ServerMapTransferState", "No game object manager - transferring map only");
         }
 
+        // The map goes first in its own wire format so clients can decode it while the transfer is still
+        // arriving; the rest of the payload follows as a regular Kryo object with its map field left null
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
              Output output = new Output(baos)) {
-            Kryo kryo = gameServer.getServer().getKryo();
-            kryo.writeObject(output, payload);
+            Kryo kryo = gameServer.getPayloadKryo();
+            synchronized (kryo) {
+                kryo.writeObject(output, payload);
+            }
             output.flush();
-            byte[] mapData = baos.toByteArray();
+            byte[] payloadData = baos.toByteArray();
             Log.info("ServerMapTransferState", "Serialized transfer payload: map " + currentMap.hashCode() +
                     " + " + payload.gameObjects.size() + " objects " +
-                    "(" + mapData.length + " bytes, " + currentMap.getAllTiles().size() + " tiles)");
-            return mapData;
+                    "(" + payloadData.length + " bytes after the map, " + currentMap.getTileCount() + " tiles, map format v" + MapWireFormat.VERSION + ")");
+            return payloadData;
         } catch (IOException exception) {
             Log.error("ServerMapTransferState", "Failed to serialize transfer payload: " + exception.getMessage());
             exception.printStackTrace();
@@ -232,6 +283,19 @@ public class ServerMapTransferState extends BaseGameStateServer {
         }
     }
 
+    /**
+     * Narrows a client's transfer to the chunks missing from its map cache.
+     */
+    public void handleChunkRequest(Connection connection, MapChunkRequestMessage request) {
+        MapTransferWorker worker = activeWorkers.get(connection.getID());
+        if (worker == null || cachedBeginMessage == null || !cachedBeginMessage.mapId.equals(request.mapId)) {
+            Log.warn("ServerMapTransferState", "Ignoring chunk request for map " + request.mapId +
+                " from client " + connection.getID() + " - no matching transfer");
+            return;
+        }
+        worker.requestChunks(request.chunkIndices != null ? request.chunkIndices : new int[0]);
+    }
+
     public int getActiveWorkerCount() {
         return activeWorkers.size();
     }
@@ -7,10 +7,8 @@ import curly.octo.server.playerManagement.ClientConnectionKey;
 import curly.octo.server.playerManagement.ClientProfile;
 import curly.octo.server.playerManagement.ConnectionStatus;
 import curly.octo.server.serverStates.BaseGameStateServer;
-import curly.octo.server.serverStates.ServerStateManager;
 import curly.octo.server.serverStates.playing.ServerPlayingState;
 import curly.octo.server.GameServer;
-import curly.octo.common.network.NetworkManager;
 import curly.octo.common.network.messages.mapTransferMessages.MapTransferCompleteMessage;
 
 import java.util.Map;
@@ -58,8 +56,8 @@ public class ServerWaitForClientsToBeReadyState extends BaseGameStateServer {
         if (allClientsReady) {
             Log.info("ServerWaitForClientsToBeReadyState",
                      "ALL CLIENTS READY! Transitioning to ServerPlayingState and sending MapTransferCompleteMessage");
-            ServerStateManager.setServerState(ServerPlayingState.class);
-            NetworkManager.sendToAllClients(new MapTransferCompleteMessage());
+            serverCoordinator.getStateManager().setServerState(ServerPlayingState.class);
+            gameServer.getNetworkManager().sendToAllClients(new MapTransferCompleteMessage());
             Log.info("ServerWaitForClientsToBeReadyState", "MapTransferCompleteMessage sent to all clients");
         }
     }
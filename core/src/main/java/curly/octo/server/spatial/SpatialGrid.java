@@ -0,0 +1,326 @@
+package curly.octo.server.spatial;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.LongMap;
+import curly.octo.common.Constants;
+import curly.octo.common.GameObject;
+import curly.octo.common.map.GameMap;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Uniform grid of game objects over tile coordinates, for broad-phase and proximity queries.
+ *
+ * Each object is kept in the cell containing its position as of the last {@link #update} or {@link #sync};
+ * an object only changes cell when it has moved across a cell boundary. Queries read those cached positions,
+ * fill a caller-supplied buffer and allocate nothing once the internal buffers have grown. Empty cells are
+ * recycled.
+ *
+ * Not thread-safe; maintain and query it from the server tick.
+ */
+public class SpatialGrid<T extends GameObject> {
+
+    private final float cellSize;
+    private final LongMap<Cell<T>> cells = new LongMap<>();
+    private final IdentityHashMap<T, Entry<T>> entries = new IdentityHashMap<>();
+    private final Array<Entry<T>> entryList = new Array<>(false, 16);
+    private final Array<Cell<T>> freeCells = new Array<>(false, 16);
+
+    // Query scratch, reused between calls
+    private final Vector3 position = new Vector3();
+    private final Array<Cell<T>> cellBuffer = new Array<>(false, 32);
+    private final Array<Entry<T>> nearestEntries = new Array<>(true, 8);
+    private final FloatArray nearestDistances = new FloatArray(true, 8);
+
+    private int generation;
+
+    /**
+     * @param cellTiles Side of a cell in tiles
+     */
+    public SpatialGrid(int cellTiles) {
+        this.cellSize = cellTiles * Constants.MAP_TILE_SIZE;
+    }
+
+    private static final class Entry<T> {
+        final T object;
+        float x, y, z;
+        long cellKey;
+        int indexInCell;
+        int indexInList;
+        int generation;
+
+        Entry(T object) {
+            this.object = object;
+        }
+    }
+
+    private static final class Cell<T> {
+        final Array<Entry<T>> entries = new Array<>(false, 4);
+    }
+
+    // =====================================
+    // MAINTENANCE
+    // =====================================
+
+    /**
+     * Adds the object, or moves it to the cell of its current position if it has crossed into another.
+     */
+    public void update(T object) {
+        object.getPosition(position);
+        long key = cellKey(cellCoord(position.x), cellCoord(position.y), cellCoord(position.z));
+
+        Entry<T> entry = entries.get(object);
+        if (entry == null) {
+            entry = new Entry<>(object);
+            entries.put(object, entry);
+            entry.indexInList = entryList.size;
+            entryList.add(entry);
+            addToCell(entry, key);
+        } else if (entry.cellKey != key) {
+            removeFromCell(entry);
+            addToCell(entry, key);
+        }
+        entry.x = position.x;
+        entry.y = position.y;
+        entry.z = position.z;
+        entry.generation = generation;
+    }
+
+    public void remove(T object) {
+        Entry<T> entry = entries.remove(object);
+        if (entry == null) {
+            return;
+        }
+        removeFromCell(entry);
+        entryList.removeIndex(entry.indexInList);
+        if (entry.indexInList < entryList.size) {
+            entryList.get(entry.indexInList).indexInList = entry.indexInList;
+        }
+    }
+
+    /**
+     * Updates every object in the list and removes objects that are not in it.
+     */
+    public void sync(List<? extends T> objects) {
+        generation++;
+        for (int i = 0; i < objects.size(); i++) {
+            update(objects.get(i));
+        }
+        // Backwards, so the entry swapped into a removed slot has already been checked
+        for (int i = entryList.size - 1; i >= 0; i--) {
+            Entry<T> entry = entryList.get(i);
+            if (entry.generation != generation) {
+                remove(entry.object);
+            }
+        }
+    }
+
+    public void clear() {
+        for (Cell<T> cell : cells.values()) {
+            cell.entries.clear();
+            freeCells.add(cell);
+        }
+        cells.clear();
+        entries.clear();
+        entryList.clear();
+    }
+
+    public int size() {
+        return entryList.size;
+    }
+
+    private void addToCell(Entry<T> entry, long key) {
+        Cell<T> cell = cells.get(key);
+        if (cell == null) {
+            cell = freeCells.size > 0 ? freeCells.pop() : new Cell<>();
+            cells.put(key, cell);
+        }
+        entry.cellKey = key;
+        entry.indexInCell = cell.entries.size;
+        cell.entries.add(entry);
+    }
+
+    private void removeFromCell(Entry<T> entry) {
+        Cell<T> cell = cells.get(entry.cellKey);
+        cell.entries.removeIndex(entry.indexInCell);
+        if (entry.indexInCell < cell.entries.size) {
+            cell.entries.get(entry.indexInCell).indexInCell = entry.indexInCell;
+        }
+        if (cell.entries.size == 0) {
+            cells.remove(entry.cellKey);
+            freeCells.add(cell);
+        }
+    }
+
+    // =====================================
+    // QUERIES
+    // =====================================
+
+    /**
+     * Replaces the contents of {@code out} with every object within the radius of the center.
+     * @return Number of objects found
+     */
+    public int queryRadius(Vector3 center, float radius, Array<? super T> out) {
+        out.clear();
+        float radiusSquared = radius * radius;
+        collectCells(cellCoord(center.x - radius), cellCoord(center.y - radius), cellCoord(center.z - radius),
+            cellCoord(center.x + radius), cellCoord(center.y + radius), cellCoord(center.z + radius));
+        for (int c = 0; c < cellBuffer.size; c++) {
+            Array<Entry<T>> cellEntries = cellBuffer.get(c).entries;
+            for (int i = 0; i < cellEntries.size; i++) {
+                Entry<T> entry = cellEntries.get(i);
+                if (Vector3.dst2(center.x, center.y, center.z, entry.x, entry.y, entry.z) <= radiusSquared) {
+                    out.add(entry.object);
+                }
+            }
+        }
+        return out.size;
+    }
+
+    /**
+     * Replaces the contents of {@code out} with every object inside the axis-aligned box.
+     * @return Number of objects found
+     */
+    public int queryBox(Vector3 min, Vector3 max, Array<? super T> out) {
+        out.clear();
+        collectCells(cellCoord(min.x), cellCoord(min.y), cellCoord(min.z), cellCoord(max.x), cellCoord(max.y), cellCoord(max.z));
+        for (int c = 0; c < cellBuffer.size; c++) {
+            Array<Entry<T>> cellEntries = cellBuffer.get(c).entries;
+            for (int i = 0; i < cellEntries.size; i++) {
+                Entry<T> entry = cellEntries.get(i);
+                if (entry.x >= min.x && entry.x <= max.x && entry.y >= min.y && entry.y <= max.y &&
+                    entry.z >= min.z && entry.z <= max.z) {
+                    out.add(entry.object);
+                }
+            }
+        }
+        return out.size;
+    }
+
+    /**
+     * Replaces the contents of {@code out} with up to {@code k} objects nearest to the center, closest first.
+     * Searches outwards one ring of cells at a time and stops once no unvisited cell can hold anything closer.
+     *
+     * @param maxRadius Objects further away than this are ignored; may be {@link Float#POSITIVE_INFINITY}
+     * @return Number of objects found
+     */
+    public int queryNearest(Vector3 center, int k, float maxRadius, Array<? super T> out) {
+        out.clear();
+        nearestEntries.clear();
+        nearestDistances.clear();
+        if (k <= 0 || entryList.size == 0) {
+            return 0;
+        }
+        float maxRadiusSquared = maxRadius * maxRadius;
+        int cx = cellCoord(center.x);
+        int cy = cellCoord(center.y);
+        int cz = cellCoord(center.z);
+
+        for (int ring = 0; ; ring++) {
+            long ringCells = ring == 0 ? 1 : cube(2L * ring + 1) - cube(2L * ring - 1);
+            if (ringCells > cells.size) {
+                // Visiting the remaining rings cell by cell would cost more than checking every occupied cell
+                for (LongMap.Entry<Cell<T>> cell : cells.entries()) {
+                    if (chebyshev(cell.key, cx, cy, cz) >= ring) {
+                        offerNearest(cell.value, center, k, maxRadiusSquared);
+                    }
+                }
+                break;
+            }
+            for (int x = cx - ring; x <= cx + ring; x++) {
+                for (int y = cy - ring; y <= cy + ring; y++) {
+                    for (int z = cz - ring; z <= cz + ring; z++) {
+                        if (Math.max(Math.abs(x - cx), Math.max(Math.abs(y - cy), Math.abs(z - cz))) != ring) {
+                            continue;
+                        }
+                        Cell<T> cell = cells.get(cellKey(x, y, z));
+                        if (cell != null) {
+                            offerNearest(cell, center, k, maxRadiusSquared);
+                        }
+                    }
+                }
+            }
+            // Anything in a further ring is at least ring * cellSize away
+            float reached = ring * cellSize;
+            if (reached * reached >= maxRadiusSquared ||
+                (nearestEntries.size == k && nearestDistances.peek() <= reached * reached)) {
+                break;
+            }
+        }
+
+        for (int i = 0; i < nearestEntries.size; i++) {
+            out.add(nearestEntries.get(i).object);
+        }
+        return out.size;
+    }
+
+    private void offerNearest(Cell<T> cell, Vector3 center, int k, float maxRadiusSquared) {
+        for (int i = 0; i < cell.entries.size; i++) {
+            Entry<T> entry = cell.entries.get(i);
+            float distanceSquared = Vector3.dst2(center.x, center.y, center.z, entry.x, entry.y, entry.z);
+            if (distanceSquared > maxRadiusSquared || (nearestEntries.size == k && distanceSquared >= nearestDistances.peek())) {
+                continue;
+            }
+            int insertAt = nearestEntries.size;
+            while (insertAt > 0 && nearestDistances.get(insertAt - 1) > distanceSquared) {
+                insertAt--;
+            }
+            if (nearestEntries.size == k) {
+                nearestEntries.pop();
+                nearestDistances.pop();
+            }
+            nearestEntries.insert(insertAt, entry);
+            nearestDistances.insert(insertAt, distanceSquared);
+        }
+    }
+
+    /**
+     * Fills the cell buffer with the occupied cells in the range, scanning whichever is smaller:
+     * the range or the set of occupied cells.
+     */
+    private void collectCells(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        cellBuffer.clear();
+        long volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        if (volume > cells.size) {
+            for (LongMap.Entry<Cell<T>> cell : cells.entries()) {
+                int x = GameMap.keyToIndexX(cell.key);
+                int y = GameMap.keyToIndexY(cell.key);
+                int z = GameMap.keyToIndexZ(cell.key);
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                    cellBuffer.add(cell.value);
+                }
+            }
+            return;
+        }
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    Cell<T> cell = cells.get(cellKey(x, y, z));
+                    if (cell != null) {
+                        cellBuffer.add(cell);
+                    }
+                }
+            }
+        }
+    }
+
+    private int cellCoord(float world) {
+        return (int) Math.floor(world / cellSize);
+    }
+
+    private static long cellKey(int x, int y, int z) {
+        return GameMap.packTileKey(x, y, z);
+    }
+
+    private static int chebyshev(long key, int cx, int cy, int cz) {
+        return Math.max(Math.abs(GameMap.keyToIndexX(key) - cx),
+            Math.max(Math.abs(GameMap.keyToIndexY(key) - cy), Math.abs(GameMap.keyToIndexZ(key) - cz)));
+    }
+
+    private static long cube(long value) {
+        return value * value * value;
+    }
+}
@@ -0,0 +1,58 @@
+package curly.octo.server.tick;
+
+import curly.octo.common.network.telemetry.HistogramBuckets;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of durations in microsecond buckets laid out as described in {@link HistogramBuckets}.
+ * Only the tick thread records, so the counters are plain longs. Recording never allocates.
+ */
+public final class LatencyHistogram {
+
+    private final long[] counts = new long[HistogramBuckets.COUNT];
+    private long count;
+    private long maxNanos;
+    private long totalNanos;
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts[HistogramBuckets.bucketOf(micros)]++;
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * @return Approximate value at the percentile (0-100) in microseconds, 0 when empty
+     */
+    public long percentileMicros(double percentile) {
+        return HistogramBuckets.percentile(bucket -> counts[bucket], count, maxNanos / 1_000, percentile);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxMicros() {
+        return maxNanos / 1_000;
+    }
+
+    public long getMeanMicros() {
+        return count > 0 ? totalNanos / count / 1_000 : 0;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        maxNanos = 0;
+        totalNanos = 0;
+    }
+
+    /**
+     * @return "p50/p99/max" in microseconds
+     */
+    public String summary() {
+        return percentileMicros(50) + "/" + percentileMicros(99) + "/" + getMaxMicros() + "us";
+    }
+}
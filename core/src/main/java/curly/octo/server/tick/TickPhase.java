@@ -0,0 +1,15 @@
+package curly.octo.server.tick;
+
+/**
+ * Parts of a server tick timed separately by {@link TickProfiler}.
+ */
+public enum TickPhase {
+    /** Bringing client state received since the last tick into the simulation */
+    NETWORK_INGEST,
+    /** ServerStateManager update */
+    STATE_MACHINE,
+    /** Server agents other than the snapshot sender */
+    AGENTS,
+    /** Building and sending world snapshots */
+    SNAPSHOT_SEND
+}
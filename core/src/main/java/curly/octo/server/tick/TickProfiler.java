@@ -0,0 +1,132 @@
+package curly.octo.server.tick;
+
+import com.esotericsoftware.minlog.Log;
+
+/**
+ * Per-tick timing for the server: how late each tick started, how long it ran, and how that time was split
+ * between the {@link TickPhase}s. Phases are accumulated during a tick and recorded when it ends, so
+ * several agents sharing a phase count as one sample.
+ *
+ * When several matches share a scheduler, the scheduler's profiler records lateness and whole ticks and each
+ * match's profiler records only its own phases.
+ *
+ * Only touched from one tick thread at a time.
+ */
+public class TickProfiler {
+
+    private final String name;
+    private final long reportIntervalNanos;
+    private final LatencyHistogram[] phases = new LatencyHistogram[TickPhase.values().length];
+    private final long[] currentTick = new long[TickPhase.values().length];
+    private final LatencyHistogram tickDuration = new LatencyHistogram();
+    private final LatencyHistogram startLateness = new LatencyHistogram();
+
+    private long overruns;
+    private long catchUpTicks;
+    private long droppedTicks;
+    private long lastReportNanos = System.nanoTime();
+
+    /**
+     * @param name Prefix for reports, to tell profilers apart
+     */
+    public TickProfiler(String name, long reportIntervalNanos) {
+        this.name = name;
+        this.reportIntervalNanos = reportIntervalNanos;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Adds the time since {@code phaseStart} to the phase.
+     *
+     * @return The current time, to start the next phase from
+     */
+    public long mark(TickPhase phase, long phaseStart) {
+        long now = System.nanoTime();
+        currentTick[phase.ordinal()] += now - phaseStart;
+        return now;
+    }
+
+    /**
+     * Records a finished tick.
+     *
+     * @param lateness How long after its scheduled time the tick started
+     * @param duration How long the tick ran
+     * @param overrun True if the tick ran longer than one step
+     * @param catchUp True if the tick ran immediately after the previous one to make up lost time
+     */
+    public void endTick(long lateness, long duration, boolean overrun, boolean catchUp) {
+        startLateness.record(lateness);
+        endTick(duration, overrun);
+        if (catchUp) {
+            catchUpTicks++;
+        }
+    }
+
+    /**
+     * Records a finished tick of a match run by a shared scheduler, which tracks lateness itself.
+     */
+    public void endTick(long duration, boolean overrun) {
+        tickDuration.record(duration);
+        for (int i = 0; i < phases.length; i++) {
+            if (currentTick[i] > 0) {
+                phases[i].record(currentTick[i]);
+                currentTick[i] = 0;
+            }
+        }
+        if (overrun) {
+            overruns++;
+        }
+    }
+
+    /**
+     * Records steps skipped because the server could not catch up within its tick budget.
+     */
+    public void dropTicks(long count) {
+        droppedTicks += count;
+    }
+
+    /**
+     * Logs and resets the statistics once the report interval has passed.
+     */
+    public void reportIfDue() {
+        long now = System.nanoTime();
+        if (now - lastReportNanos < reportIntervalNanos) {
+            return;
+        }
+        float seconds = (now - lastReportNanos) / 1_000_000_000f;
+        lastReportNanos = now;
+        if (tickDuration.getCount() == 0) {
+            return;
+        }
+
+        StringBuilder report = new StringBuilder(name).append(": ");
+        report.append(String.format("%d ticks in %.1fs, %d overruns", tickDuration.getCount(), seconds, overruns));
+        if (startLateness.getCount() > 0) {
+            report.append(String.format(", %d catch-up, %d dropped; lateness %s", catchUpTicks, droppedTicks,
+                startLateness.summary()));
+        }
+        report.append(", tick ").append(tickDuration.summary());
+        for (TickPhase phase : TickPhase.values()) {
+            if (phases[phase.ordinal()].getCount() > 0) {
+                report.append(", ").append(phase.name().toLowerCase()).append(' ').append(phases[phase.ordinal()].summary());
+            }
+        }
+        report.append(" (p50/p99/max)");
+        if (overruns > 0 || droppedTicks > 0) {
+            Log.warn("TickProfiler", report.toString());
+        } else {
+            Log.info("TickProfiler", report.toString());
+        }
+
+        tickDuration.reset();
+        startLateness.reset();
+        for (LatencyHistogram histogram : phases) {
+            histogram.reset();
+        }
+        overruns = 0;
+        catchUpTicks = 0;
+        droppedTicks = 0;
+    }
+}
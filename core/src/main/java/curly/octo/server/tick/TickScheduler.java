@@ -0,0 +1,100 @@
+package curly.octo.server.tick;
+
+import com.esotericsoftware.minlog.Log;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the server simulation at a fixed step.
+ *
+ * Every tick is given exactly one step of simulated time; the next deadline advances by one step per tick
+ * regardless of how long the tick took, so time is neither lost nor stretched. The thread parks until a
+ * small wake margin before the deadline, roughly the OS timer slack, and spins only for whatever is left
+ * of it. Ticks start within microseconds of their deadline without burning a core between them.
+ *
+ * After a stall (GC pause, slow tick, map generation) the scheduler runs up to a bounded number of
+ * ticks back to back to catch up; any time beyond that is dropped and counted rather than simulated in
+ * one long burst.
+ */
+public class TickScheduler {
+
+    /** One server tick */
+    public interface Tick {
+        void run(float deltaTime) throws IOException;
+    }
+
+    private final long stepNanos;
+    private final float stepSeconds;
+    private final int maxCatchUpTicks;
+    private final long wakeMarginNanos;
+    private final TickProfiler profiler;
+
+    public TickScheduler(long stepNanos, int maxCatchUpTicks, long wakeMarginNanos, TickProfiler profiler) {
+        this.stepNanos = stepNanos;
+        this.stepSeconds = stepNanos / 1_000_000_000f;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+        this.wakeMarginNanos = wakeMarginNanos;
+        this.profiler = profiler;
+    }
+
+    /**
+     * Runs ticks on the calling thread until {@code running} returns false or the thread is interrupted.
+     * Exceptions thrown by a tick are logged and the loop continues.
+     */
+    public void run(Tick tick, BooleanSupplier running) {
+        long deadline = System.nanoTime();
+        while (running.getAsBoolean() && !Thread.currentThread().isInterrupted()) {
+            if (!waitUntil(deadline)) {
+                return;
+            }
+
+            int ticksRun = 0;
+            long now = System.nanoTime();
+            while (now - deadline >= 0 && ticksRun <= maxCatchUpTicks) {
+                try {
+                    tick.run(stepSeconds);
+                } catch (IOException | RuntimeException e) {
+                    Log.error("TickScheduler", "Server update error: " + e.getMessage(), e);
+                }
+                long end = System.nanoTime();
+                profiler.endTick(now - deadline, end - now, end - now > stepNanos, ticksRun > 0);
+                deadline += stepNanos;
+                ticksRun++;
+                now = end;
+            }
+
+            if (now - deadline >= 0) {
+                long dropped = (now - deadline) / stepNanos + 1;
+                deadline += dropped * stepNanos;
+                profiler.dropTicks(dropped);
+                Log.debug("TickScheduler", "Fell " + dropped + " ticks behind after catching up, skipping them");
+            }
+            profiler.reportIfDue();
+        }
+    }
+
+    /**
+     * Parks until the wake margin before the deadline, then spins out what is left of the margin.
+     *
+     * @return false if the thread was interrupted while waiting
+     */
+    private boolean waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > wakeMarginNanos) {
+            LockSupport.parkNanos(remaining - wakeMarginNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+        while (deadline - System.nanoTime() > 0) {
+            Thread.yield();
+        }
+        return true;
+    }
+
+    public float getStepSeconds() {
+        return stepSeconds;
+    }
+}
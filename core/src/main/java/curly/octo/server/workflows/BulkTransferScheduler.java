@@ -0,0 +1,187 @@
+package curly.octo.server.workflows;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends bulk transfers on a dedicated thread instead of the server tick.
+ *
+ * KryoNet calls {@link #connectionIdle(Connection)} from the bulk server's update thread whenever a
+ * connection's TCP write buffer drains below its idle threshold; that wakes the transfer thread, which
+ * refills every writable connection round-robin, one burst per connection per round, until each write
+ * buffer reaches {@link Constants#BULK_TRANSFER_MAX_PENDING_BYTES} or runs out of data. Throughput
+ * therefore follows the sockets rather than the tick rate, and a client joining mid-match gets its share
+ * without stalling anyone else.
+ *
+ * Each connection's burst adapts: it doubles when the write buffer was found empty (the socket drained
+ * before it was refilled) and halves when a burst ran into the pending byte limit.
+ */
+public class BulkTransferScheduler {
+
+    /**
+     * A transfer fed by the scheduler. Only the transfer thread calls it once it is submitted.
+     */
+    public interface Transfer {
+        /**
+         * Writes the next chunk to the connection.
+         *
+         * @return false once there was nothing left to send
+         */
+        boolean sendNextChunk(Connection connection);
+    }
+
+    private final Map<Integer, Scheduled> scheduled = new ConcurrentHashMap<>(); // Bulk connection id -> transfer
+    private final AtomicBoolean pumpPending = new AtomicBoolean();
+    private final List<Scheduled> round = new ArrayList<>(); // Reused by the transfer thread
+    private ExecutorService executor;
+
+    public synchronized void start() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "BulkTransfer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        scheduled.clear();
+        pumpPending.set(false);
+    }
+
+    /**
+     * Starts feeding a transfer through a bulk connection, replacing any transfer already on it.
+     */
+    public void submit(Connection connection, Transfer transfer) {
+        scheduled.put(connection.getID(), new Scheduled(connection, transfer));
+        wake();
+    }
+
+    /**
+     * Stops feeding a transfer. A chunk already being written still completes.
+     */
+    public void cancel(Transfer transfer) {
+        scheduled.values().removeIf(entry -> entry.transfer == transfer);
+    }
+
+    public boolean isScheduled(Transfer transfer) {
+        for (Scheduled entry : scheduled.values()) {
+            if (entry.transfer == transfer) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called by the bulk server's listener when a connection can take more data.
+     */
+    void connectionIdle(Connection connection) {
+        if (scheduled.containsKey(connection.getID())) {
+            wake();
+        }
+    }
+
+    void connectionClosed(Connection connection) {
+        scheduled.remove(connection.getID());
+    }
+
+    private void wake() {
+        if (!pumpPending.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                if (executor != null) {
+                    executor.execute(this::pump);
+                    return;
+                }
+            } catch (RejectedExecutionException e) {
+                // Stopping
+            }
+        }
+        pumpPending.set(false);
+    }
+
+    private void pump() {
+        // Cleared first so an idle callback arriving mid-pump schedules another pass
+        pumpPending.set(false);
+
+        round.clear();
+        round.addAll(scheduled.values());
+        for (Scheduled entry : round) {
+            if (entry.connection.getTcpWriteBufferSize() == 0) {
+                entry.burstChunks = Math.min(entry.burstChunks * 2, Constants.BULK_TRANSFER_MAX_BURST_CHUNKS);
+            }
+        }
+
+        boolean progressed = true;
+        while (progressed && !Thread.currentThread().isInterrupted()) {
+            progressed = false;
+            for (Scheduled entry : round) {
+                if (entry.finished || scheduled.get(entry.connection.getID()) != entry) {
+                    continue;
+                }
+                progressed |= sendBurst(entry);
+            }
+        }
+    }
+
+    /**
+     * @return Whether any chunk was sent and the connection could take more
+     */
+    private boolean sendBurst(Scheduled entry) {
+        Connection connection = entry.connection;
+        if (!connection.isConnected()) {
+            scheduled.remove(connection.getID(), entry);
+            return false;
+        }
+
+        for (int sent = 0; sent < entry.burstChunks; sent++) {
+            if (connection.getTcpWriteBufferSize() >= Constants.BULK_TRANSFER_MAX_PENDING_BYTES) {
+                entry.burstChunks = Math.max(entry.burstChunks / 2, 1);
+                return false;
+            }
+            boolean more;
+            try {
+                more = entry.transfer.sendNextChunk(connection);
+            } catch (RuntimeException e) {
+                Log.error("BulkTransferScheduler", "Transfer on connection " + connection.getID() + " failed: " + e.getMessage());
+                more = false;
+            }
+            if (!more) {
+                entry.finished = true;
+                scheduled.remove(connection.getID(), entry);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Scheduled {
+        final Connection connection;
+        final Transfer transfer;
+        int burstChunks = Constants.BULK_TRANSFER_MIN_BURST_CHUNKS; // Only touched by the transfer thread
+        boolean finished;
+
+        Scheduled(Connection connection, Transfer transfer) {
+            this.connection = connection;
+            this.transfer = transfer;
+        }
+    }
+}
@@ -6,49 +6,56 @@ import com.esotericsoftware.kryonet.Server;
 import com.esotericsoftware.minlog.Log;
 import curly.octo.common.Constants;
 import curly.octo.common.network.messages.ClientIdentificationMessage;
-import curly.octo.server.NetworkListener;
-import curly.octo.server.ServerCoordinator;
 import curly.octo.server.playerManagement.ClientProfile;
 import curly.octo.common.network.KryoNetwork;
+import curly.octo.common.network.telemetry.NetworkTelemetry;
+import curly.octo.common.network.telemetry.TelemetrySerialization;
 import curly.octo.server.playerManagement.ClientUniqueId;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Dedicated KryoNet server for bulk data transfers (map transfers).
  * Uses large buffers (64KB) for maximum throughput.
  * Runs alongside the main gameplay server on separate ports.
  * Tracks clients by their unique ID to match with gameplay connections.
+ * Shared by every match on a MatchHost; a client's profile is looked up in whichever match it joined.
+ * Its BulkTransferScheduler sends every match's transfers as connections report their write buffers idle.
  */
 public class BulkTransferServer {
     private Server server;
-    private final NetworkListener networkListener;
+    private final BulkTransferScheduler scheduler = new BulkTransferScheduler();  // Sends chunks off the tick thread
+    private final NetworkTelemetry telemetry;  // The host's; map transfers record bulk connection stats into it
     private boolean running = false;
-    private ServerCoordinator serverCoordinator = null;  // Set by GameServer
+    private Function<ClientUniqueId, ClientProfile> profileResolver = clientUniqueId -> null;  // Set by MatchHost
 
     // Track bulk connections by client unique ID
     private final Map<ClientUniqueId, Connection> clientIdToConnection = new HashMap<>();
 
-    public BulkTransferServer() {
+    /**
+     * @param telemetry Telemetry of the MatchHost sharing this server
+     */
+    public BulkTransferServer(NetworkTelemetry telemetry) {
+        this.telemetry = telemetry;
+
         // Create server with large buffers for bulk transfers
         this.server = new Server(
             Constants.BULK_TRANSFER_BUFFER_SIZE,
-            Constants.BULK_TRANSFER_BUFFER_SIZE
+            Constants.BULK_TRANSFER_BUFFER_SIZE,
+            new TelemetrySerialization(telemetry)
         );
 
         // Register network classes
         KryoNetwork.register(server);
 
-        // Create listener (will need GameServer reference for callbacks)
-        this.networkListener = new NetworkListener(null);
-        server.addListener(networkListener);
-
         // Add listener for client identification messages
         server.addListener(new Listener() {
             @Override
             public void connected(Connection connection) {
+                connection.setIdleThreshold(Constants.BULK_TRANSFER_IDLE_THRESHOLD);
                 Log.info("BulkTransferServer", "Client connected - waiting for identification (connection ID: " +
                     connection.getID() + ")");
             }
@@ -69,8 +76,15 @@ public class BulkTransferServer {
                 }
             }
 
+            @Override
+            public void idle(Connection connection) {
+                scheduler.connectionIdle(connection);
+            }
+
             @Override
             public void disconnected(Connection connection) {
+                scheduler.connectionClosed(connection);
+                telemetry.removeBulkConnection(connection);
                 ClientUniqueId clientUniqueId = unregisterClient(connection);
                 if (clientUniqueId != null) {
                     Log.info("BulkTransferServer", "Client disconnected and cleaned up: " + clientUniqueId +
@@ -87,10 +101,10 @@ public class BulkTransferServer {
     }
 
     /**
-     * Set the ServerCoordinator reference (called by GameServer).
+     * Set how a client's gameplay profile is found (called by MatchHost).
      */
-    public void setServerCoordinator(ServerCoordinator serverCoordinator) {
-        this.serverCoordinator = serverCoordinator;
+    public void setProfileResolver(Function<ClientUniqueId, ClientProfile> profileResolver) {
+        this.profileResolver = profileResolver;
     }
 
     /**
@@ -100,16 +114,11 @@ public class BulkTransferServer {
         clientIdToConnection.put(clientUniqueId, connection);
 
         // Update ClientProfile with bulk connection ID
-        if (serverCoordinator != null) {
-            // Find the profile with this clientUniqueId
-            for (ClientProfile profile : serverCoordinator.clientManager.getAllClientProfiles()) {
-                if (profile != null && clientUniqueId.equals(profile.clientUniqueId)) {
-                    profile.bulkConnectionId = connection.getID();
-                    Log.info("BulkTransferServer", "Set bulk connection ID " + connection.getID() +
-                        " for client " + clientUniqueId);
-                    break;
-                }
-            }
+        ClientProfile profile = profileResolver.apply(clientUniqueId);
+        if (profile != null) {
+            profile.bulkConnectionId = connection.getID();
+            Log.info("BulkTransferServer", "Set bulk connection ID " + connection.getID() +
+                " for client " + clientUniqueId);
         }
     }
 
@@ -138,14 +147,10 @@ public class BulkTransferServer {
         clientIdToConnection.remove(clientUniqueId);
 
         // Clear bulkConnectionId in ClientProfile
-        if (serverCoordinator != null) {
-            for (ClientProfile profile : serverCoordinator.clientManager.getAllClientProfiles()) {
-                if (profile != null && clientUniqueId.equals(profile.clientUniqueId)) {
-                    profile.bulkConnectionId = null;
-                    Log.info("BulkTransferServer", "Cleared bulk connection ID for client " + clientUniqueId);
-                    break;
-                }
-            }
+        ClientProfile profile = profileResolver.apply(clientUniqueId);
+        if (profile != null) {
+            profile.bulkConnectionId = null;
+            Log.info("BulkTransferServer", "Cleared bulk connection ID for client " + clientUniqueId);
         }
 
         return clientUniqueId;
@@ -189,6 +194,7 @@ public class BulkTransferServer {
             return;
         }
 
+        scheduler.start();
         server.start();
         server.bind(
             Constants.BULK_TRANSFER_TCP_PORT,
@@ -215,10 +221,18 @@ public class BulkTransferServer {
             server.stop();
             running = false;
         }
+        scheduler.stop();
 
         Log.info("BulkTransferServer", "Stopped");
     }
 
+    /**
+     * Get the scheduler that sends transfers over bulk connections.
+     */
+    public BulkTransferScheduler getScheduler() {
+        return scheduler;
+    }
+
     /**
      * Get the underlying KryoNet server.
      */
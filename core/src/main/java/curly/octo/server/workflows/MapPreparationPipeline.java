@@ -0,0 +1,180 @@
+package curly.octo.server.workflows;
+
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Generates, validates and encodes maps on a background thread ahead of time, so a map rotation only has to
+ * swap in a finished map and transfer it.
+ *
+ * Up to {@link Constants#MAP_PREPARATION_QUEUE_SIZE} maps for seeds picked here are kept ready or in
+ * progress, keyed by seed. {@link #takeNext()} takes the oldest of them; taking any other seed prepares it
+ * ahead of the queued ones (but after a map already being generated). Speculative maps that fail validation
+ * are dropped and replaced with another seed.
+ */
+public class MapPreparationPipeline {
+
+    /** Speculative maps in a row that may fail before the queue stops refilling itself until the next take */
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    private final Random seeds;
+    private final LinkedHashMap<Long, CompletableFuture<PreparedMap>> queued = new LinkedHashMap<>(); // Oldest first
+    private ExecutorService executor;
+    private volatile long generatingSeed; // Seed on the preparation thread right now, if any
+    private volatile boolean generating;
+    private int consecutiveFailures;
+
+    public MapPreparationPipeline(Random seeds) {
+        this.seeds = seeds;
+    }
+
+    /**
+     * Starts the preparation thread and begins filling the queue.
+     */
+    public synchronized void start() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "MapPreparation");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refill();
+        }
+    }
+
+    /**
+     * Drops every queued map and stops the preparation thread.
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            for (CompletableFuture<PreparedMap> future : queued.values()) {
+                future.cancel(false);
+            }
+            queued.clear();
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Takes the map that has been in preparation longest, i.e. the one most likely to be ready. Picking and
+     * removing it is one step, so two matches rotating at once never get the same seed.
+     */
+    public synchronized Reservation takeNext() {
+        start();
+        refill();
+        long seed = queued.keySet().iterator().next();
+        return new Reservation(seed, take(seed));
+    }
+
+    /**
+     * @return true if the map for the seed is ready to be taken without waiting
+     */
+    public synchronized boolean isReady(long seed) {
+        CompletableFuture<PreparedMap> future = queued.get(seed);
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * Removes the map for the seed from the queue, preparing it first if it was not already queued, then
+     * tops the queue back up.
+     *
+     * @return Completes on the preparation thread once the map is ready, or is already complete if it was
+     */
+    public synchronized CompletableFuture<PreparedMap> take(long seed) {
+        start();
+        consecutiveFailures = 0;
+        CompletableFuture<PreparedMap> future = queued.remove(seed);
+        if (future == null) {
+            Log.info("MapPreparationPipeline", "Seed " + seed + " was not prepared ahead, preparing it now");
+            // Queued maps that haven't started yet would run first; drop them and queue fresh ones behind
+            for (Map.Entry<Long, CompletableFuture<PreparedMap>> entry : new ArrayList<>(queued.entrySet())) {
+                if (!entry.getValue().isDone() && !(generating && generatingSeed == entry.getKey())) {
+                    entry.getValue().cancel(false);
+                    queued.remove(entry.getKey());
+                }
+            }
+            future = submit(seed);
+        }
+        refill();
+        return future;
+    }
+
+    private void refill() {
+        while (queued.size() < Constants.MAP_PREPARATION_QUEUE_SIZE) {
+            long seed = seeds.nextLong();
+            if (!queued.containsKey(seed)) {
+                CompletableFuture<PreparedMap> future = submit(seed);
+                queued.put(seed, future);
+                future.whenComplete((prepared, error) -> speculativeMapDone(seed, future, prepared, error));
+            }
+        }
+    }
+
+    private synchronized void speculativeMapDone(long seed, CompletableFuture<PreparedMap> future, PreparedMap prepared,
+                                                 Throwable error) {
+        if (queued.get(seed) != future || future.isCancelled()) {
+            return;
+        }
+        if (error == null && prepared.isValid()) {
+            consecutiveFailures = 0;
+            return;
+        }
+        Log.warn("MapPreparationPipeline", "Discarding speculative map for seed " + seed + ": " +
+            (error != null ? error.getMessage() : "failed validation"));
+        queued.remove(seed);
+        if (prepared != null) {
+            prepared.getMap().dispose();
+        }
+        if (++consecutiveFailures < MAX_CONSECUTIVE_FAILURES && executor != null) {
+            refill();
+        }
+    }
+
+    private CompletableFuture<PreparedMap> submit(long seed) {
+        return CompletableFuture.supplyAsync(() -> {
+            generatingSeed = seed;
+            generating = true;
+            try {
+                long start = System.nanoTime();
+                PreparedMap prepared = PreparedMap.generate(seed);
+                Log.info("MapPreparationPipeline", "Prepared map for seed " + seed + " in " +
+                    (System.nanoTime() - start) / 1_000_000 + "ms (" + prepared.getMap().getTileCount() + " tiles, " +
+                    prepared.getEncodedMap().getEncodedLength() + " bytes encoded" +
+                    (prepared.isValid() ? "" : ", failed validation") + ")");
+                return prepared;
+            } finally {
+                generating = false;
+            }
+        }, executor);
+    }
+
+    /**
+     * A seed taken from the pipeline and the map being prepared for it.
+     */
+    public static final class Reservation {
+        private final long seed;
+        private final CompletableFuture<PreparedMap> map;
+
+        Reservation(long seed, CompletableFuture<PreparedMap> map) {
+            this.seed = seed;
+            this.map = map;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public CompletableFuture<PreparedMap> getMap() {
+            return map;
+        }
+    }
+}
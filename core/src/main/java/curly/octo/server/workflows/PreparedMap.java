@@ -0,0 +1,113 @@
+package curly.octo.server.workflows;
+
+import com.esotericsoftware.kryo.io.Output;
+import curly.octo.common.Constants;
+import curly.octo.common.map.GameMap;
+import curly.octo.common.map.hints.SpawnPointHint;
+import curly.octo.common.map.storage.MapWireFormat;
+import curly.octo.common.network.MapContentHash;
+import curly.octo.common.network.MapTransferCompression;
+import curly.octo.common.network.state.StateQuantizer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * A map with its share of the transfer encoded up front: the map's wire format compressed into a stream
+ * prefix that each transfer finishes with its own game objects, plus the hashes clients check their map
+ * caches against and the player state quantizer for its bounds. Immutable once built.
+ */
+public final class PreparedMap {
+
+    private final long seed;
+    private final GameMap map;
+    private final MapTransferCompression.Prefix encodedMap;
+    private final String contentHash;
+    private final long[] chunkHashes;
+    private final StateQuantizer stateQuantizer;
+    private final boolean valid;
+
+    private PreparedMap(long seed, GameMap map, MapTransferCompression.Prefix encodedMap, String contentHash,
+                        long[] chunkHashes, StateQuantizer stateQuantizer, boolean valid) {
+        this.seed = seed;
+        this.map = map;
+        this.encodedMap = encodedMap;
+        this.contentHash = contentHash;
+        this.chunkHashes = chunkHashes;
+        this.stateQuantizer = stateQuantizer;
+        this.valid = valid;
+    }
+
+    /**
+     * Generates a server-side map for the seed, then validates and encodes it.
+     */
+    public static PreparedMap generate(long seed) {
+        return encode(seed, new GameMap(seed, true));
+    }
+
+    /**
+     * Validates and encodes a map that already exists. The map must not change afterwards.
+     */
+    public static PreparedMap encode(long seed, GameMap map) {
+        byte[] mapBytes;
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+             Output output = new Output(baos)) {
+            MapWireFormat.write(map, output);
+            output.flush();
+            mapBytes = baos.toByteArray();
+        } catch (IOException e) {
+            // Only written to memory
+            throw new IllegalStateException(e);
+        }
+
+        MapTransferCompression.Prefix encodedMap = MapTransferCompression.compressPrefix(mapBytes, 0, mapBytes.length,
+            MapTransferCompression.DEFAULT);
+        // The hash covers the map's content only, not its ids
+        String contentHash = MapContentHash.of(mapBytes, 0, MapWireFormat.contentLength(mapBytes, 0, mapBytes.length));
+        return new PreparedMap(seed, map, encodedMap, contentHash,
+            encodedMap.chunkHashes(Constants.NETWORK_CHUNK_SIZE), StateQuantizer.forMap(map), isPlayable(map));
+    }
+
+    /**
+     * @return true if players can spawn on the map and walk somewhere from there
+     */
+    private static boolean isPlayable(GameMap map) {
+        return map.getTileCount() > 0 && !map.getAllHintsOfType(SpawnPointHint.class).isEmpty() &&
+            map.getConnectivity().getReachableEmptyCount() > 0;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public GameMap getMap() {
+        return map;
+    }
+
+    public MapTransferCompression.Prefix getEncodedMap() {
+        return encodedMap;
+    }
+
+    /**
+     * @return Content hash of the map's wire format up to its identity section, as announced in
+     * MapTransferBeginMessage
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @return Hashes of the transfer chunks taken up entirely by the map; must not be modified
+     */
+    public long[] getChunkHashes() {
+        return chunkHashes;
+    }
+
+    public StateQuantizer getStateQuantizer() {
+        return stateQuantizer;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+}
@@ -0,0 +1,201 @@
+package curly.octo.common.map.exploration;
+
+import curly.octo.common.map.GameMap;
+import curly.octo.common.map.enums.Direction;
+import curly.octo.common.map.enums.MapTileFillType;
+import curly.octo.common.map.enums.MapTileGeometryType;
+import curly.octo.common.map.enums.MapTileMaterial;
+import curly.octo.common.map.storage.ChunkedTileStorage;
+import curly.octo.common.map.storage.PackedTile;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class FloodFillTest {
+
+    private static final int SIZE = ChunkedTileStorage.CHUNK_SIZE;
+
+    private static final int OPEN = PackedTile.defaultTile(0);
+    private static final int WALL = PackedTile.pack(MapTileFillType.AIR, MapTileGeometryType.FULL,
+        Direction.NORTH, MapTileMaterial.WALL, 0);
+    private static final int STAIR = PackedTile.pack(MapTileFillType.AIR, MapTileGeometryType.STAIR,
+        Direction.EAST, MapTileMaterial.STONE, 0);
+
+    @Test
+    public void fillsTheBasinBelowTheSeedButNeverUp() {
+        GameMap map = new GameMap(new ChunkedTileStorage());
+        basin(map, 0, 0, 0, 8, 3);
+
+        FloodFill fill = new FloodFill(map);
+        fill.addSeed(4, 1, 4);
+        assertEquals(8 * 8, fill.fill(MapTileFillType.WATER));
+        assertEquals(8 * 8, map.getTileCount(MapTileFillType.WATER));
+        assertEquals(MapTileFillType.AIR, PackedTile.fillType(map.getPackedTile(4, 2, 4)));
+
+        fill.addSeed(4, 3, 4);
+        assertEquals(8 * 8 * 3, fill.fill(MapTileFillType.WATER));
+        assertEquals(8 * 8 * 3, map.getTileCount(MapTileFillType.WATER));
+        assertEquals(MapTileFillType.AIR, PackedTile.fillType(map.getPackedTile(0, 1, 0)));
+    }
+
+    @Test
+    public void leavesSeparateBasinsAndSolidTilesAlone() {
+        GameMap map = new GameMap(new ChunkedTileStorage());
+        basin(map, 0, 0, 0, 4, 2);
+        basin(map, 10, 0, 0, 4, 2);
+
+        FloodFill fill = new FloodFill(map);
+        fill.addSeed(2, 2, 2);
+        assertEquals(4 * 4 * 2, fill.fill(MapTileFillType.LAVA));
+        assertEquals(4 * 4 * 2, map.getTileCount(MapTileFillType.LAVA));
+        assertEquals(MapTileFillType.AIR, PackedTile.fillType(map.getPackedTile(12, 2, 2)));
+        assertEquals(WALL, map.getPackedTile(0, 0, 0));
+    }
+
+    @Test
+    public void seedsInTheSameRegionAreCountedOnce() {
+        GameMap map = new GameMap(new ChunkedTileStorage());
+        basin(map, 0, 0, 0, 6, 2);
+        basin(map, 20, 0, 0, 5, 1);
+
+        FloodFill fill = new FloodFill(map);
+        fill.addSeed(1, 2, 1);
+        fill.addSeed(6, 2, 6);
+        fill.addSeed(3, 1, 3);
+        fill.addSeed(22, 1, 2);
+        assertEquals(6 * 6 * 2 + 5 * 5, fill.fill(MapTileFillType.FOG));
+    }
+
+    @Test
+    public void seedsOnSolidOrMissingTilesFillNothing() {
+        GameMap map = new GameMap(new ChunkedTileStorage());
+        basin(map, 0, 0, 0, 4, 1);
+
+        FloodFill fill = new FloodFill(map);
+        fill.addSeed(0, 0, 0);
+        fill.addSeed(100, 100, 100);
+        assertEquals(0, fill.fill(MapTileFillType.WATER));
+        assertEquals(0, map.getTileCount(MapTileFillType.WATER));
+    }
+
+    @Test
+    public void spreadsThroughPartialGeometryAcrossChunksAndNegativeCoordinates() {
+        GameMap map = new GameMap(new ChunkedTileStorage());
+        int width = SIZE * 2 + 3;
+        basin(map, -SIZE - 5, -SIZE - 2, -SIZE - 7, width, 4);
+        map.setPackedTile(0, -SIZE, 0, STAIR);
+
+        FloodFill fill = new FloodFill(map);
+        fill.addSeed(0, -SIZE + 2, 0);
+        assertEquals(width * width * 4, fill.fill(MapTileFillType.WATER));
+        assertEquals(MapTileFillType.WATER, PackedTile.fillType(map.getPackedTile(0, -SIZE, 0)));
+        assertEquals(MapTileGeometryType.STAIR, PackedTile.geometryType(map.getPackedTile(0, -SIZE, 0)));
+    }
+
+    @Test
+    public void engineCanBeReusedAfterAFill() {
+        GameMap map = new GameMap(new ChunkedTileStorage());
+        basin(map, 0, 0, 0, SIZE + 4, 2);
+        int volume = (SIZE + 4) * (SIZE + 4) * 2;
+
+        FloodFill fill = new FloodFill(map);
+        fill.addSeed(3, 2, 3);
+        assertEquals(volume, fill.fill(MapTileFillType.WATER));
+        // Nothing visited last time may block this fill, and already filled tiles still count
+        fill.addSeed(SIZE, 2, SIZE);
+        assertEquals(volume, fill.fill(MapTileFillType.WATER));
+        fill.addSeed(SIZE, 2, SIZE);
+        assertEquals(volume, fill.fill(MapTileFillType.LAVA));
+        assertEquals(volume, map.getTileCount(MapTileFillType.LAVA));
+        assertEquals(0, map.getTileCount(MapTileFillType.WATER));
+    }
+
+    @Test
+    public void matchesBreadthFirstSearchOnRandomMaps() {
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            GameMap map = new GameMap(new ChunkedTileStorage());
+            int extent = 24;
+            for (int x = -4; x < extent; x++) {
+                for (int y = -4; y < extent; y++) {
+                    for (int z = -4; z < extent; z++) {
+                        int roll = random.nextInt(10);
+                        if (roll < 2) {
+                            continue; // missing tile
+                        }
+                        map.setPackedTile(x, y, z, roll < 5 ? WALL : roll < 6 ? STAIR : OPEN);
+                    }
+                }
+            }
+
+            FloodFill fill = new FloodFill(map);
+            int[][] seeds = new int[3][];
+            for (int s = 0; s < seeds.length; s++) {
+                seeds[s] = new int[] {random.nextInt(extent), random.nextInt(extent), random.nextInt(extent)};
+                fill.addSeed(seeds[s][0], seeds[s][1], seeds[s][2]);
+            }
+            Set<Long> expected = reachable(map, seeds);
+
+            assertEquals(expected.size(), fill.fill(MapTileFillType.WATER));
+            for (int x = -4; x < extent; x++) {
+                for (int y = -4; y < extent; y++) {
+                    for (int z = -4; z < extent; z++) {
+                        int packed = map.getPackedTile(x, y, z);
+                        if (packed == PackedTile.NONE) {
+                            continue;
+                        }
+                        MapTileFillType want = expected.contains(GameMap.packTileKey(x, y, z))
+                            ? MapTileFillType.WATER : MapTileFillType.AIR;
+                        assertEquals("tile " + x + "," + y + "," + z, want, PackedTile.fillType(packed));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Open box of the given width and depth, with walls and a floor one tile thick around it. The lowest
+     * open layer is at y + 1 and the interior starts at x + 1, z + 1.
+     */
+    private static void basin(GameMap map, int x, int y, int z, int width, int depth) {
+        for (int dx = 0; dx < width + 2; dx++) {
+            for (int dz = 0; dz < width + 2; dz++) {
+                for (int dy = 0; dy <= depth; dy++) {
+                    boolean wall = dy == 0 || dx == 0 || dz == 0 || dx == width + 1 || dz == width + 1;
+                    map.setPackedTile(x + dx, y + dy, z + dz, wall ? WALL : OPEN);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tiles reachable from the seeds moving one step along X or Z, or down.
+     */
+    private static Set<Long> reachable(GameMap map, int[][] seeds) {
+        Set<Long> seen = new HashSet<>();
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        for (int[] seed : seeds) {
+            queue.add(seed);
+        }
+        int[][] steps = {{1, 0, 0}, {-1, 0, 0}, {0, 0, 1}, {0, 0, -1}, {0, -1, 0}};
+        while (!queue.isEmpty()) {
+            int[] tile = queue.poll();
+            int packed = map.getPackedTile(tile[0], tile[1], tile[2]);
+            if (packed == PackedTile.NONE || PackedTile.geometryType(packed) == MapTileGeometryType.FULL) {
+                continue;
+            }
+            if (!seen.add(GameMap.packTileKey(tile[0], tile[1], tile[2]))) {
+                continue;
+            }
+            for (int[] step : steps) {
+                queue.add(new int[] {tile[0] + step[0], tile[1] + step[1], tile[2] + step[2]});
+            }
+        }
+        return seen;
+    }
+}
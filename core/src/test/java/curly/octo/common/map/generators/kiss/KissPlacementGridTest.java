@@ -0,0 +1,149 @@
+package curly.octo.common.map.generators.kiss;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class KissPlacementGridTest {
+
+    private static final int WALL = 0xFFFFFFFF;
+    private static final int OPEN = 0;
+
+    @Test
+    public void separatedTemplatesDoNotOverlap() {
+        KissPlacementGrid grid = new KissPlacementGrid();
+        KissTemplate room = room(5, 3, 5);
+        grid.add(room, 0, 0, 0);
+
+        assertFalse(grid.wouldOverlap(room, 5, 0, 0));
+        assertFalse(grid.wouldOverlap(room, 0, 3, 0));
+        assertFalse(grid.wouldOverlap(room, -5, 0, -5));
+        assertFalse(grid.wouldOverlap(room, 100, 0, 100));
+    }
+
+    @Test
+    public void deepOverlapsCollide() {
+        KissPlacementGrid grid = new KissPlacementGrid();
+        KissTemplate open = filled(6, 6, 6, OPEN);
+        grid.add(open, 10, 10, 10);
+
+        // Even without walls, anything thicker than a doorway along every axis is an overlap
+        assertTrue(grid.wouldOverlap(open, 12, 12, 12));
+        assertTrue(grid.wouldOverlap(open, 7, 7, 7));
+    }
+
+    @Test
+    public void thinOverlapsOnlyCollideOnSharedWalls() {
+        KissPlacementGrid grid = new KissPlacementGrid();
+        KissTemplate room = room(5, 3, 5);
+        grid.add(room, 0, 0, 0);
+
+        // Sharing the x = 4 wall column
+        assertTrue(grid.wouldOverlap(room, 4, 0, 0));
+        // An open template may share it, like a doorway
+        assertFalse(grid.wouldOverlap(filled(5, 3, 5, OPEN), 4, 0, 0));
+        // Overlapping by two voxels is more than a doorway
+        assertTrue(grid.wouldOverlap(filled(5, 3, 5, OPEN), 3, 0, 0));
+    }
+
+    @Test
+    public void keepsPlacementsInOrder() {
+        KissPlacementGrid grid = new KissPlacementGrid();
+        KissTemplate first = room(4, 2, 4);
+        KissTemplate second = filled(3, 3, 3, OPEN);
+        assertEquals(0, grid.add(first, -8, 0, 3));
+        assertEquals(1, grid.add(second, 40, -2, 17));
+
+        assertEquals(2, grid.size());
+        assertSame(second, grid.getTemplate(1));
+        assertEquals(-8, grid.getOffsetX(0));
+        assertEquals(-2, grid.getOffsetY(1));
+        assertEquals(17, grid.getOffsetZ(1));
+    }
+
+    @Test
+    public void matchesABruteForceCheckOverManyPlacements() {
+        Random random = new Random(7);
+        List<KissTemplate> templates = new ArrayList<>();
+        templates.add(room(5, 3, 5));
+        templates.add(room(9, 4, 3));
+        templates.add(room(20, 2, 20)); // Spans several grid cells
+        templates.add(filled(2, 2, 2, OPEN));
+        templates.add(filled(3, 1, 7, WALL));
+
+        KissPlacementGrid grid = new KissPlacementGrid();
+        List<int[]> placed = new ArrayList<>();
+        for (int attempt = 0; attempt < 2000; attempt++) {
+            int templateIndex = random.nextInt(templates.size());
+            KissTemplate template = templates.get(templateIndex);
+            int x = random.nextInt(120) - 60, y = random.nextInt(12) - 6, z = random.nextInt(120) - 60;
+
+            boolean expected = overlapsAny(templates, placed, template, x, y, z);
+            assertEquals("attempt " + attempt, expected, grid.wouldOverlap(template, x, y, z));
+            if (!expected) {
+                grid.add(template, x, y, z);
+                placed.add(new int[]{templateIndex, x, y, z});
+            }
+        }
+        assertEquals(placed.size(), grid.size());
+        assertTrue("Expected a useful number of placements, got " + placed.size(), placed.size() > 20);
+    }
+
+    private static boolean overlapsAny(List<KissTemplate> templates, List<int[]> placed,
+                                       KissTemplate template, int x, int y, int z) {
+        for (int[] placement : placed) {
+            KissTemplate other = templates.get(placement[0]);
+            int minX = Math.max(x, placement[1]), maxX = Math.min(x + template.sizeX, placement[1] + other.sizeX);
+            int minY = Math.max(y, placement[2]), maxY = Math.min(y + template.sizeY, placement[2] + other.sizeY);
+            int minZ = Math.max(z, placement[3]), maxZ = Math.min(z + template.sizeZ, placement[3] + other.sizeZ);
+            if (minX >= maxX || minY >= maxY || minZ >= maxZ) {
+                continue;
+            }
+            int tolerance = KissPlacementGrid.DOORWAY_TOLERANCE;
+            if (maxX - minX > tolerance && maxY - minY > tolerance && maxZ - minZ > tolerance) {
+                return true;
+            }
+            for (int vx = minX; vx < maxX; vx++) {
+                for (int vy = minY; vy < maxY; vy++) {
+                    for (int vz = minZ; vz < maxZ; vz++) {
+                        if (template.isWallAt(vx - x, vy - y, vz - z) &&
+                            other.isWallAt(vx - placement[1], vy - placement[2], vz - placement[3])) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Template with walls around its X/Z edges and open space inside
+     */
+    private static KissTemplate room(int sizeX, int sizeY, int sizeZ) {
+        int[] voxels = new int[sizeX * sizeY * sizeZ];
+        for (int y = 0; y < sizeY; y++) {
+            for (int x = 0; x < sizeX; x++) {
+                for (int z = 0; z < sizeZ; z++) {
+                    boolean edge = x == 0 || z == 0 || x == sizeX - 1 || z == sizeZ - 1;
+                    voxels[KissTemplate.voxelIndex(x, y, z, sizeX, sizeZ)] = edge ? WALL : OPEN;
+                }
+            }
+        }
+        return new KissTemplate(sizeX, sizeY, sizeZ, voxels, new KissJson());
+    }
+
+    private static KissTemplate filled(int sizeX, int sizeY, int sizeZ, int pixel) {
+        int[] voxels = new int[sizeX * sizeY * sizeZ];
+        Arrays.fill(voxels, pixel);
+        return new KissTemplate(sizeX, sizeY, sizeZ, voxels, new KissJson());
+    }
+}
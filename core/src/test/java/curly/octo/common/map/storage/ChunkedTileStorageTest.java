@@ -0,0 +1,141 @@
+package curly.octo.common.map.storage;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import curly.octo.common.map.enums.Direction;
+import curly.octo.common.map.enums.MapTileFillType;
+import curly.octo.common.map.enums.MapTileGeometryType;
+import curly.octo.common.map.enums.MapTileMaterial;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ChunkedTileStorageTest {
+
+    private static final int SIZE = ChunkedTileStorage.CHUNK_SIZE;
+
+    private static final int WATER = PackedTile.pack(MapTileFillType.WATER, MapTileGeometryType.EMPTY,
+        Direction.NORTH, MapTileMaterial.STONE, 1);
+    private static final int WALL = PackedTile.pack(MapTileFillType.AIR, MapTileGeometryType.FULL,
+        Direction.EAST, MapTileMaterial.WALL, 2);
+
+    @Test
+    public void storesTilesAcrossChunkBoundaries() {
+        ChunkedTileStorage storage = new ChunkedTileStorage();
+        storage.set(0, 0, 0, WALL);
+        storage.set(-1, -1, -1, WATER);
+        storage.set(SIZE, 5, -SIZE - 1, WALL);
+
+        assertEquals(WALL, storage.get(0, 0, 0));
+        assertEquals(WATER, storage.get(-1, -1, -1));
+        assertEquals(WALL, storage.get(SIZE, 5, -SIZE - 1));
+        assertEquals(PackedTile.NONE, storage.get(1, 0, 0));
+        assertEquals(PackedTile.NONE, storage.get(SIZE * 10, 0, 0));
+        assertEquals(3, storage.size());
+        assertEquals(3, storage.getChunkCount());
+    }
+
+    @Test
+    public void keepsCountsUpToDate() {
+        ChunkedTileStorage storage = new ChunkedTileStorage();
+        storage.set(1, 2, 3, WALL);
+        storage.set(4, 5, 6, WATER);
+        assertEquals(1, storage.count(MapTileGeometryType.FULL));
+        assertEquals(1, storage.count(MapTileFillType.WATER));
+
+        // Overwriting moves the tile between buckets without changing the size
+        storage.set(1, 2, 3, WATER);
+        assertEquals(2, storage.size());
+        assertEquals(0, storage.count(MapTileGeometryType.FULL));
+        assertEquals(2, storage.count(MapTileFillType.WATER));
+    }
+
+    @Test
+    public void releasesChunksOnceEmpty() {
+        ChunkedTileStorage storage = new ChunkedTileStorage();
+        storage.set(3, 3, 3, WALL);
+        storage.set(3, 3, 3, PackedTile.NONE);
+        assertEquals(0, storage.size());
+        assertEquals(0, storage.getChunkCount());
+        assertEquals(PackedTile.NONE, storage.get(3, 3, 3));
+
+        // Removing a tile that was never there allocates nothing
+        storage.set(100, 100, 100, PackedTile.NONE);
+        assertEquals(0, storage.getChunkCount());
+    }
+
+    @Test
+    public void putChunkReplacesContentsAndCounts() {
+        ChunkedTileStorage storage = new ChunkedTileStorage();
+        storage.set(0, 0, 0, WALL);
+        storage.set(1, 0, 0, WALL);
+
+        int[] tiles = new int[ChunkedTileStorage.CHUNK_VOLUME];
+        tiles[2] = WATER;
+        storage.putChunk(0, 0, 0, tiles);
+
+        assertEquals(1, storage.size());
+        assertEquals(PackedTile.NONE, storage.get(0, 0, 0));
+        assertEquals(WATER, storage.get(2, 0, 0));
+        assertEquals(0, storage.count(MapTileGeometryType.FULL));
+        assertEquals(1, storage.count(MapTileFillType.WATER));
+
+        // The storage keeps its own copy
+        tiles[2] = WALL;
+        assertEquals(WATER, storage.get(2, 0, 0));
+    }
+
+    @Test
+    public void forEachVisitsEveryTileOnce() {
+        ChunkedTileStorage storage = new ChunkedTileStorage();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            int x = i * 7 - 150, y = i % 5, z = -i * 3;
+            int packed = (i & 1) == 0 ? WALL : WATER;
+            storage.set(x, y, z, packed);
+            expected.put(x + "," + y + "," + z, packed);
+        }
+
+        Map<String, Integer> visited = new HashMap<>();
+        storage.forEach((x, y, z, packed) -> assertNull(visited.put(x + "," + y + "," + z, packed)));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    public void survivesKryoRoundTrip() {
+        ChunkedTileStorage storage = new ChunkedTileStorage();
+        // One chunk written densely, one sparsely
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                for (int z = 0; z < SIZE; z++) {
+                    storage.set(x, y, z, (x + y + z) % 3 == 0 ? WATER : WALL);
+                }
+            }
+        }
+        storage.set(-5, 40, 7, WATER);
+
+        Kryo kryo = new Kryo();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Output output = new Output(bytes)) {
+            storage.write(kryo, output);
+        }
+        ChunkedTileStorage copy = new ChunkedTileStorage();
+        copy.set(1000, 0, 0, WALL); // replaced by read
+        try (Input input = new Input(bytes.toByteArray())) {
+            copy.read(kryo, input);
+        }
+
+        assertEquals(storage.size(), copy.size());
+        assertEquals(storage.getChunkCount(), copy.getChunkCount());
+        assertEquals(storage.count(MapTileFillType.WATER), copy.count(MapTileFillType.WATER));
+        assertEquals(storage.count(MapTileGeometryType.FULL), copy.count(MapTileGeometryType.FULL));
+        assertEquals(PackedTile.NONE, copy.get(1000, 0, 0));
+        storage.forEach((x, y, z, packed) -> assertEquals(packed, copy.get(x, y, z)));
+    }
+}
@@ -0,0 +1,146 @@
+package curly.octo.common.map.storage;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import curly.octo.common.map.GameMap;
+import curly.octo.common.map.enums.Direction;
+import curly.octo.common.map.enums.MapTileFillType;
+import curly.octo.common.map.enums.MapTileGeometryType;
+import curly.octo.common.map.enums.MapTileMaterial;
+import curly.octo.common.map.hints.LightHint;
+import curly.octo.common.map.hints.MapHint;
+import curly.octo.common.map.hints.SpawnPointHint;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MapWireFormatTest {
+
+    @Test
+    public void roundTripsTilesTemplatesAndHints() {
+        GameMap map = sampleMap("seed-1");
+
+        GameMap copy = read(write(map));
+
+        assertEquals("seed-1", copy.getMapId());
+        assertEquals(map.getTemplateNameCount(), copy.getTemplateNameCount());
+        for (int id = 0; id < map.getTemplateNameCount(); id++) {
+            assertEquals(map.getTemplateName(id), copy.getTemplateName(id));
+        }
+
+        assertEquals(map.getTileCount(), copy.getTileCount());
+        map.forEachPackedTile((x, y, z, packed) -> assertEquals(packed, copy.getPackedTile(x, y, z)));
+
+        ArrayList<MapHint> spawns = copy.getAllHintsOfType(SpawnPointHint.class);
+        assertEquals(1, spawns.size());
+        assertEquals(GameMap.packTileKey(2, 0, 2), (long) spawns.get(0).tileLookupKey);
+
+        ArrayList<MapHint> lights = copy.getAllHintsOfType(LightHint.class);
+        assertEquals(2, lights.size());
+        for (MapHint hint : lights) {
+            LightHint light = (LightHint) hint;
+            if (light.tileLookupKey == GameMap.packTileKey(-3, 1, 4)) {
+                assertEquals("light-a", light.entityId);
+                assertEquals(2.5f, light.intensity, 0f);
+                assertEquals(0.25f, light.color_g, 0f);
+                assertArrayEquals(new float[]{1f, 0.5f, 0.75f}, light.flicker, 0f);
+            } else {
+                assertEquals(GameMap.packTileKey(20, 3, -17), (long) light.tileLookupKey);
+                assertEquals("light-b", light.entityId);
+                assertNull(light.flicker);
+            }
+        }
+    }
+
+    @Test
+    public void contentLengthLeavesOutTheIdentitySection() {
+        byte[] first = write(sampleMap("seed-1"));
+        byte[] second = write(sampleMap("a-much-longer-map-id"));
+
+        int firstContent = MapWireFormat.contentLength(first, 0, first.length);
+        int secondContent = MapWireFormat.contentLength(second, 0, second.length);
+        assertEquals(firstContent, secondContent);
+        assertArrayEquals(Arrays.copyOf(first, firstContent), Arrays.copyOf(second, secondContent));
+
+        // Also works on a map at an offset inside a larger buffer
+        byte[] padded = new byte[first.length + 10];
+        System.arraycopy(first, 0, padded, 3, first.length);
+        assertEquals(firstContent, MapWireFormat.contentLength(padded, 3, first.length));
+    }
+
+    @Test
+    public void keepsEmptyMapsEmpty() {
+        GameMap copy = read(write(new GameMap(new ChunkedTileStorage())));
+        assertEquals(0, copy.getTileCount());
+        assertNull(copy.getMapId());
+    }
+
+    @Test(expected = KryoException.class)
+    public void rejectsStreamsWithoutTheMagic() {
+        byte[] data = write(sampleMap("seed-1"));
+        data[0] ^= 0x7F;
+        read(data);
+    }
+
+    @Test(expected = KryoException.class)
+    public void rejectsOtherVersions() {
+        byte[] data = write(sampleMap("seed-1"));
+        data[4] = (byte) (MapWireFormat.VERSION + 1);
+        read(data);
+    }
+
+    private static GameMap sampleMap(String mapId) {
+        GameMap map = new GameMap(new ChunkedTileStorage());
+        map.setMapId(mapId);
+        int floor = map.internTemplateName("floor");
+        int wall = map.internTemplateName("wall");
+
+        // A solid floor spanning several chunks, including negative coordinates
+        for (int x = -20; x < 20; x++) {
+            for (int z = -20; z < 20; z++) {
+                map.setPackedTile(x, 0, z, PackedTile.pack(MapTileFillType.AIR, MapTileGeometryType.FULL,
+                    Direction.NORTH, MapTileMaterial.STONE, floor));
+            }
+        }
+        map.setPackedTile(5, 1, 5, PackedTile.pack(MapTileFillType.WATER, MapTileGeometryType.EMPTY,
+            Direction.NORTH, MapTileMaterial.STONE, floor));
+        map.setPackedTile(6, 1, 5, PackedTile.pack(MapTileFillType.AIR, MapTileGeometryType.STAIR,
+            Direction.WEST, MapTileMaterial.WALL, wall));
+        map.setPackedTile(40, 33, -50, PackedTile.defaultTile(wall));
+
+        map.registerHint(new SpawnPointHint(GameMap.packTileKey(2, 0, 2)));
+        LightHint lightA = new LightHint(GameMap.packTileKey(-3, 1, 4));
+        lightA.entityId = "light-a";
+        lightA.intensity = 2.5f;
+        lightA.color_r = 1f;
+        lightA.color_g = 0.25f;
+        lightA.color_b = 0.5f;
+        lightA.flicker = new float[]{1f, 0.5f, 0.75f};
+        map.registerHint(lightA);
+        LightHint lightB = new LightHint(GameMap.packTileKey(20, 3, -17));
+        lightB.entityId = "light-b";
+        map.registerHint(lightB);
+        return map;
+    }
+
+    private static byte[] write(GameMap map) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Output output = new Output(bytes)) {
+            MapWireFormat.write(map, output);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static GameMap read(byte[] data) {
+        try (Input input = new Input(data)) {
+            return MapWireFormat.read(input);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package curly.octo.common.network;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Adler32;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MapTransferCompressionTest {
+
+    @Test
+    public void noneLeavesDataAlone() throws IOException {
+        byte[] data = payload(1000, 1);
+        assertSame(data, MapTransferCompression.compress(data, MapTransferCompression.NONE));
+        assertArrayEquals(data, decode(data, MapTransferCompression.NONE, data.length, 7));
+    }
+
+    @Test
+    public void deflateRoundTripsInOneFeed() throws IOException {
+        byte[] data = payload(50_000, 2);
+        byte[] compressed = MapTransferCompression.compress(data, MapTransferCompression.DEFLATE);
+        assertTrue("Repetitive payload should shrink", compressed.length < data.length);
+        assertArrayEquals(data, decode(compressed, MapTransferCompression.DEFLATE, data.length, compressed.length));
+    }
+
+    @Test
+    public void deflateRoundTripsInSmallChunks() throws IOException {
+        byte[] data = payload(50_000, 3);
+        byte[] compressed = MapTransferCompression.compress(data, MapTransferCompression.DEFLATE);
+        for (int chunkSize : new int[]{1, 13, 512, 8192}) {
+            assertArrayEquals(data, decode(compressed, MapTransferCompression.DEFLATE, data.length, chunkSize));
+        }
+    }
+
+    @Test
+    public void deflateRoundTripsIncompressibleAndEmptyData() throws IOException {
+        byte[] noise = new byte[20_000];
+        new Random(4).nextBytes(noise);
+        byte[] compressed = MapTransferCompression.compress(noise, MapTransferCompression.DEFLATE);
+        assertArrayEquals(noise, decode(compressed, MapTransferCompression.DEFLATE, noise.length, 100));
+
+        byte[] empty = MapTransferCompression.compress(new byte[0], MapTransferCompression.DEFLATE);
+        assertEquals(0, decode(empty, MapTransferCompression.DEFLATE, 0, 100).length);
+    }
+
+    @Test
+    public void decoderRejectsStreamsLargerThanAnnounced() {
+        byte[] data = payload(5000, 5);
+        byte[] compressed = MapTransferCompression.compress(data, MapTransferCompression.DEFLATE);
+        assertDecodeFails(compressed, MapTransferCompression.DEFLATE, data.length - 1);
+        assertDecodeFails(data, MapTransferCompression.NONE, data.length - 1);
+    }
+
+    @Test
+    public void decoderRejectsTruncatedStreams() {
+        byte[] data = payload(5000, 6);
+        byte[] compressed = MapTransferCompression.compress(data, MapTransferCompression.DEFLATE);
+        assertDecodeFails(Arrays.copyOf(compressed, compressed.length - 5), MapTransferCompression.DEFLATE, data.length);
+        assertDecodeFails(Arrays.copyOf(data, data.length - 1), MapTransferCompression.NONE, data.length);
+    }
+
+    @Test
+    public void decoderRejectsCorruptStreams() {
+        byte[] data = payload(5000, 7);
+        byte[] compressed = MapTransferCompression.compress(data, MapTransferCompression.DEFLATE);
+        // Flip a bit in the Adler-32 trailer
+        compressed[compressed.length - 1] ^= 1;
+        assertDecodeFails(compressed, MapTransferCompression.DEFLATE, data.length);
+    }
+
+    @Test
+    public void prefixAndTailDecodeAsOneStream() throws IOException {
+        byte[] data = payload(60_000, 8);
+        for (int split : new int[]{0, 1, 20_000, 59_999, 60_000}) {
+            for (int codec : new int[]{MapTransferCompression.NONE, MapTransferCompression.DEFLATE}) {
+                MapTransferCompression.Prefix prefix = MapTransferCompression.compressPrefix(data, 0, split, codec);
+                assertEquals(split, prefix.getLength());
+                assertEquals(codec, prefix.getCodec());
+
+                byte[] stream = MapTransferCompression.compress(prefix, data, split, data.length - split);
+                assertArrayEquals("split at " + split, data,
+                    decode(stream, codec, data.length, 777));
+            }
+        }
+    }
+
+    @Test
+    public void prefixCanBeFinishedWithDifferentTails() throws IOException {
+        byte[] head = payload(30_000, 9);
+        MapTransferCompression.Prefix prefix = MapTransferCompression.compressPrefix(head, 0, head.length,
+            MapTransferCompression.DEFLATE);
+
+        byte[] firstHead = null;
+        for (long seed = 10; seed < 13; seed++) {
+            byte[] tail = payload(1000 + (int) seed * 300, seed);
+            byte[] stream = MapTransferCompression.compress(prefix, tail, 0, tail.length);
+
+            // Streams from the same prefix all start with the same bytes
+            byte[] encodedHead = Arrays.copyOf(stream, prefix.getEncodedLength());
+            if (firstHead == null) {
+                firstHead = encodedHead;
+            } else {
+                assertArrayEquals(firstHead, encodedHead);
+            }
+
+            byte[] whole = Arrays.copyOf(head, head.length + tail.length);
+            System.arraycopy(tail, 0, whole, head.length, tail.length);
+            assertArrayEquals(whole, decode(stream, MapTransferCompression.DEFLATE, whole.length, 4096));
+        }
+    }
+
+    @Test
+    public void prefixedStreamCarriesTheAdlerOfTheWholePayload() {
+        // Lengths around the Adler-32 modulus exercise the combine's wrap-around
+        for (int split : new int[]{1, 65_520, 65_521, 65_522, 200_000}) {
+            byte[] data = new byte[split + 70_000];
+            new Random(split).nextBytes(data);
+            MapTransferCompression.Prefix prefix = MapTransferCompression.compressPrefix(data, 0, split,
+                MapTransferCompression.DEFLATE);
+            byte[] stream = MapTransferCompression.compress(prefix, data, split, data.length - split);
+
+            Adler32 expected = new Adler32();
+            expected.update(data, 0, data.length);
+            long trailer = (stream[stream.length - 4] & 0xFFL) << 24 | (stream[stream.length - 3] & 0xFFL) << 16 |
+                (stream[stream.length - 2] & 0xFFL) << 8 | (stream[stream.length - 1] & 0xFFL);
+            assertEquals("split at " + split, expected.getValue(), trailer);
+        }
+    }
+
+    @Test
+    public void prefixAtAnOffsetEncodesOnlyItsRange() throws IOException {
+        byte[] data = payload(10_000, 14);
+        MapTransferCompression.Prefix prefix = MapTransferCompression.compressPrefix(data, 2000, 5000,
+            MapTransferCompression.DEFLATE);
+        byte[] stream = MapTransferCompression.compress(prefix, data, 7000, 3000);
+        assertArrayEquals(Arrays.copyOfRange(data, 2000, 10_000),
+            decode(stream, MapTransferCompression.DEFLATE, 8000, 512));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownCodecs() {
+        MapTransferCompression.compress(new byte[10], 99);
+    }
+
+    /**
+     * @return Somewhat repetitive bytes, like a serialized map
+     */
+    static byte[] payload(int length, long seed) {
+        Random random = new Random(seed);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (random.nextInt(8) == 0 ? random.nextInt(256) : i / 64);
+        }
+        return data;
+    }
+
+    static byte[] decode(byte[] stream, int codec, int uncompressedSize, int chunkSize) throws IOException {
+        MapTransferCompression.Decoder decoder = new MapTransferCompression.Decoder(codec, uncompressedSize);
+        for (int offset = 0; offset < stream.length; offset += chunkSize) {
+            decoder.feed(stream, offset, Math.min(chunkSize, stream.length - offset));
+        }
+        return decoder.finish();
+    }
+
+    private static void assertDecodeFails(byte[] stream, int codec, int uncompressedSize) {
+        try {
+            decode(stream, codec, uncompressedSize, 1000);
+            fail("Expected the stream to be rejected");
+        } catch (IOException expected) {
+            // Rejected as expected
+        }
+    }
+}
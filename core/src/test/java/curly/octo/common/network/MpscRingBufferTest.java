@@ -0,0 +1,120 @@
+package curly.octo.common.network;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MpscRingBufferTest {
+
+    @Test
+    public void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(8, new MpscRingBuffer<String>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<String>(8).capacity());
+        assertEquals(1024, new MpscRingBuffer<String>(1000).capacity());
+    }
+
+    @Test
+    public void pollsInOfferOrder() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        assertNull(buffer.poll());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertEquals(5, buffer.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void refusesOffersWhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(99));
+
+        assertEquals(Integer.valueOf(0), buffer.poll());
+        assertTrue(buffer.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+    }
+
+    @Test
+    public void wrapsAroundManyTimes() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(buffer.offer(i));
+            if (i % 3 == 2) {
+                assertTrue(buffer.offer(-i));
+                assertEquals(Integer.valueOf(i), buffer.poll());
+                assertEquals(Integer.valueOf(-i), buffer.poll());
+            } else {
+                assertEquals(Integer.valueOf(i), buffer.poll());
+            }
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNull() {
+        new MpscRingBuffer<String>(4).offer(null);
+    }
+
+    @Test(timeout = 30_000)
+    public void deliversEveryElementFromConcurrentProducersInTheirOrder() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 100_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            }, "MpscRingBufferTest-producer-" + p);
+            threads[p].start();
+        }
+        start.countDown();
+
+        int[] next = new int[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) element[0];
+            assertEquals("producer " + producer, next[producer], element[1]);
+            next[producer]++;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, next[p]);
+        }
+    }
+}
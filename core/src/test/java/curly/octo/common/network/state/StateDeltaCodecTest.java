@@ -0,0 +1,148 @@
+package curly.octo.common.network.state;
+
+import com.badlogic.gdx.math.Vector3;
+import com.esotericsoftware.kryo.KryoException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StateDeltaCodecTest {
+
+    private static final StateQuantizer QUANTIZER =
+        StateQuantizer.forBounds(new Vector3(-100, -10, -100), new Vector3(400, 50, 300));
+
+    @Test
+    public void roundTripsFullSnapshots() {
+        EntityStateSnapshot snapshot = snapshot(1,
+            entity(3, "alpha", 10.5f, 2f, -40f, 90f, 0f),
+            entity(7, "beta", 399f, 49f, 299f, 359.9f, -89f),
+            entity(250, "gamma", -100f, -10f, -100f, 0f, 90f));
+
+        EntityStateSnapshot decoded = StateDeltaCodec.decode(1, StateDeltaCodec.encode(snapshot, null), null);
+
+        assertEquals(QUANTIZER, decoded.quantizer);
+        assertSameState(snapshot, decoded);
+    }
+
+    @Test
+    public void roundTripsEmptySnapshots() {
+        EntityStateSnapshot empty = snapshot(1);
+        assertSameState(empty, StateDeltaCodec.decode(1, StateDeltaCodec.encode(empty, null), null));
+
+        EntityStateSnapshot baseline = snapshot(2, entity(1, "alpha", 0f, 0f, 0f, 0f, 0f));
+        EntityStateSnapshot decoded = StateDeltaCodec.decode(3, StateDeltaCodec.encode(empty, baseline), baseline);
+        assertEquals(0, decoded.size());
+    }
+
+    @Test
+    public void deltasAddChangeKeepAndRemoveEntities() {
+        EntityStateSnapshot baseline = snapshot(1,
+            entity(1, "kept", 5f, 5f, 5f, 45f, 10f),
+            entity(2, "removed", 6f, 6f, 6f, 0f, 0f),
+            entity(4, "nudged", 7f, 7f, 7f, 180f, 0f),
+            entity(9, "teleported", 0f, 0f, 0f, 0f, 0f));
+        EntityStateSnapshot current = snapshot(2,
+            entity(1, "kept", 5f, 5f, 5f, 45f, 10f),
+            entity(3, "added", 1f, 2f, 3f, 4f, 5f),
+            entity(4, "nudged", 7.1f, 7f, 6.9f, 181f, 0f),
+            entity(9, "teleported", 350f, 40f, 250f, 270f, -60f),
+            entity(12, "also added", 8f, 8f, 8f, 8f, 8f));
+
+        byte[] delta = StateDeltaCodec.encode(current, baseline);
+        EntityStateSnapshot decoded = StateDeltaCodec.decode(2, delta, baseline);
+
+        assertSameState(current, decoded);
+        assertEquals(2, decoded.sequence);
+    }
+
+    @Test
+    public void yawWrappingPastZeroStaysASmallDelta() {
+        EntityStateSnapshot baseline = snapshot(1, entity(1, "spinner", 0f, 0f, 0f, 359.9f, 0f));
+        EntityStateSnapshot current = snapshot(2, entity(1, "spinner", 0f, 0f, 0f, 0.1f, 0f));
+        EntityStateSnapshot decoded = StateDeltaCodec.decode(2, StateDeltaCodec.encode(current, baseline), baseline);
+        assertSameState(current, decoded);
+
+        // A half turn has to be sent at full width
+        EntityStateSnapshot halfTurn = snapshot(2, entity(1, "spinner", 0f, 0f, 0f, 180f, 0f));
+        assertTrue(StateDeltaCodec.encode(current, baseline).length < StateDeltaCodec.encode(halfTurn, baseline).length);
+    }
+
+    @Test
+    public void unchangedSnapshotsEncodeToAlmostNothing() {
+        EntityStateSnapshot baseline = snapshot(1,
+            entity(1, "alpha", 1f, 2f, 3f, 4f, 5f),
+            entity(2, "beta", 6f, 7f, 8f, 9f, 10f));
+        EntityStateSnapshot current = snapshot(2,
+            entity(1, "alpha", 1f, 2f, 3f, 4f, 5f),
+            entity(2, "beta", 6f, 7f, 8f, 9f, 10f));
+
+        // Just the full bit and two empty counts
+        byte[] delta = StateDeltaCodec.encode(current, baseline);
+        assertEquals(2, delta.length);
+        assertTrue(delta.length < StateDeltaCodec.encode(current, null).length);
+        assertSameState(current, StateDeltaCodec.decode(2, delta, baseline));
+    }
+
+    @Test(expected = KryoException.class)
+    public void rejectsDeltasWithoutTheirBaseline() {
+        EntityStateSnapshot baseline = snapshot(1, entity(1, "alpha", 1f, 2f, 3f, 4f, 5f));
+        EntityStateSnapshot current = snapshot(2, entity(1, "alpha", 2f, 2f, 3f, 4f, 5f));
+        StateDeltaCodec.decode(2, StateDeltaCodec.encode(current, baseline), null);
+    }
+
+    @Test(expected = KryoException.class)
+    public void rejectsDeltasAgainstTheWrongBaseline() {
+        EntityStateSnapshot baseline = snapshot(1, entity(1, "alpha", 1f, 2f, 3f, 4f, 5f));
+        EntityStateSnapshot current = snapshot(2, entity(1, "alpha", 2f, 2f, 3f, 4f, 5f));
+        EntityStateSnapshot other = snapshot(1, entity(5, "other", 1f, 2f, 3f, 4f, 5f));
+        StateDeltaCodec.decode(2, StateDeltaCodec.encode(current, baseline), other);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesBaselinesFromAnotherQuantizer() {
+        StateQuantizer other = StateQuantizer.forBounds(new Vector3(0, 0, 0), new Vector3(10, 10, 10));
+        EntityStateSnapshot baseline = new EntityStateSnapshot(1, other, new int[0], new String[0], new int[0]);
+        StateDeltaCodec.encode(snapshot(2), baseline);
+    }
+
+    @Test
+    public void quantizerSurvivesFullSnapshots() {
+        StateQuantizer small = StateQuantizer.forBounds(new Vector3(-2, 0, -2), new Vector3(2, 1, 2));
+        EntityStateSnapshot snapshot = new EntityStateSnapshot(1, small, new int[0], new String[0], new int[0]);
+        EntityStateSnapshot decoded = StateDeltaCodec.decode(1, StateDeltaCodec.encode(snapshot, null), null);
+        assertEquals(small, decoded.quantizer);
+        assertEquals(small.getId(), decoded.quantizer.getId());
+    }
+
+    private static Object[] entity(int handle, String id, float x, float y, float z, float yaw, float pitch) {
+        return new Object[]{handle, id, new float[]{x, y, z, yaw, pitch}};
+    }
+
+    private static EntityStateSnapshot snapshot(int sequence, Object[]... entities) {
+        int[] handles = new int[entities.length];
+        String[] ids = new String[entities.length];
+        int[] values = new int[entities.length * StateQuantizer.FIELD_COUNT];
+        for (int i = 0; i < entities.length; i++) {
+            handles[i] = (Integer) entities[i][0];
+            ids[i] = (String) entities[i][1];
+            float[] state = (float[]) entities[i][2];
+            for (int field = 0; field < StateQuantizer.FIELD_COUNT; field++) {
+                values[i * StateQuantizer.FIELD_COUNT + field] = QUANTIZER.quantize(field, state[field]);
+            }
+        }
+        return new EntityStateSnapshot(sequence, QUANTIZER, handles, ids, values);
+    }
+
+    private static void assertSameState(EntityStateSnapshot expected, EntityStateSnapshot actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getHandle(i), actual.getHandle(i));
+            assertEquals(expected.getEntityId(i), actual.getEntityId(i));
+            for (int field = 0; field < StateQuantizer.FIELD_COUNT; field++) {
+                assertEquals("entity " + expected.getHandle(i) + " field " + field,
+                    expected.getValue(i, field), actual.getValue(i, field));
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package curly.octo.server.spatial;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import curly.octo.common.GameObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SpatialGridTest {
+
+    private static final int CELL_TILES = 4;
+
+    @Test
+    public void radiusAndBoxQueriesMatchALinearScan() {
+        Random random = new Random(1);
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_TILES);
+        List<Point> points = randomPoints(random, 300, 200f);
+        points.forEach(grid::update);
+
+        Array<Point> found = new Array<>();
+        for (int query = 0; query < 50; query++) {
+            Vector3 center = randomPosition(random, 220f);
+            float radius = random.nextFloat() * 60f;
+            grid.queryRadius(center, radius, found);
+            assertEquals(withinRadius(points, center, radius), asSet(found));
+
+            Vector3 min = randomPosition(random, 220f);
+            Vector3 max = min.cpy().add(random.nextFloat() * 80f, random.nextFloat() * 80f, random.nextFloat() * 80f);
+            grid.queryBox(min, max, found);
+            assertEquals(withinBox(points, min, max), asSet(found));
+        }
+    }
+
+    @Test
+    public void largeQueriesScanOccupiedCellsInstead() {
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_TILES);
+        List<Point> points = randomPoints(new Random(2), 20, 50f);
+        points.forEach(grid::update);
+
+        Array<Point> found = new Array<>();
+        grid.queryRadius(new Vector3(), 100_000f, found);
+        assertEquals(new HashSet<>(points), asSet(found));
+    }
+
+    @Test
+    public void nearestQueriesMatchALinearScan() {
+        Random random = new Random(3);
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_TILES);
+        List<Point> points = randomPoints(random, 200, 300f);
+        points.forEach(grid::update);
+
+        Array<Point> found = new Array<>();
+        for (int query = 0; query < 50; query++) {
+            Vector3 center = randomPosition(random, 400f);
+            int k = 1 + random.nextInt(6);
+            float maxRadius = query % 2 == 0 ? Float.POSITIVE_INFINITY : random.nextFloat() * 150f;
+
+            List<Point> expected = new ArrayList<>(withinRadius(points, center, maxRadius));
+            expected.sort(Comparator.comparingDouble(point -> point.getPosition().dst2(center)));
+            expected = expected.subList(0, Math.min(k, expected.size()));
+
+            grid.queryNearest(center, k, maxRadius, found);
+            assertEquals(expected.size(), found.size);
+            for (int i = 0; i < found.size; i++) {
+                // Ties may come back in either order, distances may not
+                assertEquals(expected.get(i).getPosition().dst2(center), found.get(i).getPosition().dst2(center), 1e-3f);
+            }
+        }
+    }
+
+    @Test
+    public void nearestOnAnEmptyGridFindsNothing() {
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_TILES);
+        Array<Point> found = new Array<>();
+        assertEquals(0, grid.queryNearest(new Vector3(), 3, Float.POSITIVE_INFINITY, found));
+    }
+
+    @Test
+    public void updatesFollowObjectsAcrossCells() {
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_TILES);
+        Point point = new Point("mover", 1f, 1f, 1f);
+        grid.update(point);
+
+        point.setPosition(new Vector3(500f, -30f, 250f));
+        grid.update(point);
+        assertEquals(1, grid.size());
+
+        Array<Point> found = new Array<>();
+        assertEquals(0, grid.queryRadius(new Vector3(1f, 1f, 1f), 5f, found));
+        assertEquals(1, grid.queryRadius(new Vector3(500f, -30f, 250f), 1f, found));
+        assertSame(point, found.get(0));
+    }
+
+    @Test
+    public void queriesUseThePositionAsOfTheLastUpdate() {
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_TILES);
+        Point point = new Point("stale", 0f, 0f, 0f);
+        grid.update(point);
+        point.setPosition(new Vector3(100f, 0f, 0f));
+
+        Array<Point> found = new Array<>();
+        assertEquals(1, grid.queryRadius(new Vector3(), 1f, found));
+    }
+
+    @Test
+    public void syncAddsMovesAndDropsObjects() {
+        Random random = new Random(4);
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_TILES);
+        List<Point> points = randomPoints(random, 100, 100f);
+        grid.sync(points);
+        assertEquals(100, grid.size());
+
+        // Drop every third point, move the rest and add a few
+        List<Point> next = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            if (i % 3 != 0) {
+                Point point = points.get(i);
+                point.setPosition(randomPosition(random, 100f));
+                next.add(point);
+            }
+        }
+        next.addAll(randomPoints(random, 10, 100f));
+        grid.sync(next);
+        assertEquals(next.size(), grid.size());
+
+        Array<Point> found = new Array<>();
+        grid.queryRadius(new Vector3(), 1000f, found);
+        assertEquals(new HashSet<>(next), asSet(found));
+    }
+
+    @Test
+    public void removeAndClearForgetObjects() {
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_TILES);
+        List<Point> points = randomPoints(new Random(5), 30, 40f);
+        points.forEach(grid::update);
+
+        for (int i = 0; i < 10; i++) {
+            grid.remove(points.get(i));
+        }
+        grid.remove(points.get(0)); // Already gone
+        assertEquals(20, grid.size());
+
+        Array<Point> found = new Array<>();
+        grid.queryRadius(new Vector3(), 1000f, found);
+        assertEquals(new HashSet<>(points.subList(10, 30)), asSet(found));
+
+        grid.clear();
+        assertEquals(0, grid.size());
+        assertEquals(0, grid.queryRadius(new Vector3(), 1000f, found));
+
+        // Recycled cells work like new ones
+        points.forEach(grid::update);
+        assertEquals(30, grid.queryRadius(new Vector3(), 1000f, found));
+    }
+
+    private static List<Point> randomPoints(Random random, int count, float extent) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Vector3 position = randomPosition(random, extent);
+            points.add(new Point("point-" + i, position.x, position.y, position.z));
+        }
+        return points;
+    }
+
+    private static Vector3 randomPosition(Random random, float extent) {
+        return new Vector3((random.nextFloat() * 2f - 1f) * extent, (random.nextFloat() * 2f - 1f) * extent / 4f,
+            (random.nextFloat() * 2f - 1f) * extent);
+    }
+
+    private static Set<Point> withinRadius(List<Point> points, Vector3 center, float radius) {
+        Set<Point> result = new HashSet<>();
+        for (Point point : points) {
+            if (point.getPosition().dst2(center) <= radius * radius) {
+                result.add(point);
+            }
+        }
+        return result;
+    }
+
+    private static Set<Point> withinBox(List<Point> points, Vector3 min, Vector3 max) {
+        Set<Point> result = new HashSet<>();
+        for (Point point : points) {
+            Vector3 p = point.getPosition();
+            if (p.x >= min.x && p.x <= max.x && p.y >= min.y && p.y <= max.y && p.z >= min.z && p.z <= max.z) {
+                result.add(point);
+            }
+        }
+        return result;
+    }
+
+    private static Set<Point> asSet(Array<Point> found) {
+        Set<Point> result = new HashSet<>();
+        for (Point point : found) {
+            result.add(point);
+        }
+        assertEquals("Objects must not be reported twice", found.size, result.size());
+        return result;
+    }
+
+    private static final class Point extends GameObject {
+        Point(String id, float x, float y, float z) {
+            super(id);
+            position.set(x, y, z);
+        }
+
+        @Override
+        public void update(float delta) {
+        }
+    }
+}
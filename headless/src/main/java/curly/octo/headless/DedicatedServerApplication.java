@@ -0,0 +1,68 @@
+package curly.octo.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.Constants;
+import curly.octo.server.DedicatedServer;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a multi-match DedicatedServer on its own tick thread for the lifetime of the headless application.
+ * Matches are started as clients arrive and tick in parallel on one worker per core.
+ * The server is stopped when the application exits or the process is shut down (e.g. SIGTERM).
+ */
+public class DedicatedServerApplication extends ApplicationAdapter {
+
+    private final DedicatedServer server = new DedicatedServer(new Random(), Constants.SERVER_MAX_MATCHES,
+        Constants.SERVER_MATCH_MAX_PLAYERS, Runtime.getRuntime().availableProcessors());
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private Thread serverThread;
+
+    @Override
+    public void create() {
+        try {
+            server.start();
+        } catch (IOException e) {
+            Log.error("DedicatedServerApplication", "Failed to start server: " + e.getMessage());
+            e.printStackTrace();
+            Gdx.app.exit();
+            return;
+        }
+
+        running.set(true);
+        serverThread = new Thread(() -> {
+            server.runTicks(running::get);
+            Log.info("DedicatedServerApplication", "Server thread exiting");
+        }, "ServerUpdateThread");
+        serverThread.setDaemon(false);
+        serverThread.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "ServerShutdown"));
+        Log.info("DedicatedServerApplication", "Dedicated server running");
+    }
+
+    @Override
+    public void dispose() {
+        shutdown();
+    }
+
+    private void shutdown() {
+        if (!running.getAndSet(false)) {
+            return;
+        }
+        Log.info("DedicatedServerApplication", "Shutting down dedicated server...");
+        if (serverThread != null) {
+            serverThread.interrupt();
+            try {
+                serverThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        server.stop();
+    }
+}
@@ -0,0 +1,29 @@
+package curly.octo.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.esotericsoftware.minlog.Log;
+import curly.octo.common.DualLogger;
+
+/** Launches a dedicated server with no window, GL context or local client. */
+public class HeadlessLauncher {
+
+    public static void main(String[] args) {
+        DualLogger logger = new DualLogger("server.log");
+        Log.setLogger(logger);
+        Log.info("HeadlessLauncher", "File logging enabled: logs/server.log");
+
+        createApplication();
+    }
+
+    private static HeadlessApplication createApplication() {
+        return new HeadlessApplication(new DedicatedServerApplication(), getDefaultConfiguration());
+    }
+
+    private static HeadlessApplicationConfiguration getDefaultConfiguration() {
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        // The server ticks on its own thread; when this is negative render() is never called
+        configuration.updatesPerSecond = -1;
+        return configuration;
+    }
+}